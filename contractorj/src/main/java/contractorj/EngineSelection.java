@@ -0,0 +1,74 @@
+package contractorj;
+
+import contractorj.construction.BoundedExhaustiveEpaGenerator;
+import contractorj.construction.EpaGenerator;
+import contractorj.construction.LazyEpaGenerator;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Supplier;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+
+/**
+ * The command line options that choose the engine generating the EPA: the lazy one queries the
+ * verifier, the bounded one runs the actions on every object up to a bound.
+ */
+class EngineSelection {
+
+  private enum Engine {
+    LAZY,
+    BOUNDED
+  }
+
+  private Engine engine = Engine.LAZY;
+
+  private int fieldBound = 3;
+
+  void addOptions(final Options options) {
+
+    final Option engineOption =
+        new Option(
+            "e",
+            "engine",
+            true,
+            "lazy: query Corral, bounded: run the actions on every object up to the field bound"
+                + " (default: lazy)");
+    options.addOption(engineOption);
+
+    final Option fieldBoundOption =
+        new Option(
+            "fb", "fieldBound", true, "Bound of field and argument domains (default: 3)");
+    fieldBoundOption.setType(Number.class);
+    options.addOption(fieldBoundOption);
+  }
+
+  void parse(final CommandLine cmd) {
+
+    if (cmd.hasOption("e")) {
+      engine = Engine.valueOf(cmd.getOptionValue("e").toUpperCase());
+    }
+
+    if (cmd.hasOption("fb")) {
+      fieldBound = Integer.valueOf(cmd.getOptionValue("fb"));
+    }
+  }
+
+  /**
+   * @param classPath The directories and jars with the compiled classes, for the bounded engine.
+   * @param lazyEpaGenerator Creates the lazy engine, configured by the rest of the options.
+   */
+  EpaGenerator createEpaGenerator(
+      final Path translation,
+      final int numberOfThreads,
+      final List<File> classPath,
+      final Supplier<LazyEpaGenerator> lazyEpaGenerator) {
+
+    if (engine.equals(Engine.BOUNDED)) {
+      return new BoundedExhaustiveEpaGenerator(translation, numberOfThreads, classPath, fieldBound);
+    }
+
+    return lazyEpaGenerator.get();
+  }
+}
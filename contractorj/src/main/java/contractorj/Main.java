@@ -1,21 +1,43 @@
 package contractorj;
 
+import com.google.common.base.Splitter;
+import contractorj.construction.BoundedExhaustiveEpaGenerator;
 import contractorj.construction.EpaGenerator;
+import contractorj.construction.ExplorationBudget;
 import contractorj.construction.LazyEpaGenerator;
+import contractorj.construction.boogie.ProgramSlicer;
+import contractorj.construction.corral.CorralConfiguration;
+import contractorj.construction.corral.CorralProfile;
 import contractorj.construction.corral.CorralRunner;
+import contractorj.construction.corral.PortfolioRunner;
+import contractorj.construction.corral.QueryResult;
+import contractorj.construction.corral.QueryRunner;
+import contractorj.construction.corral.TuningRunner;
+import contractorj.construction.presolving.QueryPreSolver;
+import contractorj.construction.queries.Answer;
 import contractorj.construction.queries.Query;
+import contractorj.construction.splitting.QuerySplitter;
+import contractorj.construction.summaries.SummaryValidator;
+import contractorj.construction.symbolic.SymbolicRunner;
 import contractorj.model.Epa;
 import contractorj.serialization.DotEpaSerializer;
+import contractorj.serialization.EpaSnapshotWriter;
 import contractorj.serialization.XmlEpaSerializer;
 import contractorj.util.EmbeddedJarsHelper;
 import java.io.File;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryType;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 import jbct.Translator;
+import jbct.library.ModelLibrary;
 import jbct.model.Class;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
@@ -45,17 +67,108 @@ public class Main {
 
   public static boolean globalNecessaryQueriesEnable = false;
 
+  private static ExplorationBudget explorationBudget = ExplorationBudget.unlimited();
+
+  private static Duration snapshotPeriod;
+
+  private static boolean snapshotOnNewState = false;
+
+  private static File lemmaFile;
+
+  private static boolean guardImplicationsEnabled = false;
+
+  private static boolean stateFeasibilityEnabled = false;
+
+  private static boolean frameAnalysisEnabled = false;
+
+  private static boolean frameVerificationEnabled = false;
+
+  private static boolean exceptionAnalysisEnabled = false;
+
+  private static boolean answerSharingEnabled = false;
+
+  private static boolean preSolvingEnabled = false;
+
+  private static int witnessSequences = 0;
+
+  private static int witnessLength = 10;
+
+  private static final EngineSelection engineSelection = new EngineSelection();
+
+  private static boolean symbolicExecutionEnabled = false;
+
+  private static boolean symbolicVerificationEnabled = false;
+
+  private static Duration portfolioThreshold;
+
+  private static List<CorralConfiguration> portfolioConfigurations =
+      CorralConfiguration.getDefaultPortfolio();
+
+  private static File portfolioWinsFile;
+
+  private static File profileFile;
+
+  private static File autotuneFile;
+
+  private static int tuningSamples = 5;
+
+  private static boolean programSlicingEnabled = false;
+
+  private static Duration splitThreshold;
+
+  private static int splitCases = 8;
+
+  private static int translationThreads = Runtime.getRuntime().availableProcessors();
+
+  private static File translationCacheDirectory;
+
+  private static File modelsDirectory;
+
+  private static File summaryFile;
+
+  private static EpaSnapshotWriter.Mode snapshotMode = EpaSnapshotWriter.Mode.REWRITE;
+
   public static void main(String[] args) throws IOException {
 
     parseArguments(args);
 
-    final Translator translator = new Translator();
+    // Closing the translator releases Soot, so Main can run again in the same JVM
+    try (final Translator translator = new Translator()) {
+      run(translator);
+    }
+  }
+
+  private static void run(final Translator translator) throws IOException {
 
     final EmbeddedJarsHelper embeddedJarsHelper = new EmbeddedJarsHelper();
     final File rtJar = embeddedJarsHelper.moveToTemporalFolder("java7-rt.jar");
 
+    translator.setNumberOfThreads(translationThreads);
+
+    if (modelsDirectory != null) {
+      translator.setModelLibrary(ModelLibrary.getBundled().extend(modelsDirectory.toPath()));
+    }
+
+    if (summaryFile != null) {
+      translator.setSummaryFile(summaryFile);
+    }
+
+    // A cached translation has no analyses of the bodies, so it's only used if none is needed
+    if (translationCacheDirectory != null && !usesStaticAnalyses()) {
+      translator.setCacheDirectory(translationCacheDirectory);
+    }
+
+    // Only the class and what it references are translated, the rest of the classpath isn't loaded
+    translator.setTargetClass(className);
     translator.translate(classPath, rtJar, false);
 
+    if (translator.isCachedTranslation()) {
+      System.out.println("Translation loaded from the cache");
+    }
+
+    // The exploration only needs the translation, the signatures and the analyses, not Soot's scene
+    translator.releaseSoot();
+
     final Optional<Class> classToMakeEpa = translator.getTranslatedClass(className);
 
     if (!classToMakeEpa.isPresent()) {
@@ -64,41 +177,469 @@ public class Main {
 
     final CorralRunner corralRunner = new CorralRunner(pathToCorral);
 
-    final EpaGenerator epaEpaGenerator =
-        new LazyEpaGenerator(translator.getTranslation(), numberOfThreads, corralRunner, logFile);
+    if (profileFile != null) {
+      corralRunner.setProfile(CorralProfile.load(profileFile.toPath()));
+    }
+
+    validateSummaries(translator, corralRunner);
+
+    final TuningRunner tuningRunner =
+        new TuningRunner(corralRunner, CorralConfiguration.getTuningGrid(), tuningSamples);
+
+    final Optional<PortfolioRunner> portfolioRunner = createPortfolioRunner(corralRunner);
+    final QueryRunner verifierRunner =
+        autotuneFile != null
+            ? tuningRunner
+            : portfolioRunner.isPresent() ? portfolioRunner.get() : corralRunner;
+
+    final SymbolicRunner symbolicRunner =
+        new SymbolicRunner(translator.getPathSummaryAnalysis(), verifierRunner);
+    symbolicRunner.setVerificationEnabled(symbolicVerificationEnabled);
+
+    final QueryRunner queryRunner = symbolicExecutionEnabled ? symbolicRunner : verifierRunner;
+
+    final EpaGenerator epaGenerator =
+        engineSelection.createEpaGenerator(
+            translator.getTranslationFile(),
+            numberOfThreads,
+            getClassPathEntries(),
+            () -> createLazyEpaGenerator(translator, queryRunner));
+
+    epaGenerator.setBudget(explorationBudget);
+
+    epaGenerator.setProgramSlicingEnabled(programSlicingEnabled);
+
+    if (splitThreshold != null) {
+      epaGenerator.setQuerySplitter(new QuerySplitter(splitThreshold, splitCases));
+    }
+
+    registerSnapshotWriters(epaGenerator);
 
-    final Epa epa = epaEpaGenerator.generateEpa(classToMakeEpa.get(), methodNames);
+    final Epa epa = epaGenerator.generateEpa(classToMakeEpa.get(), methodNames);
 
-    System.out.println("Total running time: " + formatDuration(epaEpaGenerator.getTotalTime()));
+    System.out.println("Total running time: " + formatDuration(epaGenerator.getTotalTime()));
     System.out.println(
-        "Time running queries: " + formatDuration(epaEpaGenerator.getTotalQueryingTime()));
-    System.out.println("Total number of queries: " + epaEpaGenerator.getTotalNumberOfQueries());
+        "Time running queries: " + formatDuration(epaGenerator.getTotalQueryingTime()));
+    System.out.println("Total number of queries: " + epaGenerator.getTotalNumberOfQueries());
+    System.out.println("Peak heap usage: " + getPeakHeapUsage() / (1024 * 1024) + " MB");
 
     System.out.println("Types of queries:");
 
-    for (final java.lang.Class<? extends Query> queryClass : epaEpaGenerator.getQueryClasses()) {
+    for (final java.lang.Class<? extends Query> queryClass : epaGenerator.getQueryClasses()) {
 
       System.out.println("\t" + queryClass.getSimpleName());
 
       System.out.println(
-          "\t\tNumber of queries: " + epaEpaGenerator.getNumberOfQueriesByClass(queryClass));
+          "\t\tNumber of queries: " + epaGenerator.getNumberOfQueriesByClass(queryClass));
 
       System.out.println(
           "\t\tTime running queries: "
-              + formatDuration(epaEpaGenerator.getQueryingTimeByClass(queryClass)));
+              + formatDuration(epaGenerator.getQueryingTimeByClass(queryClass)));
 
       System.out.println(
           "\t\tAverage running time: "
-              + formatDuration(epaEpaGenerator.getAverageQueryingTimeByClass(queryClass)));
+              + formatDuration(epaGenerator.getAverageQueryingTimeByClass(queryClass)));
 
       System.out.println("");
     }
 
+    if (epaGenerator instanceof LazyEpaGenerator) {
+      printLazyStatistics((LazyEpaGenerator) epaGenerator);
+    }
+
+    if (epaGenerator instanceof BoundedExhaustiveEpaGenerator) {
+      printBoundedStatistics((BoundedExhaustiveEpaGenerator) epaGenerator);
+    }
+
+    if (symbolicExecutionEnabled) {
+      printSymbolicStatistics(symbolicRunner);
+    }
+
+    epaGenerator.getQuerySplitter().ifPresent(Main::printSplittingStatistics);
+    epaGenerator.getProgramSlicer().ifPresent(Main::printSlicingStatistics);
+
+    if (portfolioRunner.isPresent()) {
+      printPortfolioStatistics(portfolioRunner.get());
+
+      if (portfolioWinsFile != null) {
+        portfolioRunner.get().getProfile().save(portfolioWinsFile.toPath());
+      }
+    }
+
+    if (autotuneFile != null) {
+      saveTunedProfile(tuningRunner);
+    }
+
+    printFrontierCoverage(epaGenerator, epa);
+
     final DotEpaSerializer dotEpaSerializer = new DotEpaSerializer();
     final XmlEpaSerializer xmlEpaSerializer = new XmlEpaSerializer();
 
-    dotEpaSerializer.serializeToFile(epa, dotOutputFile);
-    xmlEpaSerializer.serializeToFile(epa, xmlOutputFile);
+    dotEpaSerializer.serializeToFileAtomically(epa, dotOutputFile);
+    xmlEpaSerializer.serializeToFileAtomically(epa, xmlOutputFile);
+  }
+
+  /**
+   * In rewrite mode the snapshots replace the dot and xml outputs, in append mode they are appended
+   * to sibling files with the {@code .snapshots} suffix.
+   */
+  private static void registerSnapshotWriters(final EpaGenerator epaGenerator) {
+
+    if (snapshotPeriod == null && !snapshotOnNewState) {
+      return;
+    }
+
+    if (snapshotPeriod != null) {
+      epaGenerator.setSnapshotPeriod(snapshotPeriod);
+    }
+
+    epaGenerator.setSnapshotOnNewState(snapshotOnNewState);
+
+    final boolean append = snapshotMode.equals(EpaSnapshotWriter.Mode.APPEND);
+
+    epaGenerator.addListener(
+        new EpaSnapshotWriter(
+            new DotEpaSerializer(),
+            append ? new File(dotOutputFile.getPath() + ".snapshots") : dotOutputFile,
+            snapshotMode));
+
+    epaGenerator.addListener(
+        new EpaSnapshotWriter(
+            new XmlEpaSerializer(),
+            append ? new File(xmlOutputFile.getPath() + ".snapshots") : xmlOutputFile,
+            snapshotMode));
+  }
+
+  private static LazyEpaGenerator createLazyEpaGenerator(
+      final Translator translator, final QueryRunner queryRunner) {
+
+    final LazyEpaGenerator epaEpaGenerator =
+        new LazyEpaGenerator(
+            translator.getTranslationFile(), numberOfThreads, queryRunner, logFile);
+
+    epaEpaGenerator.setLemmaFile(lemmaFile);
+    epaEpaGenerator.setGuardImplicationsEnabled(guardImplicationsEnabled);
+    epaEpaGenerator.setStateFeasibilityEnabled(stateFeasibilityEnabled);
+    epaEpaGenerator.setFrameVerificationEnabled(frameVerificationEnabled);
+
+    if (frameAnalysisEnabled) {
+      epaEpaGenerator.setFieldAccessAnalysis(translator.getFieldAccessAnalysis());
+    }
+
+    if (exceptionAnalysisEnabled) {
+      epaEpaGenerator.setExceptionAnalysis(translator.getExceptionAnalysis());
+    }
+
+    if (answerSharingEnabled) {
+      epaEpaGenerator.setAnswerSharingAnalysis(translator.getFieldAccessAnalysis());
+    }
+
+    if (witnessSequences > 0) {
+      epaEpaGenerator.setWitnessExploration(
+          getClassPathEntries(), witnessSequences, witnessLength);
+    }
+
+    if (preSolvingEnabled) {
+      epaEpaGenerator.setPreSolvingAnalyses(
+          translator.getReturnValueAnalysis(), translator.getFieldAccessAnalysis());
+    }
+
+    return epaEpaGenerator;
+  }
+
+  private static void printLazyStatistics(final LazyEpaGenerator epaEpaGenerator) {
+
+    epaEpaGenerator
+        .getLemmaStore()
+        .ifPresent(
+            lemmaStore -> {
+              System.out.println(
+                  "Global lemmas computed: " + lemmaStore.getNumberOfComputedLemmas());
+              System.out.println("Global lemmas reused: " + lemmaStore.getNumberOfReusedLemmas());
+              lemmaStore
+                  .getGuardImplications()
+                  .ifPresent(
+                      guardImplications ->
+                          System.out.println(
+                              "Guard implication lemmas: "
+                                  + guardImplications.getNumberOfLemmas()));
+              System.out.println(
+                  "Target states pruned by guard implications: "
+                      + epaEpaGenerator.getNumberOfPrunedTargetStates());
+              System.out.println("");
+            });
+
+    if (frameAnalysisEnabled) {
+      System.out.println(
+          "Necessity queries answered by frame analysis: "
+              + epaEpaGenerator.getNumberOfFramedNecessityQueries());
+
+      if (frameVerificationEnabled) {
+        System.out.println(
+            "Frame analysis mismatches: " + epaEpaGenerator.getNumberOfFrameMismatches());
+      }
+
+      System.out.println("");
+    }
+
+    if (exceptionAnalysisEnabled) {
+      System.out.println(
+          "Exceptional-outcome queries skipped by exception analysis: "
+              + epaEpaGenerator.getNumberOfSkippedExceptionalQueries());
+      System.out.println("");
+    }
+
+    epaEpaGenerator.getQueryPreSolver().ifPresent(Main::printPreSolvedQueries);
+
+    epaEpaGenerator
+        .getWitnessedTransitions()
+        .ifPresent(
+            witnessedTransitions -> {
+              System.out.println(
+                  "Queries answered by concrete witnesses: "
+                      + witnessedTransitions.getNumberOfWitnessedAnswers());
+              System.out.println("");
+            });
+
+    if (answerSharingEnabled) {
+      System.out.println(
+          "Queries answered by equivalent queries from other states: "
+              + epaEpaGenerator.getNumberOfSharedAnswers());
+      System.out.println("");
+    }
+
+    if (stateFeasibilityEnabled) {
+      System.out.println(
+          "Infeasible states discarded: " + epaEpaGenerator.getNumberOfInfeasibleStates());
+      System.out.println("");
+    }
+  }
+
+  private static void printBoundedStatistics(final BoundedExhaustiveEpaGenerator epaGenerator) {
+
+    System.out.println(
+        "The EPA is a bounded under-approximation: fields and arguments ranged over domains of"
+            + " bound "
+            + epaGenerator.getFieldBound());
+    System.out.println("Candidate objects: " + epaGenerator.getNumberOfCandidates());
+    System.out.println(
+        "Candidate objects satisfying the invariant: " + epaGenerator.getNumberOfValidObjects());
+    System.out.println("");
+  }
+
+  /**
+   * The queries only see the summaries of the summarized methods, so the exploration doesn't start
+   * if a body breaks its summary.
+   */
+  private static void validateSummaries(final Translator translator, final QueryRunner runner) {
+
+    final List<String> summarizedMethods = translator.getSummarizedMethods();
+
+    if (summarizedMethods.isEmpty()) {
+      return;
+    }
+
+    final Map<String, QueryResult> results =
+        new SummaryValidator(runner).validate(translator.getTranslationFile(), summarizedMethods);
+
+    System.out.println("Summaries validated: " + results.size());
+
+    results.forEach(
+        (method, result) ->
+            System.out.println(
+                "\t"
+                    + method
+                    + ": "
+                    + (result.equals(QueryResult.NO_BUG)
+                        ? "valid"
+                        : result.equals(QueryResult.TRUE_BUG) ? "invalid" : "unknown")));
+
+    System.out.println("");
+
+    final List<String> invalid =
+        results
+            .entrySet()
+            .stream()
+            .filter(entry -> entry.getValue().equals(QueryResult.TRUE_BUG))
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toList());
+
+    if (!invalid.isEmpty()) {
+      throw new IllegalStateException("The bodies of " + invalid + " break their summaries");
+    }
+  }
+
+  private static Optional<PortfolioRunner> createPortfolioRunner(final CorralRunner corralRunner)
+      throws IOException {
+
+    if (portfolioThreshold == null) {
+      return Optional.empty();
+    }
+
+    final CorralProfile profile =
+        portfolioWinsFile != null
+            ? CorralProfile.load(portfolioWinsFile.toPath())
+            : new CorralProfile();
+
+    return Optional.of(
+        new PortfolioRunner(corralRunner, portfolioConfigurations, portfolioThreshold, profile));
+  }
+
+  /** Adds the tuned configurations to the profile in the autotune file, and prints them. */
+  private static void saveTunedProfile(final TuningRunner tuningRunner) throws IOException {
+
+    final CorralProfile profile = CorralProfile.load(autotuneFile.toPath());
+    final Map<String, CorralConfiguration> tuned = tuningRunner.tune(profile);
+
+    System.out.println("Corral configurations tuned per query class:");
+
+    tuningRunner
+        .getMeasurements()
+        .forEach(
+            (queryClass, measurements) -> {
+              System.out.println("\t" + queryClass + ": " + tuned.get(queryClass));
+
+              measurements.forEach(
+                  (configuration, measurement) ->
+                      System.out.println(
+                          "\t\t"
+                              + configuration
+                              + ": "
+                              + formatDuration(measurement.getRunningTime())
+                              + " in "
+                              + measurement.getSamples()
+                              + " samples, "
+                              + measurement.getDisagreements()
+                              + " different answers, "
+                              + measurement.getRefinements()
+                              + " refined answers"));
+            });
+
+    System.out.println("");
+
+    profile.save(autotuneFile.toPath());
+  }
+
+  private static void printPortfolioStatistics(final PortfolioRunner portfolioRunner) {
+
+    System.out.println("Queries raced by the portfolio: " + portfolioRunner.getNumberOfRaces());
+    System.out.println(
+        "Corral processes killed by the portfolio: "
+            + portfolioRunner.getNumberOfKilledProcesses());
+
+    final CorralProfile profile = portfolioRunner.getProfile();
+
+    for (final String queryClass : profile.getQueryClasses()) {
+
+      System.out.println("\t" + queryClass);
+
+      profile
+          .getWins(queryClass)
+          .forEach(
+              (configuration, wins) ->
+                  System.out.println("\t\t" + configuration + ": " + wins + " wins"));
+    }
+
+    System.out.println("");
+  }
+
+  private static List<File> getClassPathEntries() {
+
+    return Splitter.on(File.pathSeparator)
+        .omitEmptyStrings()
+        .splitToList(classPath)
+        .stream()
+        .map(File::new)
+        .collect(Collectors.toList());
+  }
+
+  /** @return The sum of the peak usages of the heap memory pools, in bytes. */
+  private static long getPeakHeapUsage() {
+
+    return ManagementFactory.getMemoryPoolMXBeans()
+        .stream()
+        .filter(pool -> pool.getType().equals(MemoryType.HEAP))
+        .mapToLong(pool -> pool.getPeakUsage().getUsed())
+        .sum();
+  }
+
+  private static void printSlicingStatistics(final ProgramSlicer programSlicer) {
+
+    System.out.println(
+        "Declarations in the translation: " + programSlicer.getNumberOfDeclarations());
+    System.out.println("Program slices: " + programSlicer.getNumberOfSlices());
+    System.out.println(
+        String.format("Average declarations per slice: %.1f", programSlicer.getAverageSliceSize()));
+    System.out.println("Queries that reused a slice: " + programSlicer.getNumberOfCacheHits());
+    System.out.println("");
+  }
+
+  private static void printSplittingStatistics(final QuerySplitter querySplitter) {
+
+    System.out.println("Queries split in cases: " + querySplitter.getNumberOfSplitQueries());
+    System.out.println("Cases run: " + querySplitter.getNumberOfCases());
+    System.out.println("");
+  }
+
+  private static void printSymbolicStatistics(final SymbolicRunner symbolicRunner) {
+
+    System.out.println(
+        "Queries answered by symbolic execution: " + symbolicRunner.getNumberOfSymbolicAnswers());
+    System.out.println(
+        "Queries passed on to Corral: " + symbolicRunner.getNumberOfFallbackAnswers());
+
+    if (symbolicVerificationEnabled) {
+      System.out.println(
+          "Symbolic answers that differ from Corral's: " + symbolicRunner.getNumberOfMismatches());
+    }
+
+    System.out.println("");
+  }
+
+  private static void printPreSolvedQueries(final QueryPreSolver queryPreSolver) {
+
+    System.out.println("Queries answered without running Corral:");
+
+    for (final java.lang.Class<? extends Query> queryClass : queryPreSolver.getQueryClasses()) {
+
+      System.out.println("\t" + queryClass.getSimpleName());
+
+      for (final Answer answer : Answer.values()) {
+
+        final long decisions = queryPreSolver.getNumberOfDecisions(queryClass, answer);
+
+        if (decisions > 0) {
+          System.out.println("\t\t" + answer + ": " + decisions);
+        }
+      }
+    }
+
+    System.out.println("");
+  }
+
+  private static void printFrontierCoverage(final EpaGenerator epaGenerator, final Epa epa) {
+
+    final Optional<String> exhaustionReason = epaGenerator.getBudgetExhaustionReason();
+
+    if (!exhaustionReason.isPresent()) {
+      return;
+    }
+
+    final int discoveredStates = epa.getStates().size();
+    final int unexploredStates = epa.getUnexploredStates().size();
+    final int exploredStates = discoveredStates - unexploredStates;
+
+    System.out.println("Exploration stopped early: " + exhaustionReason.get());
+    System.out.println(
+        "Explored states: "
+            + exploredStates
+            + " of "
+            + discoveredStates
+            + String.format(
+                " (%.1f%%)",
+                discoveredStates == 0 ? 100F : 100F * exploredStates / discoveredStates));
+    System.out.println("Unexplored frontier states: " + unexploredStates);
+    System.out.println("");
   }
 
   private static void parseArguments(final String[] args) {
@@ -106,7 +647,12 @@ public class Main {
     final Options options = new Options();
 
     final Option classpathOption =
-        new Option("cp", "classpath", true, "Path to the classpath with the classes to analyze");
+        new Option(
+            "cp",
+            "classpath",
+            true,
+            "The directories and jars with the classes to analyze, separated by "
+                + File.pathSeparator);
     classpathOption.setRequired(true);
     options.addOption(classpathOption);
 
@@ -145,6 +691,254 @@ public class Main {
         new Option("g", "globalNecessaryQueries", false, "Enable global necessary queries");
     options.addOption(globalQueries);
 
+    final Option guardImplicationsOption =
+        new Option(
+            "gi",
+            "guardImplications",
+            false,
+            "Learn implications between state preconditions to discard impossible target states");
+    options.addOption(guardImplicationsOption);
+
+    final Option stateFeasibilityOption =
+        new Option(
+            "sf",
+            "stateFeasibility",
+            false,
+            "Check that targets of uncertain transitions satisfy the invariant before exploring");
+    options.addOption(stateFeasibilityOption);
+
+    final Option frameAnalysisOption =
+        new Option(
+            "fa",
+            "frameAnalysis",
+            false,
+            "Skip necessity queries of actions whose preconditions read nothing the step writes");
+    options.addOption(frameAnalysisOption);
+
+    final Option verifyFrameOption =
+        new Option(
+            "vf",
+            "verifyFrame",
+            false,
+            "Run the necessity queries skipped by -fa anyway and report disagreements");
+    options.addOption(verifyFrameOption);
+
+    final Option exceptionAnalysisOption =
+        new Option(
+            "ea",
+            "exceptionAnalysis",
+            false,
+            "Skip throwing-variant queries of actions that can't raise exceptions");
+    options.addOption(exceptionAnalysisOption);
+
+    final Option answerSharingOption =
+        new Option(
+            "as",
+            "answerSharing",
+            false,
+            "Reuse answers of queries from states that agree on the guards the query can observe");
+    options.addOption(answerSharingOption);
+
+    final Option preSolveOption =
+        new Option(
+            "ps",
+            "preSolve",
+            false,
+            "Answer queries decided by constant preconditions or the invariant's frame");
+    options.addOption(preSolveOption);
+
+    final Option lemmaFileOption =
+        new Option(
+            "lf",
+            "lemmaFile",
+            true,
+            "File where global lemmas are persisted between runs (requires -g or -gi)");
+    options.addOption(lemmaFileOption);
+
+    final Option timeLimitOption =
+        new Option("tl", "timeLimit", true, "Wall-clock budget for the exploration, in seconds");
+    timeLimitOption.setType(Number.class);
+    options.addOption(timeLimitOption);
+
+    final Option queryLimitOption =
+        new Option("ql", "queryLimit", true, "Maximum number of queries to run");
+    queryLimitOption.setType(Number.class);
+    options.addOption(queryLimitOption);
+
+    final Option depthLimitOption =
+        new Option(
+            "dl", "depthLimit", true, "Maximum BFS depth of the explored states (initial is 0)");
+    depthLimitOption.setType(Number.class);
+    options.addOption(depthLimitOption);
+
+    final Option witnessSequencesOption =
+        new Option(
+            "ws",
+            "witnessSequences",
+            true,
+            "Run n random call sequences on the compiled class to witness transitions first");
+    witnessSequencesOption.setType(Number.class);
+    options.addOption(witnessSequencesOption);
+
+    final Option witnessLengthOption =
+        new Option(
+            "wl", "witnessLength", true, "Maximum number of calls of each witness sequence");
+    witnessLengthOption.setType(Number.class);
+    options.addOption(witnessLengthOption);
+
+    final Option snapshotPeriodOption =
+        new Option(
+            "sp", "snapshotPeriod", true, "Write a snapshot of the partial EPA every n seconds");
+    snapshotPeriodOption.setType(Number.class);
+    options.addOption(snapshotPeriodOption);
+
+    final Option snapshotOnNewStateOption =
+        new Option(
+            "ss",
+            "snapshotOnNewState",
+            false,
+            "Write a snapshot of the partial EPA each time a state is discovered");
+    options.addOption(snapshotOnNewStateOption);
+
+    final Option snapshotModeOption =
+        new Option(
+            "sm",
+            "snapshotMode",
+            true,
+            "rewrite: snapshots replace the outputs, append: snapshots are appended to "
+                + "<output>.snapshots (default: rewrite)");
+    options.addOption(snapshotModeOption);
+
+    engineSelection.addOptions(options);
+
+    final Option symbolicOption =
+        new Option(
+            "sx",
+            "symbolic",
+            false,
+            "Answer the queries over simple methods by symbolic execution, without Corral");
+    options.addOption(symbolicOption);
+
+    final Option verifySymbolicOption =
+        new Option(
+            "vs",
+            "verifySymbolic",
+            false,
+            "Also run Corral on the queries answered by symbolic execution and report differences");
+    options.addOption(verifySymbolicOption);
+
+    final Option portfolioThresholdOption =
+        new Option(
+            "pt",
+            "portfolioThreshold",
+            true,
+            "Race the portfolio configurations on queries that run longer than n seconds");
+    portfolioThresholdOption.setType(Number.class);
+    options.addOption(portfolioThresholdOption);
+
+    final Option portfolioConfigurationsOption =
+        new Option(
+            "pc",
+            "portfolioConfigurations",
+            true,
+            "Semicolon separated Corral flags of the portfolio configurations (default: the "
+                + "default flags, without /trackAllVars, and with recursion bounds 1 and 3)");
+    options.addOption(portfolioConfigurationsOption);
+
+    final Option portfolioWinsOption =
+        new Option(
+            "pw",
+            "portfolioWins",
+            true,
+            "File where the winning configurations of each query class are loaded from and saved");
+    options.addOption(portfolioWinsOption);
+
+    final Option profileOption =
+        new Option(
+            "pr",
+            "profile",
+            true,
+            "Run each query class with the Corral configuration tuned for it in this profile");
+    options.addOption(profileOption);
+
+    final Option autotuneOption =
+        new Option(
+            "at",
+            "autotune",
+            true,
+            "Run sampled queries under a grid of Corral configurations and save the fastest one"
+                + " that keeps the answers of each query class in this profile");
+    options.addOption(autotuneOption);
+
+    final Option tuningSamplesOption =
+        new Option(
+            "ts",
+            "tuningSamples",
+            true,
+            "The number of queries of each class run under every configuration (default: 5)");
+    tuningSamplesOption.setType(Number.class);
+    options.addOption(tuningSamplesOption);
+
+    final Option sliceOption =
+        new Option(
+            "sl",
+            "slice",
+            false,
+            "Give Corral only the part of the translation each query depends on");
+    options.addOption(sliceOption);
+
+    final Option splitThresholdOption =
+        new Option(
+            "st",
+            "splitThreshold",
+            true,
+            "Split the queries of actions whose queries ran longer than n seconds in cases that"
+                + " run in parallel");
+    splitThresholdOption.setType(Number.class);
+    options.addOption(splitThresholdOption);
+
+    final Option splitCasesOption =
+        new Option(
+            "sc", "splitCases", true, "The maximum number of cases of a split query (default: 8)");
+    splitCasesOption.setType(Number.class);
+    options.addOption(splitCasesOption);
+
+    final Option translationThreadsOption =
+        new Option(
+            "tt",
+            "translationThreads",
+            true,
+            "The number of threads that render the translation (default: the number of cores)");
+    translationThreadsOption.setType(Number.class);
+    options.addOption(translationThreadsOption);
+
+    final Option translationCacheOption =
+        new Option(
+            "tc",
+            "translationCache",
+            true,
+            "Directory where translations are cached, reused while the classpath doesn't change."
+                + " Not used with the static analyses");
+    options.addOption(translationCacheOption);
+
+    final Option modelsOption =
+        new Option(
+            "mo",
+            "models",
+            true,
+            "Directory with Boogie models of JDK classes, one <class>.bpl file per class, that"
+                + " replace or add to the bundled ones");
+    options.addOption(modelsOption);
+
+    final Option summariesOption =
+        new Option(
+            "su",
+            "summaries",
+            true,
+            "File with summaries of methods, translated instead of their bodies. Each summary is"
+                + " validated against the body once before exploring");
+    options.addOption(summariesOption);
+
     final CommandLineParser parser = new DefaultParser();
     final HelpFormatter formatter = new HelpFormatter();
 
@@ -167,6 +961,19 @@ public class Main {
     xmlOutputFile = new File(cmd.getOptionValue("x"));
     logFile = new File(cmd.getOptionValue("l", "log"));
     globalNecessaryQueriesEnable = cmd.hasOption("g");
+    guardImplicationsEnabled = cmd.hasOption("gi");
+    stateFeasibilityEnabled = cmd.hasOption("sf");
+    frameAnalysisEnabled = cmd.hasOption("fa");
+    frameVerificationEnabled = cmd.hasOption("vf");
+    exceptionAnalysisEnabled = cmd.hasOption("ea");
+    answerSharingEnabled = cmd.hasOption("as");
+    preSolvingEnabled = cmd.hasOption("ps");
+    symbolicExecutionEnabled = cmd.hasOption("sx");
+    symbolicVerificationEnabled = cmd.hasOption("vs");
+
+    if (cmd.hasOption("lf")) {
+      lemmaFile = new File(cmd.getOptionValue("lf"));
+    }
 
     if (cmd.hasOption('t')) {
       numberOfThreads = Integer.valueOf(cmd.getOptionValue('t'));
@@ -175,6 +982,105 @@ public class Main {
     if (cmd.hasOption('m')) {
       setMethodNames(cmd.getOptionValue('m'));
     }
+
+    if (cmd.hasOption("tl")) {
+      explorationBudget =
+          explorationBudget.withTimeLimit(
+              Duration.ofSeconds(Long.valueOf(cmd.getOptionValue("tl"))));
+    }
+
+    if (cmd.hasOption("ql")) {
+      explorationBudget = explorationBudget.withQueryLimit(Long.valueOf(cmd.getOptionValue("ql")));
+    }
+
+    if (cmd.hasOption("dl")) {
+      explorationBudget =
+          explorationBudget.withDepthLimit(Integer.valueOf(cmd.getOptionValue("dl")));
+    }
+
+    if (cmd.hasOption("ws")) {
+      witnessSequences = Integer.valueOf(cmd.getOptionValue("ws"));
+    }
+
+    if (cmd.hasOption("wl")) {
+      witnessLength = Integer.valueOf(cmd.getOptionValue("wl"));
+    }
+
+    if (cmd.hasOption("sp")) {
+      snapshotPeriod = Duration.ofSeconds(Long.valueOf(cmd.getOptionValue("sp")));
+    }
+
+    snapshotOnNewState = cmd.hasOption("ss");
+
+    if (cmd.hasOption("sm")) {
+      snapshotMode = EpaSnapshotWriter.Mode.valueOf(cmd.getOptionValue("sm").toUpperCase());
+    }
+
+    engineSelection.parse(cmd);
+
+    if (cmd.hasOption("pt")) {
+      portfolioThreshold = Duration.ofSeconds(Long.valueOf(cmd.getOptionValue("pt")));
+    }
+
+    if (cmd.hasOption("pc")) {
+      portfolioConfigurations = new ArrayList<>();
+
+      for (final String flags : cmd.getOptionValue("pc").split(";")) {
+        portfolioConfigurations.add(CorralConfiguration.parse(flags));
+      }
+    }
+
+    if (cmd.hasOption("pw")) {
+      portfolioWinsFile = new File(cmd.getOptionValue("pw"));
+    }
+
+    programSlicingEnabled = cmd.hasOption("sl");
+
+    if (cmd.hasOption("pr")) {
+      profileFile = new File(cmd.getOptionValue("pr"));
+    }
+
+    if (cmd.hasOption("at")) {
+      autotuneFile = new File(cmd.getOptionValue("at"));
+    }
+
+    if (cmd.hasOption("ts")) {
+      tuningSamples = Integer.valueOf(cmd.getOptionValue("ts"));
+    }
+
+    if (cmd.hasOption("st")) {
+      splitThreshold = Duration.ofSeconds(Long.valueOf(cmd.getOptionValue("st")));
+    }
+
+    if (cmd.hasOption("sc")) {
+      splitCases = Integer.valueOf(cmd.getOptionValue("sc"));
+    }
+
+    if (cmd.hasOption("tt")) {
+      translationThreads = Integer.valueOf(cmd.getOptionValue("tt"));
+    }
+
+    if (cmd.hasOption("tc")) {
+      translationCacheDirectory = new File(cmd.getOptionValue("tc"));
+    }
+
+    if (cmd.hasOption("mo")) {
+      modelsDirectory = new File(cmd.getOptionValue("mo"));
+    }
+
+    if (cmd.hasOption("su")) {
+      summaryFile = new File(cmd.getOptionValue("su"));
+    }
+  }
+
+  /** @return Whether any enabled option uses the analyses of the method bodies. */
+  private static boolean usesStaticAnalyses() {
+
+    return frameAnalysisEnabled
+        || exceptionAnalysisEnabled
+        || answerSharingEnabled
+        || preSolvingEnabled
+        || symbolicExecutionEnabled;
   }
 
   private static void setMethodNames(String methodsList) {
@@ -156,7 +156,7 @@ public class ActionsExtractor {
 
       final String statePreconditionName = statePrecondition.getJavaNameWithArgumentTypes();
 
-      if (statePrecondition.getParameterTypes().size() > 0) {
+      if (statePrecondition.getParameterTypeNames().size() > 0) {
         throw new IllegalArgumentException(
             "State precondition " + statePreconditionName + " must have no argument.");
       }
@@ -178,7 +178,7 @@ public class ActionsExtractor {
             "Precondition " + paramsPreconditionName + " must return a boolean");
       }
 
-      if (!method.getParameterTypes().equals(paramsPrecondition.getParameterTypes())) {
+      if (!method.getParameterTypeNames().equals(paramsPrecondition.getParameterTypeNames())) {
         throw new IllegalArgumentException(
             "Parameters precondition "
                 + paramsPreconditionName
@@ -189,7 +189,7 @@ public class ActionsExtractor {
 
   private boolean hasNonThisParameters(final Method method) {
 
-    return method.getParameterTypes().size() > 0;
+    return method.getParameterTypeNames().size() > 0;
   }
 
   private String getStatePreconditionMethodName(final Method method) {
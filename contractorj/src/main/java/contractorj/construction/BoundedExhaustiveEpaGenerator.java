@@ -0,0 +1,372 @@
+package contractorj.construction;
+
+import contractorj.construction.concrete.BoundedDomains;
+import contractorj.construction.concrete.ConcreteExecutionException;
+import contractorj.construction.concrete.ConcreteExecutor;
+import contractorj.model.Action;
+import contractorj.model.Epa;
+import contractorj.model.State;
+import contractorj.model.Transition;
+import java.io.File;
+import java.lang.reflect.Field;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import jbct.model.Class;
+
+/**
+ * Generates EPAs by running the actions on concrete objects instead of querying Corral.
+ *
+ * <p>Candidate objects are enumerated Korat-style: every combination of field values drawn from
+ * {@link BoundedDomains} up to the field bound. Candidates that satisfy the invariant are grouped
+ * into states by the value of their state preconditions, and every enabled action is run on each
+ * of them with every combination of bounded arguments that satisfies its parameters precondition.
+ *
+ * <p>The result is a bounded under-approximation of the EPA: every transition is taken by some
+ * object, so none is uncertain, but transitions only taken by objects or arguments beyond the
+ * bound are missing.
+ */
+public class BoundedExhaustiveEpaGenerator extends EpaGenerator {
+
+  private static final long COMBINATIONS_LIMIT = 1_000_000;
+
+  private static final Duration CALL_TIMEOUT = Duration.ofSeconds(5);
+
+  private final List<File> classPath;
+
+  private final int fieldBound;
+
+  private long numberOfCandidates;
+
+  private long numberOfValidObjects;
+
+  private LocalDateTime explorationStart;
+
+  /**
+   * @param classPath The directories and jars with the compiled classes of the analyzed program.
+   * @param fieldBound The bound of the domains of fields and arguments.
+   */
+  public BoundedExhaustiveEpaGenerator(
+      final Path baseTranslation,
+      final int numberOfThreads,
+      final List<File> classPath,
+      final int fieldBound) {
+
+    // Nothing is verified, so there is no query runner
+    super(baseTranslation, numberOfThreads, null);
+
+    if (fieldBound < 0) {
+      throw new IllegalArgumentException("The field bound can't be negative");
+    }
+
+    this.classPath = classPath;
+    this.fieldBound = fieldBound;
+  }
+
+  public int getFieldBound() {
+
+    return fieldBound;
+  }
+
+  /** @return How many candidate objects the last generation enumerated. */
+  public long getNumberOfCandidates() {
+
+    return numberOfCandidates;
+  }
+
+  /** @return How many of the enumerated candidates satisfied the invariant. */
+  public long getNumberOfValidObjects() {
+
+    return numberOfValidObjects;
+  }
+
+  @Override
+  protected Epa generateEpaImplementation(final Class theClass) {
+
+    numberOfCandidates = 0;
+    numberOfValidObjects = 0;
+    explorationStart = LocalDateTime.now();
+
+    final State initialState = new State(constructors, new HashSet<>());
+    final Epa epa = new Epa(theClass.getQualifiedJavaName(), initialState);
+
+    startSnapshots(epa);
+
+    try {
+
+      final Optional<ConcreteExecutor> executor =
+          ConcreteExecutor.load(classPath, theClass.getQualifiedJavaName(), CALL_TIMEOUT);
+
+      if (!executor.isPresent()) {
+        budgetExhaustionReason = "can't load " + theClass.getQualifiedJavaName();
+        return epa;
+      }
+
+      final Map<List<Object>, Transition> transitions = new LinkedHashMap<>();
+
+      try (final ConcreteExecutor concreteExecutor = executor.get()) {
+
+        if (!concreteExecutor.canEvaluateStates(invariant, actions)) {
+          throw new ConcreteExecutionException(
+              "can't evaluate the invariant and state preconditions");
+        }
+
+        runConstructors(concreteExecutor, initialState, transitions);
+        runActions(concreteExecutor, transitions);
+      } catch (ConcreteExecutionException e) {
+        budgetExhaustionReason = "concrete execution failed: " + e.getMessage();
+      }
+
+      addReachableTransitions(epa, initialState, transitions.values());
+
+      stopSnapshots(Optional.of(epa));
+
+      return epa;
+
+    } finally {
+      stopSnapshots(Optional.empty());
+    }
+  }
+
+  private void runConstructors(
+      final ConcreteExecutor executor,
+      final State initialState,
+      final Map<List<Object>, Transition> transitions)
+      throws ConcreteExecutionException {
+
+    for (final Action constructor : getExecutableActions(executor, constructors)) {
+      for (final List<Object> arguments : getArguments(executor, constructor)) {
+
+        final Object[] argumentsArray = arguments.toArray();
+
+        if (!satisfiesParamsPrecondition(executor, constructor, null, argumentsArray)) {
+          continue;
+        }
+
+        // A constructor that raises an exception leaves no object behind
+        final Optional<Object> object = executor.run(constructor, null, argumentsArray);
+
+        if (object.isPresent()) {
+          record(executor, initialState, constructor, object.get(), false, transitions);
+        }
+      }
+    }
+  }
+
+  private void runActions(
+      final ConcreteExecutor executor, final Map<List<Object>, Transition> transitions)
+      throws ConcreteExecutionException {
+
+    final List<Field> fields = executor.getInstanceFields();
+    final Map<State, List<List<Object>>> objectsByState = enumerateObjects(executor, fields);
+
+    for (final Map.Entry<State, List<List<Object>>> entry : objectsByState.entrySet()) {
+
+      final State state = entry.getKey();
+
+      for (final Action action : getExecutableActions(executor, state.getEnabledActions())) {
+
+        final List<List<Object>> argumentCombinations = getArguments(executor, action);
+
+        for (final List<Object> fieldValues : entry.getValue()) {
+          for (final List<Object> arguments : argumentCombinations) {
+
+            if (isOutOfTime()) {
+              return;
+            }
+
+            final Object object = executor.instantiate(fields, fieldValues);
+            final Object[] argumentsArray = arguments.toArray();
+
+            if (!satisfiesParamsPrecondition(executor, action, object, argumentsArray)) {
+              continue;
+            }
+
+            final boolean threw = !executor.runOn(action, object, argumentsArray);
+
+            record(executor, state, action, object, threw, transitions);
+          }
+        }
+      }
+    }
+  }
+
+  /** @return The candidate objects that satisfy the invariant, grouped by state. */
+  private Map<State, List<List<Object>>> enumerateObjects(
+      final ConcreteExecutor executor, final List<Field> fields)
+      throws ConcreteExecutionException {
+
+    final List<List<Object>> domains =
+        fields
+            .stream()
+            .map(field -> BoundedDomains.getValues(field.getType(), fieldBound))
+            .collect(Collectors.toList());
+
+    final Optional<List<List<Object>>> candidates =
+        BoundedDomains.getCombinations(domains, COMBINATIONS_LIMIT);
+
+    if (!candidates.isPresent()) {
+      throw new ConcreteExecutionException(
+          "more than " + COMBINATIONS_LIMIT + " candidate objects, use a smaller field bound");
+    }
+
+    final Map<State, List<List<Object>>> objectsByState = new LinkedHashMap<>();
+
+    for (final List<Object> fieldValues : candidates.get()) {
+
+      numberOfCandidates++;
+
+      final Object object = executor.instantiate(fields, fieldValues);
+
+      if (!executor.evaluateInvariant(invariant, object).equals(Optional.of(true))) {
+        continue;
+      }
+
+      final Optional<State> state = executor.evaluateState(actions, object);
+
+      if (state.isPresent()) {
+        numberOfValidObjects++;
+        objectsByState.computeIfAbsent(state.get(), ignored -> new ArrayList<>()).add(fieldValues);
+      }
+    }
+
+    return objectsByState;
+  }
+
+  private void record(
+      final ConcreteExecutor executor,
+      final State source,
+      final Action action,
+      final Object object,
+      final boolean threw,
+      final Map<List<Object>, Transition> transitions)
+      throws ConcreteExecutionException {
+
+    final Optional<Boolean> invariantHolds = executor.evaluateInvariant(invariant, object);
+
+    if (!invariantHolds.isPresent()) {
+      return;
+    }
+
+    final Optional<State> target =
+        invariantHolds.get() ? executor.evaluateState(actions, object) : Optional.of(State.ERROR);
+
+    if (!target.isPresent()) {
+      return;
+    }
+
+    transitions.putIfAbsent(
+        Arrays.asList(source, action, target.get(), threw),
+        new Transition(source, action, target.get(), false, threw));
+  }
+
+  /** Only the transitions reachable from the initial state, within the depth limit, are kept. */
+  private void addReachableTransitions(
+      final Epa epa, final State initialState, final Collection<Transition> transitions) {
+
+    final Map<State, List<Transition>> transitionsBySource = new HashMap<>();
+
+    for (final Transition transition : transitions) {
+      transitionsBySource
+          .computeIfAbsent(transition.getSource(), ignored -> new ArrayList<>())
+          .add(transition);
+    }
+
+    final Map<State, Integer> depths = new HashMap<>();
+    final Deque<State> pending = new ArrayDeque<>();
+
+    depths.put(initialState, 0);
+    pending.add(initialState);
+
+    while (!pending.isEmpty()) {
+
+      final State state = pending.poll();
+      final int depth = depths.get(state);
+
+      if (depth > budget.getDepthLimit()) {
+        epa.markUnexplored(state);
+        continue;
+      }
+
+      for (final Transition transition :
+          transitionsBySource.getOrDefault(state, Collections.emptyList())) {
+
+        epa.addTransition(transition);
+
+        final State target = transition.getTarget();
+
+        if (!depths.containsKey(target)) {
+          depths.put(target, depth + 1);
+          pending.add(target);
+          newStateDiscovered(epa);
+        }
+      }
+    }
+  }
+
+  private List<Action> getExecutableActions(
+      final ConcreteExecutor executor, final Set<Action> candidates) {
+
+    return candidates.stream().filter(executor::canExecute).sorted().collect(Collectors.toList());
+  }
+
+  private List<List<Object>> getArguments(final ConcreteExecutor executor, final Action action)
+      throws ConcreteExecutionException {
+
+    final List<List<Object>> domains =
+        executor
+            .getParameterTypes(action)
+            .stream()
+            .map(type -> BoundedDomains.getValues(type, fieldBound))
+            .collect(Collectors.toList());
+
+    final Optional<List<List<Object>>> arguments =
+        BoundedDomains.getCombinations(domains, COMBINATIONS_LIMIT);
+
+    if (!arguments.isPresent()) {
+      throw new ConcreteExecutionException("too many arguments combinations for " + action);
+    }
+
+    return arguments.get();
+  }
+
+  private static boolean satisfiesParamsPrecondition(
+      final ConcreteExecutor executor,
+      final Action action,
+      final Object receiver,
+      final Object[] arguments)
+      throws ConcreteExecutionException {
+
+    return executor
+        .satisfiesParamsPrecondition(action, receiver, arguments)
+        .equals(Optional.of(true));
+  }
+
+  private boolean isOutOfTime() {
+
+    final Optional<Duration> timeLimit = budget.getTimeLimit();
+
+    if (timeLimit.isPresent()
+        && Duration.between(explorationStart, LocalDateTime.now()).compareTo(timeLimit.get())
+            >= 0) {
+      budgetExhaustionReason = "time limit of " + timeLimit.get().getSeconds() + "s reached";
+      return true;
+    }
+
+    return false;
+  }
+}
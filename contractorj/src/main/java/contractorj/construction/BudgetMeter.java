@@ -0,0 +1,76 @@
+package contractorj.construction;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks how much of an exploration budget has been used. Once the budget is exhausted it stays
+ * exhausted, so running tasks drain without issuing new queries.
+ */
+class BudgetMeter {
+
+  private final ExplorationBudget budget;
+
+  private final Clock clock;
+
+  private final Instant start;
+
+  private final AtomicLong issuedQueries = new AtomicLong();
+
+  private volatile String exhaustionReason;
+
+  BudgetMeter(final ExplorationBudget budget, final Clock clock) {
+
+    this.budget = budget;
+    this.clock = clock;
+    this.start = clock.instant();
+  }
+
+  /** Checks the wall-clock limit. */
+  boolean isExhausted() {
+
+    if (exhaustionReason != null) {
+      return true;
+    }
+
+    final Optional<Duration> timeLimit = budget.getTimeLimit();
+
+    if (timeLimit.isPresent()
+        && Duration.between(start, clock.instant()).compareTo(timeLimit.get()) >= 0) {
+      exhaust("time limit of " + timeLimit.get().getSeconds() + "s reached");
+    }
+
+    return exhaustionReason != null;
+  }
+
+  /** @return true if a new query can be issued, counting it against the query limit. */
+  boolean reserveQuery() {
+
+    if (isExhausted()) {
+      return false;
+    }
+
+    if (issuedQueries.incrementAndGet() > budget.getQueryLimit()) {
+      exhaust("query limit of " + budget.getQueryLimit() + " reached");
+      return false;
+    }
+
+    return true;
+  }
+
+  /** @return Why the budget was exhausted, if it was. */
+  Optional<String> getExhaustionReason() {
+
+    return Optional.ofNullable(exhaustionReason);
+  }
+
+  private synchronized void exhaust(final String reason) {
+
+    if (exhaustionReason == null) {
+      exhaustionReason = reason;
+    }
+  }
+}
@@ -1,16 +1,25 @@
 package contractorj.construction;
 
-import contractorj.construction.corral.CorralRunner;
+import contractorj.construction.boogie.ProgramSlicer;
+import contractorj.construction.corral.QueryResult;
+import contractorj.construction.corral.QueryRunner;
 import contractorj.construction.corral.RunnerResult;
 import contractorj.construction.queries.Answer;
 import contractorj.construction.queries.Query;
+import contractorj.construction.splitting.QuerySplitter;
 import contractorj.model.Action;
 import contractorj.model.Epa;
+import contractorj.util.CancellableWatchdog;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -20,7 +29,18 @@ import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import jbct.model.Class;
 import jbct.model.Method;
 
@@ -31,11 +51,12 @@ public abstract class EpaGenerator {
   private final Map<java.lang.Class<? extends Query>, Map<Answer, List<Duration>>> queryingTimes =
       new HashMap<>();
 
-  private final String baseTranslation;
+  /** The translation is shared through its file, so it isn't kept in memory by the exploration. */
+  private final Path baseTranslation;
 
   protected final int numberOfThreads;
 
-  private final CorralRunner corralRunner;
+  private final QueryRunner queryRunner;
 
   private Duration totalTime;
 
@@ -47,16 +68,110 @@ public abstract class EpaGenerator {
 
   protected Set<Action> actions;
 
-  public EpaGenerator(String baseTranslation, int numberOfThreads, CorralRunner corralRunner) {
+  protected ExplorationBudget budget = ExplorationBudget.unlimited();
+
+  protected volatile String budgetExhaustionReason;
+
+  private final List<EpaListener> listeners = new CopyOnWriteArrayList<>();
+
+  private Duration snapshotPeriod;
+
+  private boolean snapshotOnNewState = false;
+
+  /** Set and cleared by the generating thread, read by the exploration threads. */
+  private volatile ScheduledExecutorService snapshotExecutor;
+
+  private final AtomicBoolean snapshotPending = new AtomicBoolean(false);
+
+  private QuerySplitter querySplitter;
+
+  private ExecutorService casesExecutorService;
+
+  private ProgramSlicer programSlicer;
+
+  public EpaGenerator(Path baseTranslation, int numberOfThreads, QueryRunner queryRunner) {
 
     this.baseTranslation = baseTranslation;
     this.numberOfThreads = numberOfThreads;
-    this.corralRunner = corralRunner;
+    this.queryRunner = queryRunner;
+  }
+
+  public void setBudget(final ExplorationBudget budget) {
+
+    this.budget = budget;
+  }
+
+  /** @return Why the last generation stopped early, if it ran out of budget. */
+  public Optional<String> getBudgetExhaustionReason() {
+
+    return Optional.ofNullable(budgetExhaustionReason);
+  }
+
+  protected Path getBaseTranslation() {
+
+    return baseTranslation;
+  }
+
+  /** Registers a listener that receives snapshots of the EPA while it is being generated. */
+  public void addListener(final EpaListener listener) {
+
+    listeners.add(listener);
+  }
+
+  /** Publishes a snapshot to the listeners every {@code period}. */
+  public void setSnapshotPeriod(final Duration period) {
+
+    if (period.isNegative() || period.isZero()) {
+      throw new IllegalArgumentException("The snapshot period must be positive");
+    }
+
+    this.snapshotPeriod = period;
+  }
+
+  /** Publishes a snapshot to the listeners each time a new state is discovered. */
+  public void setSnapshotOnNewState(final boolean snapshotOnNewState) {
+
+    this.snapshotOnNewState = snapshotOnNewState;
+  }
+
+  /** Splits the slow queries in cases that run in parallel. */
+  public void setQuerySplitter(final QuerySplitter querySplitter) {
+
+    this.querySplitter = querySplitter;
+  }
+
+  public Optional<QuerySplitter> getQuerySplitter() {
+
+    return Optional.ofNullable(querySplitter);
+  }
+
+  /**
+   * Runs each query on the slice of the translation it depends on, instead of on the whole
+   * translation.
+   */
+  public void setProgramSlicingEnabled(final boolean programSlicingEnabled) {
+
+    programSlicer = programSlicingEnabled ? new ProgramSlicer(readBaseTranslation()) : null;
+  }
+
+  private String readBaseTranslation() {
+
+    try {
+      return new String(Files.readAllBytes(baseTranslation), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public Optional<ProgramSlicer> getProgramSlicer() {
+
+    return Optional.ofNullable(programSlicer);
   }
 
   public Epa generateEpa(Class theClass, Set<String> methodNames) {
 
     queryingTimes.clear();
+    budgetExhaustionReason = null;
 
     final LocalDateTime start = LocalDateTime.now();
 
@@ -75,19 +190,207 @@ public abstract class EpaGenerator {
 
   protected abstract Epa generateEpaImplementation(final Class theClass);
 
+  /**
+   * Starts publishing snapshots of the given EPA, which must be the one under construction.
+   * Snapshots are taken and handed to the listeners in a single background thread, so the
+   * exploration is never blocked by serialization.
+   */
+  protected void startSnapshots(final Epa epa) {
+
+    if (listeners.isEmpty() || (snapshotPeriod == null && !snapshotOnNewState)) {
+      return;
+    }
+
+    snapshotPending.set(false);
+    final ScheduledExecutorService executor =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              final Thread thread = new Thread(runnable, "epa-snapshots");
+              thread.setDaemon(true);
+              return thread;
+            });
+
+    if (snapshotPeriod != null) {
+      final long millis = snapshotPeriod.toMillis();
+      executor.scheduleAtFixedRate(
+          () -> publishSnapshot(epa), millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    snapshotExecutor = executor;
+  }
+
+  /**
+   * Notifies that a new state was added to the EPA. Requests made while a snapshot is still pending
+   * are coalesced into it.
+   */
+  protected void newStateDiscovered(final Epa epa) {
+
+    final ScheduledExecutorService executor = snapshotExecutor;
+
+    if (!snapshotOnNewState || executor == null) {
+      return;
+    }
+
+    if (snapshotPending.compareAndSet(false, true)) {
+      executor.execute(
+          () -> {
+            snapshotPending.set(false);
+            publishSnapshot(epa);
+          });
+    }
+  }
+
+  /**
+   * Stops publishing snapshots. If {@code finalEpa} is present it's published after every pending
+   * snapshot, so listeners always end up with the complete result.
+   */
+  protected void stopSnapshots(final Optional<Epa> finalEpa) {
+
+    final ScheduledExecutorService executor = snapshotExecutor;
+
+    if (executor == null) {
+      return;
+    }
+
+    snapshotExecutor = null;
+    executor.shutdown();
+
+    try {
+      executor.awaitTermination(1, TimeUnit.MINUTES);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    finalEpa.ifPresent(this::publishSnapshot);
+  }
+
+  private void publishSnapshot(final Epa epa) {
+
+    final Epa snapshot = epa.copy();
+
+    for (final EpaListener listener : listeners) {
+      try {
+        listener.onSnapshot(snapshot);
+      } catch (RuntimeException e) {
+        System.err.println("Error publishing an EPA snapshot: " + e.getMessage());
+      }
+    }
+  }
+
   protected RunnerResult runQuery(final Query query) {
 
+    final List<String> cases =
+        querySplitter != null ? querySplitter.getCases(query) : new ArrayList<>();
+
+    if (!cases.isEmpty()) {
+
+      final RunnerResult runnerResult = runCases(query, cases);
+      recordQueryRun(query, runnerResult);
+
+      return runnerResult;
+    }
+
     final String absolutePathToBoogieSourceFile =
         appendToThreadLocalBoogieFile(query.getBoogieCode());
 
     final RunnerResult runnerResult =
-        corralRunner.run(absolutePathToBoogieSourceFile, query.getName());
+        queryRunner.run(
+            absolutePathToBoogieSourceFile, query.getName(), query.getClass().getSimpleName());
 
     recordQueryRun(query, runnerResult);
 
+    if (querySplitter != null) {
+      querySplitter.recordRunningTime(query, runnerResult.runningTime);
+    }
+
     return runnerResult;
   }
 
+  /**
+   * Runs the cases of a split query in parallel, in threads of their own so that they never wait
+   * for the threads of the exploration. At the first bug, the processes of the cases still running
+   * are killed and the cases that haven't started are dropped.
+   */
+  private RunnerResult runCases(final Query query, final List<String> cases) {
+
+    final LocalDateTime start = LocalDateTime.now();
+    final CompletionService<RunnerResult> completionService =
+        new ExecutorCompletionService<>(getCasesExecutorService());
+    final List<Future<RunnerResult>> futures = new ArrayList<>();
+    final List<CancellableWatchdog> watchdogs = new ArrayList<>();
+
+    for (int i = 0; i < cases.size(); i++) {
+
+      final int caseIndex = i;
+      final CancellableWatchdog watchdog = new CancellableWatchdog();
+      watchdogs.add(watchdog);
+
+      futures.add(
+          completionService.submit(
+              () ->
+                  queryRunner.run(
+                      appendToThreadLocalBoogieFile(
+                          query.getCaseBoogieCode(cases.get(caseIndex), caseIndex)),
+                      query.getCaseName(caseIndex),
+                      query.getClass().getSimpleName(),
+                      watchdog)));
+    }
+
+    querySplitter.recordSplit(cases.size());
+
+    final List<QueryResult> results = new ArrayList<>();
+    final StringBuilder output = new StringBuilder();
+
+    try {
+
+      Optional<QueryResult> queryResult = Optional.empty();
+
+      while (!queryResult.isPresent()) {
+
+        final RunnerResult caseResult = completionService.take().get();
+
+        results.add(caseResult.queryResult);
+        output.append(caseResult.output).append("\n");
+
+        queryResult = QuerySplitter.combine(results, results.size() == cases.size());
+      }
+
+      return new RunnerResult(
+          queryResult.get(),
+          Duration.between(start, LocalDateTime.now()),
+          output.toString(),
+          "split " + query.getName() + " in " + cases.size() + " cases");
+
+    } catch (InterruptedException | ExecutionException e) {
+      throw new RuntimeException(e);
+    } finally {
+      // Interrupting a case doesn't stop its process, so the watchdogs kill them
+      futures.forEach(future -> future.cancel(true));
+      watchdogs.forEach(CancellableWatchdog::cancel);
+    }
+  }
+
+  private synchronized ExecutorService getCasesExecutorService() {
+
+    if (casesExecutorService == null) {
+      casesExecutorService =
+          Executors.newFixedThreadPool(
+              numberOfThreads,
+              runnable -> {
+                final Thread thread = new Thread(runnable, "query-cases");
+                thread.setDaemon(true);
+                return thread;
+              });
+    }
+
+    return casesExecutorService;
+  }
+
+  /**
+   * Without slicing, each thread appends its queries to a copy of the translation file, made
+   * without reading it into memory. With slicing, the file of the thread is rewritten for each
+   * query with its slice.
+   */
   private String appendToThreadLocalBoogieFile(String boogieCode) {
 
     File file = boogieFile.get();
@@ -96,18 +399,39 @@ public abstract class EpaGenerator {
 
       try {
         file = File.createTempFile("epa-" + Thread.currentThread().getName() + "-", ".bpl");
-        appendToFile(file, baseTranslation);
+
+        if (programSlicer == null) {
+          Files.copy(baseTranslation, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+          appendToFile(file, "");
+        }
+
         boogieFile.set(file);
       } catch (IOException e) {
         throw new RuntimeException(e);
       }
     }
 
+    if (programSlicer != null) {
+      writeToFile(file, programSlicer.slice(boogieCode));
+    }
+
     appendToFile(file, boogieCode);
 
     return file.getAbsolutePath();
   }
 
+  private void writeToFile(final File file, final String content) {
+
+    try (final FileWriter fw = new FileWriter(file, false);
+        final BufferedWriter bw = new BufferedWriter(fw);
+        final PrintWriter out = new PrintWriter(bw)) {
+      out.print(content + "\n\n");
+      out.flush();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   private void appendToFile(final File file, final String content) {
 
     try (final FileWriter fw = new FileWriter(file, true);
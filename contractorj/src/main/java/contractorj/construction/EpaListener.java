@@ -0,0 +1,13 @@
+package contractorj.construction;
+
+import contractorj.model.Epa;
+
+/** Receives snapshots of an EPA while it is being generated. */
+public interface EpaListener {
+
+  /**
+   * Called with a copy of the EPA discovered so far. The copy is not modified afterwards, so it can
+   * be kept or serialized without synchronization.
+   */
+  void onSnapshot(Epa snapshot);
+}
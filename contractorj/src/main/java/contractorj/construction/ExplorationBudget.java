@@ -0,0 +1,82 @@
+package contractorj.construction;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Limits on how much work an exploration may do. When any of them is reached the generator stops
+ * issuing queries and returns the EPA discovered so far.
+ *
+ * <p>Instances are immutable, use the {@code with*} methods to derive a restricted budget.
+ */
+public class ExplorationBudget {
+
+  private static final ExplorationBudget UNLIMITED =
+      new ExplorationBudget(null, Long.MAX_VALUE, Integer.MAX_VALUE);
+
+  private final Duration timeLimit;
+
+  private final long queryLimit;
+
+  private final int depthLimit;
+
+  private ExplorationBudget(final Duration timeLimit, final long queryLimit, final int depthLimit) {
+
+    this.timeLimit = timeLimit;
+    this.queryLimit = queryLimit;
+    this.depthLimit = depthLimit;
+  }
+
+  public static ExplorationBudget unlimited() {
+
+    return UNLIMITED;
+  }
+
+  public ExplorationBudget withTimeLimit(final Duration timeLimit) {
+
+    if (timeLimit.isNegative() || timeLimit.isZero()) {
+      throw new IllegalArgumentException("The time limit must be positive");
+    }
+
+    return new ExplorationBudget(timeLimit, queryLimit, depthLimit);
+  }
+
+  public ExplorationBudget withQueryLimit(final long queryLimit) {
+
+    if (queryLimit <= 0) {
+      throw new IllegalArgumentException("The query limit must be positive");
+    }
+
+    return new ExplorationBudget(timeLimit, queryLimit, depthLimit);
+  }
+
+  public ExplorationBudget withDepthLimit(final int depthLimit) {
+
+    if (depthLimit < 0) {
+      throw new IllegalArgumentException("The depth limit can't be negative");
+    }
+
+    return new ExplorationBudget(timeLimit, queryLimit, depthLimit);
+  }
+
+  public Optional<Duration> getTimeLimit() {
+
+    return Optional.ofNullable(timeLimit);
+  }
+
+  public long getQueryLimit() {
+
+    return queryLimit;
+  }
+
+  /** The maximum BFS depth, measured in transitions from the initial state, of explored states. */
+  public int getDepthLimit() {
+
+    return depthLimit;
+  }
+
+  public boolean isUnlimited() {
+
+    return timeLimit == null && queryLimit == Long.MAX_VALUE && depthLimit == Integer.MAX_VALUE;
+  }
+}
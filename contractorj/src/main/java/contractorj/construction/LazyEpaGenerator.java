@@ -2,9 +2,17 @@ package contractorj.construction;
 
 import com.google.common.collect.Sets;
 import contractorj.Main;
-import contractorj.construction.corral.CorralRunner;
+import contractorj.construction.concrete.ConcreteExecutor;
+import contractorj.construction.concrete.WitnessExplorer;
+import contractorj.construction.concrete.WitnessedTransitions;
 import contractorj.construction.corral.QueryResult;
+import contractorj.construction.corral.QueryRunner;
 import contractorj.construction.corral.RunnerResult;
+import contractorj.construction.lemmas.ActionDependencyMatrix.Dependency;
+import contractorj.construction.lemmas.GuardImplicationGraph;
+import contractorj.construction.lemmas.GuardLiteral;
+import contractorj.construction.lemmas.LemmaStore;
+import contractorj.construction.presolving.QueryPreSolver;
 import contractorj.construction.queries.Answer;
 import contractorj.construction.queries.Query;
 import contractorj.construction.queries.invariant.ExceptionBreaksInvariantQuery;
@@ -13,8 +21,11 @@ import contractorj.construction.queries.necessary_actions.GlobalNecessarilyDisab
 import contractorj.construction.queries.necessary_actions.GlobalNecessarilyEnabledActionQuery;
 import contractorj.construction.queries.necessary_actions.NecessarilyDisabledActionQuery;
 import contractorj.construction.queries.necessary_actions.NecessarilyEnabledActionQuery;
+import contractorj.construction.queries.state.GuardImplicationQuery;
+import contractorj.construction.queries.state.StateFeasibilityQuery;
 import contractorj.construction.queries.transition.NotThrowingTransitionQuery;
 import contractorj.construction.queries.transition.ThrowingTransitionQuery;
+import contractorj.construction.relevance.AnswerMemo;
 import contractorj.model.Action;
 import contractorj.model.Epa;
 import contractorj.model.State;
@@ -22,17 +33,30 @@ import contractorj.model.Transition;
 import contractorj.util.CombinationsGenerator;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.Phaser;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import jbct.analysis.ExceptionAnalysis;
+import jbct.analysis.FieldAccessAnalysis;
+import jbct.analysis.FieldAccesses;
+import jbct.analysis.ReturnValueAnalysis;
 import jbct.model.Class;
+import jbct.model.Method;
 
 public class LazyEpaGenerator extends EpaGenerator {
 
@@ -43,6 +67,13 @@ public class LazyEpaGenerator extends EpaGenerator {
 
   private Set<State> statesAlreadyEnqueued;
 
+  private StateDepths stateDepths;
+
+  /** States whose outgoing transitions are incomplete because the budget ran out. */
+  private Set<State> unexploredStates;
+
+  private BudgetMeter budgetMeter;
+
   private Epa epa;
 
   private Phaser phaser;
@@ -50,18 +81,201 @@ public class LazyEpaGenerator extends EpaGenerator {
   private DebugLog debugLog;
 
   public LazyEpaGenerator(
-      final String baseTranslation,
+      final Path baseTranslation,
       final int numberOfThreads,
-      final CorralRunner corralRunner,
+      final QueryRunner queryRunner,
       File logFile) {
 
-    super(baseTranslation, numberOfThreads, corralRunner);
+    super(baseTranslation, numberOfThreads, queryRunner);
 
     this.logFile = logFile;
   }
 
-  Map<String, List<String>> dependencies_active = new Hashtable<String, List<String>>();
-  Map<String, List<String>> dependencies_disable = new Hashtable<String, List<String>>();
+  private File lemmaFile;
+
+  private LemmaStore lemmaStore;
+
+  private boolean guardImplicationsEnabled = false;
+
+  private GuardImplicationGraph guardImplications;
+
+  private AtomicLong prunedTargetStates;
+
+  private boolean stateFeasibilityEnabled = false;
+
+  private FieldAccessAnalysis fieldAccessAnalysis;
+
+  private boolean frameVerificationEnabled = false;
+
+  private AtomicLong framedNecessityQueries;
+
+  private AtomicLong frameMismatches;
+
+  private ExceptionAnalysis exceptionAnalysis;
+
+  private AtomicLong skippedExceptionalQueries;
+
+  private FieldAccessAnalysis answerSharingAnalysis;
+
+  private AnswerMemo answerMemo;
+
+  private List<File> witnessClassPath;
+
+  private int witnessSequences;
+
+  private int witnessLength;
+
+  private WitnessedTransitions witnessedTransitions;
+
+  /**
+   * Enables a pre-pass that runs random call sequences on objects of the compiled class, and seeds
+   * the exploration with the transitions they take.
+   *
+   * @param classPath The directories and jars with the compiled classes of the analyzed program.
+   * @param sequences How many call sequences to run.
+   * @param length The maximum number of calls of each sequence.
+   */
+  public void setWitnessExploration(
+      final List<File> classPath, final int sequences, final int length) {
+
+    this.witnessClassPath = classPath;
+    this.witnessSequences = sequences;
+    this.witnessLength = length;
+  }
+
+  /** @return The transitions witnessed by the last pre-pass, if it was enabled. */
+  public Optional<WitnessedTransitions> getWitnessedTransitions() {
+
+    return Optional.ofNullable(witnessedTransitions);
+  }
+
+  private ReturnValueAnalysis preSolvingReturnValues;
+
+  private FieldAccessAnalysis preSolvingFieldAccesses;
+
+  private QueryPreSolver queryPreSolver;
+
+  /**
+   * Enables answering the queries decided by the static analyses of the translation without
+   * verifying them.
+   */
+  public void setPreSolvingAnalyses(
+      final ReturnValueAnalysis returnValueAnalysis,
+      final FieldAccessAnalysis fieldAccessAnalysis) {
+
+    this.preSolvingReturnValues = returnValueAnalysis;
+    this.preSolvingFieldAccesses = fieldAccessAnalysis;
+  }
+
+  /** @return The pre-solver of the last exploration, if pre-solving was enabled. */
+  public Optional<QueryPreSolver> getQueryPreSolver() {
+
+    return Optional.ofNullable(queryPreSolver);
+  }
+
+  /** States some concrete object is known to be in, so their queries can share answers. */
+  private Set<State> witnessedStates;
+
+  /**
+   * Enables answering queries from witnessed states with the answers of equivalent queries from
+   * other witnessed states, telling which guards each query can observe with these field accesses.
+   */
+  public void setAnswerSharingAnalysis(final FieldAccessAnalysis fieldAccessAnalysis) {
+
+    this.answerSharingAnalysis = fieldAccessAnalysis;
+  }
+
+  /** @return How many queries were answered with the answer of an equivalent query. */
+  public long getNumberOfSharedAnswers() {
+
+    return answerMemo == null ? 0 : answerMemo.getNumberOfSharedAnswers();
+  }
+
+  /**
+   * Enables skipping the necessity queries of actions whose state preconditions read nothing the
+   * main action may write.
+   */
+  public void setFieldAccessAnalysis(final FieldAccessAnalysis fieldAccessAnalysis) {
+
+    this.fieldAccessAnalysis = fieldAccessAnalysis;
+  }
+
+  /** Enables skipping the exceptional-outcome queries of actions that can't raise exceptions. */
+  public void setExceptionAnalysis(final ExceptionAnalysis exceptionAnalysis) {
+
+    this.exceptionAnalysis = exceptionAnalysis;
+  }
+
+  /** @return How many throwing queries were skipped because the action can't raise exceptions. */
+  public long getNumberOfSkippedExceptionalQueries() {
+
+    return skippedExceptionalQueries == null ? 0 : skippedExceptionalQueries.get();
+  }
+
+  /** Runs the necessity queries skipped by the frame analysis anyway, reporting disagreements. */
+  public void setFrameVerificationEnabled(final boolean frameVerificationEnabled) {
+
+    this.frameVerificationEnabled = frameVerificationEnabled;
+  }
+
+  /** @return How many necessity queries were answered by the frame analysis. */
+  public long getNumberOfFramedNecessityQueries() {
+
+    return framedNecessityQueries == null ? 0 : framedNecessityQueries.get();
+  }
+
+  /** @return How many frame analysis answers the queries contradicted, in verification mode. */
+  public long getNumberOfFrameMismatches() {
+
+    return frameMismatches == null ? 0 : frameMismatches.get();
+  }
+
+  /** Whether each target state is feasible, by state. Witnessed states are feasible for sure. */
+  private Map<State, Future<Answer>> stateFeasibility;
+
+  private Set<State> infeasibleStates;
+
+  /**
+   * Enables checking that the targets of uncertain transitions satisfy the invariant before
+   * exploring them.
+   */
+  public void setStateFeasibilityEnabled(final boolean stateFeasibilityEnabled) {
+
+    this.stateFeasibilityEnabled = stateFeasibilityEnabled;
+  }
+
+  /** @return How many target states were discarded because no object can be in them. */
+  public long getNumberOfInfeasibleStates() {
+
+    return infeasibleStates == null ? 0 : infeasibleStates.size();
+  }
+
+  /**
+   * Enables a pre-pass that learns implications between the state preconditions, used to discard
+   * target states that can't exist before querying them.
+   */
+  public void setGuardImplicationsEnabled(final boolean guardImplicationsEnabled) {
+
+    this.guardImplicationsEnabled = guardImplicationsEnabled;
+  }
+
+  /** @return How many candidate target states were discarded by the guard implications. */
+  public long getNumberOfPrunedTargetStates() {
+
+    return prunedTargetStates == null ? 0 : prunedTargetStates.get();
+  }
+
+  /** Global lemmas are loaded from, and saved to, this file. */
+  public void setLemmaFile(final File lemmaFile) {
+
+    this.lemmaFile = lemmaFile;
+  }
+
+  /** @return The global lemmas of the last exploration, if they were enabled. */
+  public Optional<LemmaStore> getLemmaStore() {
+
+    return Optional.ofNullable(lemmaStore);
+  }
 
   /*
    * Start the generation of a PEPA. The initial state has all constructors enabled.
@@ -78,17 +292,53 @@ public class LazyEpaGenerator extends EpaGenerator {
       driverExecutorService = Executors.newCachedThreadPool();
       queriesExecutorService = Executors.newFixedThreadPool(numberOfThreads);
       statesAlreadyEnqueued = Sets.newHashSet();
+      stateDepths = new StateDepths(budget.getDepthLimit());
+      unexploredStates = ConcurrentHashMap.newKeySet();
+      budgetMeter = new BudgetMeter(budget, Clock.systemUTC());
       phaser = new Phaser();
       phaser.register();
 
       final State initialState = new State(constructors, Sets.newHashSet());
 
       epa = new Epa(theClass.getQualifiedJavaName(), initialState);
-
-      if (Main.globalNecessaryQueriesEnable) globalNecessaryQueries();
+      startSnapshots(epa);
+
+      lemmaStore = null;
+      guardImplications = null;
+      prunedTargetStates = new AtomicLong();
+      stateFeasibility = new ConcurrentHashMap<>();
+      infeasibleStates = ConcurrentHashMap.newKeySet();
+      framedNecessityQueries = new AtomicLong();
+      frameMismatches = new AtomicLong();
+      skippedExceptionalQueries = new AtomicLong();
+      witnessedStates = ConcurrentHashMap.newKeySet();
+      answerMemo =
+          answerSharingAnalysis == null
+              ? null
+              : new AnswerMemo(answerSharingAnalysis, invariant, witnessedStates);
+      queryPreSolver =
+          preSolvingReturnValues == null
+              ? null
+              : new QueryPreSolver(preSolvingReturnValues, preSolvingFieldAccesses, invariant);
+
+      if (Main.globalNecessaryQueriesEnable || guardImplicationsEnabled) {
+        lemmaStore =
+            LemmaStore.create(
+                getBaseTranslation(),
+                actions.stream().map(Action::toString).collect(Collectors.toList()),
+                Optional.ofNullable(lemmaFile).map(File::toPath));
+      }
+
+      if (guardImplicationsEnabled) {
+        guardImplications =
+            lemmaStore.getGuardImplications().orElseGet(this::computeGuardImplications);
+      }
+
+      final List<Transition> seeds = exploreWitnesses(theClass);
 
       debugLog.addInitialState(initialState);
-      enqueueStateIfNecessary(initialState);
+      enqueueStates(stateDepths.reach(initialState, 0));
+      enqueueWitnessedStates(initialState, seeds);
 
       phaser.arriveAndAwaitAdvance();
       driverExecutorService.shutdown();
@@ -97,29 +347,109 @@ public class LazyEpaGenerator extends EpaGenerator {
       driverExecutorService.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
       queriesExecutorService.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
 
+      final Set<State> depthFrontier = stateDepths.getFrontier();
+
+      budgetExhaustionReason = budgetMeter.getExhaustionReason().orElse(null);
+
+      if (budgetExhaustionReason == null && !depthFrontier.isEmpty()) {
+        budgetExhaustionReason = "depth limit of " + budget.getDepthLimit() + " reached";
+      }
+
+      unexploredStates.addAll(depthFrontier);
+      unexploredStates.forEach(epa::markUnexplored);
+
+      stopSnapshots(Optional.of(epa));
+
       return epa;
 
-    } catch (InterruptedException e) {
+    } catch (InterruptedException | IOException e) {
       throw new RuntimeException(e);
     } finally {
+      saveLemmas();
+      stopSnapshots(Optional.empty());
       printLog();
     }
   }
 
-  private void globalNecessaryQuery(Action mainAction, Action testedAction) {
-    Set enabledActions = new HashSet();
-    enabledActions.add(mainAction);
-    Set disabledActions = new HashSet();
+  /** @return The transitions taken by concrete objects, if the pre-pass is enabled. */
+  private List<Transition> exploreWitnesses(final Class theClass) {
+
+    witnessedTransitions = null;
+
+    if (witnessClassPath == null) {
+      return Collections.emptyList();
+    }
+
+    final Optional<ConcreteExecutor> executor =
+        ConcreteExecutor.load(
+            witnessClassPath, theClass.getQualifiedJavaName(), Duration.ofSeconds(5));
+
+    if (!executor.isPresent()) {
+      return Collections.emptyList();
+    }
+
+    try (final ConcreteExecutor concreteExecutor = executor.get()) {
+
+      final List<Transition> seeds =
+          new WitnessExplorer(concreteExecutor, constructors, actions, invariant, 0)
+              .explore(witnessSequences, witnessLength);
+
+      witnessedTransitions = new WitnessedTransitions(seeds);
+
+      return seeds;
+    }
+  }
+
+  /**
+   * Schedules the targets of the witnessed transitions right away, in BFS order from the initial
+   * state. The transitions themselves are added to the EPA when their queries, answered by the
+   * witnesses, are processed.
+   */
+  private void enqueueWitnessedStates(final State initialState, final List<Transition> seeds) {
+
+    final Map<State, Integer> depths = new HashMap<>();
+    final Deque<State> pending = new ArrayDeque<>();
+
+    depths.put(initialState, 0);
+    pending.add(initialState);
 
-    State state = new State(enabledActions, disabledActions);
+    while (!pending.isEmpty()) {
 
-    GlobalNecessarilyEnabledActionQuery necessarilyEnabledActionQuery =
-        new GlobalNecessarilyEnabledActionQuery(state, mainAction, testedAction, invariant);
-    GlobalNecessarilyDisabledActionQuery necessarilyDisabledActionQuery =
-        new GlobalNecessarilyDisabledActionQuery(state, mainAction, testedAction, invariant);
+      final State state = pending.poll();
 
-    Answer enabledAnswer = getAnswer(necessarilyEnabledActionQuery);
-    Answer disabledAnswer = getAnswer(necessarilyDisabledActionQuery);
+      for (final Transition seed : seeds) {
+
+        final State target = seed.getTarget();
+
+        if (seed.getSource().equals(state)
+            && !target.equals(State.ERROR)
+            && !depths.containsKey(target)) {
+
+          depths.put(target, depths.get(state) + 1);
+          pending.add(target);
+          witnessedStates.add(target);
+          enqueueStates(stateDepths.reach(target, depths.get(target)));
+        }
+      }
+    }
+  }
+
+  /**
+   * Computes the global dependency between two actions, querying from a state where only the main
+   * action is known to be enabled. As that state includes every state of the EPA where the main
+   * action is enabled, the dependency holds in all of them.
+   */
+  private Dependency computeGlobalDependency(
+      final Action mainAction, final Action testedAction) {
+
+    final State state = new State(Collections.singleton(mainAction), Collections.emptySet());
+
+    final Answer enabledAnswer =
+        getAnswer(
+            new GlobalNecessarilyEnabledActionQuery(state, mainAction, testedAction, invariant));
+    final Answer disabledAnswer =
+        getAnswer(
+            new GlobalNecessarilyDisabledActionQuery(state, mainAction, testedAction, invariant));
 
     if (enabledAnswer.equals(Answer.YES) && disabledAnswer.equals(Answer.YES)) {
       System.err.println(
@@ -133,49 +463,138 @@ public class LazyEpaGenerator extends EpaGenerator {
     }
 
     if (enabledAnswer.equals(Answer.YES)) {
-      List<String> enabledActionsList = dependencies_active.get(mainAction.toString());
-      enabledActionsList.add(testedAction.toString());
+      return Dependency.NECESSARILY_ENABLES;
     }
 
     if (disabledAnswer.equals(Answer.YES)) {
-      List<String> disabledActionsList = dependencies_disable.get(mainAction.toString());
-      disabledActionsList.add(testedAction.toString());
+      return Dependency.NECESSARILY_DISABLES;
     }
+
+    return Dependency.NONE;
   }
 
-  private void globalNecessaryQueries() {
+  /**
+   * Learns which state preconditions are constant, and which pairs of them imply or exclude each
+   * other, in every state satisfying the invariant. If the budget runs out the lemmas learned so
+   * far are kept, as each of them is sound on its own.
+   */
+  private GuardImplicationGraph computeGuardImplications() {
 
-    for (Action a : actions) {
-      List l1 = Collections.synchronizedList(new LinkedList());
-      List l2 = Collections.synchronizedList(new LinkedList());
+    final GuardImplicationGraph graph = new GuardImplicationGraph();
 
-      dependencies_disable.put(a.toString(), l1);
-      dependencies_active.put(a.toString(), l2);
+    final List<Action> guardedActions =
+        actions
+            .stream()
+            .filter(action -> action.getStatePrecondition().isPresent())
+            .sorted()
+            .collect(Collectors.toList());
+
+    try {
+
+      final Map<GuardImplicationQuery, Future<Answer>> factQueries = new LinkedHashMap<>();
+
+      for (final Action action : guardedActions) {
+        for (final boolean value : new boolean[] {true, false}) {
+          final GuardImplicationQuery query = new GuardImplicationQuery(action, value, invariant);
+          factQueries.put(query, submitQueryWithinBudget(query));
+        }
+      }
+
+      for (final Map.Entry<GuardImplicationQuery, Future<Answer>> entry : factQueries.entrySet()) {
+        if (waitForAnswer(entry.getValue()).equals(Answer.YES)) {
+          graph.addFact(getConsequentLiteral(entry.getKey()));
+        }
+      }
+
+      final List<Action> variableGuardActions =
+          guardedActions
+              .stream()
+              .filter(
+                  action ->
+                      !graph.isFact(new GuardLiteral(action.toString(), true))
+                          && !graph.isFact(new GuardLiteral(action.toString(), false)))
+              .collect(Collectors.toList());
+
+      final Map<GuardImplicationQuery, Future<Answer>> implicationQueries =
+          new LinkedHashMap<>();
+
+      for (int i = 0; i < variableGuardActions.size(); i++) {
+        for (int j = i + 1; j < variableGuardActions.size(); j++) {
+
+          final Action a = variableGuardActions.get(i);
+          final Action b = variableGuardActions.get(j);
+
+          // Together with the contrapositives, these cover the four implications between a and b
+          for (final GuardImplicationQuery query :
+              Arrays.asList(
+                  new GuardImplicationQuery(a, true, b, true, invariant),
+                  new GuardImplicationQuery(b, true, a, true, invariant),
+                  new GuardImplicationQuery(a, true, b, false, invariant),
+                  new GuardImplicationQuery(a, false, b, true, invariant))) {
+            implicationQueries.put(query, submitQueryWithinBudget(query));
+          }
+        }
+      }
+
+      for (final Map.Entry<GuardImplicationQuery, Future<Answer>> entry :
+          implicationQueries.entrySet()) {
+
+        if (waitForAnswer(entry.getValue()).equals(Answer.YES)) {
+          final GuardImplicationQuery query = entry.getKey();
+          graph.addImplication(
+              new GuardLiteral(query.getAntecedent().get().toString(), query.getAntecedentValue()),
+              getConsequentLiteral(query));
+        }
+      }
+
+      lemmaStore.setGuardImplications(graph, true);
+
+    } catch (BudgetExhaustedException e) {
+      lemmaStore.setGuardImplications(graph, false);
+    }
+
+    return graph;
+  }
+
+  private static GuardLiteral getConsequentLiteral(final GuardImplicationQuery query) {
+
+    return new GuardLiteral(query.getConsequent().toString(), query.getConsequentValue());
+  }
+
+  /** @return false if the guard implications show that no concrete state can have this state. */
+  private boolean isAdmittedByGuardImplications(final State state) {
+
+    if (guardImplications == null) {
+      return true;
     }
-    ExecutorService executor = Executors.newCachedThreadPool();
 
-    actions
+    final Map<String, Boolean> guards = new HashMap<>();
+
+    state
+        .getAllActions()
         .stream()
+        .filter(action -> action.getStatePrecondition().isPresent())
         .forEach(
-            mainAction -> {
-              actions
-                  .stream()
-                  .forEach(
-                      testedAction -> {
-                        executor.submit(
-                            () -> {
-                              globalNecessaryQuery(mainAction, testedAction);
-                            });
-                      });
-            });
+            action -> guards.put(action.toString(), state.getEnabledActions().contains(action)));
 
-    executor.shutdown();
+    if (guardImplications.admits(guards)) {
+      return true;
+    }
 
-    try {
+    prunedTargetStates.incrementAndGet();
+    return false;
+  }
+
+  private void saveLemmas() {
 
-      executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
-    } catch (InterruptedException e) {
-      e.printStackTrace();
+    if (lemmaStore == null) {
+      return;
+    }
+
+    try {
+      lemmaStore.save();
+    } catch (IOException e) {
+      System.err.println("Can't save the global lemmas: " + e.getMessage());
     }
   }
 
@@ -195,6 +614,15 @@ public class LazyEpaGenerator extends EpaGenerator {
    */
   private void analiseState(final State state) {
 
+    if (state.getEnabledActions().isEmpty()) {
+      return;
+    }
+
+    if (isBudgetExhausted()) {
+      unexploredStates.add(state);
+      return;
+    }
+
     state
         .getEnabledActions()
         .forEach(action -> runOnDriverExecutorService(() -> analiseStateAndAction(state, action)));
@@ -248,8 +676,14 @@ public class LazyEpaGenerator extends EpaGenerator {
    */
   private void analiseStateAndAction(final State state, final Action mainAction) {
 
-    final Set<NecessaryActionResult> necessaryActionResults =
-        getNecessaryActionResults(state, mainAction);
+    final Set<NecessaryActionResult> necessaryActionResults;
+
+    try {
+      necessaryActionResults = getNecessaryActionResults(state, mainAction);
+    } catch (BudgetExhaustedException e) {
+      unexploredStates.add(state);
+      return;
+    }
 
     final Set<Action> necessarilyEnabledActions =
         necessaryActionResults
@@ -279,23 +713,87 @@ public class LazyEpaGenerator extends EpaGenerator {
         query ->
             runOnDriverExecutorService(
                 () -> {
-                  final Optional<Transition> maybeTransition =
-                      query.getTransition(getAnswer(query));
+                  final Answer answer;
+
+                  try {
+                    answer = getAnswer(query);
+                  } catch (BudgetExhaustedException e) {
+                    unexploredStates.add(state);
+                    return;
+                  }
+
+                  final Optional<Transition> maybeTransition = query.getTransition(answer);
 
                   if (maybeTransition.isPresent()) {
 
                     final Transition transition = maybeTransition.get();
 
-                    final boolean enqueued = enqueueStateIfNecessary(transition.getTarget());
+                    if (!transition.isUncertain()) {
+                      witnessedStates.add(transition.getTarget());
+                    }
+
+                    if (!isFeasibleTarget(transition)) {
+                      return;
+                    }
+
+                    final boolean enqueued =
+                        enqueueStates(stateDepths.addTransition(state, transition.getTarget()))
+                            .contains(transition.getTarget());
                     epa.addTransition(transition);
 
                     if (enqueued) {
                       debugLog.logEnqueuedTransition(transition);
+                      newStateDiscovered(epa);
                     }
                   }
                 }));
   }
 
+  /**
+   * Definite transitions witness that their target exists. The target of an uncertain transition
+   * without such a witness is checked once against the invariant, and the transition is discarded
+   * if the target is infeasible.
+   *
+   * @return false if the target of the transition can't exist.
+   */
+  private boolean isFeasibleTarget(final Transition transition) {
+
+    final State target = transition.getTarget();
+
+    if (!stateFeasibilityEnabled || target.equals(State.ERROR)) {
+      return true;
+    }
+
+    if (!transition.isUncertain()) {
+      stateFeasibility.put(target, CompletableFuture.completedFuture(Answer.YES));
+      return true;
+    }
+
+    final Future<Answer> feasibility;
+
+    try {
+      feasibility =
+          stateFeasibility.computeIfAbsent(
+              target,
+              state -> submitQueryWithinBudget(new StateFeasibilityQuery(state, invariant)));
+    } catch (BudgetExhaustedException e) {
+      return true;
+    }
+
+    final Answer answer = waitForAnswer(feasibility);
+
+    if (answer.equals(Answer.NO)) {
+      infeasibleStates.add(target);
+      return false;
+    }
+
+    if (answer.equals(Answer.YES)) {
+      witnessedStates.add(target);
+    }
+
+    return true;
+  }
+
   /**
    * A stream with two invariant queries is returned The first query verifies a transition breaking
    * the invariant with no exception raised. The second query verifies a transition breaking the
@@ -307,11 +805,26 @@ public class LazyEpaGenerator extends EpaGenerator {
    */
   private Stream<Query> getInvariantTestQueries(final State state, final Action mainAction) {
 
+    if (!mayThrow(mainAction)) {
+      skippedExceptionalQueries.incrementAndGet();
+      return Stream.of(new TransitionBreaksInvariantQuery(state, mainAction, invariant));
+    }
+
     return Stream.of(
         new TransitionBreaksInvariantQuery(state, mainAction, invariant),
         new ExceptionBreaksInvariantQuery(state, mainAction, invariant));
   }
 
+  /**
+   * @return false if the exception analysis proves that the action can't raise an exception, so
+   *     every query about an exceptional outcome would answer no.
+   */
+  private boolean mayThrow(final Action action) {
+
+    return exceptionAnalysis == null
+        || exceptionAnalysis.mayThrow(action.getMethod().getTranslatedName());
+  }
+
   /**
    * Queries that check transitions to other states are created.
    *
@@ -343,6 +856,8 @@ public class LazyEpaGenerator extends EpaGenerator {
         Sets.difference(
             Sets.difference(actions, necessarilyEnabledActions), necessarilyDisabledActions);
 
+    final boolean mainActionMayThrow = mayThrow(mainAction);
+
     final CombinationsGenerator<Action> combinationsGenerator = new CombinationsGenerator<>();
     final Set<Set<Action>> combinations = combinationsGenerator.combinations(uncertainActions);
 
@@ -355,11 +870,17 @@ public class LazyEpaGenerator extends EpaGenerator {
                     necessarilyDisabledActions,
                     uncertainActions,
                     maybeEnabledActions))
+        .filter(this::isAdmittedByGuardImplications)
         .flatMap(
             targetState -> {
               final NotThrowingTransitionQuery notThrowingTransitionQuery =
                   new NotThrowingTransitionQuery(state, mainAction, targetState, invariant);
 
+              if (!mainActionMayThrow) {
+                skippedExceptionalQueries.incrementAndGet();
+                return Stream.of(notThrowingTransitionQuery);
+              }
+
               final ThrowingTransitionQuery throwingTransitionQuery =
                   new ThrowingTransitionQuery(state, mainAction, targetState, invariant);
 
@@ -368,22 +889,27 @@ public class LazyEpaGenerator extends EpaGenerator {
   }
 
   /**
-   * Schedules exploration from a state.
+   * Schedules exploration from the states that came within the depth limit, unless they were
+   * explored already.
    *
-   * @param state
-   * @return true if the state has not been explored yet, otherwise false.
+   * <p>A state first discovered beyond the depth limit is kept in the frontier of {@link
+   * StateDepths}, and scheduled later if it is reached again through a shorter path.
+   *
+   * @return The states that were scheduled.
    */
-  private synchronized boolean enqueueStateIfNecessary(State state) {
+  private synchronized Set<State> enqueueStates(final List<State> states) {
 
-    if (statesAlreadyEnqueued.contains(state)) {
-      return false;
-    }
+    final Set<State> enqueued = new HashSet<>();
 
-    statesAlreadyEnqueued.add(state);
+    for (final State state : states) {
 
-    runOnDriverExecutorService(() -> analiseState(state));
+      if (statesAlreadyEnqueued.add(state)) {
+        enqueued.add(state);
+        runOnDriverExecutorService(() -> analiseState(state));
+      }
+    }
 
-    return true;
+    return enqueued;
   }
 
   /**
@@ -427,65 +953,213 @@ public class LazyEpaGenerator extends EpaGenerator {
                 return new NecessaryActionResult(testedAction, Answer.YES, Answer.NO);
               }
 
-              NecessarilyEnabledActionQuery necessarilyEnabledActionQuery;
-              NecessarilyDisabledActionQuery necessarilyDisabledActionQuery;
-
-              Answer enabledAnswer = Answer.YES;
-              Answer disabledAnswer = Answer.YES;
-
-              if (Main.globalNecessaryQueriesEnable) {
-                if (dependencies_active
-                    .getOrDefault(mainAction.toString(), new LinkedList())
-                    .contains(testedAction.toString())) {
-                  enabledAnswer = Answer.YES;
-                  disabledAnswer = Answer.NO;
-                } else if (dependencies_disable
-                    .getOrDefault(mainAction.toString(), new LinkedList())
-                    .contains(testedAction.toString())) {
-                  disabledAnswer = Answer.YES;
-                  enabledAnswer = Answer.NO;
-                } else { // default case
-                  necessarilyEnabledActionQuery =
-                      new NecessarilyEnabledActionQuery(state, mainAction, testedAction, invariant);
-                  enabledAnswer = getAnswer(necessarilyEnabledActionQuery);
-                  necessarilyDisabledActionQuery =
-                      new NecessarilyDisabledActionQuery(
-                          state, mainAction, testedAction, invariant);
-                  disabledAnswer = getAnswer(necessarilyDisabledActionQuery);
-                }
-              } else { // defualt case
-                necessarilyEnabledActionQuery =
-                    new NecessarilyEnabledActionQuery(state, mainAction, testedAction, invariant);
-                enabledAnswer = getAnswer(necessarilyEnabledActionQuery);
-                necessarilyDisabledActionQuery =
-                    new NecessarilyDisabledActionQuery(state, mainAction, testedAction, invariant);
-                disabledAnswer = getAnswer(necessarilyDisabledActionQuery);
-              }
+              final Optional<NecessaryActionResult> framedResult =
+                  getFramedResult(state, mainAction, testedAction);
 
-              if (enabledAnswer.equals(Answer.YES) && disabledAnswer.equals(Answer.YES)) {
-                System.err.println(
-                    "Inconsistent necessity of action "
-                        + testedAction
-                        + " in state "
-                        + state
-                        + " after "
-                        + mainAction);
-                System.exit(1);
+              if (framedResult.isPresent() && !frameVerificationEnabled) {
+                framedNecessityQueries.addAndGet(2);
+                return framedResult.get();
               }
 
-              return new NecessaryActionResult(testedAction, enabledAnswer, disabledAnswer);
+              final NecessaryActionResult result =
+                  queryNecessaryActionResult(state, mainAction, testedAction);
+
+              framedResult.ifPresent(
+                  framed -> verifyFramedResult(state, mainAction, framed, result));
+
+              return result;
             })
         .collect(Collectors.toSet());
   }
 
+  /**
+   * The lemmas are about the instance actions, so there are none after running a constructor,
+   * whose necessity is answered with the local queries.
+   *
+   * @return The global dependency of the tested action on the main action, or empty if there's no
+   *     lemma about them.
+   */
+  static Optional<Dependency> getGlobalDependency(
+      final LemmaStore lemmaStore,
+      final State state,
+      final Action mainAction,
+      final Action testedAction,
+      final Supplier<Dependency> computation) {
+
+    if (state.isConstructorsState()) {
+      return Optional.empty();
+    }
+
+    return lemmaStore.getDependency(mainAction.toString(), testedAction.toString(), computation);
+  }
+
+  /** Answers the necessity of an action with the global lemmas, or else with its queries. */
+  private NecessaryActionResult queryNecessaryActionResult(
+      final State state, final Action mainAction, final Action testedAction) {
+
+    if (Main.globalNecessaryQueriesEnable) {
+
+      final Optional<Dependency> dependency =
+          getGlobalDependency(
+              lemmaStore,
+              state,
+              mainAction,
+              testedAction,
+              () -> computeGlobalDependency(mainAction, testedAction));
+
+      if (dependency.equals(Optional.of(Dependency.NECESSARILY_ENABLES))) {
+        return new NecessaryActionResult(testedAction, Answer.YES, Answer.NO);
+      }
+
+      if (dependency.equals(Optional.of(Dependency.NECESSARILY_DISABLES))) {
+        return new NecessaryActionResult(testedAction, Answer.NO, Answer.YES);
+      }
+    }
+
+    final Answer enabledAnswer =
+        getAnswer(new NecessarilyEnabledActionQuery(state, mainAction, testedAction, invariant));
+    final Answer disabledAnswer =
+        getAnswer(new NecessarilyDisabledActionQuery(state, mainAction, testedAction, invariant));
+
+    if (enabledAnswer.equals(Answer.YES) && disabledAnswer.equals(Answer.YES)) {
+      System.err.println(
+          "Inconsistent necessity of action "
+              + testedAction
+              + " in state "
+              + state
+              + " after "
+              + mainAction);
+      System.exit(1);
+    }
+
+    return new NecessaryActionResult(testedAction, enabledAnswer, disabledAnswer);
+  }
+
+  /**
+   * If nothing that runs in a necessity query after the source state is evaluated can modify what
+   * the tested action's state precondition reads, the tested action keeps its enabledness from the
+   * source state and both necessity queries are redundant.
+   *
+   * @return The necessity answers implied by the frame, if any.
+   */
+  private Optional<NecessaryActionResult> getFramedResult(
+      final State state, final Action mainAction, final Action testedAction) {
+
+    if (fieldAccessAnalysis == null || state.isConstructorsState()) {
+      return Optional.empty();
+    }
+
+    FieldAccesses writer = getAccesses(mainAction.getMethod()).union(getAccesses(invariant));
+
+    if (mainAction.getParamsPrecondition().isPresent()) {
+      writer = writer.union(getAccesses(mainAction.getParamsPrecondition().get()));
+    }
+
+    for (final Action action : state.getAllActions()) {
+      if (action.getStatePrecondition().isPresent()) {
+        writer = writer.union(getAccesses(action.getStatePrecondition().get()));
+      }
+    }
+
+    if (writer.mayAffect(getAccesses(testedAction.getStatePrecondition().get()))) {
+      return Optional.empty();
+    }
+
+    final boolean enabled = state.getEnabledActions().contains(testedAction);
+
+    return Optional.of(
+        new NecessaryActionResult(
+            testedAction, enabled ? Answer.YES : Answer.NO, enabled ? Answer.NO : Answer.YES));
+  }
+
+  private FieldAccesses getAccesses(final Method method) {
+
+    return fieldAccessAnalysis.getAccesses(method.getTranslatedName());
+  }
+
+  private void verifyFramedResult(
+      final State state,
+      final Action mainAction,
+      final NecessaryActionResult framed,
+      final NecessaryActionResult queried) {
+
+    if (framed.necessarilyEnabled.equals(queried.necessarilyEnabled)
+        && framed.necessarilyDisabled.equals(queried.necessarilyDisabled)) {
+      return;
+    }
+
+    frameMismatches.incrementAndGet();
+
+    System.err.println(
+        "Frame analysis mismatch for action "
+            + framed.testedAction
+            + " in state "
+            + state
+            + " after "
+            + mainAction
+            + ": expected enabled="
+            + framed.necessarilyEnabled
+            + ", disabled="
+            + framed.necessarilyDisabled
+            + " but the queries answered enabled="
+            + queried.necessarilyEnabled
+            + ", disabled="
+            + queried.necessarilyDisabled);
+  }
+
   /**
    * @param query
    * @return the answer of the performed query
    */
   private Answer getAnswer(final Query query) {
 
+    if (answerMemo == null || !answerMemo.isShareable(query)) {
+      return waitForAnswer(submitQueryWithinBudget(query));
+    }
+
+    final Optional<Answer> sharedAnswer = answerMemo.get(query);
+
+    if (sharedAnswer.isPresent()) {
+      return sharedAnswer.get();
+    }
+
+    final Answer answer = waitForAnswer(submitQueryWithinBudget(query));
+    answerMemo.put(query, answer);
+
+    return answer;
+  }
+
+  private Future<Answer> submitQueryWithinBudget(final Query query) {
+
+    if (witnessedTransitions != null) {
+
+      final Optional<Answer> witnessedAnswer = witnessedTransitions.answer(query);
+
+      if (witnessedAnswer.isPresent()) {
+        return CompletableFuture.completedFuture(witnessedAnswer.get());
+      }
+    }
+
+    if (queryPreSolver != null) {
+
+      final Optional<Answer> preSolvedAnswer = queryPreSolver.solve(query);
+
+      if (preSolvedAnswer.isPresent()) {
+        return CompletableFuture.completedFuture(preSolvedAnswer.get());
+      }
+    }
+
+    if (!budgetMeter.reserveQuery()) {
+      throw new BudgetExhaustedException();
+    }
+
+    return submitQuery(query);
+  }
+
+  private Answer waitForAnswer(final Future<Answer> answer) {
+
     try {
-      return submitQuery(query).get();
+      return answer.get();
     } catch (InterruptedException | ExecutionException e) {
       throw new RuntimeException(e);
     }
@@ -513,6 +1187,11 @@ public class LazyEpaGenerator extends EpaGenerator {
         });
   }
 
+  private boolean isBudgetExhausted() {
+
+    return budgetMeter.isExhausted();
+  }
+
   private static class NecessaryActionResult {
 
     public final Action testedAction;
@@ -536,4 +1215,10 @@ public class LazyEpaGenerator extends EpaGenerator {
 
     void run();
   }
+
+  /** Thrown instead of running a query once the exploration budget is exhausted. */
+  private static final class BudgetExhaustedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+  }
 }
@@ -0,0 +1,115 @@
+package contractorj.construction;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.SetMultimap;
+import contractorj.model.State;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * BFS depths of the discovered states, measured in transitions from the initial state, and the
+ * frontier of states that lie beyond the depth limit.
+ *
+ * <p>Transitions are discovered in parallel, so a state may first be reached through a longer path.
+ * When a shorter path shows up the depths of the state and of everything reached from it are
+ * relaxed, and the states that come within the limit leave the frontier.
+ */
+class StateDepths {
+
+  private final int depthLimit;
+
+  private final Map<State, Integer> depths = new HashMap<>();
+
+  private final SetMultimap<State, State> successors = HashMultimap.create();
+
+  private final Set<State> frontier = new HashSet<>();
+
+  StateDepths(final int depthLimit) {
+
+    this.depthLimit = depthLimit;
+  }
+
+  /**
+   * Records that a state is reachable in the given number of transitions.
+   *
+   * @return The states that came within the depth limit, in BFS order.
+   */
+  synchronized List<State> reach(final State state, final int depth) {
+
+    final List<State> withinLimit = new ArrayList<>();
+    final Deque<State> pending = new ArrayDeque<>();
+
+    if (relax(state, depth, withinLimit)) {
+      pending.add(state);
+    }
+
+    while (!pending.isEmpty()) {
+
+      final State relaxed = pending.poll();
+
+      for (final State successor : successors.get(relaxed)) {
+        if (relax(successor, depths.get(relaxed) + 1, withinLimit)) {
+          pending.add(successor);
+        }
+      }
+    }
+
+    return withinLimit;
+  }
+
+  /**
+   * Records a transition between two states, the source having been reached before.
+   *
+   * @return The states that came within the depth limit, in BFS order.
+   */
+  synchronized List<State> addTransition(final State source, final State target) {
+
+    final Integer sourceDepth = depths.get(source);
+
+    if (sourceDepth == null) {
+      throw new IllegalArgumentException("The source state " + source + " was never reached");
+    }
+
+    successors.put(source, target);
+
+    return reach(target, sourceDepth + 1);
+  }
+
+  synchronized Optional<Integer> getDepth(final State state) {
+
+    return Optional.ofNullable(depths.get(state));
+  }
+
+  /** @return The states with enabled actions that lie beyond the depth limit. */
+  synchronized Set<State> getFrontier() {
+
+    return Collections.unmodifiableSet(new HashSet<>(frontier));
+  }
+
+  private boolean relax(final State state, final int depth, final List<State> withinLimit) {
+
+    final Integer knownDepth = depths.get(state);
+
+    if (knownDepth != null && knownDepth <= depth) {
+      return false;
+    }
+
+    depths.put(state, depth);
+
+    if (depth > depthLimit && !state.getEnabledActions().isEmpty()) {
+      frontier.add(state);
+    } else if (knownDepth == null || frontier.remove(state)) {
+      withinLimit.add(state);
+    }
+
+    return true;
+  }
+}
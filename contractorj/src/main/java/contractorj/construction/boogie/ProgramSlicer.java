@@ -0,0 +1,382 @@
+package contractorj.construction.boogie;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cuts the translation down to the declarations a query procedure can reach: the procedures it
+ * calls, transitively, and the globals, constants and functions they mention. Axioms are kept when
+ * they mention a kept declaration, together with everything they mention. Type declarations are
+ * always kept.
+ *
+ * <p>Slices are cached by the set of declarations the query mentions, which is the same for every
+ * query with the same actions and invariant.
+ */
+public class ProgramSlicer {
+
+  private static final Set<String> TOP_LEVEL_KEYWORDS =
+      ImmutableSet.of(
+          "type", "const", "var", "function", "axiom", "procedure", "implementation");
+
+  private final List<Declaration> declarations = new ArrayList<>();
+
+  /** A procedure and its implementations share a name. */
+  private final Map<String, List<Declaration>> declarationsByName = new HashMap<>();
+
+  private final Map<String, List<Declaration>> axiomsBySymbol = new HashMap<>();
+
+  private final Map<Set<String>, String> slices = new ConcurrentHashMap<>();
+
+  private final AtomicLong numberOfSlices = new AtomicLong();
+
+  private final AtomicLong cacheHits = new AtomicLong();
+
+  private final AtomicLong keptDeclarations = new AtomicLong();
+
+  public ProgramSlicer(final String program) {
+
+    for (final String text : splitDeclarations(program)) {
+
+      final Declaration declaration = new Declaration(declarations.size(), text);
+      declarations.add(declaration);
+
+      for (final String name : declaration.names) {
+        declarationsByName.computeIfAbsent(name, key -> new ArrayList<>()).add(declaration);
+      }
+    }
+
+    // Axioms are reached through the functions, constants and globals they mention, not through
+    // types, which are always kept, nor through bound variables
+    for (final Declaration declaration : declarations) {
+      if (declaration.keyword.equals("axiom")) {
+        for (final String symbol : declaration.symbols) {
+          if (isNonTypeDeclaration(symbol)) {
+            axiomsBySymbol.computeIfAbsent(symbol, key -> new ArrayList<>()).add(declaration);
+          }
+        }
+      }
+    }
+  }
+
+  /** @return The declarations of the program that the query procedure depends on. */
+  public String slice(final String queryProcedure) {
+
+    final Set<String> roots = new TreeSet<>();
+
+    for (final String symbol : getIdentifiers(stripComments(queryProcedure))) {
+      if (declarationsByName.containsKey(symbol)) {
+        roots.add(symbol);
+      }
+    }
+
+    final String cached = slices.get(roots);
+
+    if (cached != null) {
+      cacheHits.incrementAndGet();
+      return cached;
+    }
+
+    final String slice = computeSlice(roots);
+    slices.put(roots, slice);
+
+    return slice;
+  }
+
+  /** @return The number of declarations in the whole program. */
+  public int getNumberOfDeclarations() {
+
+    return declarations.size();
+  }
+
+  /** @return The number of distinct slices computed. */
+  public long getNumberOfSlices() {
+
+    return numberOfSlices.get();
+  }
+
+  /** @return How many queries reused a slice computed for another query. */
+  public long getNumberOfCacheHits() {
+
+    return cacheHits.get();
+  }
+
+  /** @return The average number of declarations of the computed slices. */
+  public double getAverageSliceSize() {
+
+    final long slicesComputed = numberOfSlices.get();
+
+    return slicesComputed == 0 ? 0 : (double) keptDeclarations.get() / slicesComputed;
+  }
+
+  private String computeSlice(final Set<String> roots) {
+
+    final boolean[] kept = new boolean[declarations.size()];
+    final Set<String> reachedSymbols = new HashSet<>();
+    final Deque<String> pendingSymbols = new ArrayDeque<>(roots);
+
+    for (final Declaration declaration : declarations) {
+      if (declaration.keyword.equals("type")
+          || (declaration.keyword.equals("axiom") && !mentionsDeclarations(declaration))) {
+        kept[declaration.index] = true;
+      }
+    }
+
+    while (!pendingSymbols.isEmpty()) {
+
+      final String symbol = pendingSymbols.pop();
+
+      if (!reachedSymbols.add(symbol)) {
+        continue;
+      }
+
+      final List<Declaration> reached = new ArrayList<>();
+      reached.addAll(declarationsByName.getOrDefault(symbol, Collections.emptyList()));
+      reached.addAll(axiomsBySymbol.getOrDefault(symbol, Collections.emptyList()));
+
+      for (final Declaration declaration : reached) {
+
+        if (kept[declaration.index]) {
+          continue;
+        }
+
+        kept[declaration.index] = true;
+
+        for (final String used : declaration.symbols) {
+          if (declarationsByName.containsKey(used)) {
+            pendingSymbols.push(used);
+          }
+        }
+      }
+    }
+
+    final StringBuilder slice = new StringBuilder();
+    int numberOfKept = 0;
+
+    for (final Declaration declaration : declarations) {
+      if (kept[declaration.index]) {
+        slice.append(declaration.text).append("\n");
+        numberOfKept++;
+      }
+    }
+
+    numberOfSlices.incrementAndGet();
+    keptDeclarations.addAndGet(numberOfKept);
+
+    return slice.toString();
+  }
+
+  private boolean mentionsDeclarations(final Declaration declaration) {
+
+    return declaration.symbols.stream().anyMatch(this::isNonTypeDeclaration);
+  }
+
+  private boolean isNonTypeDeclaration(final String symbol) {
+
+    return declarationsByName
+        .getOrDefault(symbol, Collections.emptyList())
+        .stream()
+        .anyMatch(declaration -> !declaration.keyword.equals("type"));
+  }
+
+  /**
+   * Splits the program where a top level keyword appears outside braces and comments. The
+   * specification of a procedure, after its signature, belongs to the procedure.
+   */
+  static List<String> splitDeclarations(final String program) {
+
+    final List<String> texts = new ArrayList<>();
+
+    int depth = 0;
+    int start = -1;
+    int i = 0;
+
+    while (i < program.length()) {
+
+      final char c = program.charAt(i);
+
+      if (program.startsWith("//", i)) {
+        i = skipLine(program, i);
+      } else if (program.startsWith("/*", i)) {
+        i = skipBlockComment(program, i);
+      } else if (c == '{') {
+        depth++;
+        i++;
+      } else if (c == '}') {
+        depth--;
+        i++;
+      } else if (isIdentifierStart(c) && (i == 0 || !isIdentifierPart(program.charAt(i - 1)))) {
+
+        final int end = getIdentifierEnd(program, i);
+
+        if (depth == 0 && TOP_LEVEL_KEYWORDS.contains(program.substring(i, end))) {
+
+          if (start >= 0) {
+            texts.add(program.substring(start, i).trim());
+          }
+
+          start = i;
+        }
+
+        i = end;
+      } else {
+        i++;
+      }
+    }
+
+    if (start >= 0) {
+      texts.add(program.substring(start).trim());
+    }
+
+    return texts;
+  }
+
+  static String stripComments(final String text) {
+
+    final StringBuilder stripped = new StringBuilder();
+    int i = 0;
+
+    while (i < text.length()) {
+
+      if (text.startsWith("//", i)) {
+        i = skipLine(text, i);
+        stripped.append('\n');
+      } else if (text.startsWith("/*", i)) {
+        i = skipBlockComment(text, i);
+        stripped.append(' ');
+      } else {
+        stripped.append(text.charAt(i));
+        i++;
+      }
+    }
+
+    return stripped.toString();
+  }
+
+  /** Attributes are kept, so their arguments count as identifiers, which is conservative. */
+  static List<String> getIdentifiers(final String text) {
+
+    final List<String> identifiers = new ArrayList<>();
+    int i = 0;
+
+    while (i < text.length()) {
+
+      if (isIdentifierStart(text.charAt(i))) {
+        final int end = getIdentifierEnd(text, i);
+        identifiers.add(text.substring(i, end));
+        i = end;
+      } else if (isIdentifierPart(text.charAt(i))) {
+        // The digits of a number
+        i = getIdentifierEnd(text, i);
+      } else {
+        i++;
+      }
+    }
+
+    return identifiers;
+  }
+
+  private static int skipLine(final String text, final int from) {
+
+    final int end = text.indexOf('\n', from);
+    return end < 0 ? text.length() : end + 1;
+  }
+
+  private static int skipBlockComment(final String text, final int from) {
+
+    final int end = text.indexOf("*/", from + 2);
+    return end < 0 ? text.length() : end + 2;
+  }
+
+  private static int getIdentifierEnd(final String text, final int from) {
+
+    int end = from;
+
+    while (end < text.length() && isIdentifierPart(text.charAt(end))) {
+      end++;
+    }
+
+    return end;
+  }
+
+  private static boolean isIdentifierStart(final char c) {
+
+    return isIdentifierPart(c) && !Character.isDigit(c);
+  }
+
+  private static boolean isIdentifierPart(final char c) {
+
+    return Character.isLetterOrDigit(c) || "_.$#'`~^\\?".indexOf(c) >= 0;
+  }
+
+  /** A top level declaration, with the names it declares and the identifiers it mentions. */
+  private static class Declaration {
+
+    private final int index;
+
+    private final String text;
+
+    private final String keyword;
+
+    private final Set<String> names = new HashSet<>();
+
+    private final Set<String> symbols = new HashSet<>();
+
+    private Declaration(final int index, final String text) {
+
+      this.index = index;
+      this.text = text;
+
+      final List<String> identifiers = getIdentifiers(stripAttributes(stripComments(text)));
+      this.keyword = identifiers.get(0);
+
+      switch (keyword) {
+        case "const":
+        case "var":
+          names.addAll(getDeclaredVariables(stripAttributes(stripComments(text))));
+          break;
+
+        case "axiom":
+          break;
+
+        default:
+          if (identifiers.size() > 1) {
+            names.add(identifiers.get(1));
+          }
+      }
+
+      for (final String identifier : getIdentifiers(stripComments(text))) {
+        if (!names.contains(identifier)) {
+          symbols.add(identifier);
+        }
+      }
+    }
+
+    /** @return The names in {@code var a, b : T;} or {@code const unique a : T;}. */
+    private static List<String> getDeclaredVariables(final String text) {
+
+      final int colon = text.indexOf(':');
+      final List<String> names = getIdentifiers(colon < 0 ? text : text.substring(0, colon));
+
+      names.remove(0); // The keyword
+      names.remove("unique");
+
+      return names;
+    }
+
+    private static String stripAttributes(final String text) {
+
+      return text.replaceAll("\\{:[^{}]*\\}", " ");
+    }
+  }
+}
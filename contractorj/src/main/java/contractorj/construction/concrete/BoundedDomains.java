@@ -0,0 +1,127 @@
+package contractorj.construction.concrete;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The finite domains a bounded-exhaustive enumeration draws values from. With bound {@code k},
+ * integral values range over {@code [-k, k]}, arrays have at most {@code k} elements with default
+ * values, and other references are null.
+ */
+public class BoundedDomains {
+
+  private static final List<String> STRINGS = Arrays.asList(null, "", "a", "a b");
+
+  private BoundedDomains() {}
+
+  public static List<Object> getValues(final java.lang.Class<?> type, final int bound) {
+
+    if (bound < 0) {
+      throw new IllegalArgumentException("The bound can't be negative");
+    }
+
+    final List<Object> values = new ArrayList<>();
+
+    if (type.equals(boolean.class)) {
+      values.add(false);
+      values.add(true);
+      return values;
+    }
+
+    if (type.equals(char.class)) {
+      for (int i = 0; i <= bound; i++) {
+        values.add((char) ('a' + i));
+      }
+      return values;
+    }
+
+    if (type.equals(String.class)) {
+      values.addAll(STRINGS.subList(0, Math.min(STRINGS.size(), bound + 1)));
+      return values;
+    }
+
+    if (type.isArray()) {
+      values.add(null);
+      for (int length = 0; length <= bound; length++) {
+        values.add(Array.newInstance(type.getComponentType(), length));
+      }
+      return values;
+    }
+
+    if (!type.isPrimitive()) {
+      values.add(null);
+      return values;
+    }
+
+    for (int i = -bound; i <= bound; i++) {
+      values.add(toPrimitive(type, i));
+    }
+
+    return values;
+  }
+
+  /**
+   * @return Every combination of one value of each domain, or empty if there are more than {@code
+   *     limit}.
+   */
+  public static Optional<List<List<Object>>> getCombinations(
+      final List<List<Object>> domains, final long limit) {
+
+    long size = 1;
+
+    for (final List<Object> domain : domains) {
+      size *= domain.size();
+      if (size > limit) {
+        return Optional.empty();
+      }
+    }
+
+    List<List<Object>> combinations = Collections.singletonList(new ArrayList<>());
+
+    for (final List<Object> domain : domains) {
+
+      final List<List<Object>> extended = new ArrayList<>();
+
+      for (final List<Object> combination : combinations) {
+        for (final Object value : domain) {
+          final List<Object> copy = new ArrayList<>(combination);
+          copy.add(value);
+          extended.add(copy);
+        }
+      }
+
+      combinations = extended;
+    }
+
+    return Optional.of(combinations);
+  }
+
+  private static Object toPrimitive(final java.lang.Class<?> type, final int value) {
+
+    if (type.equals(byte.class)) {
+      return (byte) value;
+    }
+
+    if (type.equals(short.class)) {
+      return (short) value;
+    }
+
+    if (type.equals(long.class)) {
+      return (long) value;
+    }
+
+    if (type.equals(float.class)) {
+      return (float) value;
+    }
+
+    if (type.equals(double.class)) {
+      return (double) value;
+    }
+
+    return value;
+  }
+}
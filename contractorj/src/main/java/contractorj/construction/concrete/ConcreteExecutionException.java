@@ -0,0 +1,12 @@
+package contractorj.construction.concrete;
+
+/** Thrown when a concrete execution can't go on, as opposed to the program raising an exception. */
+public class ConcreteExecutionException extends Exception {
+
+  private static final long serialVersionUID = 1L;
+
+  public ConcreteExecutionException(final String message) {
+
+    super(message);
+  }
+}
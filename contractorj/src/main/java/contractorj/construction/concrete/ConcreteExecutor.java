@@ -0,0 +1,440 @@
+package contractorj.construction.concrete;
+
+import contractorj.model.Action;
+import contractorj.model.State;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import jbct.model.Method;
+
+/**
+ * Runs the actions, preconditions and invariant of the analyzed class on real objects, loading the
+ * compiled class reflectively.
+ *
+ * <p>Every call runs in a separate thread with a time limit. Once a call times out its thread is
+ * abandoned and the executor refuses to run anything else.
+ */
+public class ConcreteExecutor implements AutoCloseable {
+
+  private final java.lang.Class<?> theClass;
+
+  private final URLClassLoader classLoader;
+
+  private final Duration callTimeout;
+
+  private final Map<Method, Optional<Executable>> executables = new HashMap<>();
+
+  private ExecutorService callExecutor = createCallExecutor();
+
+  private ConcreteExecutor(
+      final java.lang.Class<?> theClass,
+      final URLClassLoader classLoader,
+      final Duration callTimeout) {
+
+    this.theClass = theClass;
+    this.classLoader = classLoader;
+    this.callTimeout = callTimeout;
+  }
+
+  /**
+   * @param classPath The directories and jars with the compiled classes of the analyzed program.
+   * @return An executor for the class, or empty if it can't be loaded.
+   */
+  public static Optional<ConcreteExecutor> load(
+      final List<File> classPath, final String className, final Duration callTimeout) {
+
+    URLClassLoader classLoader = null;
+
+    try {
+      final URL[] urls = new URL[classPath.size()];
+
+      for (int i = 0; i < urls.length; i++) {
+        urls[i] = classPath.get(i).toURI().toURL();
+      }
+
+      classLoader = new URLClassLoader(urls, ConcreteExecutor.class.getClassLoader());
+
+      return Optional.of(
+          new ConcreteExecutor(
+              java.lang.Class.forName(className, false, classLoader), classLoader, callTimeout));
+
+    } catch (MalformedURLException | ClassNotFoundException | LinkageError e) {
+      System.err.println("Can't load " + className + " for concrete execution: " + e);
+
+      if (classLoader != null) {
+        closeClassLoader(classLoader);
+      }
+
+      return Optional.empty();
+    }
+  }
+
+  /** @return false if the method or any of its preconditions can't be called reflectively. */
+  public boolean canExecute(final Action action) {
+
+    return getExecutable(action.getMethod()).isPresent()
+        && action.getStatePrecondition().map(pre -> getExecutable(pre).isPresent()).orElse(true)
+        && action.getParamsPrecondition().map(pre -> getExecutable(pre).isPresent()).orElse(true);
+  }
+
+  public boolean canExecute(final Method method) {
+
+    return getExecutable(method).isPresent();
+  }
+
+  /** @return false if the invariant or any state precondition can't be called reflectively. */
+  public boolean canEvaluateStates(final Method invariant, final Set<Action> actions) {
+
+    return canExecute(invariant)
+        && actions
+            .stream()
+            .allMatch(action -> action.getStatePrecondition().map(this::canExecute).orElse(true));
+  }
+
+  /** @return The types of the arguments of the action, without the receiver. */
+  public List<java.lang.Class<?>> getParameterTypes(final Action action) {
+
+    final List<java.lang.Class<?>> types = new ArrayList<>();
+
+    for (final java.lang.Class<?> type :
+        getExecutable(action.getMethod()).get().getParameterTypes()) {
+      types.add(type);
+    }
+
+    return types;
+  }
+
+  /**
+   * Runs an action. Constructors ignore the receiver and return the new object.
+   *
+   * @return The receiver after the call, or empty if the call raised an exception.
+   */
+  public Optional<Object> run(final Action action, final Object receiver, final Object[] arguments)
+      throws ConcreteExecutionException {
+
+    final Executable executable = getExecutable(action.getMethod()).get();
+
+    if (!(executable instanceof Constructor)) {
+      return runOn(action, receiver, arguments) ? Optional.of(receiver) : Optional.empty();
+    }
+
+    try {
+      return Optional.of(call(() -> ((Constructor<?>) executable).newInstance(arguments)));
+    } catch (InvocationTargetException e) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Runs a method action on an existing object, which keeps its state if the action raises an
+   * exception.
+   *
+   * @return false if the action raised an exception.
+   */
+  public boolean runOn(final Action action, final Object receiver, final Object[] arguments)
+      throws ConcreteExecutionException {
+
+    final java.lang.reflect.Method executable =
+        (java.lang.reflect.Method) getExecutable(action.getMethod()).get();
+
+    try {
+      call(() -> executable.invoke(receiver, arguments));
+      return true;
+    } catch (InvocationTargetException e) {
+      return false;
+    }
+  }
+
+  /** @return The instance fields of the class, including the inherited ones. */
+  public List<Field> getInstanceFields() {
+
+    final List<Field> fields = new ArrayList<>();
+
+    for (java.lang.Class<?> current = theClass;
+        current != null && !current.equals(Object.class);
+        current = current.getSuperclass()) {
+
+      for (final Field field : current.getDeclaredFields()) {
+        if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()) {
+          field.setAccessible(true);
+          fields.add(field);
+        }
+      }
+    }
+
+    return fields;
+  }
+
+  /**
+   * Creates an object of the class without running any of its constructors, and sets its fields.
+   *
+   * @param values The value of each field, in the order of {@link #getInstanceFields()}.
+   */
+  public Object instantiate(final List<Field> fields, final List<Object> values)
+      throws ConcreteExecutionException {
+
+    final Object object = allocate();
+
+    try {
+      for (int i = 0; i < fields.size(); i++) {
+        fields.get(i).set(object, copyIfArray(values.get(i)));
+      }
+    } catch (IllegalAccessException e) {
+      throw new ConcreteExecutionException("Can't set fields: " + e.getMessage());
+    }
+
+    return object;
+  }
+
+  /** Arrays are copied so that objects never share them. */
+  private static Object copyIfArray(final Object value) {
+
+    if (value == null || !value.getClass().isArray()) {
+      return value;
+    }
+
+    final int length = java.lang.reflect.Array.getLength(value);
+    final Object copy =
+        java.lang.reflect.Array.newInstance(value.getClass().getComponentType(), length);
+    System.arraycopy(value, 0, copy, 0, length);
+
+    return copy;
+  }
+
+  /** Objects are allocated with {@code sun.misc.Unsafe}, which doesn't need a constructor. */
+  private Object allocate() throws ConcreteExecutionException {
+
+    try {
+      final java.lang.Class<?> unsafeClass = java.lang.Class.forName("sun.misc.Unsafe");
+      final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+      theUnsafe.setAccessible(true);
+
+      return unsafeClass
+          .getMethod("allocateInstance", java.lang.Class.class)
+          .invoke(theUnsafe.get(null), theClass);
+
+    } catch (ReflectiveOperationException e) {
+      throw new ConcreteExecutionException("Can't allocate " + theClass.getName() + ": " + e);
+    }
+  }
+
+  /** @return Whether the arguments satisfy the action's parameters precondition, if it has one. */
+  public Optional<Boolean> satisfiesParamsPrecondition(
+      final Action action, final Object receiver, final Object[] arguments)
+      throws ConcreteExecutionException {
+
+    if (!action.getParamsPrecondition().isPresent()) {
+      return Optional.of(true);
+    }
+
+    return evaluate(action.getParamsPrecondition().get(), receiver, arguments);
+  }
+
+  /** @return The result of the invariant, or empty if it raised an exception. */
+  public Optional<Boolean> evaluateInvariant(final Method invariant, final Object receiver)
+      throws ConcreteExecutionException {
+
+    return evaluate(invariant, receiver, new Object[0]);
+  }
+
+  /** @return The state the object is in, or empty if a state precondition raised an exception. */
+  public Optional<State> evaluateState(final Set<Action> actions, final Object receiver)
+      throws ConcreteExecutionException {
+
+    final Set<Action> enabled = new HashSet<>();
+    final Set<Action> disabled = new HashSet<>();
+
+    for (final Action action : actions) {
+
+      if (!action.getStatePrecondition().isPresent()) {
+        enabled.add(action);
+        continue;
+      }
+
+      final Optional<Boolean> result =
+          evaluate(action.getStatePrecondition().get(), receiver, new Object[0]);
+
+      if (!result.isPresent()) {
+        return Optional.empty();
+      }
+
+      (result.get() ? enabled : disabled).add(action);
+    }
+
+    return Optional.of(new State(enabled, disabled));
+  }
+
+  /** Stops the call thread and closes the jars of the class path. */
+  @Override
+  public void close() {
+
+    if (callExecutor != null) {
+      callExecutor.shutdownNow();
+      callExecutor = null;
+    }
+
+    closeClassLoader(classLoader);
+  }
+
+  private static void closeClassLoader(final URLClassLoader classLoader) {
+
+    try {
+      classLoader.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private Optional<Boolean> evaluate(
+      final Method method, final Object receiver, final Object[] arguments)
+      throws ConcreteExecutionException {
+
+    final java.lang.reflect.Method executable =
+        (java.lang.reflect.Method) getExecutable(method).get();
+
+    final Object[] actualArguments = getActualArguments(executable, arguments);
+    final Object actualReceiver = Modifier.isStatic(executable.getModifiers()) ? null : receiver;
+
+    try {
+      return Optional.of(
+          Boolean.TRUE.equals(call(() -> executable.invoke(actualReceiver, actualArguments))));
+    } catch (InvocationTargetException e) {
+      return Optional.empty();
+    }
+  }
+
+  /** Parameters preconditions may take fewer arguments than their action, never more. */
+  private static Object[] getActualArguments(
+      final java.lang.reflect.Method executable, final Object[] arguments) {
+
+    final Object[] actualArguments = new Object[executable.getParameterCount()];
+    System.arraycopy(
+        arguments, 0, actualArguments, 0, Math.min(arguments.length, actualArguments.length));
+    return actualArguments;
+  }
+
+  private Object call(final Callable<Object> callable)
+      throws ConcreteExecutionException, InvocationTargetException {
+
+    if (callExecutor == null) {
+      throw new ConcreteExecutionException("A previous call didn't finish");
+    }
+
+    final Future<Object> result = callExecutor.submit(callable);
+
+    try {
+      return result.get(callTimeout.toMillis(), TimeUnit.MILLISECONDS);
+
+    } catch (TimeoutException e) {
+      result.cancel(true);
+      callExecutor.shutdownNow();
+      callExecutor = null;
+      throw new ConcreteExecutionException("Call timed out after " + callTimeout);
+
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof InvocationTargetException) {
+        throw (InvocationTargetException) e.getCause();
+      }
+      throw new ConcreteExecutionException(e.getCause().toString());
+
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ConcreteExecutionException("Interrupted");
+    }
+  }
+
+  private synchronized Optional<Executable> getExecutable(final Method method) {
+
+    return executables.computeIfAbsent(method, this::findExecutable);
+  }
+
+  private Optional<Executable> findExecutable(final Method method) {
+
+    try {
+      final List<java.lang.Class<?>> parameterTypes = new ArrayList<>();
+
+      for (final String typeName : method.getParameterTypeNames()) {
+        parameterTypes.add(toClass(typeName));
+      }
+
+      final java.lang.Class<?>[] types = parameterTypes.toArray(new java.lang.Class<?>[0]);
+
+      final Executable executable =
+          method.isConstructor()
+              ? theClass.getDeclaredConstructor(types)
+              : theClass.getDeclaredMethod(method.getBaseJavaName(), types);
+
+      executable.setAccessible(true);
+
+      return Optional.of(executable);
+
+    } catch (ClassNotFoundException | NoSuchMethodException | LinkageError | SecurityException e) {
+      return Optional.empty();
+    }
+  }
+
+  private java.lang.Class<?> toClass(final String typeName) throws ClassNotFoundException {
+
+    switch (typeName) {
+      case "boolean":
+        return boolean.class;
+      case "byte":
+        return byte.class;
+      case "char":
+        return char.class;
+      case "short":
+        return short.class;
+      case "int":
+        return int.class;
+      case "long":
+        return long.class;
+      case "float":
+        return float.class;
+      case "double":
+        return double.class;
+      default:
+        break;
+    }
+
+    if (typeName.endsWith("[]")) {
+      return java.lang.reflect.Array.newInstance(
+              toClass(typeName.substring(0, typeName.length() - 2)), 0)
+          .getClass();
+    }
+
+    return java.lang.Class.forName(typeName, false, classLoader);
+  }
+
+  private static ExecutorService createCallExecutor() {
+
+    return Executors.newSingleThreadExecutor(
+        runnable -> {
+          final Thread thread = new Thread(runnable, "concrete-execution");
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+}
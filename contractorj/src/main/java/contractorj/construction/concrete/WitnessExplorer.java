@@ -0,0 +1,219 @@
+package contractorj.construction.concrete;
+
+import contractorj.model.Action;
+import contractorj.model.State;
+import contractorj.model.Transition;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import jbct.model.Method;
+
+/**
+ * Discovers transitions of the EPA by running random call sequences on real objects. Each sequence
+ * starts with a constructor and goes on with actions enabled in the current state, with arguments
+ * drawn from small domains until they satisfy the parameters precondition.
+ *
+ * <p>Every transition found is definite: some object takes it. A sequence ends when an action
+ * raises an exception, as the translation doesn't model every exception the JVM raises, or when
+ * the invariant breaks.
+ */
+public class WitnessExplorer {
+
+  private static final int ARGUMENT_ATTEMPTS = 20;
+
+  private static final int[] INTEGERS = {-1, 0, 1, 2, 3, 10};
+
+  private static final String[] STRINGS = {"", "a", "a b", "abc"};
+
+  private final ConcreteExecutor executor;
+
+  private final Set<Action> constructors;
+
+  private final Set<Action> actions;
+
+  private final Method invariant;
+
+  private final Random random;
+
+  public WitnessExplorer(
+      final ConcreteExecutor executor,
+      final Set<Action> constructors,
+      final Set<Action> actions,
+      final Method invariant,
+      final long seed) {
+
+    this.executor = executor;
+    this.constructors = constructors;
+    this.actions = actions;
+    this.invariant = invariant;
+    this.random = new Random(seed);
+  }
+
+  /**
+   * @param sequences How many call sequences to run.
+   * @param maxLength The maximum number of calls of each sequence, including the constructor.
+   * @return The transitions taken by the sequences, without repetitions.
+   */
+  public List<Transition> explore(final int sequences, final int maxLength) {
+
+    final Map<List<Object>, Transition> transitions = new LinkedHashMap<>();
+
+    if (!executor.canEvaluateStates(invariant, actions)) {
+      System.err.println("Can't evaluate the invariant and state preconditions concretely");
+      return new ArrayList<>();
+    }
+
+    for (int i = 0; i < sequences; i++) {
+      try {
+        runSequence(maxLength, transitions);
+      } catch (ConcreteExecutionException e) {
+        System.err.println("Stopping concrete exploration: " + e.getMessage());
+        break;
+      }
+    }
+
+    return new ArrayList<>(transitions.values());
+  }
+
+  private void runSequence(final int maxLength, final Map<List<Object>, Transition> transitions)
+      throws ConcreteExecutionException {
+
+    State state = new State(constructors, Collections.emptySet());
+    Object receiver = null;
+
+    for (int step = 0; step < maxLength; step++) {
+
+      final List<Action> candidates =
+          state
+              .getEnabledActions()
+              .stream()
+              .filter(executor::canExecute)
+              .sorted()
+              .collect(Collectors.toList());
+
+      if (candidates.isEmpty()) {
+        return;
+      }
+
+      final Action action = candidates.get(random.nextInt(candidates.size()));
+      final Optional<Object[]> arguments = findArguments(action, receiver);
+
+      if (!arguments.isPresent()) {
+        continue;
+      }
+
+      final Optional<Object> result = executor.run(action, receiver, arguments.get());
+
+      if (!result.isPresent()) {
+        return;
+      }
+
+      receiver = result.get();
+
+      final Optional<Boolean> invariantHolds = executor.evaluateInvariant(invariant, receiver);
+
+      if (!invariantHolds.isPresent()) {
+        return;
+      }
+
+      if (!invariantHolds.get()) {
+        record(new Transition(state, action, State.ERROR, false, false), transitions);
+        return;
+      }
+
+      final Optional<State> target = executor.evaluateState(actions, receiver);
+
+      if (!target.isPresent()) {
+        return;
+      }
+
+      record(new Transition(state, action, target.get(), false, false), transitions);
+      state = target.get();
+    }
+  }
+
+  private static void record(
+      final Transition transition, final Map<List<Object>, Transition> transitions) {
+
+    transitions.putIfAbsent(
+        Arrays.asList(transition.getSource(), transition.getAction(), transition.getTarget()),
+        transition);
+  }
+
+  private Optional<Object[]> findArguments(final Action action, final Object receiver)
+      throws ConcreteExecutionException {
+
+    final List<java.lang.Class<?>> types = executor.getParameterTypes(action);
+
+    for (int attempt = 0; attempt < ARGUMENT_ATTEMPTS; attempt++) {
+
+      final Object[] arguments = new Object[types.size()];
+
+      for (int i = 0; i < arguments.length; i++) {
+        arguments[i] = drawValue(types.get(i));
+      }
+
+      if (executor
+          .satisfiesParamsPrecondition(action, receiver, arguments)
+          .equals(Optional.of(true))) {
+        return Optional.of(arguments);
+      }
+
+      if (arguments.length == 0) {
+        break;
+      }
+    }
+
+    return Optional.empty();
+  }
+
+  private Object drawValue(final java.lang.Class<?> type) {
+
+    final int integer = INTEGERS[random.nextInt(INTEGERS.length)];
+
+    if (type.equals(boolean.class)) {
+      return random.nextBoolean();
+    }
+
+    if (type.equals(int.class)) {
+      return integer;
+    }
+
+    if (type.equals(long.class)) {
+      return (long) integer;
+    }
+
+    if (type.equals(short.class)) {
+      return (short) integer;
+    }
+
+    if (type.equals(byte.class)) {
+      return (byte) integer;
+    }
+
+    if (type.equals(char.class)) {
+      return (char) ('a' + Math.abs(integer));
+    }
+
+    if (type.equals(double.class)) {
+      return (double) integer / 2;
+    }
+
+    if (type.equals(float.class)) {
+      return (float) integer / 2;
+    }
+
+    if (type.equals(String.class)) {
+      return STRINGS[random.nextInt(STRINGS.length)];
+    }
+
+    return null;
+  }
+}
@@ -0,0 +1,105 @@
+package contractorj.construction.concrete;
+
+import contractorj.construction.queries.Answer;
+import contractorj.construction.queries.Query;
+import contractorj.construction.queries.invariant.InvariantQuery;
+import contractorj.construction.queries.necessary_actions.NecessaryActionQuery;
+import contractorj.construction.queries.transition.TransitionQuery;
+import contractorj.model.Action;
+import contractorj.model.State;
+import contractorj.model.Transition;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transitions taken by concrete objects, used to answer the queries they witness: the queries
+ * about those transitions are answered yes, and the necessity queries they contradict are answered
+ * no. Only queries about normal termination are answered, as witnesses never raise exceptions.
+ */
+public class WitnessedTransitions {
+
+  private final Set<List<Object>> transitions = new HashSet<>();
+
+  private final Map<List<Object>, List<State>> targets = new HashMap<>();
+
+  private final AtomicLong witnessedAnswers = new AtomicLong();
+
+  public WitnessedTransitions(final Collection<Transition> witnessedTransitions) {
+
+    for (final Transition transition : witnessedTransitions) {
+
+      transitions.add(
+          Arrays.asList(transition.getSource(), transition.getAction(), transition.getTarget()));
+
+      targets
+          .computeIfAbsent(
+              Arrays.asList(transition.getSource(), transition.getAction()),
+              ignored -> new ArrayList<>())
+          .add(transition.getTarget());
+    }
+  }
+
+  /** @return The answer of the query, if the witnesses show it. */
+  public Optional<Answer> answer(final Query query) {
+
+    final Optional<Answer> answer = getAnswer(query);
+
+    answer.ifPresent(ignored -> witnessedAnswers.incrementAndGet());
+
+    return answer;
+  }
+
+  /** @return How many queries were answered by witnesses. */
+  public long getNumberOfWitnessedAnswers() {
+
+    return witnessedAnswers.get();
+  }
+
+  private Optional<Answer> getAnswer(final Query query) {
+
+    if (query instanceof TransitionQuery || query instanceof InvariantQuery) {
+
+      final Optional<Transition> transition = query.getTransition(Answer.YES);
+
+      if (transition.isPresent()
+          && !transition.get().isThrowing()
+          && transitions.contains(
+              Arrays.asList(
+                  transition.get().getSource(),
+                  transition.get().getAction(),
+                  transition.get().getTarget()))) {
+        return Optional.of(Answer.YES);
+      }
+
+      return Optional.empty();
+    }
+
+    if (query instanceof NecessaryActionQuery) {
+
+      final List<State> witnessedTargets =
+          targets.getOrDefault(
+              Arrays.asList(query.getSource(), query.getMainAction()), new ArrayList<>());
+
+      for (final Map.Entry<Action, Boolean> guard : query.getObservedGuards().entrySet()) {
+        for (final State target : witnessedTargets) {
+
+          final boolean enabled = target.getEnabledActions().contains(guard.getKey());
+
+          if (!target.equals(State.ERROR) && enabled != guard.getValue()) {
+            return Optional.of(Answer.NO);
+          }
+        }
+      }
+    }
+
+    return Optional.empty();
+  }
+}
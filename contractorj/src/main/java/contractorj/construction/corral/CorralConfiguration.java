@@ -0,0 +1,133 @@
+package contractorj.construction.corral;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The flags Corral is run with. Every configuration gives sound definitive answers: a bug found
+ * under any recursion bound is a true bug, and a proof that doesn't reach the bound holds for every
+ * bound.
+ */
+public class CorralConfiguration {
+
+  public static final CorralConfiguration DEFAULT = new CorralConfiguration(2, true);
+
+  private final int recursionBound;
+
+  private final boolean trackAllVars;
+
+  private final List<String> extraFlags;
+
+  public CorralConfiguration(final int recursionBound, final boolean trackAllVars) {
+
+    this(recursionBound, trackAllVars, ImmutableList.of());
+  }
+
+  public CorralConfiguration(
+      final int recursionBound, final boolean trackAllVars, final List<String> extraFlags) {
+
+    this.recursionBound = recursionBound;
+    this.trackAllVars = trackAllVars;
+    this.extraFlags = ImmutableList.copyOf(extraFlags);
+  }
+
+  /**
+   * The configurations raced by default: the default one, without tracking all the variables, and
+   * with smaller and bigger recursion bounds.
+   */
+  public static List<CorralConfiguration> getDefaultPortfolio() {
+
+    return ImmutableList.of(
+        DEFAULT,
+        new CorralConfiguration(2, false),
+        new CorralConfiguration(1, true),
+        new CorralConfiguration(3, true));
+  }
+
+  /** The configurations tried when tuning: recursion bounds 1 to 3, with and without tracking. */
+  public static List<CorralConfiguration> getTuningGrid() {
+
+    final List<CorralConfiguration> grid = new ArrayList<>();
+
+    for (int recursionBound = 1; recursionBound <= 3; recursionBound++) {
+      grid.add(new CorralConfiguration(recursionBound, true));
+      grid.add(new CorralConfiguration(recursionBound, false));
+    }
+
+    return grid;
+  }
+
+  /**
+   * Parses the flags of a configuration, as given by {@link #getName()}.
+   *
+   * @throws IllegalArgumentException If a token isn't a Corral flag.
+   */
+  public static CorralConfiguration parse(final String flags) {
+
+    int recursionBound = DEFAULT.recursionBound;
+    boolean trackAllVars = false;
+    final List<String> extraFlags = new ArrayList<>();
+
+    for (final String flag : flags.trim().split("\\s+")) {
+
+      if (flag.isEmpty()) {
+        continue;
+      }
+
+      if (!flag.startsWith("/")) {
+        throw new IllegalArgumentException("Invalid Corral flag " + flag + " in " + flags);
+      }
+
+      if (flag.startsWith("/recursionBound:")) {
+        recursionBound = Integer.valueOf(flag.substring("/recursionBound:".length()));
+      } else if (flag.equals("/trackAllVars")) {
+        trackAllVars = true;
+      } else {
+        extraFlags.add(flag);
+      }
+    }
+
+    return new CorralConfiguration(recursionBound, trackAllVars, extraFlags);
+  }
+
+  /** @return The flags of the configuration, which also identify it. */
+  public String getName() {
+
+    final StringBuilder name = new StringBuilder("/recursionBound:" + recursionBound);
+
+    if (trackAllVars) {
+      name.append(" /trackAllVars");
+    }
+
+    extraFlags.forEach(flag -> name.append(" ").append(flag));
+
+    return name.toString();
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+
+    if (this == o) {
+      return true;
+    }
+
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+
+    return getName().equals(((CorralConfiguration) o).getName());
+  }
+
+  @Override
+  public int hashCode() {
+
+    return getName().hashCode();
+  }
+
+  @Override
+  public String toString() {
+
+    return getName();
+  }
+}
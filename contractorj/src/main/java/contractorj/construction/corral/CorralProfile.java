@@ -0,0 +1,157 @@
+package contractorj.construction.corral;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * What is known about running each class of queries: the configuration tuned for it, and how often
+ * each configuration won the portfolio races, so that later runs start with the configuration that
+ * usually wins.
+ */
+public class CorralProfile {
+
+  private static final String FORMAT_VERSION = "1";
+
+  private static final String WINS = "wins";
+
+  private static final String TUNED = "tuned";
+
+  /** The fastest configuration that kept the answers, by query class. */
+  private final Map<String, CorralConfiguration> tunedConfigurations = new TreeMap<>();
+
+  /** Number of wins by configuration name, by query class. */
+  private final Map<String, Map<String, Long>> wins = new TreeMap<>();
+
+  public synchronized void recordWin(
+      final String queryClass, final CorralConfiguration configuration) {
+
+    wins.computeIfAbsent(queryClass, key -> new TreeMap<>())
+        .merge(configuration.getName(), 1L, Long::sum);
+  }
+
+  /** @return The number of races each configuration won, by configuration name. */
+  public synchronized Map<String, Long> getWins(final String queryClass) {
+
+    return Collections.unmodifiableMap(
+        new TreeMap<>(wins.getOrDefault(queryClass, Collections.emptyMap())));
+  }
+
+  public synchronized void setTunedConfiguration(
+      final String queryClass, final CorralConfiguration configuration) {
+
+    tunedConfigurations.put(queryClass, configuration);
+  }
+
+  public synchronized Optional<CorralConfiguration> getTunedConfiguration(
+      final String queryClass) {
+
+    return Optional.ofNullable(tunedConfigurations.get(queryClass));
+  }
+
+  /** @return The query classes with recorded races. */
+  public synchronized Collection<String> getQueryClasses() {
+
+    return Collections.unmodifiableSet(new TreeMap<>(wins).keySet());
+  }
+
+  /**
+   * @param candidates The configurations that can be chosen.
+   * @return The candidate that won the most races of the query class, if any won one.
+   */
+  public synchronized Optional<CorralConfiguration> getPreferredConfiguration(
+      final String queryClass, final Collection<CorralConfiguration> candidates) {
+
+    final Map<String, Long> classWins = wins.getOrDefault(queryClass, Collections.emptyMap());
+
+    CorralConfiguration preferred = null;
+    long preferredWins = 0;
+
+    for (final CorralConfiguration candidate : candidates) {
+
+      final long candidateWins = classWins.getOrDefault(candidate.getName(), 0L);
+
+      if (candidateWins > preferredWins) {
+        preferred = candidate;
+        preferredWins = candidateWins;
+      }
+    }
+
+    return Optional.ofNullable(preferred);
+  }
+
+  public synchronized void save(final Path file) throws IOException {
+
+    final Path temporal = file.resolveSibling(file.getFileName() + ".tmp");
+
+    try (final BufferedWriter writer = Files.newBufferedWriter(temporal, StandardCharsets.UTF_8)) {
+
+      writer.write(FORMAT_VERSION + "\n");
+
+      for (final Map.Entry<String, CorralConfiguration> entry : tunedConfigurations.entrySet()) {
+        writer.write(TUNED + "\t" + entry.getKey() + "\t" + entry.getValue().getName() + "\n");
+      }
+
+      for (final Map.Entry<String, Map<String, Long>> classWins : wins.entrySet()) {
+        for (final Map.Entry<String, Long> entry : classWins.getValue().entrySet()) {
+          writer.write(
+              WINS
+                  + "\t"
+                  + classWins.getKey()
+                  + "\t"
+                  + entry.getKey()
+                  + "\t"
+                  + entry.getValue()
+                  + "\n");
+        }
+      }
+    }
+
+    Files.move(temporal, file, StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  /** @return The saved profile, or an empty one if the file doesn't exist or has another format. */
+  public static CorralProfile load(final Path file) throws IOException {
+
+    final CorralProfile profile = new CorralProfile();
+
+    if (!Files.exists(file)) {
+      return profile;
+    }
+
+    try (final BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+
+      final String header = reader.readLine();
+
+      if (header == null || !header.equals(FORMAT_VERSION)) {
+        return profile;
+      }
+
+      String line;
+      while ((line = reader.readLine()) != null) {
+
+        final String[] parts = line.split("\t");
+
+        if (parts[0].equals(TUNED)) {
+          profile.tunedConfigurations.put(parts[1], CorralConfiguration.parse(parts[2]));
+        } else if (parts[0].equals(WINS)) {
+          profile
+              .wins
+              .computeIfAbsent(parts[1], key -> new TreeMap<>())
+              .put(parts[2], Long.valueOf(parts[3]));
+        }
+      }
+    }
+
+    return profile;
+  }
+}
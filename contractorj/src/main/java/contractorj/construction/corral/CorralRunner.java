@@ -3,46 +3,118 @@ package contractorj.construction.corral;
 import contractorj.util.CommandsRunner;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import org.apache.commons.exec.ExecuteWatchdog;
 
-public class CorralRunner {
+public class CorralRunner implements QueryRunner {
 
   private final String pathToCorral;
 
-  private final int recursionBound;
+  private final CorralConfiguration configuration;
+
+  private CorralProfile profile = new CorralProfile();
 
   public CorralRunner(String pathToCorral) {
 
-    this(pathToCorral, 2);
+    this(pathToCorral, CorralConfiguration.DEFAULT);
   }
 
   public CorralRunner(String pathToCorral, int recursionBound) {
 
+    this(pathToCorral, new CorralConfiguration(recursionBound, true));
+  }
+
+  public CorralRunner(String pathToCorral, CorralConfiguration configuration) {
+
     this.pathToCorral = pathToCorral;
-    this.recursionBound = recursionBound;
+    this.configuration = configuration;
+  }
+
+  /** Queries of the classes with a tuned configuration in the profile are run with it. */
+  public void setProfile(CorralProfile profile) {
+
+    this.profile = profile;
+  }
+
+  public CorralConfiguration getConfiguration() {
+
+    return configuration;
+  }
+
+  /** @return The tuned configuration of the query class, or else the one of the runner. */
+  public CorralConfiguration getConfiguration(String queryClass) {
+
+    return profile.getTunedConfiguration(queryClass).orElse(configuration);
   }
 
   public String getConsoleCommandToRun(String pathToBoogieSourcecode, String mainMethod) {
 
+    return getConsoleCommandToRun(pathToBoogieSourcecode, mainMethod, configuration);
+  }
+
+  public String getConsoleCommandToRun(
+      String pathToBoogieSourcecode, String mainMethod, CorralConfiguration configuration) {
+
     return (!isWindows() ? "mono " : "")
         + "'"
         + pathToCorral
         + "' '/main:"
         + mainMethod
-        + "' /recursionBound:"
-        + recursionBound
-        + " /trackAllVars '" // This is not really necessary, but makes it a little faster
+        + "' "
+        // /trackAllVars is not really necessary, but usually makes it a little faster
+        + configuration.getName()
+        + " '"
         + pathToBoogieSourcecode
         + "'";
   }
 
+  @Override
   public RunnerResult run(String pathToBoogieSourcecode, String mainMethod) {
 
-    final String consoleCommandToRun = getConsoleCommandToRun(pathToBoogieSourcecode, mainMethod);
+    return run(
+        pathToBoogieSourcecode,
+        mainMethod,
+        configuration,
+        new ExecuteWatchdog(ExecuteWatchdog.INFINITE_TIMEOUT));
+  }
+
+  @Override
+  public RunnerResult run(String pathToBoogieSourcecode, String mainMethod, String queryClass) {
+
+    return run(
+        pathToBoogieSourcecode,
+        mainMethod,
+        queryClass,
+        new ExecuteWatchdog(ExecuteWatchdog.INFINITE_TIMEOUT));
+  }
+
+  @Override
+  public RunnerResult run(
+      String pathToBoogieSourcecode,
+      String mainMethod,
+      String queryClass,
+      ExecuteWatchdog watchdog) {
+
+    return run(pathToBoogieSourcecode, mainMethod, getConfiguration(queryClass), watchdog);
+  }
+
+  /**
+   * Runs Corral with the given configuration instead of the one of the runner.
+   *
+   * @param watchdog Kills Corral when asked to, in which case the run fails with an exception.
+   */
+  public RunnerResult run(
+      String pathToBoogieSourcecode,
+      String mainMethod,
+      CorralConfiguration configuration,
+      ExecuteWatchdog watchdog) {
+
+    final String consoleCommandToRun =
+        getConsoleCommandToRun(pathToBoogieSourcecode, mainMethod, configuration);
 
     final LocalDateTime start = LocalDateTime.now();
 
     final String processOutput =
-        CommandsRunner.runtAndReturnOutput(consoleCommandToRun, isWindows());
+        CommandsRunner.runtAndReturnOutput(consoleCommandToRun, isWindows(), watchdog);
 
     final LocalDateTime end = LocalDateTime.now();
 
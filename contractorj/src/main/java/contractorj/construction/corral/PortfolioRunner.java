@@ -0,0 +1,275 @@
+package contractorj.construction.corral;
+
+import contractorj.util.CancellableWatchdog;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs Corral with the configuration that usually wins for the class of the query, or else the one
+ * tuned for it, and, if it takes longer than a threshold, races the other configurations of the
+ * portfolio against it. The first definitive answer wins and the other processes are killed.
+ *
+ * <p>Winners are recorded in a {@link CorralProfile}, so later queries of the same class start with
+ * the configuration that won the most races.
+ */
+public class PortfolioRunner implements QueryRunner {
+
+  private final CorralRunner corralRunner;
+
+  private final List<CorralConfiguration> portfolio;
+
+  private final Duration threshold;
+
+  private final CorralProfile profile;
+
+  private final ExecutorService executorService =
+      Executors.newCachedThreadPool(
+          runnable -> {
+            final Thread thread = new Thread(runnable, "portfolio-corral");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  private final AtomicLong races = new AtomicLong();
+
+  private final AtomicLong killedProcesses = new AtomicLong();
+
+  /**
+   * @param corralRunner Runs Corral, its configuration is the first of the portfolio.
+   * @param alternatives The other configurations of the portfolio.
+   * @param threshold How long a query runs alone before the alternatives are started.
+   * @param profile Where the winners are recorded.
+   */
+  public PortfolioRunner(
+      final CorralRunner corralRunner,
+      final List<CorralConfiguration> alternatives,
+      final Duration threshold,
+      final CorralProfile profile) {
+
+    final Set<CorralConfiguration> configurations = new LinkedHashSet<>();
+    configurations.add(corralRunner.getConfiguration());
+    configurations.addAll(alternatives);
+
+    this.corralRunner = corralRunner;
+    this.portfolio = new ArrayList<>(configurations);
+    this.threshold = threshold;
+    this.profile = profile;
+  }
+
+  @Override
+  public RunnerResult run(final String pathToBoogieSourcecode, final String mainMethod) {
+
+    return run(pathToBoogieSourcecode, mainMethod, "");
+  }
+
+  @Override
+  public RunnerResult run(
+      final String pathToBoogieSourcecode, final String mainMethod, final String queryClass) {
+
+    final List<CorralConfiguration> configurations = getConfigurationsInOrder(queryClass);
+    final Race race = new Race(pathToBoogieSourcecode, mainMethod);
+
+    try {
+
+      race.start(configurations.get(0));
+
+      final Optional<Attempt> firstAttempt = race.poll(threshold);
+
+      if (firstAttempt.isPresent()) {
+        return firstAttempt.get().getResult();
+      }
+
+      races.incrementAndGet();
+      configurations.subList(1, configurations.size()).forEach(race::start);
+
+      final Optional<Attempt> winner = race.awaitDefinitiveAnswer();
+
+      if (winner.isPresent()) {
+        profile.recordWin(queryClass, winner.get().configuration);
+        return winner.get().getResult();
+      }
+
+      return race.getFallbackAttempt().getResult();
+
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } finally {
+      race.killAll();
+    }
+  }
+
+  /** @return How many queries took longer than the threshold and were raced. */
+  public long getNumberOfRaces() {
+
+    return races.get();
+  }
+
+  /** @return How many Corral processes were killed because another one answered first. */
+  public long getNumberOfKilledProcesses() {
+
+    return killedProcesses.get();
+  }
+
+  public CorralProfile getProfile() {
+
+    return profile;
+  }
+
+  private List<CorralConfiguration> getConfigurationsInOrder(final String queryClass) {
+
+    final Set<CorralConfiguration> configurations = new LinkedHashSet<>();
+    profile.getPreferredConfiguration(queryClass, portfolio).ifPresent(configurations::add);
+    configurations.add(corralRunner.getConfiguration(queryClass));
+    configurations.addAll(portfolio);
+
+    return new ArrayList<>(configurations);
+  }
+
+  private static boolean isDefinitive(final QueryResult queryResult) {
+
+    return !queryResult.equals(QueryResult.MAYBE_BUG);
+  }
+
+  /** The Corral processes started for a single query. */
+  private class Race {
+
+    private final String pathToBoogieSourcecode;
+
+    private final String mainMethod;
+
+    private final CompletionService<Attempt> completionService =
+        new ExecutorCompletionService<>(executorService);
+
+    private final List<Attempt> started = new ArrayList<>();
+
+    private final List<Attempt> finished = new ArrayList<>();
+
+    private Race(final String pathToBoogieSourcecode, final String mainMethod) {
+
+      this.pathToBoogieSourcecode = pathToBoogieSourcecode;
+      this.mainMethod = mainMethod;
+    }
+
+    private void start(final CorralConfiguration configuration) {
+
+      final Attempt attempt = new Attempt(configuration);
+      started.add(attempt);
+
+      completionService.submit(
+          () -> {
+            attempt.run(pathToBoogieSourcecode, mainMethod);
+            return attempt;
+          });
+    }
+
+    private Optional<Attempt> poll(final Duration timeout) throws InterruptedException {
+
+      final Future<Attempt> future =
+          completionService.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+
+      return future == null ? Optional.empty() : Optional.of(getFinished(future));
+    }
+
+    private Optional<Attempt> awaitDefinitiveAnswer() throws InterruptedException {
+
+      while (finished.size() < started.size()) {
+
+        final Attempt attempt = getFinished(completionService.take());
+
+        if (attempt.result != null && isDefinitive(attempt.result.queryResult)) {
+          return Optional.of(attempt);
+        }
+      }
+
+      return Optional.empty();
+    }
+
+    /**
+     * @return The attempt with the first configuration if it answered, or else any attempt that
+     *     answered, or else any attempt.
+     */
+    private Attempt getFallbackAttempt() {
+
+      final Attempt first = started.get(0);
+
+      if (first.result != null) {
+        return first;
+      }
+
+      return finished
+          .stream()
+          .filter(attempt -> attempt.result != null)
+          .findFirst()
+          .orElse(finished.get(0));
+    }
+
+    private Attempt getFinished(final Future<Attempt> future) throws InterruptedException {
+
+      try {
+        final Attempt attempt = future.get();
+        finished.add(attempt);
+        return attempt;
+      } catch (ExecutionException e) {
+        throw new RuntimeException(e.getCause());
+      }
+    }
+
+    private void killAll() {
+
+      for (final Attempt attempt : started) {
+        if (!finished.contains(attempt)) {
+          attempt.watchdog.cancel();
+          killedProcesses.incrementAndGet();
+        }
+      }
+    }
+  }
+
+  /** A run of Corral with one configuration. */
+  private class Attempt {
+
+    private final CorralConfiguration configuration;
+
+    private final CancellableWatchdog watchdog = new CancellableWatchdog();
+
+    private RunnerResult result;
+
+    private RuntimeException exception;
+
+    private Attempt(final CorralConfiguration configuration) {
+
+      this.configuration = configuration;
+    }
+
+    private void run(final String pathToBoogieSourcecode, final String mainMethod) {
+
+      try {
+        result = corralRunner.run(pathToBoogieSourcecode, mainMethod, configuration, watchdog);
+      } catch (RuntimeException e) {
+        exception = e;
+      }
+    }
+
+    private RunnerResult getResult() {
+
+      if (exception != null) {
+        throw exception;
+      }
+
+      return result;
+    }
+  }
+}
@@ -0,0 +1,38 @@
+package contractorj.construction.corral;
+
+import org.apache.commons.exec.ExecuteWatchdog;
+
+/** Decides whether the assertions of a query procedure can fail. */
+public interface QueryRunner {
+
+  /**
+   * @param pathToBoogieSourcecode A Boogie file with the translation and the query procedure.
+   * @param mainMethod The name of the query procedure.
+   */
+  RunnerResult run(String pathToBoogieSourcecode, String mainMethod);
+
+  /**
+   * Runs a query knowing its kind, which runners may use to learn how to run similar queries.
+   *
+   * @param queryClass The simple name of the class of the query.
+   */
+  default RunnerResult run(
+      final String pathToBoogieSourcecode, final String mainMethod, final String queryClass) {
+
+    return run(pathToBoogieSourcecode, mainMethod);
+  }
+
+  /**
+   * Runs a query that may be abandoned before it finishes, by destroying the process of the
+   * watchdog, in which case the run fails with an exception. Runners that don't answer by running a
+   * single process ignore the watchdog.
+   */
+  default RunnerResult run(
+      final String pathToBoogieSourcecode,
+      final String mainMethod,
+      final String queryClass,
+      final ExecuteWatchdog watchdog) {
+
+    return run(pathToBoogieSourcecode, mainMethod, queryClass);
+  }
+}
@@ -12,7 +12,7 @@ public class RunnerResult {
 
   public final String command;
 
-  RunnerResult(
+  public RunnerResult(
       final QueryResult queryResult,
       final Duration runningTime,
       final String output,
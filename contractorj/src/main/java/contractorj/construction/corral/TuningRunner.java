@@ -0,0 +1,225 @@
+package contractorj.construction.corral;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import org.apache.commons.exec.ExecuteWatchdog;
+
+/**
+ * Runs the first queries of each class under every configuration of a grid, and tunes each class
+ * to the fastest configuration that never lost a definitive answer of the runner's own
+ * configuration.
+ *
+ * <p>Configurations differ in their bounds, so a configuration may answer {@link
+ * QueryResult#MAYBE_BUG} where the runner's own gives a definitive answer, or the other way round.
+ * The first is a disagreement and rules the configuration out. The second refines the answer and
+ * doesn't.
+ */
+public class TuningRunner implements QueryRunner {
+
+  private final CorralRunner corralRunner;
+
+  private final List<CorralConfiguration> grid;
+
+  private final int samplesPerClass;
+
+  /** The measurements of each configuration, by query class. */
+  private final Map<String, Map<CorralConfiguration, Measurement>> measurements = new TreeMap<>();
+
+  private final Map<String, Integer> samples = new HashMap<>();
+
+  /**
+   * @param grid The configurations to try.
+   * @param samplesPerClass How many queries of each class are run under every configuration.
+   */
+  public TuningRunner(
+      final CorralRunner corralRunner,
+      final List<CorralConfiguration> grid,
+      final int samplesPerClass) {
+
+    this.corralRunner = corralRunner;
+    this.grid = grid;
+    this.samplesPerClass = samplesPerClass;
+  }
+
+  @Override
+  public RunnerResult run(final String pathToBoogieSourcecode, final String mainMethod) {
+
+    return corralRunner.run(pathToBoogieSourcecode, mainMethod);
+  }
+
+  @Override
+  public RunnerResult run(
+      final String pathToBoogieSourcecode, final String mainMethod, final String queryClass) {
+
+    return run(
+        pathToBoogieSourcecode,
+        mainMethod,
+        queryClass,
+        new ExecuteWatchdog(ExecuteWatchdog.INFINITE_TIMEOUT));
+  }
+
+  /** @param watchdog Kills the run whose result is returned, not the samples. */
+  @Override
+  public RunnerResult run(
+      final String pathToBoogieSourcecode,
+      final String mainMethod,
+      final String queryClass,
+      final ExecuteWatchdog watchdog) {
+
+    final RunnerResult result =
+        corralRunner.run(
+            pathToBoogieSourcecode, mainMethod, corralRunner.getConfiguration(), watchdog);
+
+    if (!takeSample(queryClass)) {
+      return result;
+    }
+
+    record(queryClass, corralRunner.getConfiguration(), result, result);
+
+    for (final CorralConfiguration configuration : grid) {
+
+      if (configuration.equals(corralRunner.getConfiguration())) {
+        continue;
+      }
+
+      final RunnerResult sampleResult =
+          corralRunner.run(
+              pathToBoogieSourcecode,
+              mainMethod,
+              configuration,
+              new ExecuteWatchdog(ExecuteWatchdog.INFINITE_TIMEOUT));
+
+      record(queryClass, configuration, sampleResult, result);
+    }
+
+    return result;
+  }
+
+  /**
+   * Sets in the profile the tuned configuration of every sampled query class.
+   *
+   * @return The tuned configurations, by query class.
+   */
+  public synchronized Map<String, CorralConfiguration> tune(final CorralProfile profile) {
+
+    final Map<String, CorralConfiguration> tuned = new TreeMap<>();
+
+    for (final Map.Entry<String, Map<CorralConfiguration, Measurement>> entry :
+        measurements.entrySet()) {
+
+      getFastestAgreeingConfiguration(entry.getValue())
+          .ifPresent(
+              configuration -> {
+                tuned.put(entry.getKey(), configuration);
+                profile.setTunedConfiguration(entry.getKey(), configuration);
+              });
+    }
+
+    return tuned;
+  }
+
+  /** @return The measurements of the sampled query classes, by configuration. */
+  public synchronized Map<String, Map<CorralConfiguration, Measurement>> getMeasurements() {
+
+    final Map<String, Map<CorralConfiguration, Measurement>> copy = new TreeMap<>();
+    measurements.forEach(
+        (queryClass, byConfiguration) -> copy.put(queryClass, new HashMap<>(byConfiguration)));
+
+    return copy;
+  }
+
+  private synchronized boolean takeSample(final String queryClass) {
+
+    final int taken = samples.getOrDefault(queryClass, 0);
+
+    if (taken >= samplesPerClass) {
+      return false;
+    }
+
+    samples.put(queryClass, taken + 1);
+    return true;
+  }
+
+  private synchronized void record(
+      final String queryClass,
+      final CorralConfiguration configuration,
+      final RunnerResult result,
+      final RunnerResult reference) {
+
+    final Measurement measurement =
+        measurements
+            .computeIfAbsent(queryClass, key -> new HashMap<>())
+            .computeIfAbsent(configuration, key -> new Measurement());
+
+    measurement.add(result, reference.queryResult);
+  }
+
+  static Optional<CorralConfiguration> getFastestAgreeingConfiguration(
+      final Map<CorralConfiguration, Measurement> byConfiguration) {
+
+    return byConfiguration
+        .entrySet()
+        .stream()
+        .filter(entry -> entry.getValue().disagreements == 0)
+        .min((left, right) -> left.getValue().runningTime.compareTo(right.getValue().runningTime))
+        .map(Map.Entry::getKey);
+  }
+
+  /**
+   * The running times of the samples of a configuration, and how its answers compared to the ones
+   * of the runner's own configuration.
+   */
+  public static class Measurement {
+
+    private int samples = 0;
+
+    private int disagreements = 0;
+
+    private int refinements = 0;
+
+    private Duration runningTime = Duration.ZERO;
+
+    /** @param reference The answer of the runner's own configuration to the sampled query. */
+    void add(final RunnerResult result, final QueryResult reference) {
+
+      samples++;
+      runningTime = runningTime.plus(result.runningTime);
+
+      if (result.queryResult.equals(reference)) {
+        return;
+      }
+
+      if (reference.equals(QueryResult.MAYBE_BUG)) {
+        refinements++;
+      } else {
+        disagreements++;
+      }
+    }
+
+    public int getSamples() {
+
+      return samples;
+    }
+
+    /** @return How many definitive answers were lost or contradicted. */
+    public int getDisagreements() {
+
+      return disagreements;
+    }
+
+    /** @return How many {@link QueryResult#MAYBE_BUG} answers were made definitive. */
+    public int getRefinements() {
+
+      return refinements;
+    }
+
+    public Duration getRunningTime() {
+
+      return runningTime;
+    }
+  }
+}
@@ -0,0 +1,228 @@
+package contractorj.construction.lemmas;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The global dependencies between pairs of actions: whether running a main action from any state
+ * where it's enabled necessarily enables or disables a tested action.
+ *
+ * <p>Actions are identified by their position in the sorted list of action names, and each pair is
+ * a bit in three bitsets: one telling if the pair was computed, and one per kind of dependency.
+ */
+public class ActionDependencyMatrix {
+
+  private static final int FORMAT_VERSION = 1;
+
+  public enum Dependency {
+    NECESSARILY_ENABLES,
+    NECESSARILY_DISABLES,
+    NONE
+  }
+
+  private final List<String> actionNames;
+
+  private final Map<String, Integer> actionIds = new HashMap<>();
+
+  private final BitSet computed;
+
+  private final BitSet enables;
+
+  private final BitSet disables;
+
+  public ActionDependencyMatrix(final Collection<String> actionNames) {
+
+    this(actionNames, new BitSet(), new BitSet(), new BitSet());
+  }
+
+  private ActionDependencyMatrix(
+      final Collection<String> actionNames,
+      final BitSet computed,
+      final BitSet enables,
+      final BitSet disables) {
+
+    final List<String> sortedNames = new ArrayList<>(actionNames);
+    Collections.sort(sortedNames);
+
+    this.actionNames = Collections.unmodifiableList(sortedNames);
+    this.computed = computed;
+    this.enables = enables;
+    this.disables = disables;
+
+    for (int id = 0; id < sortedNames.size(); id++) {
+      if (actionIds.put(sortedNames.get(id), id) != null) {
+        throw new IllegalArgumentException("Duplicated action " + sortedNames.get(id));
+      }
+    }
+  }
+
+  /** @return Whether the action has dependencies in the matrix, which constructors don't. */
+  public boolean hasAction(final String actionName) {
+
+    return actionIds.containsKey(actionName);
+  }
+
+  public int getActionId(final String actionName) {
+
+    final Integer id = actionIds.get(actionName);
+
+    if (id == null) {
+      throw new IllegalArgumentException("Unknown action " + actionName);
+    }
+
+    return id;
+  }
+
+  public List<String> getActionNames() {
+
+    return actionNames;
+  }
+
+  /** @return The dependency between both actions, or empty if it wasn't computed yet. */
+  public synchronized Optional<Dependency> get(final int mainActionId, final int testedActionId) {
+
+    final int index = index(mainActionId, testedActionId);
+
+    if (!computed.get(index)) {
+      return Optional.empty();
+    }
+
+    if (enables.get(index)) {
+      return Optional.of(Dependency.NECESSARILY_ENABLES);
+    }
+
+    if (disables.get(index)) {
+      return Optional.of(Dependency.NECESSARILY_DISABLES);
+    }
+
+    return Optional.of(Dependency.NONE);
+  }
+
+  public synchronized void set(
+      final int mainActionId, final int testedActionId, final Dependency dependency) {
+
+    final int index = index(mainActionId, testedActionId);
+
+    computed.set(index);
+    enables.set(index, dependency.equals(Dependency.NECESSARILY_ENABLES));
+    disables.set(index, dependency.equals(Dependency.NECESSARILY_DISABLES));
+  }
+
+  public synchronized int getNumberOfComputedPairs() {
+
+    return computed.cardinality();
+  }
+
+  /**
+   * Saves the matrix. The digest identifies the program it was computed for, and must be given
+   * back to {@link #load} to reuse it.
+   */
+  public synchronized void save(final Path file, final String digest) throws IOException {
+
+    final Path temporal = file.resolveSibling(file.getFileName() + ".tmp");
+
+    try (final DataOutputStream out = new DataOutputStream(Files.newOutputStream(temporal))) {
+
+      out.writeInt(FORMAT_VERSION);
+      out.writeUTF(digest);
+      out.writeInt(actionNames.size());
+
+      for (final String actionName : actionNames) {
+        out.writeUTF(actionName);
+      }
+
+      writeBitSet(out, computed);
+      writeBitSet(out, enables);
+      writeBitSet(out, disables);
+    }
+
+    Files.move(temporal, file, StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  /**
+   * Loads a matrix previously saved for the same digest and actions.
+   *
+   * @return The saved matrix, or empty if there is none or it was computed for another program.
+   */
+  public static Optional<ActionDependencyMatrix> load(
+      final Path file, final String digest, final Collection<String> actionNames)
+      throws IOException {
+
+    if (!Files.exists(file)) {
+      return Optional.empty();
+    }
+
+    try (final DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+
+      if (in.readInt() != FORMAT_VERSION || !in.readUTF().equals(digest)) {
+        return Optional.empty();
+      }
+
+      final int numberOfActions = in.readInt();
+      final List<String> savedNames = new ArrayList<>();
+
+      for (int i = 0; i < numberOfActions; i++) {
+        savedNames.add(in.readUTF());
+      }
+
+      final List<String> expectedNames = new ArrayList<>(actionNames);
+      Collections.sort(expectedNames);
+
+      if (!savedNames.equals(expectedNames)) {
+        return Optional.empty();
+      }
+
+      return Optional.of(
+          new ActionDependencyMatrix(
+              savedNames, readBitSet(in), readBitSet(in), readBitSet(in)));
+    }
+  }
+
+  private int index(final int mainActionId, final int testedActionId) {
+
+    if (mainActionId < 0
+        || mainActionId >= actionNames.size()
+        || testedActionId < 0
+        || testedActionId >= actionNames.size()) {
+      throw new IndexOutOfBoundsException(
+          "Invalid pair (" + mainActionId + ", " + testedActionId + ")");
+    }
+
+    return mainActionId * actionNames.size() + testedActionId;
+  }
+
+  private static void writeBitSet(final DataOutputStream out, final BitSet bitSet)
+      throws IOException {
+
+    final long[] words = bitSet.toLongArray();
+
+    out.writeInt(words.length);
+
+    for (final long word : words) {
+      out.writeLong(word);
+    }
+  }
+
+  private static BitSet readBitSet(final DataInputStream in) throws IOException {
+
+    final long[] words = new long[in.readInt()];
+
+    for (int i = 0; i < words.length; i++) {
+      words[i] = in.readLong();
+    }
+
+    return BitSet.valueOf(words);
+  }
+}
@@ -0,0 +1,177 @@
+package contractorj.construction.lemmas;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Lemmas relating the state preconditions of the actions in every state that satisfies the
+ * invariant: guards that always have the same value, and implications between pairs of guards.
+ *
+ * <p>A state is an assignment of all the guards, so it can only exist if it satisfies every lemma.
+ */
+public class GuardImplicationGraph {
+
+  private static final String FORMAT_VERSION = "1";
+
+  private static final String FACT = "fact";
+
+  private static final String IMPLICATION = "implies";
+
+  private final Set<GuardLiteral> facts = new HashSet<>();
+
+  /** The implications as they were learned. */
+  private final Map<GuardLiteral, Set<GuardLiteral>> learnedImplications = new HashMap<>();
+
+  /** The learned implications and their contrapositives. */
+  private final Map<GuardLiteral, Set<GuardLiteral>> implications = new HashMap<>();
+
+  private int numberOfImplications = 0;
+
+  /** Records that the literal holds in every state. */
+  public synchronized void addFact(final GuardLiteral literal) {
+
+    facts.add(literal);
+  }
+
+  /** Records that the antecedent implies the consequent, and so its contrapositive. */
+  public synchronized void addImplication(
+      final GuardLiteral antecedent, final GuardLiteral consequent) {
+
+    if (learnedImplications
+        .computeIfAbsent(antecedent, literal -> new HashSet<>())
+        .add(consequent)) {
+      numberOfImplications++;
+    }
+
+    implications.computeIfAbsent(antecedent, literal -> new HashSet<>()).add(consequent);
+    implications
+        .computeIfAbsent(consequent.negate(), literal -> new HashSet<>())
+        .add(antecedent.negate());
+  }
+
+  public synchronized boolean isFact(final GuardLiteral literal) {
+
+    return facts.contains(literal);
+  }
+
+  public synchronized Set<GuardLiteral> getImplications(final GuardLiteral antecedent) {
+
+    return Collections.unmodifiableSet(
+        new HashSet<>(implications.getOrDefault(antecedent, Collections.emptySet())));
+  }
+
+  public synchronized int getNumberOfLemmas() {
+
+    return facts.size() + numberOfImplications;
+  }
+
+  /**
+   * @param guards The value of the guards of a state, by action name. Actions missing from it are
+   *     ignored.
+   * @return false if the assignment contradicts a lemma, so no state satisfies it.
+   */
+  public synchronized boolean admits(final Map<String, Boolean> guards) {
+
+    for (final Map.Entry<String, Boolean> guard : guards.entrySet()) {
+
+      final GuardLiteral literal = new GuardLiteral(guard.getKey(), guard.getValue());
+
+      if (facts.contains(literal.negate())) {
+        return false;
+      }
+
+      for (final GuardLiteral consequent :
+          implications.getOrDefault(literal, Collections.emptySet())) {
+
+        final Boolean value = guards.get(consequent.actionName);
+
+        if (value != null && value != consequent.value) {
+          return false;
+        }
+      }
+    }
+
+    return true;
+  }
+
+  /** Saves the lemmas, labeled with the digest of the program they were computed for. */
+  public synchronized void save(final Path file, final String digest) throws IOException {
+
+    final Path temporal = file.resolveSibling(file.getFileName() + ".tmp");
+
+    try (final BufferedWriter writer = Files.newBufferedWriter(temporal, StandardCharsets.UTF_8)) {
+
+      writer.write(FORMAT_VERSION + "\t" + digest + "\n");
+
+      for (final GuardLiteral fact : facts) {
+        writer.write(FACT + "\t" + fact.value + "\t" + fact.actionName + "\n");
+      }
+
+      for (final Map.Entry<GuardLiteral, Set<GuardLiteral>> entry :
+          learnedImplications.entrySet()) {
+        for (final GuardLiteral consequent : entry.getValue()) {
+          writer.write(
+              IMPLICATION
+                  + "\t"
+                  + entry.getKey().value
+                  + "\t"
+                  + entry.getKey().actionName
+                  + "\t"
+                  + consequent.value
+                  + "\t"
+                  + consequent.actionName
+                  + "\n");
+        }
+      }
+    }
+
+    Files.move(temporal, file, StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  /** @return The lemmas saved for the same digest, or empty if there are none. */
+  public static Optional<GuardImplicationGraph> load(final Path file, final String digest)
+      throws IOException {
+
+    if (!Files.exists(file)) {
+      return Optional.empty();
+    }
+
+    try (final BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+
+      final String header = reader.readLine();
+
+      if (header == null || !header.equals(FORMAT_VERSION + "\t" + digest)) {
+        return Optional.empty();
+      }
+
+      final GuardImplicationGraph graph = new GuardImplicationGraph();
+
+      String line;
+      while ((line = reader.readLine()) != null) {
+
+        final String[] parts = line.split("\t");
+
+        if (parts[0].equals(FACT)) {
+          graph.addFact(new GuardLiteral(parts[2], Boolean.parseBoolean(parts[1])));
+        } else {
+          graph.addImplication(
+              new GuardLiteral(parts[2], Boolean.parseBoolean(parts[1])),
+              new GuardLiteral(parts[4], Boolean.parseBoolean(parts[3])));
+        }
+      }
+
+      return Optional.of(graph);
+    }
+  }
+}
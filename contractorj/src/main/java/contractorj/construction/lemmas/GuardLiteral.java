@@ -0,0 +1,47 @@
+package contractorj.construction.lemmas;
+
+import java.util.Objects;
+
+/** The value of the state precondition of an action, identified by its name. */
+public class GuardLiteral {
+
+  public final String actionName;
+
+  public final boolean value;
+
+  public GuardLiteral(final String actionName, final boolean value) {
+
+    this.actionName = actionName;
+    this.value = value;
+  }
+
+  public GuardLiteral negate() {
+
+    return new GuardLiteral(actionName, !value);
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof GuardLiteral)) {
+      return false;
+    }
+    final GuardLiteral that = (GuardLiteral) o;
+    return value == that.value && Objects.equals(actionName, that.actionName);
+  }
+
+  @Override
+  public int hashCode() {
+
+    return Objects.hash(actionName, value);
+  }
+
+  @Override
+  public String toString() {
+
+    return (value ? "" : "!") + actionName;
+  }
+}
@@ -0,0 +1,198 @@
+package contractorj.construction.lemmas;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+import contractorj.construction.lemmas.ActionDependencyMatrix.Dependency;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Lemmas that hold in every state of the EPA, shared by all the states of an exploration and,
+ * when a file is given, across runs over the same program.
+ *
+ * <p>Lemmas are computed on demand: the first state that needs one computes it, and concurrent
+ * requests for the same lemma wait for that computation instead of repeating it.
+ */
+public class LemmaStore {
+
+  private final ActionDependencyMatrix dependencies;
+
+  private final Map<Integer, CompletableFuture<Dependency>> dependenciesBeingComputed =
+      new ConcurrentHashMap<>();
+
+  private GuardImplicationGraph guardImplications;
+
+  private boolean guardImplicationsComplete = false;
+
+  private final Path file;
+
+  private final String digest;
+
+  private final AtomicLong reusedLemmas = new AtomicLong();
+
+  private final AtomicLong computedLemmas = new AtomicLong();
+
+  private LemmaStore(
+      final ActionDependencyMatrix dependencies,
+      final GuardImplicationGraph guardImplications,
+      final Path file,
+      final String digest) {
+
+    this.dependencies = dependencies;
+    this.guardImplications = guardImplications;
+    this.guardImplicationsComplete = guardImplications != null;
+    this.file = file;
+    this.digest = digest;
+  }
+
+  /**
+   * @param translation The file with the Boogie program the lemmas are about. Saved lemmas are only
+   *     reused if they were computed for the same program.
+   * @param actionNames The names of all the actions of the EPA.
+   * @param file Where lemmas are loaded from and saved to, if present.
+   */
+  public static LemmaStore create(
+      final Path translation, final Collection<String> actionNames, final Optional<Path> file)
+      throws IOException {
+
+    final String digest =
+        Files.asByteSource(translation.toFile()).hash(Hashing.sha256()).toString();
+
+    ActionDependencyMatrix dependencies = null;
+    GuardImplicationGraph guardImplications = null;
+
+    if (file.isPresent()) {
+      dependencies = ActionDependencyMatrix.load(file.get(), digest, actionNames).orElse(null);
+      guardImplications =
+          GuardImplicationGraph.load(getGuardImplicationsFile(file.get()), digest).orElse(null);
+    }
+
+    if (dependencies == null) {
+      dependencies = new ActionDependencyMatrix(actionNames);
+    }
+
+    return new LemmaStore(dependencies, guardImplications, file.orElse(null), digest);
+  }
+
+  /**
+   * Gets the global dependency between two actions, computing it if no state needed it before.
+   *
+   * @param computation Computes the dependency. If it throws, nothing is memoized.
+   * @return The dependency, or empty if an action isn't one of the store, like a constructor.
+   */
+  public Optional<Dependency> getDependency(
+      final String mainAction, final String testedAction, final Supplier<Dependency> computation) {
+
+    if (!dependencies.hasAction(mainAction) || !dependencies.hasAction(testedAction)) {
+      return Optional.empty();
+    }
+
+    final int mainActionId = dependencies.getActionId(mainAction);
+    final int testedActionId = dependencies.getActionId(testedAction);
+
+    final Optional<Dependency> known = dependencies.get(mainActionId, testedActionId);
+
+    if (known.isPresent()) {
+      reusedLemmas.incrementAndGet();
+      return known;
+    }
+
+    final int key = mainActionId * dependencies.getActionNames().size() + testedActionId;
+    final CompletableFuture<Dependency> future = new CompletableFuture<>();
+    final CompletableFuture<Dependency> beingComputed =
+        dependenciesBeingComputed.putIfAbsent(key, future);
+
+    if (beingComputed != null) {
+      reusedLemmas.incrementAndGet();
+      return Optional.of(join(beingComputed));
+    }
+
+    try {
+      final Dependency dependency =
+          dependencies.get(mainActionId, testedActionId).orElseGet(computation);
+
+      dependencies.set(mainActionId, testedActionId, dependency);
+      computedLemmas.incrementAndGet();
+      future.complete(dependency);
+
+      return Optional.of(dependency);
+
+    } catch (RuntimeException e) {
+      future.completeExceptionally(e);
+      throw e;
+    } finally {
+      dependenciesBeingComputed.remove(key, future);
+    }
+  }
+
+  /** @return The guard implications, if they were computed or loaded. */
+  public synchronized Optional<GuardImplicationGraph> getGuardImplications() {
+
+    return Optional.ofNullable(guardImplications);
+  }
+
+  /**
+   * @param complete false if some implications weren't checked. Incomplete graphs are used in this
+   *     run but never saved.
+   */
+  public synchronized void setGuardImplications(
+      final GuardImplicationGraph guardImplications, final boolean complete) {
+
+    this.guardImplications = guardImplications;
+    this.guardImplicationsComplete = complete;
+  }
+
+  /**
+   * Saves the lemmas to the file given at creation, if any. Guard implications are saved next to
+   * it, in a file with the {@code .guards} suffix.
+   */
+  public synchronized void save() throws IOException {
+
+    if (file == null) {
+      return;
+    }
+
+    dependencies.save(file, digest);
+
+    if (guardImplications != null && guardImplicationsComplete) {
+      guardImplications.save(getGuardImplicationsFile(file), digest);
+    }
+  }
+
+  private static Path getGuardImplicationsFile(final Path file) {
+
+    return file.resolveSibling(file.getFileName() + ".guards");
+  }
+
+  /** @return How many times a lemma was used without computing it. */
+  public long getNumberOfReusedLemmas() {
+
+    return reusedLemmas.get();
+  }
+
+  /** @return How many lemmas were computed in this run. */
+  public long getNumberOfComputedLemmas() {
+
+    return computedLemmas.get();
+  }
+
+  private static Dependency join(final CompletableFuture<Dependency> future) {
+
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+}
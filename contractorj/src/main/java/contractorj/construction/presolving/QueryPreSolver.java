@@ -0,0 +1,219 @@
+package contractorj.construction.presolving;
+
+import contractorj.construction.queries.Answer;
+import contractorj.construction.queries.Query;
+import contractorj.construction.queries.invariant.InvariantQuery;
+import contractorj.construction.queries.necessary_actions.NecessaryActionQuery;
+import contractorj.construction.queries.state.GuardImplicationQuery;
+import contractorj.construction.queries.state.StateFeasibilityQuery;
+import contractorj.construction.queries.transition.TransitionQuery;
+import contractorj.model.Action;
+import contractorj.model.State;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import jbct.analysis.FieldAccessAnalysis;
+import jbct.analysis.FieldAccesses;
+import jbct.analysis.ReturnValueAnalysis;
+import jbct.model.Method;
+
+/**
+ * Answers the queries that the static analyses of the translation decide, so they don't need to be
+ * verified. An answer is only given when it's the one the query would get from a state some object
+ * can be in:
+ *
+ * <ul>
+ *   <li>State preconditions that always return the same value decide the necessity queries about
+ *       them, and discard the states where they have the other value.
+ *   <li>The invariant can't break if it always holds, or if nothing that runs after it is evaluated
+ *       in the source state writes what it reads.
+ * </ul>
+ */
+public class QueryPreSolver {
+
+  private final ReturnValueAnalysis returnValueAnalysis;
+
+  private final FieldAccessAnalysis fieldAccessAnalysis;
+
+  private final Method invariant;
+
+  private final Map<java.lang.Class<? extends Query>, Map<Answer, AtomicLong>> decisions =
+      new HashMap<>();
+
+  public QueryPreSolver(
+      final ReturnValueAnalysis returnValueAnalysis,
+      final FieldAccessAnalysis fieldAccessAnalysis,
+      final Method invariant) {
+
+    this.returnValueAnalysis = returnValueAnalysis;
+    this.fieldAccessAnalysis = fieldAccessAnalysis;
+    this.invariant = invariant;
+  }
+
+  /** @return The answer of the query, if the analyses decide it. */
+  public Optional<Answer> solve(final Query query) {
+
+    final Optional<Answer> answer = decide(query);
+
+    answer.ifPresent(decided -> recordDecision(query.getClass(), decided));
+
+    return answer;
+  }
+
+  public synchronized Set<java.lang.Class<? extends Query>> getQueryClasses() {
+
+    return new HashSet<>(decisions.keySet());
+  }
+
+  /** @return How many queries of the class were answered without verifying them. */
+  public synchronized long getNumberOfDecisions(
+      final java.lang.Class<? extends Query> queryClass, final Answer answer) {
+
+    final AtomicLong counter = decisions.getOrDefault(queryClass, new HashMap<>()).get(answer);
+
+    return counter == null ? 0 : counter.get();
+  }
+
+  private synchronized void recordDecision(
+      final java.lang.Class<? extends Query> queryClass, final Answer answer) {
+
+    decisions
+        .computeIfAbsent(queryClass, ignored -> new HashMap<>())
+        .computeIfAbsent(answer, ignored -> new AtomicLong())
+        .incrementAndGet();
+  }
+
+  private Optional<Answer> decide(final Query query) {
+
+    if (query instanceof InvariantQuery) {
+      return decideInvariantQuery(query);
+    }
+
+    if (query instanceof NecessaryActionQuery || query instanceof TransitionQuery) {
+      return decideObservedGuards(query);
+    }
+
+    if (query instanceof GuardImplicationQuery) {
+      return decideGuardImplication((GuardImplicationQuery) query);
+    }
+
+    if (query instanceof StateFeasibilityQuery) {
+      return contradictsConstantGuards(query.getSource())
+          ? Optional.of(Answer.NO)
+          : Optional.empty();
+    }
+
+    return Optional.empty();
+  }
+
+  private Optional<Answer> decideInvariantQuery(final Query query) {
+
+    if (getConstantResult(invariant).equals(Optional.of(true))) {
+      return Optional.of(Answer.NO);
+    }
+
+    final State source = query.getSource();
+    final Action mainAction = query.getMainAction();
+
+    if (source.isConstructorsState()) {
+      return Optional.empty();
+    }
+
+    FieldAccesses writer = getAccesses(mainAction.getMethod()).union(getAccesses(invariant));
+
+    if (mainAction.getParamsPrecondition().isPresent()) {
+      writer = writer.union(getAccesses(mainAction.getParamsPrecondition().get()));
+    }
+
+    for (final Action action : source.getAllActions()) {
+      if (action.getStatePrecondition().isPresent()) {
+        writer = writer.union(getAccesses(action.getStatePrecondition().get()));
+      }
+    }
+
+    if (writer.mayAffect(getAccesses(invariant))) {
+      return Optional.empty();
+    }
+
+    return Optional.of(Answer.NO);
+  }
+
+  /**
+   * A necessity query is decided if the tested precondition is constant. A transition query whose
+   * target requires a constant precondition to have the other value has no answer but no.
+   */
+  private Optional<Answer> decideObservedGuards(final Query query) {
+
+    boolean allConstant = true;
+
+    for (final Map.Entry<Action, Boolean> guard : query.getObservedGuards().entrySet()) {
+
+      final Optional<Boolean> constant = getConstantGuard(guard.getKey());
+
+      if (constant.isPresent() && !constant.get().equals(guard.getValue())) {
+        return Optional.of(Answer.NO);
+      }
+
+      allConstant &= constant.isPresent();
+    }
+
+    if (query instanceof NecessaryActionQuery && allConstant) {
+      return Optional.of(Answer.YES);
+    }
+
+    return Optional.empty();
+  }
+
+  private Optional<Answer> decideGuardImplication(final GuardImplicationQuery query) {
+
+    final Optional<Boolean> consequent = getConstantGuard(query.getConsequent());
+
+    if (consequent.isPresent() && consequent.get() == query.getConsequentValue()) {
+      return Optional.of(Answer.YES);
+    }
+
+    // An antecedent that never holds implies anything
+    if (contradictsConstantGuards(query.getSource())) {
+      return Optional.of(Answer.YES);
+    }
+
+    if (consequent.isPresent() && !query.getAntecedent().isPresent()) {
+      return Optional.of(Answer.NO);
+    }
+
+    return Optional.empty();
+  }
+
+  private boolean contradictsConstantGuards(final State state) {
+
+    for (final Action action : state.getAllActions()) {
+
+      final Optional<Boolean> constant = getConstantGuard(action);
+
+      if (constant.isPresent()
+          && !constant.get().equals(state.getEnabledActions().contains(action))) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private Optional<Boolean> getConstantGuard(final Action action) {
+
+    return action.getStatePrecondition().flatMap(this::getConstantResult);
+  }
+
+  private Optional<Boolean> getConstantResult(final Method method) {
+
+    return returnValueAnalysis.getConstantBoolean(method.getTranslatedName());
+  }
+
+  private FieldAccesses getAccesses(final Method method) {
+
+    return fieldAccessAnalysis.getAccesses(method.getTranslatedName());
+  }
+}
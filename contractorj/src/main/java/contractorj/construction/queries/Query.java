@@ -7,10 +7,20 @@ import contractorj.model.Action;
 import contractorj.model.State;
 import contractorj.model.Transition;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import jbct.boogie.AssumeStatement;
+import jbct.boogie.BoogiePrinter;
+import jbct.boogie.CallStatement;
+import jbct.boogie.Expression;
+import jbct.boogie.Procedure;
+import jbct.boogie.Statement;
+import jbct.boogie.TextStatement;
+import jbct.boogie.VariableDeclaration;
 import jbct.model.Method;
 import jbct.utils.StringUtils;
 
@@ -18,6 +28,8 @@ public abstract class Query {
 
   protected static final String NAME_PART_SEPARATOR = "_________";
 
+  protected static final Statement BLANK_LINE = TextStatement.of("");
+
   protected final State source;
 
   protected final Action mainAction;
@@ -36,6 +48,14 @@ public abstract class Query {
     }
   }
 
+  /** Creates a query about the source state alone, that doesn't run any action. */
+  protected Query(State source, Method invariant) {
+
+    this.source = source;
+    this.mainAction = null;
+    this.invariant = invariant;
+  }
+
   public abstract Answer getAnswer(final QueryResult queryResult);
 
   protected abstract String getQueryCore();
@@ -53,6 +73,15 @@ public abstract class Query {
     return mainAction;
   }
 
+  /**
+   * @return The actions whose state preconditions the query checks after running the main action,
+   *     mapped to the value they are checked against.
+   */
+  public Map<Action, Boolean> getObservedGuards() {
+
+    return Collections.emptyMap();
+  }
+
   public String getName() {
 
     final String name =
@@ -81,80 +110,157 @@ public abstract class Query {
 
   public String getBoogieCode() {
 
-    final StringBuilder queryBody = new StringBuilder();
+    return getBoogieCode(getName(), Optional.empty());
+  }
+
+  /**
+   * Splits the query in disjoint cases over the arguments of the main action: the sign of int
+   * arguments, the value of boolean ones and whether references are null. Arguments are added to
+   * the split while the number of cases stays within the limit.
+   *
+   * @return Boogie conditions that partition the runs of the query, or an empty list if it can't be
+   *     split.
+   */
+  public List<String> getCaseSplits(final int maxCases) {
+
+    if (mainAction == null) {
+      return Collections.emptyList();
+    }
+
+    final List<Variable> arguments = getMainActionMethodArguments();
+    arguments.remove(0); // Remove this
+
+    List<String> cases = Collections.singletonList("true");
+
+    for (final Variable argument : arguments) {
+
+      final List<String> argumentCases = getArgumentCases(argument);
+
+      if (argumentCases.isEmpty() || cases.size() * argumentCases.size() > maxCases) {
+        continue;
+      }
+
+      final List<String> nextCases = new ArrayList<>();
+
+      for (final String previousCase : cases) {
+        for (final String argumentCase : argumentCases) {
+          nextCases.add(
+              previousCase.equals("true") ? argumentCase : previousCase + " && " + argumentCase);
+        }
+      }
+
+      cases = nextCases;
+    }
+
+    return cases.size() > 1 ? cases : Collections.emptyList();
+  }
+
+  /** @return The name of the procedure of one of the cases of {@link #getCaseSplits(int)}. */
+  public String getCaseName(final int caseIndex) {
+
+    return getName() + NAME_PART_SEPARATOR + "case" + caseIndex;
+  }
+
+  /** @return The query restricted to the runs where {@code caseCondition} holds. */
+  public String getCaseBoogieCode(final String caseCondition, final int caseIndex) {
 
-    queryBody
-        .append(getLocalVariablesDeclaration())
-        .append("\n")
-        .append("\n")
-        .append("\n")
-        .append("call initialize_globals();\n")
-        .append("\n")
-        .append("\n");
+    return getBoogieCode(getCaseName(caseIndex), Optional.of(caseCondition));
+  }
+
+  private static List<String> getArgumentCases(final Variable argument) {
+
+    switch (argument.translatedType) {
+      case "int":
+        return Lists.newArrayList(
+            argument.name + " < 0", argument.name + " == 0", argument.name + " > 0");
+
+      case "bool":
+        return Lists.newArrayList(argument.name, "!" + argument.name);
+
+      case "Ref":
+        return Lists.newArrayList(argument.name + " == null", argument.name + " != null");
+
+      default:
+        return Collections.emptyList();
+    }
+  }
+
+  private String getBoogieCode(final String name, final Optional<String> caseCondition) {
+
+    final List<Statement> queryBody = new ArrayList<>();
+
+    queryBody.add(getInitializeGlobalsCall());
+    queryBody.add(BLANK_LINE);
 
     if (!source.isConstructorsState()) {
-      queryBody.append(getInvariantCall()).append("\n").append("\n");
+      queryBody.add(TextStatement.of(getInvariantCall()));
+      queryBody.add(BLANK_LINE);
     }
 
-    queryBody.append(getStateGuardCalls(source)).append("\n").append("\n").append("\n");
+    queryBody.add(TextStatement.of(getStateGuardCalls(source)));
+    queryBody.add(BLANK_LINE);
 
     if (!source.isConstructorsState()) {
-      queryBody.append(getInvariantAssumption()).append("\n");
+      queryBody.add(TextStatement.of(getInvariantAssumption()));
     }
 
-    queryBody.append(getStateGuardAssumption(source)).append("\n").append("\n").append("\n");
+    queryBody.add(TextStatement.of(getStateGuardAssumption(source)));
+    queryBody.add(BLANK_LINE);
 
     getMainActionParamsPreconditionCall()
         .ifPresent(
-            call ->
-                queryBody
-                    .append(call)
-                    .append("\n")
-                    .append(getMainActionParamsPreconditionAssumption())
-                    .append("\n")
-                    .append("\n")
-                    .append("\n"));
-
-    queryBody
-        .append(getMainActionCall())
-        .append("\n")
-        .append("\n")
-        .append("\n")
-        .append(getInvariantCall())
-        .append("\n")
-        .append("\n")
-        .append(getQueryCore())
-        .append("\n");
-
-    final StringBuilder query =
-        new StringBuilder()
-            .append("procedure ")
-            .append(getName())
-            .append("(")
-            .append(getQueryArgumentsDeclaration())
-            .append(") {\n")
-            .append("\n")
-            .append(StringUtils.indent(queryBody.toString()))
-            .append("\n")
-            .append("}");
-
-    return query.toString();
-  }
-
-  private Variable getInvariantReturnVariable() {
+            call -> {
+              queryBody.add(TextStatement.of(call));
+              queryBody.add(TextStatement.of(getMainActionParamsPreconditionAssumption()));
+              queryBody.add(BLANK_LINE);
+            });
 
-    return getVariableForMethodResult(invariant).get();
+    caseCondition.ifPresent(
+        condition -> {
+          queryBody.add(AssumeStatement.of(Expression.of("(" + condition + ")")));
+          queryBody.add(BLANK_LINE);
+        });
+
+    queryBody.add(TextStatement.of(getMainActionCall()));
+    queryBody.add(BLANK_LINE);
+    queryBody.add(TextStatement.of(getInvariantCall()));
+    queryBody.add(BLANK_LINE);
+    queryBody.add(TextStatement.of(getQueryCore()));
+
+    return getBoogieCode(name, getQueryArguments(), queryBody);
   }
 
-  private String getLocalVariablesDeclaration() {
+  /** @return The query procedure, with the local variables of the query. */
+  protected String getBoogieCode(
+      final String name, final List<Variable> arguments, final List<Statement> queryBody) {
 
-    final List<String> declarations =
-        getLocalVariables()
-            .stream()
-            .map(argument -> "var " + argument.name + " : " + argument.translatedType + ";")
-            .collect(Collectors.toList());
+    final Procedure procedure =
+        Procedure.of(
+            name,
+            getDeclarations(arguments),
+            Optional.empty(),
+            getDeclarations(getLocalVariables()),
+            queryBody);
 
-    return Joiner.on("\n").join(declarations);
+    return BoogiePrinter.toString(procedure);
+  }
+
+  protected static CallStatement getInitializeGlobalsCall() {
+
+    return CallStatement.of(Optional.empty(), "initialize_globals", Collections.emptyList());
+  }
+
+  private static List<VariableDeclaration> getDeclarations(final List<Variable> variables) {
+
+    return variables
+        .stream()
+        .map(variable -> VariableDeclaration.of(variable.name, variable.translatedType))
+        .collect(Collectors.toList());
+  }
+
+  protected Variable getInvariantReturnVariable() {
+
+    return getVariableForMethodResult(invariant).get();
   }
 
   protected List<Variable> getLocalVariables() {
@@ -295,7 +401,7 @@ public abstract class Query {
                     getVariableForParamsPreconditionResult(mainAction)));
   }
 
-  private String getInvariantCall() {
+  protected String getInvariantCall() {
 
     return getCall(
         invariant,
@@ -324,7 +430,7 @@ public abstract class Query {
         .append(Joiner.on(", ").join(getNames(arguments)))
         .append(");\n");
 
-    if (method.equals(mainAction.getMethod())) {
+    if (mainAction != null && method.equals(mainAction.getMethod())) {
 
       stringBuilder.append(getMainActionCallExceptionHandling());
 
@@ -350,7 +456,7 @@ public abstract class Query {
     return "assert !(" + getStateGuard(state) + ");";
   }
 
-  private String getStateGuardAssumption(State state) {
+  protected String getStateGuardAssumption(State state) {
 
     return "assume (" + getStateGuard(state) + ");";
   }
@@ -370,7 +476,7 @@ public abstract class Query {
     return arguments;
   }
 
-  private Variable getThisVariable() {
+  protected Variable getThisVariable() {
 
     return new Variable("Ref", "$this");
   }
@@ -380,17 +486,6 @@ public abstract class Query {
     return !mainAction.getMethod().isConstructor();
   }
 
-  private String getQueryArgumentsDeclaration() {
-
-    final List<String> declarations =
-        getQueryArguments()
-            .stream()
-            .map(argument -> argument.name + " : " + argument.translatedType)
-            .collect(Collectors.toList());
-
-    return Joiner.on(", ").join(declarations);
-  }
-
   private List<String> getNames(List<Variable> variables) {
 
     return variables.stream().map(variable -> variable.name).collect(Collectors.toList());
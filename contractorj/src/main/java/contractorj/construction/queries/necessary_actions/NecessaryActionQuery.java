@@ -7,7 +7,9 @@ import contractorj.construction.queries.Variable;
 import contractorj.model.Action;
 import contractorj.model.State;
 import contractorj.model.Transition;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import jbct.model.Method;
 import jbct.utils.StringUtils;
@@ -38,6 +40,12 @@ public abstract class NecessaryActionQuery extends Query {
     return testedAction;
   }
 
+  @Override
+  public Map<Action, Boolean> getObservedGuards() {
+
+    return Collections.singletonMap(testedAction, isTestingEnabledness());
+  }
+
   @Override
   public Answer getAnswer(final QueryResult queryResult) {
 
@@ -0,0 +1,137 @@
+package contractorj.construction.queries.state;
+
+import contractorj.construction.corral.QueryResult;
+import contractorj.construction.queries.Answer;
+import contractorj.construction.queries.Variable;
+import contractorj.model.Action;
+import contractorj.model.State;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import jbct.model.Method;
+import jbct.utils.StringUtils;
+
+/**
+ * Checks if, in every state satisfying the invariant, the state precondition of an action having a
+ * value implies that another one has a given value. Without antecedent it checks if the
+ * precondition always has the given value.
+ */
+public class GuardImplicationQuery extends StateQuery {
+
+  private final Action antecedent;
+
+  private final boolean antecedentValue;
+
+  private final Action consequent;
+
+  private final boolean consequentValue;
+
+  public GuardImplicationQuery(
+      final Action consequent, final boolean consequentValue, final Method invariant) {
+
+    this(null, false, consequent, consequentValue, invariant);
+  }
+
+  public GuardImplicationQuery(
+      final Action antecedent,
+      final boolean antecedentValue,
+      final Action consequent,
+      final boolean consequentValue,
+      final Method invariant) {
+
+    super(createSource(antecedent, antecedentValue), invariant);
+
+    this.antecedent = antecedent;
+    this.antecedentValue = antecedentValue;
+    this.consequent = consequent;
+    this.consequentValue = consequentValue;
+  }
+
+  private static State createSource(final Action antecedent, final boolean antecedentValue) {
+
+    if (antecedent == null) {
+      return new State(Collections.emptySet(), Collections.emptySet());
+    }
+
+    return antecedentValue
+        ? new State(Collections.singleton(antecedent), Collections.emptySet())
+        : new State(Collections.emptySet(), Collections.singleton(antecedent));
+  }
+
+  public Optional<Action> getAntecedent() {
+
+    return Optional.ofNullable(antecedent);
+  }
+
+  public boolean getAntecedentValue() {
+
+    return antecedentValue;
+  }
+
+  public Action getConsequent() {
+
+    return consequent;
+  }
+
+  public boolean getConsequentValue() {
+
+    return consequentValue;
+  }
+
+  @Override
+  public Answer getAnswer(final QueryResult queryResult) {
+
+    if (queryResult.equals(QueryResult.NO_BUG)) {
+      return Answer.YES;
+    }
+
+    return Answer.NO;
+  }
+
+  @Override
+  public String getName() {
+
+    final String name =
+        "guard_implication"
+            + NAME_PART_SEPARATOR
+            + (antecedent == null ? "true" : getLiteralName(antecedent, antecedentValue))
+            + NAME_PART_SEPARATOR
+            + "implies"
+            + NAME_PART_SEPARATOR
+            + getLiteralName(consequent, consequentValue);
+
+    return StringUtils.scapeIllegalIdentifierCharacters(name);
+  }
+
+  private String getLiteralName(final Action action, final boolean value) {
+
+    return (value ? "" : "not_") + action.getMethod().getJavaNameWithArgumentTypes();
+  }
+
+  @Override
+  protected String getQueryCore() {
+
+    final String consequentVariable = getVariableForStatePreconditionResult(consequent).get().name;
+
+    return getStatePreconditionCall(consequent).get()
+        + "\n"
+        + "\n"
+        + "query_assertion:\n"
+        + "assert "
+        + (consequentValue ? "" : "!")
+        + consequentVariable
+        + ";";
+  }
+
+  @Override
+  protected List<Variable> getLocalVariables() {
+
+    return Stream.concat(
+            super.getLocalVariables().stream(),
+            Stream.of(getVariableForStatePreconditionResult(consequent).get()))
+        .distinct()
+        .collect(Collectors.toList());
+  }
+}
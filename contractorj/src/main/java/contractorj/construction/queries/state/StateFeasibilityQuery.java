@@ -0,0 +1,54 @@
+package contractorj.construction.queries.state;
+
+import contractorj.construction.corral.QueryResult;
+import contractorj.construction.queries.Answer;
+import contractorj.model.State;
+import jbct.model.Method;
+import jbct.utils.StringUtils;
+
+/**
+ * Checks if some object satisfies both the invariant and the guard of a state. If none does, the
+ * state can't be reached and there is no point in exploring it.
+ */
+public class StateFeasibilityQuery extends StateQuery {
+
+  public StateFeasibilityQuery(final State state, final Method invariant) {
+
+    super(state, invariant);
+  }
+
+  @Override
+  public Answer getAnswer(final QueryResult queryResult) {
+
+    switch (queryResult) {
+      case TRUE_BUG:
+        return Answer.YES;
+
+      case NO_BUG:
+        return Answer.NO;
+
+      case MAYBE_BUG:
+        return Answer.MAYBE;
+    }
+
+    throw new IllegalArgumentException(
+        "QueryResult "
+            + queryResult.toString()
+            + " is an error for query type "
+            + getClass().getName());
+  }
+
+  @Override
+  public String getName() {
+
+    final String name = "state_feasibility" + NAME_PART_SEPARATOR + getStateName(source);
+
+    return StringUtils.scapeIllegalIdentifierCharacters(name);
+  }
+
+  @Override
+  protected String getQueryCore() {
+
+    return "query_assertion:\n" + "assert false;";
+  }
+}
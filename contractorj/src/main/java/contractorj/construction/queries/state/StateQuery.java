@@ -0,0 +1,69 @@
+package contractorj.construction.queries.state;
+
+import contractorj.construction.queries.Answer;
+import contractorj.construction.queries.Query;
+import contractorj.construction.queries.Variable;
+import contractorj.model.State;
+import contractorj.model.Transition;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import jbct.boogie.Statement;
+import jbct.boogie.TextStatement;
+import jbct.model.Method;
+
+/**
+ * A query about the states that satisfy the invariant and the guard of the source state. No action
+ * is run, so its answer holds in every state of the EPA that refines the source.
+ */
+public abstract class StateQuery extends Query {
+
+  protected StateQuery(final State source, final Method invariant) {
+
+    super(source, invariant);
+  }
+
+  @Override
+  public Optional<Transition> getTransition(final Answer answer) {
+
+    return Optional.empty();
+  }
+
+  @Override
+  protected String getMainActionCallExceptionHandling() {
+
+    return "";
+  }
+
+  @Override
+  public String getBoogieCode() {
+
+    final List<Statement> queryBody = new ArrayList<>();
+
+    queryBody.add(getInitializeGlobalsCall());
+    queryBody.add(BLANK_LINE);
+    queryBody.add(TextStatement.of(getInvariantCall()));
+    queryBody.add(BLANK_LINE);
+    queryBody.add(TextStatement.of(getStateGuardCalls(source)));
+    queryBody.add(BLANK_LINE);
+    queryBody.add(TextStatement.of(getInvariantAssumption()));
+    queryBody.add(TextStatement.of(getStateGuardAssumption(source)));
+    queryBody.add(BLANK_LINE);
+    queryBody.add(TextStatement.of(getQueryCore()));
+
+    return getBoogieCode(getName(), Collections.emptyList(), queryBody);
+  }
+
+  @Override
+  protected List<Variable> getLocalVariables() {
+
+    final List<Variable> variables = new ArrayList<>();
+
+    variables.add(getThisVariable());
+    variables.add(getInvariantReturnVariable());
+    getStateGuardVariables(source).distinct().forEach(variables::add);
+
+    return variables;
+  }
+}
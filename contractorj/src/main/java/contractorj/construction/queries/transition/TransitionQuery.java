@@ -7,7 +7,9 @@ import contractorj.construction.queries.Variable;
 import contractorj.model.Action;
 import contractorj.model.State;
 import contractorj.model.Transition;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -102,4 +104,18 @@ public abstract class TransitionQuery extends Query {
   public State getTarget() {
     return target;
   }
+
+  @Override
+  public Map<Action, Boolean> getObservedGuards() {
+
+    final Map<Action, Boolean> guards = new HashMap<>();
+
+    target
+        .getAllActions()
+        .stream()
+        .filter(action -> action.getStatePrecondition().isPresent())
+        .forEach(action -> guards.put(action, target.getEnabledActions().contains(action)));
+
+    return guards;
+  }
 }
@@ -0,0 +1,203 @@
+package contractorj.construction.relevance;
+
+import contractorj.construction.queries.Answer;
+import contractorj.construction.queries.Query;
+import contractorj.model.Action;
+import contractorj.model.State;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import jbct.analysis.FieldAccessAnalysis;
+import jbct.analysis.FieldAccesses;
+import jbct.model.Method;
+
+/**
+ * Answers of queries, keyed by what the query can observe of its source state: the guards that
+ * {@link GuardRelevance} deems relevant to it. Queries from different source states that agree on
+ * those guards get the same answer, as long as both source states exist, so the memo only shares
+ * answers between states witnessed by some concrete object.
+ *
+ * <p>Only definite answers are recorded, uncertain ones are left to be queried again.
+ */
+public class AnswerMemo {
+
+  private final FieldAccessAnalysis fieldAccessAnalysis;
+
+  private final Method invariant;
+
+  private final Map<Key, Answer> answers = new ConcurrentHashMap<>();
+
+  private final Map<List<Object>, Set<Action>> relevantGuards = new ConcurrentHashMap<>();
+
+  private final AtomicLong sharedAnswers = new AtomicLong();
+
+  private final Set<State> witnessedStates;
+
+  /**
+   * @param witnessedStates The states witnessed so far. It's read on every use, so states witnessed
+   *     later start sharing answers.
+   */
+  public AnswerMemo(
+      final FieldAccessAnalysis fieldAccessAnalysis,
+      final Method invariant,
+      final Set<State> witnessedStates) {
+
+    this.fieldAccessAnalysis = fieldAccessAnalysis;
+    this.invariant = invariant;
+    this.witnessedStates = witnessedStates;
+  }
+
+  /**
+   * The guards a query can't observe only leave its answer unchanged if they can be satisfied, so
+   * answers are only shared between queries from witnessed states.
+   */
+  public boolean isShareable(final Query query) {
+
+    return query.getMainAction() != null
+        && !query.getSource().isConstructorsState()
+        && witnessedStates.contains(query.getSource());
+  }
+
+  /** @return The answer of an equivalent query from another state, if there is one. */
+  public Optional<Answer> get(final Query query) {
+
+    if (!isShareable(query)) {
+      return Optional.empty();
+    }
+
+    final Optional<Answer> answer = Optional.ofNullable(answers.get(getKey(query)));
+
+    answer.ifPresent(ignored -> sharedAnswers.incrementAndGet());
+
+    return answer;
+  }
+
+  public void put(final Query query, final Answer answer) {
+
+    if (isShareable(query) && !answer.equals(Answer.MAYBE)) {
+      answers.putIfAbsent(getKey(query), answer);
+    }
+  }
+
+  /** @return How many queries were answered from the memo. */
+  public long getNumberOfSharedAnswers() {
+
+    return sharedAnswers.get();
+  }
+
+  private Key getKey(final Query query) {
+
+    final State source = query.getSource();
+    final Set<Action> relevant =
+        getRelevantGuards(query.getMainAction(), query.getObservedGuards().keySet(), source);
+
+    final Map<Action, Boolean> projection = new HashMap<>();
+
+    for (final Action action : relevant) {
+      projection.put(action, source.getEnabledActions().contains(action));
+    }
+
+    return new Key(
+        query.getClass(), query.getMainAction(), query.getObservedGuards(), projection);
+  }
+
+  /** Relevance only depends on what the query runs and on which actions have guards. */
+  private Set<Action> getRelevantGuards(
+      final Action mainAction, final Set<Action> observedActions, final State source) {
+
+    final Set<Action> guardedActions =
+        source
+            .getAllActions()
+            .stream()
+            .filter(action -> action.getStatePrecondition().isPresent())
+            .collect(Collectors.toSet());
+
+    return relevantGuards.computeIfAbsent(
+        Arrays.asList(mainAction, observedActions, guardedActions),
+        ignored -> computeRelevantGuards(mainAction, observedActions, guardedActions));
+  }
+
+  private Set<Action> computeRelevantGuards(
+      final Action mainAction, final Set<Action> observedActions, final Set<Action> guards) {
+
+    FieldAccesses query = getAccesses(mainAction.getMethod()).union(getAccesses(invariant));
+
+    if (mainAction.getParamsPrecondition().isPresent()) {
+      query = query.union(getAccesses(mainAction.getParamsPrecondition().get()));
+    }
+
+    for (final Action observed : observedActions) {
+      if (observed.getStatePrecondition().isPresent()) {
+        query = query.union(getAccesses(observed.getStatePrecondition().get()));
+      }
+    }
+
+    final Map<Action, FieldAccesses> guardAccesses = new HashMap<>();
+
+    for (final Action guard : guards) {
+      guardAccesses.put(guard, getAccesses(guard.getStatePrecondition().get()));
+    }
+
+    return GuardRelevance.getRelevantGuards(query, guardAccesses);
+  }
+
+  private FieldAccesses getAccesses(final Method method) {
+
+    return fieldAccessAnalysis.getAccesses(method.getTranslatedName());
+  }
+
+  private static class Key {
+
+    private final java.lang.Class<? extends Query> queryClass;
+
+    private final Action mainAction;
+
+    private final Map<Action, Boolean> observedGuards;
+
+    private final Map<Action, Boolean> sourceProjection;
+
+    private Key(
+        final java.lang.Class<? extends Query> queryClass,
+        final Action mainAction,
+        final Map<Action, Boolean> observedGuards,
+        final Map<Action, Boolean> sourceProjection) {
+
+      this.queryClass = queryClass;
+      this.mainAction = mainAction;
+      this.observedGuards = observedGuards;
+      this.sourceProjection = sourceProjection;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+
+      if (this == o) {
+        return true;
+      }
+
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+
+      final Key key = (Key) o;
+
+      return queryClass.equals(key.queryClass)
+          && mainAction.equals(key.mainAction)
+          && observedGuards.equals(key.observedGuards)
+          && sourceProjection.equals(key.sourceProjection);
+    }
+
+    @Override
+    public int hashCode() {
+
+      return Objects.hash(queryClass, mainAction, observedGuards, sourceProjection);
+    }
+  }
+}
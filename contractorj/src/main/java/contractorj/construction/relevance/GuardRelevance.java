@@ -0,0 +1,72 @@
+package contractorj.construction.relevance;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import jbct.analysis.FieldAccesses;
+
+/**
+ * Decides which guards of a source state can influence the answer of a query.
+ *
+ * <p>A query is satisfiable if the conjunction of the constraints it imposes on the global state
+ * is. Constraints that share no state with the rest can be satisfied independently of them, so if
+ * the source state is known to exist, the guards in such a group don't change the answer. The
+ * relevant guards are the ones connected, through the state their preconditions access, to what the
+ * query itself accesses: the main action, the invariant and the guards checked after the action.
+ */
+public class GuardRelevance {
+
+  private GuardRelevance() {}
+
+  /**
+   * @param query The accesses of everything the query runs besides the source state's guards.
+   * @param guards The accesses of the state precondition of each guard of the source state.
+   * @return The guards whose value may change the answer of the query.
+   */
+  public static <T> Set<T> getRelevantGuards(
+      final FieldAccesses query, final Map<T, FieldAccesses> guards) {
+
+    if (isUnknown(query)) {
+      return new HashSet<>(guards.keySet());
+    }
+
+    final Set<String> relevantState = new HashSet<>(getAccessedState(query));
+    final Map<T, FieldAccesses> pending = new LinkedHashMap<>(guards);
+    final Set<T> relevantGuards = new HashSet<>();
+
+    boolean changed = true;
+
+    while (changed) {
+
+      changed = false;
+
+      for (final Map.Entry<T, FieldAccesses> entry : new LinkedHashMap<>(pending).entrySet()) {
+
+        final FieldAccesses accesses = entry.getValue();
+        final Set<String> accessedState = getAccessedState(accesses);
+
+        if (isUnknown(accesses) || accessedState.stream().anyMatch(relevantState::contains)) {
+          relevantGuards.add(entry.getKey());
+          relevantState.addAll(accessedState);
+          pending.remove(entry.getKey());
+          changed = true;
+        }
+      }
+    }
+
+    return relevantGuards;
+  }
+
+  private static boolean isUnknown(final FieldAccesses accesses) {
+
+    return accesses.readsUnknownState() || accesses.writesUnknownState();
+  }
+
+  private static Set<String> getAccessedState(final FieldAccesses accesses) {
+
+    final Set<String> state = new HashSet<>(accesses.getReads());
+    state.addAll(accesses.getWrites());
+    return state;
+  }
+}
@@ -0,0 +1,99 @@
+package contractorj.construction.splitting;
+
+import contractorj.construction.corral.QueryResult;
+import contractorj.construction.queries.Query;
+import contractorj.model.Action;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides which queries are split in cases that run in parallel, and combines the answers of the
+ * cases.
+ *
+ * <p>Queries run whole until one with the same main action takes longer than the threshold. From
+ * then on the queries of that action are split, since their running times are usually alike.
+ */
+public class QuerySplitter {
+
+  private final Duration threshold;
+
+  private final int maxCases;
+
+  private final Set<Action> slowActions = ConcurrentHashMap.newKeySet();
+
+  private final AtomicLong splitQueries = new AtomicLong();
+
+  private final AtomicLong cases = new AtomicLong();
+
+  /**
+   * @param threshold The running time from which the queries of an action are considered slow.
+   * @param maxCases The maximum number of cases a query is split in.
+   */
+  public QuerySplitter(final Duration threshold, final int maxCases) {
+
+    this.threshold = threshold;
+    this.maxCases = maxCases;
+  }
+
+  /** @return The cases to run instead of the query, or an empty list to run it whole. */
+  public List<String> getCases(final Query query) {
+
+    if (query.getMainAction() == null || !slowActions.contains(query.getMainAction())) {
+      return Collections.emptyList();
+    }
+
+    return query.getCaseSplits(maxCases);
+  }
+
+  /** Records the running time of a query that ran whole. */
+  public void recordRunningTime(final Query query, final Duration runningTime) {
+
+    if (query.getMainAction() != null && runningTime.compareTo(threshold) >= 0) {
+      slowActions.add(query.getMainAction());
+    }
+  }
+
+  /** Records that a query was split in the given number of cases. */
+  public void recordSplit(final int numberOfCases) {
+
+    splitQueries.incrementAndGet();
+    cases.addAndGet(numberOfCases);
+  }
+
+  /**
+   * A bug in any case is a bug of the query, and the query has no bugs only if no case has.
+   *
+   * @param results The results of the cases run so far.
+   * @param allCasesRun Whether every case has a result.
+   * @return The result of the query, or empty if it depends on the cases not run yet.
+   */
+  public static Optional<QueryResult> combine(
+      final List<QueryResult> results, final boolean allCasesRun) {
+
+    if (results.contains(QueryResult.TRUE_BUG)) {
+      return Optional.of(QueryResult.TRUE_BUG);
+    }
+
+    if (!allCasesRun) {
+      return Optional.empty();
+    }
+
+    return Optional.of(
+        results.contains(QueryResult.MAYBE_BUG) ? QueryResult.MAYBE_BUG : QueryResult.NO_BUG);
+  }
+
+  public long getNumberOfSplitQueries() {
+
+    return splitQueries.get();
+  }
+
+  public long getNumberOfCases() {
+
+    return cases.get();
+  }
+}
@@ -0,0 +1,52 @@
+package contractorj.construction.summaries;
+
+import contractorj.construction.corral.QueryResult;
+import contractorj.construction.corral.QueryRunner;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import jbct.summary.MethodSummary;
+
+/**
+ * Checks that the bodies of the summarized methods satisfy their summaries, running the verifier
+ * once on the validation procedure of each. The queries of the exploration only see the summaries,
+ * so a summary the body doesn't satisfy makes their answers wrong.
+ */
+public class SummaryValidator {
+
+  /** The query class the validations are run as. */
+  public static final String QUERY_CLASS = "SummaryValidation";
+
+  private final QueryRunner queryRunner;
+
+  public SummaryValidator(final QueryRunner queryRunner) {
+
+    this.queryRunner = queryRunner;
+  }
+
+  /**
+   * @param translationFile The translation, with the validation procedures of the summaries.
+   * @param summarizedMethods The translated names of the summarized methods.
+   * @return The result of validating each summary, by translated name. {@link
+   *     QueryResult#TRUE_BUG} means the body breaks its summary, and {@link QueryResult#MAYBE_BUG}
+   *     that the verifier couldn't tell.
+   */
+  public Map<String, QueryResult> validate(
+      final Path translationFile, final List<String> summarizedMethods) {
+
+    final Map<String, QueryResult> results = new LinkedHashMap<>();
+
+    for (final String summarizedMethod : summarizedMethods) {
+      results.put(
+          summarizedMethod,
+          queryRunner.run(
+                  translationFile.toString(),
+                  MethodSummary.getValidationName(summarizedMethod),
+                  QUERY_CLASS)
+              .queryResult);
+    }
+
+    return results;
+  }
+}
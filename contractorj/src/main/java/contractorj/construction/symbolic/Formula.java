@@ -0,0 +1,309 @@
+package contractorj.construction.symbolic;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import jbct.analysis.LinearConstraint;
+import jbct.analysis.LinearExpression;
+
+/**
+ * A boolean expression of the assumptions and assertions of query procedures: conjunctions,
+ * disjunctions and negations of boolean variables and of (in)equalities between variables.
+ */
+abstract class Formula {
+
+  private static final int MAX_DISJUNCTS = 256;
+
+  private static final Set<String> OPERATORS =
+      ImmutableSet.of("(", ")", "!", "&&", "||", "==", "!=");
+
+  /**
+   * @param values The value of each identifier.
+   * @param positive Whether the formula or its negation is wanted.
+   * @return The formula, or its negation, in disjunctive normal form.
+   */
+  abstract List<List<LinearConstraint>> toDnf(
+      Function<String, LinearExpression> values, boolean positive);
+
+  static Formula parse(final String text) {
+
+    final Parser parser = new Parser(tokenize(text));
+    final Formula formula = parser.parseDisjunction();
+
+    if (parser.position != parser.tokens.size()) {
+      throw new UnsupportedQueryException("Unexpected tokens in " + text);
+    }
+
+    return formula;
+  }
+
+  private static List<String> tokenize(final String text) {
+
+    final List<String> tokens = new ArrayList<>();
+    int i = 0;
+
+    while (i < text.length()) {
+
+      final char c = text.charAt(i);
+
+      if (Character.isWhitespace(c)) {
+        i++;
+      } else if (c == '(' || c == ')') {
+        tokens.add(String.valueOf(c));
+        i++;
+      } else if (text.startsWith("&&", i)
+          || text.startsWith("||", i)
+          || text.startsWith("==", i)
+          || text.startsWith("!=", i)) {
+        tokens.add(text.substring(i, i + 2));
+        i += 2;
+      } else if (c == '!') {
+        tokens.add("!");
+        i++;
+      } else {
+
+        final int start = i;
+
+        while (i < text.length()
+            && !Character.isWhitespace(text.charAt(i))
+            && "()!&|=<>".indexOf(text.charAt(i)) < 0) {
+          i++;
+        }
+
+        if (start == i) {
+          throw new UnsupportedQueryException("Unexpected character in " + text);
+        }
+
+        tokens.add(text.substring(start, i));
+      }
+    }
+
+    return tokens;
+  }
+
+  private static List<List<LinearConstraint>> product(
+      final List<List<LinearConstraint>> left, final List<List<LinearConstraint>> right) {
+
+    final List<List<LinearConstraint>> product = new ArrayList<>();
+
+    for (final List<LinearConstraint> leftConjunction : left) {
+      for (final List<LinearConstraint> rightConjunction : right) {
+
+        final List<LinearConstraint> conjunction = new ArrayList<>(leftConjunction);
+        conjunction.addAll(rightConjunction);
+        product.add(conjunction);
+      }
+    }
+
+    return checkSize(product);
+  }
+
+  private static List<List<LinearConstraint>> union(
+      final List<List<LinearConstraint>> left, final List<List<LinearConstraint>> right) {
+
+    final List<List<LinearConstraint>> union = new ArrayList<>(left);
+    union.addAll(right);
+
+    return checkSize(union);
+  }
+
+  private static List<List<LinearConstraint>> checkSize(
+      final List<List<LinearConstraint>> disjunction) {
+
+    if (disjunction.size() > MAX_DISJUNCTS) {
+      throw new UnsupportedQueryException("Too many disjuncts");
+    }
+
+    return disjunction;
+  }
+
+  private static class Parser {
+
+    private final List<String> tokens;
+
+    private int position = 0;
+
+    private Parser(final List<String> tokens) {
+
+      this.tokens = tokens;
+    }
+
+    private Formula parseDisjunction() {
+
+      Formula formula = parseConjunction();
+
+      while (accept("||")) {
+        formula = new Or(formula, parseConjunction());
+      }
+
+      return formula;
+    }
+
+    private Formula parseConjunction() {
+
+      Formula formula = parseUnary();
+
+      while (accept("&&")) {
+        formula = new And(formula, parseUnary());
+      }
+
+      return formula;
+    }
+
+    private Formula parseUnary() {
+
+      if (accept("!")) {
+        return new Not(parseUnary());
+      }
+
+      if (accept("(")) {
+
+        final Formula formula = parseDisjunction();
+
+        if (!accept(")")) {
+          throw new UnsupportedQueryException("Unbalanced parenthesis");
+        }
+
+        return formula;
+      }
+
+      final String left = next();
+
+      if (accept("==")) {
+        return new Atom(left, true, next());
+      }
+
+      if (accept("!=")) {
+        return new Atom(left, false, next());
+      }
+
+      return new Atom(left, false, "false");
+    }
+
+    private boolean accept(final String token) {
+
+      if (position < tokens.size() && tokens.get(position).equals(token)) {
+        position++;
+        return true;
+      }
+
+      return false;
+    }
+
+    private String next() {
+
+      if (position == tokens.size()) {
+        throw new UnsupportedQueryException("Unexpected end of formula");
+      }
+
+      final String token = tokens.get(position++);
+
+      if (OPERATORS.contains(token)) {
+        throw new UnsupportedQueryException("Unexpected " + token);
+      }
+
+      return token;
+    }
+  }
+
+  /** {@code left == right}, or {@code left != right}. A boolean variable is {@code x != false}. */
+  private static class Atom extends Formula {
+
+    private final String left;
+
+    private final boolean equal;
+
+    private final String right;
+
+    private Atom(final String left, final boolean equal, final String right) {
+
+      this.left = left;
+      this.equal = equal;
+      this.right = right;
+    }
+
+    @Override
+    List<List<LinearConstraint>> toDnf(
+        final Function<String, LinearExpression> values, final boolean positive) {
+
+      final LinearExpression leftValue = values.apply(left);
+      final LinearExpression rightValue = values.apply(right);
+
+      final LinearConstraint constraint =
+          equal == positive
+              ? LinearConstraint.equal(leftValue, rightValue)
+              : LinearConstraint.notEqual(leftValue, rightValue);
+
+      final List<List<LinearConstraint>> dnf = new ArrayList<>();
+      dnf.add(Collections.singletonList(constraint));
+
+      return dnf;
+    }
+  }
+
+  private static class Not extends Formula {
+
+    private final Formula formula;
+
+    private Not(final Formula formula) {
+
+      this.formula = formula;
+    }
+
+    @Override
+    List<List<LinearConstraint>> toDnf(
+        final Function<String, LinearExpression> values, final boolean positive) {
+
+      return formula.toDnf(values, !positive);
+    }
+  }
+
+  private static class And extends Formula {
+
+    private final Formula left;
+
+    private final Formula right;
+
+    private And(final Formula left, final Formula right) {
+
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    List<List<LinearConstraint>> toDnf(
+        final Function<String, LinearExpression> values, final boolean positive) {
+
+      final List<List<LinearConstraint>> leftDnf = left.toDnf(values, positive);
+      final List<List<LinearConstraint>> rightDnf = right.toDnf(values, positive);
+
+      return positive ? product(leftDnf, rightDnf) : union(leftDnf, rightDnf);
+    }
+  }
+
+  private static class Or extends Formula {
+
+    private final Formula left;
+
+    private final Formula right;
+
+    private Or(final Formula left, final Formula right) {
+
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    List<List<LinearConstraint>> toDnf(
+        final Function<String, LinearExpression> values, final boolean positive) {
+
+      final List<List<LinearConstraint>> leftDnf = left.toDnf(values, positive);
+      final List<List<LinearConstraint>> rightDnf = right.toDnf(values, positive);
+
+      return positive ? union(leftDnf, rightDnf) : product(leftDnf, rightDnf);
+    }
+  }
+}
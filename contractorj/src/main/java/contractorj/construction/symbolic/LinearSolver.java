@@ -0,0 +1,399 @@
+package contractorj.construction.symbolic;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import jbct.analysis.LinearConstraint;
+import jbct.analysis.LinearConstraint.Relation;
+import jbct.analysis.LinearExpression;
+
+/**
+ * Decides conjunctions of linear integer constraints.
+ *
+ * <p>Equalities with a unit coefficient are solved by substitution, and the remaining inequalities
+ * by Fourier-Motzkin elimination, tightened to integers after each step. A contradiction proves
+ * that there is no integer solution. Otherwise a model is built back from the elimination and
+ * checked against the original constraints, so satisfiable conjunctions whose rational solutions
+ * don't lead to an integer one are reported as unknown. Disequalities are split in two strict
+ * inequalities when the model violates them.
+ */
+public class LinearSolver {
+
+  private static final int MAX_CONSTRAINTS = 2000;
+
+  private static final int MAX_SPLITS = 16;
+
+  public Satisfiability check(final List<LinearConstraint> constraints) {
+
+    try {
+      return check(constraints, 0);
+    } catch (ArithmeticException e) {
+      return Satisfiability.UNKNOWN;
+    }
+  }
+
+  private Satisfiability check(final List<LinearConstraint> constraints, final int splits) {
+
+    final List<LinearConstraint> conjunction = new ArrayList<>();
+    final List<LinearConstraint> disequalities = new ArrayList<>();
+
+    for (final LinearConstraint constraint : constraints) {
+
+      if (constraint.getExpression().isConstant()) {
+        if (!constraint.holds(new HashMap<>())) {
+          return Satisfiability.UNSATISFIABLE;
+        }
+      } else if (constraint.getRelation().equals(Relation.NOT_EQUAL)) {
+        disequalities.add(constraint);
+      } else {
+        conjunction.add(constraint);
+      }
+    }
+
+    final Solution solution = solve(conjunction);
+
+    if (solution.satisfiability.equals(Satisfiability.UNSATISFIABLE)) {
+      return Satisfiability.UNSATISFIABLE;
+    }
+
+    if (solution.model.isPresent()
+        && constraints.stream().allMatch(constraint -> constraint.holds(solution.model.get()))) {
+      return Satisfiability.SATISFIABLE;
+    }
+
+    final Optional<LinearConstraint> disequality =
+        disequalities
+            .stream()
+            .filter(constraint -> !solution.model.map(constraint::holds).orElse(false))
+            .findFirst();
+
+    if (!disequality.isPresent() || splits == MAX_SPLITS) {
+      return Satisfiability.UNKNOWN;
+    }
+
+    final LinearExpression expression = disequality.get().getExpression();
+    final LinearExpression zero = LinearExpression.constant(0);
+
+    boolean unknown = false;
+
+    for (final LinearConstraint side :
+        new LinearConstraint[] {
+          LinearConstraint.lessThan(expression, zero), LinearConstraint.lessThan(zero, expression)
+        }) {
+
+      final List<LinearConstraint> branch = new ArrayList<>(constraints);
+      branch.remove(disequality.get());
+      branch.add(side);
+
+      final Satisfiability satisfiability = check(branch, splits + 1);
+
+      if (satisfiability.equals(Satisfiability.SATISFIABLE)) {
+        return Satisfiability.SATISFIABLE;
+      }
+
+      unknown |= satisfiability.equals(Satisfiability.UNKNOWN);
+    }
+
+    return unknown ? Satisfiability.UNKNOWN : Satisfiability.UNSATISFIABLE;
+  }
+
+  /** Solves a conjunction of equalities and inequalities. */
+  private Solution solve(final List<LinearConstraint> constraints) {
+
+    final Map<String, LinearExpression> definitions = new LinkedHashMap<>();
+    List<LinearConstraint> remaining = new ArrayList<>(constraints);
+
+    Optional<LinearConstraint> equality;
+
+    while ((equality = findSolvableEquality(remaining)).isPresent()) {
+
+      final LinearExpression expression = equality.get().getExpression();
+      final String symbol = getUnitSymbol(expression).get();
+
+      // c * x + r == 0 with c = 1 or -1, so x == -c * r
+      final long coefficient = expression.getCoefficient(symbol);
+      final Map<String, LinearExpression> substitution = new HashMap<>();
+      substitution.put(
+          symbol,
+          expression
+              .subtract(LinearExpression.symbol(symbol).multiply(coefficient))
+              .multiply(-coefficient));
+
+      definitions.replaceAll((defined, value) -> value.substitute(substitution));
+      definitions.put(symbol, substitution.get(symbol));
+
+      final List<LinearConstraint> substituted = new ArrayList<>();
+
+      for (final LinearConstraint constraint : remaining) {
+        if (constraint != equality.get()) {
+          substituted.add(constraint.substitute(substitution));
+        }
+      }
+
+      remaining = substituted;
+    }
+
+    final Set<LinearExpression> inequalities = new LinkedHashSet<>();
+
+    for (final LinearConstraint constraint : remaining) {
+
+      final LinearExpression expression = constraint.getExpression();
+
+      if (constraint.getRelation().equals(Relation.EQUAL)) {
+
+        if (expression.getConstant() % getCoefficientsGcd(expression) != 0) {
+          return Solution.UNSATISFIABLE;
+        }
+
+        inequalities.add(expression);
+        inequalities.add(expression.negate());
+      } else {
+        inequalities.add(expression);
+      }
+    }
+
+    return eliminate(inequalities, definitions);
+  }
+
+  /** Fourier-Motzkin elimination of inequalities of the form {@code expression <= 0}. */
+  private Solution eliminate(
+      final Set<LinearExpression> inequalities, final Map<String, LinearExpression> definitions) {
+
+    Set<LinearExpression> current = new LinkedHashSet<>();
+
+    for (final LinearExpression inequality : inequalities) {
+      if (!addTightened(inequality, current)) {
+        return Solution.UNSATISFIABLE;
+      }
+    }
+
+    final List<String> eliminated = new ArrayList<>();
+    final List<List<LinearExpression>> bounds = new ArrayList<>();
+
+    while (true) {
+
+      final Optional<String> symbol = chooseSymbol(current);
+
+      if (!symbol.isPresent()) {
+        break;
+      }
+
+      final List<LinearExpression> upper = new ArrayList<>();
+      final List<LinearExpression> lower = new ArrayList<>();
+      final Set<LinearExpression> next = new LinkedHashSet<>();
+
+      for (final LinearExpression inequality : current) {
+
+        final long coefficient = inequality.getCoefficient(symbol.get());
+
+        if (coefficient > 0) {
+          upper.add(inequality);
+        } else if (coefficient < 0) {
+          lower.add(inequality);
+        } else {
+          next.add(inequality);
+        }
+      }
+
+      for (final LinearExpression upperBound : upper) {
+        for (final LinearExpression lowerBound : lower) {
+
+          final long a = upperBound.getCoefficient(symbol.get());
+          final long b = -lowerBound.getCoefficient(symbol.get());
+
+          if (!addTightened(upperBound.multiply(b).add(lowerBound.multiply(a)), next)) {
+            return Solution.UNSATISFIABLE;
+          }
+        }
+      }
+
+      if (next.size() > MAX_CONSTRAINTS) {
+        return Solution.UNKNOWN;
+      }
+
+      final List<LinearExpression> symbolBounds = new ArrayList<>(upper);
+      symbolBounds.addAll(lower);
+
+      eliminated.add(symbol.get());
+      bounds.add(symbolBounds);
+      current = next;
+    }
+
+    return buildModel(eliminated, bounds, definitions);
+  }
+
+  /**
+   * Assigns the eliminated symbols in reverse order, so that the bounds of each one only depend on
+   * symbols already assigned.
+   */
+  private Solution buildModel(
+      final List<String> eliminated,
+      final List<List<LinearExpression>> bounds,
+      final Map<String, LinearExpression> definitions) {
+
+    final Map<String, Long> model = new HashMap<>();
+
+    for (int i = eliminated.size() - 1; i >= 0; i--) {
+
+      final String symbol = eliminated.get(i);
+
+      long lowerBound = Long.MIN_VALUE;
+      long upperBound = Long.MAX_VALUE;
+
+      for (final LinearExpression inequality : bounds.get(i)) {
+
+        final long coefficient = inequality.getCoefficient(symbol);
+        final long rest =
+            inequality
+                .subtract(LinearExpression.symbol(symbol).multiply(coefficient))
+                .evaluate(model);
+
+        if (coefficient > 0) {
+          // coefficient * x <= -rest
+          upperBound = Math.min(upperBound, Math.floorDiv(Math.negateExact(rest), coefficient));
+        } else {
+          // -coefficient * x >= rest
+          lowerBound =
+              Math.max(lowerBound, -Math.floorDiv(Math.negateExact(rest), -coefficient));
+        }
+      }
+
+      if (lowerBound > upperBound) {
+        return Solution.UNKNOWN;
+      }
+
+      model.put(symbol, Math.max(lowerBound, Math.min(upperBound, 0)));
+    }
+
+    for (final Map.Entry<String, LinearExpression> definition : definitions.entrySet()) {
+      model.put(definition.getKey(), definition.getValue().evaluate(model));
+    }
+
+    return new Solution(Satisfiability.SATISFIABLE, Optional.of(model));
+  }
+
+  /**
+   * Adds {@code expression <= 0}, dividing it by the gcd of its coefficients and rounding the
+   * constant up, which keeps every integer solution.
+   *
+   * @return False if the inequality is a contradiction.
+   */
+  private static boolean addTightened(
+      final LinearExpression expression, final Set<LinearExpression> inequalities) {
+
+    if (expression.isConstant()) {
+      return expression.getConstant() <= 0;
+    }
+
+    final long gcd = getCoefficientsGcd(expression);
+
+    final long constant = -Math.floorDiv(Math.negateExact(expression.getConstant()), gcd);
+
+    LinearExpression tightened = LinearExpression.constant(constant);
+
+    for (final Map.Entry<String, Long> entry : expression.getCoefficients().entrySet()) {
+      tightened =
+          tightened.add(LinearExpression.symbol(entry.getKey()).multiply(entry.getValue() / gcd));
+    }
+
+    inequalities.add(tightened);
+    return true;
+  }
+
+  /** Eliminating first the symbol that produces the fewest combinations keeps the sets small. */
+  private static Optional<String> chooseSymbol(final Set<LinearExpression> inequalities) {
+
+    final Set<String> symbols = new TreeSet<>();
+    inequalities.forEach(inequality -> symbols.addAll(inequality.getSymbols()));
+
+    String chosen = null;
+    long chosenCost = Long.MAX_VALUE;
+
+    for (final String symbol : symbols) {
+
+      long upper = 0;
+      long lower = 0;
+
+      for (final LinearExpression inequality : inequalities) {
+
+        final long coefficient = inequality.getCoefficient(symbol);
+
+        if (coefficient > 0) {
+          upper++;
+        } else if (coefficient < 0) {
+          lower++;
+        }
+      }
+
+      final long cost = upper * lower - upper - lower;
+
+      if (cost < chosenCost) {
+        chosen = symbol;
+        chosenCost = cost;
+      }
+    }
+
+    return Optional.ofNullable(chosen);
+  }
+
+  private static Optional<LinearConstraint> findSolvableEquality(
+      final List<LinearConstraint> constraints) {
+
+    return constraints
+        .stream()
+        .filter(constraint -> constraint.getRelation().equals(Relation.EQUAL))
+        .filter(constraint -> getUnitSymbol(constraint.getExpression()).isPresent())
+        .findFirst();
+  }
+
+  private static Optional<String> getUnitSymbol(final LinearExpression expression) {
+
+    return expression
+        .getCoefficients()
+        .entrySet()
+        .stream()
+        .filter(entry -> Math.abs(entry.getValue()) == 1)
+        .map(Map.Entry::getKey)
+        .findFirst();
+  }
+
+  private static long getCoefficientsGcd(final LinearExpression expression) {
+
+    long gcd = 0;
+
+    for (final long coefficient : expression.getCoefficients().values()) {
+      gcd = gcd(gcd, Math.abs(coefficient));
+    }
+
+    return Math.max(gcd, 1);
+  }
+
+  private static long gcd(final long a, final long b) {
+
+    return b == 0 ? a : gcd(b, a % b);
+  }
+
+  private static class Solution {
+
+    private static final Solution UNSATISFIABLE =
+        new Solution(Satisfiability.UNSATISFIABLE, Optional.empty());
+
+    private static final Solution UNKNOWN = new Solution(Satisfiability.UNKNOWN, Optional.empty());
+
+    private final Satisfiability satisfiability;
+
+    private final Optional<Map<String, Long>> model;
+
+    private Solution(final Satisfiability satisfiability, final Optional<Map<String, Long>> model) {
+
+      this.satisfiability = satisfiability;
+      this.model = model;
+    }
+  }
+}
@@ -0,0 +1,221 @@
+package contractorj.construction.symbolic;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A query procedure, as written by {@link contractorj.construction.queries.Query}: declarations,
+ * calls, assumptions and assertions, without branches or loops.
+ */
+class QueryProcedure {
+
+  private static final Pattern HEADER = Pattern.compile("procedure\\s+(\\S+?)\\((.*?)\\)\\s*\\{");
+
+  private static final Pattern LABEL = Pattern.compile("^[A-Za-z_][A-Za-z0-9_]*:(?!=)\\s*");
+
+  private static final Pattern DECLARATION = Pattern.compile("var\\s+(\\S+)\\s*:\\s*(\\S+)");
+
+  private static final Pattern ARGUMENT = Pattern.compile("(\\S+)\\s*:\\s*(\\S+)");
+
+  private static final Pattern ALLOCATION = Pattern.compile("call\\s+(\\S+)\\s*:=\\s*Alloc\\(\\)");
+
+  private static final Pattern CALL =
+      Pattern.compile("call\\s+(?:(\\S+)\\s*:=\\s*)?([^\\s(]+)\\((.*)\\)", Pattern.DOTALL);
+
+  private static final Pattern ASSUMPTION = Pattern.compile("assume\\s+(.*)", Pattern.DOTALL);
+
+  private static final Pattern ASSERTION = Pattern.compile("assert\\s+(.*)", Pattern.DOTALL);
+
+  private static final Pattern EXCEPTION_RESET = Pattern.compile("\\$Exception\\s*:=\\s*null");
+
+  private final List<Declaration> parameters;
+
+  private final List<Statement> statements;
+
+  private QueryProcedure(final List<Declaration> parameters, final List<Statement> statements) {
+
+    this.parameters = parameters;
+    this.statements = statements;
+  }
+
+  List<Declaration> getParameters() {
+
+    return parameters;
+  }
+
+  List<Statement> getStatements() {
+
+    return statements;
+  }
+
+  static QueryProcedure parse(final String code) {
+
+    final Matcher header = HEADER.matcher(code);
+
+    if (!header.find()) {
+      throw new UnsupportedQueryException("Can't find the procedure header");
+    }
+
+    final List<Declaration> parameters = new ArrayList<>();
+
+    for (final String argument : header.group(2).split(",")) {
+
+      if (argument.trim().isEmpty()) {
+        continue;
+      }
+
+      final Matcher matcher = ARGUMENT.matcher(argument.trim());
+
+      if (!matcher.matches()) {
+        throw new UnsupportedQueryException("Unexpected argument " + argument);
+      }
+
+      parameters.add(new Declaration(matcher.group(1), matcher.group(2)));
+    }
+
+    final int bodyEnd = code.lastIndexOf('}');
+
+    if (bodyEnd < header.end()) {
+      throw new UnsupportedQueryException("Can't find the procedure body");
+    }
+
+    final List<Statement> statements = new ArrayList<>();
+
+    for (final String text : code.substring(header.end(), bodyEnd).split(";")) {
+      parseStatement(stripLabels(text.trim())).ifPresent(statements::add);
+    }
+
+    return new QueryProcedure(parameters, statements);
+  }
+
+  private static String stripLabels(final String text) {
+
+    String statement = text;
+    Matcher label;
+
+    while ((label = LABEL.matcher(statement)).find()) {
+      statement = statement.substring(label.end());
+    }
+
+    return statement;
+  }
+
+  private static Optional<Statement> parseStatement(final String text) {
+
+    if (text.isEmpty()) {
+      return Optional.empty();
+    }
+
+    Matcher matcher;
+
+    if ((matcher = DECLARATION.matcher(text)).matches()) {
+      return Optional.of(new Declaration(matcher.group(1), matcher.group(2)));
+    }
+
+    if ((matcher = ALLOCATION.matcher(text)).matches()) {
+      return Optional.of(new Allocation(matcher.group(1)));
+    }
+
+    if ((matcher = CALL.matcher(text)).matches()) {
+      return Optional.of(
+          new Call(matcher.group(1), matcher.group(2), parseArguments(matcher.group(3))));
+    }
+
+    if ((matcher = ASSUMPTION.matcher(text)).matches()) {
+      return Optional.of(new Assumption(Formula.parse(matcher.group(1))));
+    }
+
+    if ((matcher = ASSERTION.matcher(text)).matches()) {
+      return Optional.of(new Assertion(Formula.parse(matcher.group(1))));
+    }
+
+    if (EXCEPTION_RESET.matcher(text).matches()) {
+      return Optional.of(new ExceptionReset());
+    }
+
+    throw new UnsupportedQueryException("Unsupported statement " + text);
+  }
+
+  private static List<String> parseArguments(final String text) {
+
+    if (text.trim().isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    final List<String> arguments = new ArrayList<>();
+
+    for (final String argument : text.split(",")) {
+      arguments.add(argument.trim());
+    }
+
+    return arguments;
+  }
+
+  interface Statement {}
+
+  static class Declaration implements Statement {
+
+    final String name;
+
+    final String type;
+
+    private Declaration(final String name, final String type) {
+
+      this.name = name;
+      this.type = type;
+    }
+  }
+
+  static class Allocation implements Statement {
+
+    final String variable;
+
+    private Allocation(final String variable) {
+
+      this.variable = variable;
+    }
+  }
+
+  static class Call implements Statement {
+
+    /** Null for calls without result. */
+    final String result;
+
+    final String procedure;
+
+    final List<String> arguments;
+
+    private Call(final String result, final String procedure, final List<String> arguments) {
+
+      this.result = result;
+      this.procedure = procedure;
+      this.arguments = arguments;
+    }
+  }
+
+  static class Assumption implements Statement {
+
+    final Formula formula;
+
+    private Assumption(final Formula formula) {
+
+      this.formula = formula;
+    }
+  }
+
+  static class Assertion implements Statement {
+
+    final Formula formula;
+
+    private Assertion(final Formula formula) {
+
+      this.formula = formula;
+    }
+  }
+
+  static class ExceptionReset implements Statement {}
+}
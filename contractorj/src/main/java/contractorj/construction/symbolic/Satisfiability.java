@@ -0,0 +1,7 @@
+package contractorj.construction.symbolic;
+
+public enum Satisfiability {
+  SATISFIABLE,
+  UNSATISFIABLE,
+  UNKNOWN
+}
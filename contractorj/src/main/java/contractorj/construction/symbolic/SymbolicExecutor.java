@@ -0,0 +1,348 @@
+package contractorj.construction.symbolic;
+
+import contractorj.construction.corral.QueryResult;
+import contractorj.construction.symbolic.QueryProcedure.Allocation;
+import contractorj.construction.symbolic.QueryProcedure.Assertion;
+import contractorj.construction.symbolic.QueryProcedure.Assumption;
+import contractorj.construction.symbolic.QueryProcedure.Call;
+import contractorj.construction.symbolic.QueryProcedure.Declaration;
+import contractorj.construction.symbolic.QueryProcedure.ExceptionReset;
+import contractorj.construction.symbolic.QueryProcedure.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import jbct.analysis.LinearConstraint;
+import jbct.analysis.LinearExpression;
+import jbct.analysis.PathSummary;
+import jbct.analysis.PathSummaryAnalysis;
+import jbct.analysis.SymbolicPath;
+
+/**
+ * Executes query procedures over the path summaries of the procedures they call.
+ *
+ * <p>The only object is the receiver, {@code $this}, so callees may only access the fields of
+ * their receiver when it is {@code $this}. The value of a field before any call writes it is the
+ * symbol {@link PathSummary#getFieldSymbol(String)}.
+ */
+class SymbolicExecutor {
+
+  private static final int MAX_PATHS = 256;
+
+  private static final String THIS = "$this";
+
+  private static final String EXCEPTION = "$Exception";
+
+  private final PathSummaryAnalysis pathSummaryAnalysis;
+
+  private final LinearSolver solver = new LinearSolver();
+
+  SymbolicExecutor(final PathSummaryAnalysis pathSummaryAnalysis) {
+
+    this.pathSummaryAnalysis = pathSummaryAnalysis;
+  }
+
+  /**
+   * @return Whether an assertion can fail, or empty if some satisfiability check is undecided.
+   * @throws UnsupportedQueryException If the procedure is out of the fragment.
+   */
+  Optional<QueryResult> execute(final QueryProcedure procedure) {
+
+    return new Execution().run(procedure);
+  }
+
+  private class Execution {
+
+    private final Map<String, String> types = new HashMap<>();
+
+    private int freshSymbols = 0;
+
+    private boolean receiverAccessed = false;
+
+    private boolean undecided = false;
+
+    private List<Path> paths = new ArrayList<>();
+
+    private Optional<QueryResult> run(final QueryProcedure procedure) {
+
+      paths.add(new Path());
+
+      procedure.getParameters().forEach(this::declare);
+
+      for (final Statement statement : procedure.getStatements()) {
+
+        if (statement instanceof Declaration) {
+          declare((Declaration) statement);
+        } else if (statement instanceof Allocation) {
+          allocate(((Allocation) statement).variable);
+        } else if (statement instanceof Call) {
+          call((Call) statement);
+        } else if (statement instanceof Assumption) {
+          assume(((Assumption) statement).formula);
+        } else if (statement instanceof Assertion) {
+
+          if (canFail(((Assertion) statement).formula)) {
+            return Optional.of(QueryResult.TRUE_BUG);
+          }
+
+          assume(((Assertion) statement).formula);
+        } else if (statement instanceof ExceptionReset) {
+          paths.forEach(path -> path.exception = false);
+        }
+      }
+
+      return undecided ? Optional.empty() : Optional.of(QueryResult.NO_BUG);
+    }
+
+    /** Variables start with arbitrary values. */
+    private void declare(final Declaration declaration) {
+
+      types.put(declaration.name, declaration.type);
+
+      for (final Path path : paths) {
+        path.variables.put(declaration.name, getFreshSymbol(path, declaration.type));
+      }
+    }
+
+    /** Fields of new objects are arbitrary, as are the initial fields of the receiver. */
+    private void allocate(final String variable) {
+
+      if (receiverAccessed || !variable.equals(THIS)) {
+        throw new UnsupportedQueryException("Only the receiver can be allocated, before its use");
+      }
+
+      for (final Path path : paths) {
+
+        final LinearExpression object = getFreshSymbol(path, "Ref");
+
+        path.variables.put(variable, object);
+        path.constraints.add(LinearConstraint.notEqual(object, LinearExpression.constant(0)));
+      }
+    }
+
+    private void call(final Call call) {
+
+      if (call.procedure.equals("initialize_globals")) {
+        // Static fields are out of the fragment, so their initial values are irrelevant
+        return;
+      }
+
+      final PathSummary summary =
+          pathSummaryAnalysis
+              .getSummary(call.procedure)
+              .orElseThrow(() -> new UnsupportedQueryException("No summary of " + call.procedure));
+
+      if (summary.getNumberOfParameters() != call.arguments.size()) {
+        throw new UnsupportedQueryException("Wrong number of arguments to " + call.procedure);
+      }
+
+      if (usesReceiverFields(summary)) {
+
+        if (call.arguments.isEmpty() || !call.arguments.get(0).equals(THIS)) {
+          throw new UnsupportedQueryException("Fields of objects other than " + THIS);
+        }
+
+        receiverAccessed = true;
+      }
+
+      final List<Path> nextPaths = new ArrayList<>();
+
+      for (final Path path : paths) {
+        for (final SymbolicPath calleePath : summary.getPaths()) {
+          nextPaths.add(instantiate(path, call, calleePath));
+        }
+      }
+
+      setPaths(nextPaths);
+    }
+
+    private Path instantiate(final Path path, final Call call, final SymbolicPath calleePath) {
+
+      final Path next = path.copy();
+      final Map<String, LinearExpression> substitution = new HashMap<>();
+
+      for (int i = 0; i < call.arguments.size(); i++) {
+        substitution.put(
+            PathSummary.getParameterSymbol(i), getValue(path, call.arguments.get(i)));
+      }
+
+      for (final Map.Entry<String, LinearExpression> field : path.fields.entrySet()) {
+        substitution.put(PathSummary.getFieldSymbol(field.getKey()), field.getValue());
+      }
+
+      for (final String symbol : getSymbols(calleePath)) {
+        if (PathSummary.isFreshSymbol(symbol)) {
+          substitution.put(symbol, getFreshSymbol(next, "int"));
+        }
+      }
+
+      for (final LinearConstraint constraint : calleePath.getConstraints()) {
+        next.constraints.add(constraint.substitute(substitution));
+      }
+
+      for (final Map.Entry<String, LinearExpression> field :
+          calleePath.getFieldValues().entrySet()) {
+        next.fields.put(field.getKey(), field.getValue().substitute(substitution));
+      }
+
+      next.exception |= calleePath.raisesException();
+
+      if (call.result != null) {
+
+        final Optional<LinearExpression> returnValue = calleePath.getReturnValue();
+
+        next.variables.put(
+            call.result,
+            returnValue.isPresent()
+                ? returnValue.get().substitute(substitution)
+                : getFreshSymbol(next, types.getOrDefault(call.result, "int")));
+      }
+
+      return next;
+    }
+
+    private void assume(final Formula formula) {
+
+      final List<Path> nextPaths = new ArrayList<>();
+
+      for (final Path path : paths) {
+        for (final List<LinearConstraint> conjunction :
+            formula.toDnf(identifier -> getValue(path, identifier), true)) {
+
+          final Path next = path.copy();
+          next.constraints.addAll(conjunction);
+          nextPaths.add(next);
+        }
+      }
+
+      setPaths(nextPaths);
+    }
+
+    private boolean canFail(final Formula formula) {
+
+      for (final Path path : paths) {
+        for (final List<LinearConstraint> conjunction :
+            formula.toDnf(identifier -> getValue(path, identifier), false)) {
+
+          final List<LinearConstraint> constraints = new ArrayList<>(path.constraints);
+          constraints.addAll(conjunction);
+
+          final Satisfiability satisfiability = solver.check(constraints);
+
+          if (satisfiability.equals(Satisfiability.SATISFIABLE)) {
+            return true;
+          }
+
+          undecided |= satisfiability.equals(Satisfiability.UNKNOWN);
+        }
+      }
+
+      return false;
+    }
+
+    /** Drops the infeasible paths. */
+    private void setPaths(final List<Path> nextPaths) {
+
+      final List<Path> feasiblePaths = new ArrayList<>();
+
+      for (final Path path : nextPaths) {
+        if (!solver.check(path.constraints).equals(Satisfiability.UNSATISFIABLE)) {
+          feasiblePaths.add(path);
+        }
+      }
+
+      if (feasiblePaths.size() > MAX_PATHS) {
+        throw new UnsupportedQueryException("Too many paths");
+      }
+
+      paths = feasiblePaths;
+    }
+
+    private LinearExpression getValue(final Path path, final String identifier) {
+
+      switch (identifier) {
+        case EXCEPTION:
+          return LinearExpression.constant(path.exception ? 1 : 0);
+
+        case "null":
+        case "false":
+          return LinearExpression.constant(0);
+
+        case "true":
+          return LinearExpression.constant(1);
+      }
+
+      final LinearExpression value = path.variables.get(identifier);
+
+      if (value == null) {
+        throw new UnsupportedQueryException("Unknown identifier " + identifier);
+      }
+
+      return value;
+    }
+
+    /** Boolean symbols are constrained to 0 and 1. */
+    private LinearExpression getFreshSymbol(final Path path, final String type) {
+
+      final LinearExpression symbol = LinearExpression.symbol("$symbolic" + freshSymbols++);
+
+      if (type.equals("bool")) {
+        path.constraints.add(LinearConstraint.lessOrEqual(LinearExpression.constant(0), symbol));
+        path.constraints.add(LinearConstraint.lessOrEqual(symbol, LinearExpression.constant(1)));
+      }
+
+      return symbol;
+    }
+  }
+
+  private static boolean usesReceiverFields(final PathSummary summary) {
+
+    return summary
+        .getPaths()
+        .stream()
+        .anyMatch(
+            path ->
+                !path.getFieldValues().isEmpty()
+                    || getSymbols(path).stream().anyMatch(PathSummary::isFieldSymbol));
+  }
+
+  private static Set<String> getSymbols(final SymbolicPath path) {
+
+    final Set<String> symbols = new HashSet<>();
+
+    for (final LinearConstraint constraint : path.getConstraints()) {
+      symbols.addAll(constraint.getExpression().getSymbols());
+    }
+
+    path.getFieldValues().values().forEach(value -> symbols.addAll(value.getSymbols()));
+    path.getReturnValue().ifPresent(value -> symbols.addAll(value.getSymbols()));
+
+    return symbols;
+  }
+
+  private static class Path {
+
+    private Map<String, LinearExpression> variables = new HashMap<>();
+
+    private Map<String, LinearExpression> fields = new HashMap<>();
+
+    private List<LinearConstraint> constraints = new ArrayList<>();
+
+    private boolean exception = false;
+
+    private Path copy() {
+
+      final Path copy = new Path();
+
+      copy.variables = new HashMap<>(variables);
+      copy.fields = new HashMap<>(fields);
+      copy.constraints = new ArrayList<>(constraints);
+      copy.exception = exception;
+
+      return copy;
+    }
+  }
+}
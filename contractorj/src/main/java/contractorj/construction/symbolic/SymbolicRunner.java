@@ -0,0 +1,190 @@
+package contractorj.construction.symbolic;
+
+import contractorj.construction.corral.QueryResult;
+import contractorj.construction.corral.QueryRunner;
+import contractorj.construction.corral.RunnerResult;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import jbct.analysis.PathSummaryAnalysis;
+import org.apache.commons.exec.ExecuteWatchdog;
+
+/**
+ * Answers queries in the JVM by bounded symbolic execution over the path summaries of the
+ * translated methods, and passes the rest on to another runner, usually Corral.
+ *
+ * <p>A query is answered symbolically when every procedure it calls has a summary and every
+ * satisfiability check is decided. Summaries have no loops, so their answers are the ones Corral
+ * gives for any recursion bound.
+ */
+public class SymbolicRunner implements QueryRunner {
+
+  private static final int TAIL_SIZE = 64 * 1024;
+
+  private final SymbolicExecutor executor;
+
+  private final QueryRunner fallbackRunner;
+
+  private boolean verificationEnabled = false;
+
+  private final AtomicLong symbolicAnswers = new AtomicLong();
+
+  private final AtomicLong fallbackAnswers = new AtomicLong();
+
+  private final AtomicLong mismatches = new AtomicLong();
+
+  public SymbolicRunner(
+      final PathSummaryAnalysis pathSummaryAnalysis, final QueryRunner fallbackRunner) {
+
+    this.executor = new SymbolicExecutor(pathSummaryAnalysis);
+    this.fallbackRunner = fallbackRunner;
+  }
+
+  /** Also runs the symbolically answered queries on the fallback runner, to compare the results. */
+  public void setVerificationEnabled(final boolean verificationEnabled) {
+
+    this.verificationEnabled = verificationEnabled;
+  }
+
+  @Override
+  public RunnerResult run(final String pathToBoogieSourcecode, final String mainMethod) {
+
+    return run(pathToBoogieSourcecode, mainMethod, "");
+  }
+
+  @Override
+  public RunnerResult run(
+      final String pathToBoogieSourcecode, final String mainMethod, final String queryClass) {
+
+    return run(
+        pathToBoogieSourcecode,
+        mainMethod,
+        queryClass,
+        new ExecuteWatchdog(ExecuteWatchdog.INFINITE_TIMEOUT));
+  }
+
+  /** @param watchdog Passed on to the fallback runner. */
+  @Override
+  public RunnerResult run(
+      final String pathToBoogieSourcecode,
+      final String mainMethod,
+      final String queryClass,
+      final ExecuteWatchdog watchdog) {
+
+    final LocalDateTime start = LocalDateTime.now();
+    final Optional<QueryResult> queryResult = execute(pathToBoogieSourcecode, mainMethod);
+
+    if (!queryResult.isPresent()) {
+      fallbackAnswers.incrementAndGet();
+      return fallbackRunner.run(pathToBoogieSourcecode, mainMethod, queryClass, watchdog);
+    }
+
+    symbolicAnswers.incrementAndGet();
+
+    final RunnerResult result =
+        new RunnerResult(
+            queryResult.get(),
+            Duration.between(start, LocalDateTime.now()),
+            queryResult.get().equals(QueryResult.TRUE_BUG)
+                ? "True bug: query_assertion (symbolic execution)"
+                : "Program has no bugs (symbolic execution)",
+            "symbolic execution of " + mainMethod);
+
+    if (verificationEnabled) {
+
+      final RunnerResult fallbackResult =
+          fallbackRunner.run(pathToBoogieSourcecode, mainMethod, queryClass, watchdog);
+
+      if (!fallbackResult.queryResult.equals(result.queryResult)) {
+        mismatches.incrementAndGet();
+        System.err.println(
+            "Symbolic execution answered "
+                + result.queryResult
+                + " but "
+                + fallbackResult.command
+                + " answered "
+                + fallbackResult.queryResult);
+      }
+    }
+
+    return result;
+  }
+
+  /** @return How many queries were answered by symbolic execution. */
+  public long getNumberOfSymbolicAnswers() {
+
+    return symbolicAnswers.get();
+  }
+
+  /** @return How many queries were passed on to the fallback runner. */
+  public long getNumberOfFallbackAnswers() {
+
+    return fallbackAnswers.get();
+  }
+
+  /** @return How many symbolic answers differed from the fallback runner's, when verifying. */
+  public long getNumberOfMismatches() {
+
+    return mismatches.get();
+  }
+
+  private Optional<QueryResult> execute(final String pathToBoogieSourcecode, final String name) {
+
+    try {
+
+      final Optional<String> procedure = readProcedure(pathToBoogieSourcecode, name);
+
+      if (!procedure.isPresent()) {
+        return Optional.empty();
+      }
+
+      return executor.execute(QueryProcedure.parse(procedure.get()));
+
+    } catch (UnsupportedQueryException | ArithmeticException e) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Query procedures are appended at the end of the Boogie file, so it is read backwards until the
+   * procedure is found.
+   */
+  private static Optional<String> readProcedure(final String path, final String name) {
+
+    final String header = "procedure " + name + "(";
+
+    try (final RandomAccessFile file = new RandomAccessFile(path, "r")) {
+
+      long tailSize = TAIL_SIZE;
+
+      while (true) {
+
+        final long start = Math.max(0, file.length() - tailSize);
+        final byte[] bytes = new byte[(int) (file.length() - start)];
+
+        file.seek(start);
+        file.readFully(bytes);
+
+        final String tail = new String(bytes, StandardCharsets.UTF_8);
+        final int index = tail.lastIndexOf(header);
+
+        if (index >= 0) {
+          return Optional.of(tail.substring(index));
+        }
+
+        if (start == 0 || tailSize > Integer.MAX_VALUE / 4) {
+          return Optional.empty();
+        }
+
+        tailSize *= 4;
+      }
+
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
@@ -0,0 +1,12 @@
+package contractorj.construction.symbolic;
+
+/** Thrown when a query falls outside the fragment the symbolic executor decides. */
+class UnsupportedQueryException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  UnsupportedQueryException(final String message) {
+
+    super(message);
+  }
+}
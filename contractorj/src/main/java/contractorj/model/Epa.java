@@ -17,18 +17,50 @@ public class Epa {
 
   private final Set<State> states = new HashSet<>();
 
+  private final Set<State> unexploredStates = new HashSet<>();
+
   public Epa(String className, final State initialState) {
 
     this.className = className;
     this.initialState = initialState;
   }
 
+  /** @return An independent copy, safe to read while this EPA keeps growing. */
+  public synchronized Epa copy() {
+
+    final Epa copy = new Epa(className, initialState);
+
+    copy.transitions.addAll(transitions);
+    copy.states.addAll(states);
+    copy.unexploredStates.addAll(unexploredStates);
+
+    return copy;
+  }
+
   public synchronized void addTransition(Transition transition) {
     states.add(transition.getSource());
     states.add(transition.getTarget());
     transitions.add(transition);
   }
 
+  /**
+   * Marks a state as part of the unexplored frontier: it was discovered but the generator stopped
+   * before computing all of its outgoing transitions.
+   */
+  public synchronized void markUnexplored(State state) {
+    unexploredStates.add(state);
+  }
+
+  public Set<State> getUnexploredStates() {
+
+    return unexploredStates;
+  }
+
+  public boolean isExplored(State state) {
+
+    return !unexploredStates.contains(state);
+  }
+
   public List<Transition> getTransitions() {
 
     return transitions;
@@ -92,12 +92,15 @@ public class DotEpaSerializer implements EpaSerializer {
 
   private String getStateDeclaration(final Epa epa, final State state) {
 
+    final boolean isExplored = epa.isExplored(state);
+
     return getStateNode(state)
         + "["
         + "label=\""
         + getStateDotName(state)
+        + (isExplored ? "" : "\\n(unexplored)")
         + "\","
-        + "style=filled,"
+        + (isExplored ? "style=filled," : "style=\"filled,dashed\",")
         + "color=\""
         + (state.equals(State.ERROR) ? getErrorColor() : getLightColor())
         + "\""
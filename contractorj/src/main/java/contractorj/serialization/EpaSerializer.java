@@ -3,7 +3,11 @@ package contractorj.serialization;
 import contractorj.model.Epa;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 
 public interface EpaSerializer {
 
@@ -12,4 +16,40 @@ public interface EpaSerializer {
   default void serializeToFile(Epa epa, File output) throws IOException {
     Files.write(output.toPath(), serialize(epa).getBytes());
   }
+
+  /**
+   * Writes the EPA to a temporal file next to the output and then moves it over the output, so
+   * readers never see a partially written file.
+   */
+  default void serializeToFileAtomically(Epa epa, File output) throws IOException {
+
+    final Path target = output.toPath().toAbsolutePath();
+    final Path temporal =
+        Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+
+    try {
+      Files.write(temporal, serialize(epa).getBytes());
+
+      try {
+        Files.move(
+            temporal,
+            target,
+            StandardCopyOption.ATOMIC_MOVE,
+            StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temporal, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(temporal);
+    }
+  }
+
+  /** Appends the EPA at the end of the output, in a single write followed by a line break. */
+  default void appendToFile(Epa epa, File output) throws IOException {
+    Files.write(
+        output.toPath(),
+        (serialize(epa) + "\n").getBytes(),
+        StandardOpenOption.CREATE,
+        StandardOpenOption.APPEND);
+  }
 }
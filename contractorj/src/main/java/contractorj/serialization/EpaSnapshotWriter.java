@@ -0,0 +1,45 @@
+package contractorj.serialization;
+
+import contractorj.construction.EpaListener;
+import contractorj.model.Epa;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/** Writes every published snapshot of an EPA to a file. */
+public class EpaSnapshotWriter implements EpaListener {
+
+  public enum Mode {
+    /** Each snapshot atomically replaces the previous one. */
+    REWRITE,
+    /** Snapshots are appended one after another. */
+    APPEND
+  }
+
+  private final EpaSerializer serializer;
+
+  private final File output;
+
+  private final Mode mode;
+
+  public EpaSnapshotWriter(final EpaSerializer serializer, final File output, final Mode mode) {
+
+    this.serializer = serializer;
+    this.output = output;
+    this.mode = mode;
+  }
+
+  @Override
+  public synchronized void onSnapshot(final Epa snapshot) {
+
+    try {
+      if (mode.equals(Mode.APPEND)) {
+        serializer.appendToFile(snapshot, output);
+      } else {
+        serializer.serializeToFileAtomically(snapshot, output);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
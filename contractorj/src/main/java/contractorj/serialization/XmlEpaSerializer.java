@@ -96,6 +96,10 @@ public class XmlEpaSerializer implements EpaSerializer {
 
     stateElement.setAttribute("name", state.getStateName());
 
+    if (!epa.isExplored(state)) {
+      stateElement.setAttribute("explored", "false");
+    }
+
     state
         .getEnabledActions()
         .stream()
@@ -0,0 +1,41 @@
+package contractorj.util;
+
+import org.apache.commons.exec.ExecuteWatchdog;
+
+/**
+ * A watchdog without timeout that can be cancelled at any time. {@link #destroyProcess()} waits for
+ * the process to start, forever if it never does, while a cancelled watchdog destroys its process
+ * as soon as it starts.
+ */
+public class CancellableWatchdog extends ExecuteWatchdog {
+
+  private boolean started = false;
+
+  private boolean cancelled = false;
+
+  public CancellableWatchdog() {
+
+    super(INFINITE_TIMEOUT);
+  }
+
+  @Override
+  public synchronized void start(final Process process) {
+
+    super.start(process);
+    started = true;
+
+    if (cancelled) {
+      destroyProcess();
+    }
+  }
+
+  /** Destroys the process now if it has started, or else as soon as it starts. */
+  public synchronized void cancel() {
+
+    cancelled = true;
+
+    if (started) {
+      destroyProcess();
+    }
+  }
+}
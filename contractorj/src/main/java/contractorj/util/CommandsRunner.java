@@ -7,15 +7,25 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import org.apache.commons.exec.CommandLine;
 import org.apache.commons.exec.DefaultExecutor;
+import org.apache.commons.exec.ExecuteWatchdog;
 import org.apache.commons.exec.PumpStreamHandler;
 
 public class CommandsRunner {
 
   public static String runtAndReturnOutput(final String lineToRun, final boolean newDirAsCWD) {
 
+    return runtAndReturnOutput(
+        lineToRun, newDirAsCWD, new ExecuteWatchdog(ExecuteWatchdog.INFINITE_TIMEOUT));
+  }
+
+  /** @param watchdog Kills the process when it is asked to, or when its timeout expires. */
+  public static String runtAndReturnOutput(
+      final String lineToRun, final boolean newDirAsCWD, final ExecuteWatchdog watchdog) {
+
     final CommandLine commandLine = CommandLine.parse(lineToRun);
 
     final DefaultExecutor executor = new DefaultExecutor();
+    executor.setWatchdog(watchdog);
 
     ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
     PumpStreamHandler streamHandler = new PumpStreamHandler(outputStream);
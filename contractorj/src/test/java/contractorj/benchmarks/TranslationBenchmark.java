@@ -0,0 +1,94 @@
+package contractorj.benchmarks;
+
+import com.google.common.io.BaseEncoding;
+import com.google.common.io.ByteStreams;
+import contractorj.util.EmbeddedJarsHelper;
+import java.io.File;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import jbct.Translator;
+
+/**
+ * Measures how long the translation of the examples takes with different numbers of threads, and
+ * checks that every run gives the same translation.
+ *
+ * <p>Usage: {@code TranslationBenchmark [classpath] [max threads] [repetitions]}, the classpath
+ * defaults to the compiled examples.
+ */
+public class TranslationBenchmark {
+
+  public static void main(String[] args) throws Exception {
+
+    final String classPath = args.length > 0 ? args[0] : "../examples/build/classes/main";
+    final int maxThreads =
+        args.length > 1 ? Integer.valueOf(args[1]) : Runtime.getRuntime().availableProcessors();
+    final int repetitions = args.length > 2 ? Integer.valueOf(args[2]) : 5;
+
+    final File rtJar = new EmbeddedJarsHelper().moveToTemporalFolder("java7-rt.jar");
+    final Translator translator = new Translator();
+
+    final long loadingStart = System.nanoTime();
+    translator.translate(classPath, rtJar, false);
+    final Duration loadingTime = Duration.ofNanos(System.nanoTime() - loadingStart);
+
+    System.out.println("Soot loading and body analysis: " + loadingTime.toMillis() + "ms");
+
+    final List<Integer> threadCounts = new ArrayList<>();
+    for (int threads = 1; threads < maxThreads; threads *= 2) {
+      threadCounts.add(threads);
+    }
+    threadCounts.add(maxThreads);
+
+    String expectedDigest = null;
+
+    for (final int threads : threadCounts) {
+
+      translator.setNumberOfThreads(threads);
+
+      // The first run warms up the JIT
+      render(translator);
+
+      long totalNanos = 0;
+      String digest = null;
+
+      for (int i = 0; i < repetitions; i++) {
+        final long start = System.nanoTime();
+        digest = render(translator);
+        totalNanos += System.nanoTime() - start;
+      }
+
+      if (expectedDigest == null) {
+        expectedDigest = digest;
+      } else if (!expectedDigest.equals(digest)) {
+        throw new IllegalStateException("The translation with " + threads + " threads differs");
+      }
+
+      System.out.println(
+          "Rendering with "
+              + threads
+              + " threads: "
+              + Duration.ofNanos(totalNanos / repetitions).toMillis()
+              + "ms");
+    }
+  }
+
+  private static String render(final Translator translator) throws Exception {
+
+    final MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+
+    try (final Writer writer =
+        new OutputStreamWriter(
+            new DigestOutputStream(ByteStreams.nullOutputStream(), messageDigest),
+            StandardCharsets.UTF_8)) {
+      translator.writeTranslation(writer);
+    }
+
+    return BaseEncoding.base16().lowerCase().encode(messageDigest.digest());
+  }
+}
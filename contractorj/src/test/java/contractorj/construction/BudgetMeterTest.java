@@ -0,0 +1,119 @@
+package contractorj.construction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import org.junit.Test;
+
+public class BudgetMeterTest {
+
+  @Test
+  public void testUnlimitedBudgetIsNeverExhausted() {
+
+    final BudgetMeter meter = new BudgetMeter(ExplorationBudget.unlimited(), Clock.systemUTC());
+
+    for (int i = 0; i < 1000; i++) {
+      assertTrue(meter.reserveQuery());
+    }
+
+    assertFalse(meter.isExhausted());
+    assertEquals(Optional.empty(), meter.getExhaustionReason());
+  }
+
+  @Test
+  public void testQueryLimit() {
+
+    final BudgetMeter meter =
+        new BudgetMeter(ExplorationBudget.unlimited().withQueryLimit(2), Clock.systemUTC());
+
+    assertTrue(meter.reserveQuery());
+    assertTrue(meter.reserveQuery());
+    assertFalse(meter.isExhausted());
+
+    assertFalse(meter.reserveQuery());
+    assertTrue(meter.isExhausted());
+    assertEquals(Optional.of("query limit of 2 reached"), meter.getExhaustionReason());
+  }
+
+  @Test
+  public void testTimeLimit() {
+
+    final MutableClock clock = new MutableClock();
+    final BudgetMeter meter =
+        new BudgetMeter(ExplorationBudget.unlimited().withTimeLimit(Duration.ofSeconds(10)), clock);
+
+    clock.advance(Duration.ofSeconds(9));
+    assertTrue(meter.reserveQuery());
+
+    clock.advance(Duration.ofSeconds(1));
+    assertTrue(meter.isExhausted());
+    assertFalse(meter.reserveQuery());
+    assertEquals(Optional.of("time limit of 10s reached"), meter.getExhaustionReason());
+  }
+
+  @Test
+  public void testTheFirstReasonIsKept() {
+
+    final MutableClock clock = new MutableClock();
+    final BudgetMeter meter =
+        new BudgetMeter(
+            ExplorationBudget.unlimited()
+                .withTimeLimit(Duration.ofSeconds(10))
+                .withQueryLimit(1),
+            clock);
+
+    assertTrue(meter.reserveQuery());
+    assertFalse(meter.reserveQuery());
+
+    clock.advance(Duration.ofSeconds(10));
+    assertTrue(meter.isExhausted());
+    assertEquals(Optional.of("query limit of 1 reached"), meter.getExhaustionReason());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testQueryLimitMustBePositive() {
+
+    ExplorationBudget.unlimited().withQueryLimit(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDepthLimitCantBeNegative() {
+
+    ExplorationBudget.unlimited().withDepthLimit(-1);
+  }
+
+  private static class MutableClock extends Clock {
+
+    private Instant now = Instant.EPOCH;
+
+    void advance(final Duration duration) {
+
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneOffset getZone() {
+
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(final ZoneId zone) {
+
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+
+      return now;
+    }
+  }
+}
@@ -0,0 +1,99 @@
+package contractorj.construction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import contractorj.model.Epa;
+import contractorj.model.State;
+import contractorj.serialization.EpaSnapshotWriter;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import jbct.model.Class;
+import org.junit.Test;
+
+public class EpaSnapshotsTest {
+
+  private final EpaGenerator generator =
+      new EpaGenerator(null, 1, null) {
+
+        @Override
+        protected Epa generateEpaImplementation(final Class theClass) {
+
+          throw new UnsupportedOperationException();
+        }
+      };
+
+  private final Epa epa =
+      new Epa("examples.FiniteStack", new State(ImmutableSet.of(), Collections.emptySet()));
+
+  @Test
+  public void testPeriodicSnapshotsAreWritten() throws Exception {
+
+    final File output = File.createTempFile("snapshots", ".txt");
+    output.deleteOnExit();
+
+    final CountDownLatch published = new CountDownLatch(2);
+
+    generator.addListener(
+        new EpaSnapshotWriter(
+            snapshot -> String.valueOf(snapshot.getUnexploredStates().size()),
+            output,
+            EpaSnapshotWriter.Mode.APPEND));
+    generator.addListener(snapshot -> published.countDown());
+    generator.setSnapshotPeriod(Duration.ofMillis(10));
+
+    generator.startSnapshots(epa);
+    assertTrue(published.await(10, TimeUnit.SECONDS));
+
+    epa.markUnexplored(State.ERROR);
+    generator.stopSnapshots(Optional.of(epa));
+
+    final List<String> lines = Files.readAllLines(output.toPath(), StandardCharsets.UTF_8);
+
+    assertTrue(lines.size() >= 3);
+    assertEquals("0", lines.get(0));
+    assertEquals("The final EPA must be the last snapshot", "1", lines.get(lines.size() - 1));
+  }
+
+  @Test
+  public void testSnapshotsAreCopies() throws Exception {
+
+    final List<Epa> snapshots = new CopyOnWriteArrayList<>();
+
+    generator.addListener(snapshots::add);
+    generator.setSnapshotOnNewState(true);
+
+    generator.startSnapshots(epa);
+    generator.stopSnapshots(Optional.of(epa));
+    epa.markUnexplored(State.ERROR);
+
+    assertEquals(1, snapshots.size());
+    assertEquals(ImmutableList.of(), ImmutableList.copyOf(snapshots.get(0).getUnexploredStates()));
+  }
+
+  @Test
+  public void testNewStatesAreNotPublishedAfterStopping() throws Exception {
+
+    final List<Epa> snapshots = new CopyOnWriteArrayList<>();
+
+    generator.addListener(snapshots::add);
+    generator.setSnapshotOnNewState(true);
+
+    generator.startSnapshots(epa);
+    generator.newStateDiscovered(epa);
+    generator.stopSnapshots(Optional.empty());
+    generator.newStateDiscovered(epa);
+
+    assertEquals(1, snapshots.size());
+  }
+}
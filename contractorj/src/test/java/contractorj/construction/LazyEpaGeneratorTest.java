@@ -0,0 +1,130 @@
+package contractorj.construction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import contractorj.construction.lemmas.ActionDependencyMatrix.Dependency;
+import contractorj.construction.lemmas.LemmaStore;
+import contractorj.model.Action;
+import contractorj.model.State;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.function.Supplier;
+import jbct.model.Method;
+import org.junit.Test;
+
+public class LazyEpaGeneratorTest {
+
+  private final Action constructor = createAction("FiniteStack", true);
+
+  private final Action push = createAction("push", false);
+
+  private final Action pop = createAction("pop", false);
+
+  private final Supplier<Dependency> unexpectedComputation =
+      () -> {
+        fail("The dependency shouldn't be computed");
+        return Dependency.NONE;
+      };
+
+  @Test
+  public void testNoLemmasFromTheConstructorsState() throws Exception {
+
+    final LemmaStore lemmaStore = createLemmaStore();
+    final State constructorsState =
+        new State(ImmutableSet.of(constructor), Collections.emptySet());
+
+    assertFalse(
+        LazyEpaGenerator.getGlobalDependency(
+                lemmaStore, constructorsState, constructor, pop, unexpectedComputation)
+            .isPresent());
+  }
+
+  @Test
+  public void testUnknownActionsHaveNoLemmas() throws Exception {
+
+    final LemmaStore lemmaStore = createLemmaStore();
+
+    assertFalse(
+        lemmaStore
+            .getDependency(constructor.toString(), pop.toString(), unexpectedComputation)
+            .isPresent());
+  }
+
+  @Test
+  public void testLemmasBetweenInstanceActions() throws Exception {
+
+    final LemmaStore lemmaStore = createLemmaStore();
+    final State state = new State(ImmutableSet.of(push, pop), Collections.emptySet());
+
+    assertEquals(
+        Optional.of(Dependency.NECESSARILY_ENABLES),
+        LazyEpaGenerator.getGlobalDependency(
+            lemmaStore, state, push, pop, () -> Dependency.NECESSARILY_ENABLES));
+  }
+
+  private LemmaStore createLemmaStore() throws Exception {
+
+    final Path translation = Files.createTempFile("translation", ".bpl");
+    translation.toFile().deleteOnExit();
+    Files.write(translation, "procedure main();".getBytes(StandardCharsets.UTF_8));
+
+    return LemmaStore.create(
+        translation, ImmutableList.of(push.toString(), pop.toString()), Optional.empty());
+  }
+
+  private static Action createAction(final String name, final boolean isConstructor) {
+
+    return new Action(new FakeMethod(name, isConstructor), null, null);
+  }
+
+  /** A method of FiniteStack without Soot behind it. */
+  private static class FakeMethod extends Method {
+
+    private final String name;
+
+    private final boolean isConstructor;
+
+    private FakeMethod(final String name, final boolean isConstructor) {
+
+      super(null, null);
+      this.name = name;
+      this.isConstructor = isConstructor;
+    }
+
+    @Override
+    public String getTranslatedName() {
+
+      return "examples.FiniteStack#" + name;
+    }
+
+    @Override
+    public String getJavaNameWithArgumentTypes() {
+
+      return name + "()";
+    }
+
+    @Override
+    public boolean isConstructor() {
+
+      return isConstructor;
+    }
+
+    @Override
+    public String getTranslatedProcedure() {
+
+      throw new UnsupportedOperationException();
+    }
+
+    public boolean isClassInitializer() {
+
+      return false;
+    }
+  }
+}
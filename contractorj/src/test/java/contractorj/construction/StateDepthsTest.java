@@ -0,0 +1,114 @@
+package contractorj.construction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import contractorj.model.Action;
+import contractorj.model.State;
+import java.util.Collections;
+import java.util.Optional;
+import jbct.model.DetachedClass;
+import jbct.model.DetachedMethod;
+import org.junit.Test;
+
+public class StateDepthsTest {
+
+  private final DetachedClass finiteStack =
+      new DetachedClass("examples.FiniteStack", "FiniteStack");
+
+  private final Action push = createAction("push");
+
+  private final Action pop = createAction("pop");
+
+  private final State initial = new State(ImmutableSet.of(push), Collections.emptySet());
+
+  private final State a = new State(ImmutableSet.of(push, pop), Collections.emptySet());
+
+  private final State b = new State(ImmutableSet.of(pop), ImmutableSet.of(push));
+
+  private final State c = new State(ImmutableSet.of(push), ImmutableSet.of(pop));
+
+  @Test
+  public void testStatesWithinTheLimitAreScheduledOnce() {
+
+    final StateDepths depths = new StateDepths(1);
+
+    assertEquals(ImmutableList.of(initial), depths.reach(initial, 0));
+    assertEquals(ImmutableList.of(a), depths.addTransition(initial, a));
+    assertEquals(ImmutableList.of(), depths.addTransition(initial, a));
+    assertEquals(ImmutableList.of(), depths.addTransition(a, b));
+
+    assertEquals(Optional.of(2), depths.getDepth(b));
+    assertEquals(ImmutableSet.of(b), depths.getFrontier());
+  }
+
+  @Test
+  public void testStatesWithoutEnabledActionsAreNeverInTheFrontier() {
+
+    final StateDepths depths = new StateDepths(0);
+
+    depths.reach(initial, 0);
+
+    assertEquals(ImmutableList.of(State.ERROR), depths.addTransition(initial, State.ERROR));
+    assertTrue(depths.getFrontier().isEmpty());
+  }
+
+  @Test
+  public void testShorterPathsBringStatesBackWithinTheLimit() {
+
+    final StateDepths depths = new StateDepths(2);
+
+    depths.reach(initial, 0);
+    depths.addTransition(initial, a);
+    depths.addTransition(a, b);
+    depths.addTransition(b, c);
+
+    assertEquals(ImmutableSet.of(c), depths.getFrontier());
+
+    assertEquals(ImmutableList.of(c), depths.addTransition(initial, b));
+    assertEquals(Optional.of(1), depths.getDepth(b));
+    assertEquals(Optional.of(2), depths.getDepth(c));
+    assertTrue(depths.getFrontier().isEmpty());
+  }
+
+  @Test
+  public void testDepthsAreRelaxedTransitively() {
+
+    final StateDepths depths = new StateDepths(Integer.MAX_VALUE);
+
+    depths.reach(a, 5);
+    depths.addTransition(a, b);
+    depths.addTransition(b, c);
+
+    assertEquals(ImmutableList.of(initial), depths.reach(initial, 0));
+    assertEquals(ImmutableList.of(), depths.addTransition(initial, a));
+
+    assertEquals(Optional.of(1), depths.getDepth(a));
+    assertEquals(Optional.of(2), depths.getDepth(b));
+    assertEquals(Optional.of(3), depths.getDepth(c));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTransitionsFromUnreachedStatesAreRejected() {
+
+    new StateDepths(1).addTransition(a, b);
+  }
+
+  private Action createAction(final String name) {
+
+    final DetachedMethod method =
+        new DetachedMethod(
+            finiteStack,
+            "FiniteStack#" + name,
+            name,
+            false,
+            false,
+            Optional.empty(),
+            Collections.emptyList(),
+            Collections.emptyList());
+
+    return new Action(method, null, null);
+  }
+}
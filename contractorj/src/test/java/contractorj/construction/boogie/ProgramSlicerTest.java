@@ -0,0 +1,103 @@
+package contractorj.construction.boogie;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ProgramSlicerTest {
+
+  private static final String PROGRAM =
+      "type Ref;\n"
+          + "const unique null: Ref;\n"
+          + "var $Alloc: [Ref]bool;\n"
+          + "procedure {:inline 1} Alloc() returns (x: Ref);\n"
+          + "  modifies $Alloc;\n"
+          + "implementation {:inline 1} Alloc() returns (x: Ref)\n"
+          + "{\n"
+          + "    assume $Alloc[x] == false && x != null;\n"
+          + "    $Alloc[x] := true;\n"
+          + "}\n"
+          + "// procedure Commented();\n"
+          + "function BitwiseOr(int, int) : int;\n"
+          + "axiom (forall i1: int, i2 :int :: i1 < 0 || i2 < 0 <==> BitwiseOr(i1,i2) < 0 );\n"
+          + "var Stack#size : int;\n"
+          + "var Other#field : int;\n"
+          + "procedure Stack#push(this : Ref) modifies Stack#size; {\n"
+          + "  var r : int;\n"
+          + "  Stack#size := Stack#size + 1;\n"
+          + "}\n"
+          + "procedure Stack#mask(this : Ref) returns (r : int) {\n"
+          + "  r := BitwiseOr(Stack#size, 1);\n"
+          + "}\n"
+          + "procedure Other#run(this : Ref) {\n"
+          + "  call this := Alloc();\n"
+          + "  Other#field := 0;\n"
+          + "}\n";
+
+  @Test
+  public void testSplitDeclarations() throws Exception {
+
+    final ProgramSlicer slicer = new ProgramSlicer(PROGRAM);
+
+    assertEquals(12, slicer.getNumberOfDeclarations());
+  }
+
+  @Test
+  public void testSliceKeepsCalleesAndTheirGlobals() throws Exception {
+
+    final ProgramSlicer slicer = new ProgramSlicer(PROGRAM);
+
+    final String slice = slicer.slice("procedure q(this : Ref) { call Stack#push(this); }");
+
+    assertTrue(slice.contains("procedure Stack#push"));
+    assertTrue(slice.contains("var Stack#size"));
+    assertTrue(slice.contains("type Ref;"));
+    assertFalse(slice.contains("Stack#mask"));
+    assertFalse(slice.contains("Other#"));
+    assertFalse(slice.contains("Alloc"));
+    assertFalse(slice.contains("axiom"));
+  }
+
+  @Test
+  public void testSliceKeepsAxiomsOfKeptFunctions() throws Exception {
+
+    final ProgramSlicer slicer = new ProgramSlicer(PROGRAM);
+
+    final String slice =
+        slicer.slice("procedure q(this : Ref) { var r : int; call r := Stack#mask(this); }");
+
+    assertTrue(slice.contains("function BitwiseOr"));
+    assertTrue(slice.contains("axiom"));
+    assertTrue(slice.contains("var Stack#size"));
+  }
+
+  @Test
+  public void testSliceKeepsImplementationsAndModifiedGlobals() throws Exception {
+
+    final ProgramSlicer slicer = new ProgramSlicer(PROGRAM);
+
+    final String slice = slicer.slice("procedure q(this : Ref) { call Other#run(this); }");
+
+    assertTrue(slice.contains("procedure {:inline 1} Alloc()"));
+    assertTrue(slice.contains("implementation {:inline 1} Alloc()"));
+    assertTrue(slice.contains("var $Alloc"));
+    assertTrue(slice.contains("const unique null"));
+    assertTrue(slice.contains("var Other#field"));
+  }
+
+  @Test
+  public void testSlicesAreCachedByRoots() throws Exception {
+
+    final ProgramSlicer slicer = new ProgramSlicer(PROGRAM);
+
+    final String first = slicer.slice("procedure q1(this : Ref) { call Stack#push(this); }");
+    final String second = slicer.slice("procedure q2(that : Ref) { call Stack#push(that); }");
+
+    assertSame(first, second);
+    assertEquals(1, slicer.getNumberOfSlices());
+    assertEquals(1, slicer.getNumberOfCacheHits());
+  }
+}
@@ -0,0 +1,53 @@
+package contractorj.construction.concrete;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+public class BoundedDomainsTest {
+
+  @Test
+  public void testIntegralDomains() throws Exception {
+
+    assertEquals(Arrays.asList(-2, -1, 0, 1, 2), BoundedDomains.getValues(int.class, 2));
+    assertEquals(Arrays.asList(-1L, 0L, 1L), BoundedDomains.getValues(long.class, 1));
+    assertEquals(Arrays.asList(false, true), BoundedDomains.getValues(boolean.class, 5));
+  }
+
+  @Test
+  public void testArrayDomainsAreBoundedByLength() throws Exception {
+
+    final List<Object> arrays = BoundedDomains.getValues(int[].class, 2);
+
+    assertEquals(4, arrays.size());
+    assertNull(arrays.get(0));
+    assertArrayEquals(new int[2], (int[]) arrays.get(3));
+  }
+
+  @Test
+  public void testCombinations() throws Exception {
+
+    final List<List<Object>> combinations =
+        BoundedDomains.getCombinations(
+                Arrays.asList(Arrays.asList(0, 1), Arrays.asList("a", "b", "c")), 100)
+            .get();
+
+    assertEquals(6, combinations.size());
+    assertEquals(Arrays.asList(0, "a"), combinations.get(0));
+    assertEquals(Arrays.asList(1, "c"), combinations.get(5));
+  }
+
+  @Test
+  public void testCombinationsOverTheLimit() throws Exception {
+
+    assertFalse(
+        BoundedDomains.getCombinations(
+                Arrays.asList(Arrays.asList(0, 1), Arrays.asList(0, 1)), 3)
+            .isPresent());
+  }
+}
@@ -0,0 +1,88 @@
+package contractorj.construction.corral;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import com.google.common.collect.ImmutableList;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import org.junit.Test;
+
+public class CorralProfileTest {
+
+  private final CorralConfiguration small = new CorralConfiguration(1, true);
+
+  private final CorralConfiguration big = new CorralConfiguration(3, false);
+
+  private final List<CorralConfiguration> portfolio =
+      ImmutableList.of(CorralConfiguration.DEFAULT, small, big);
+
+  @Test
+  public void testConfigurationNamesAreParsedBack() throws Exception {
+
+    final CorralConfiguration configuration =
+        new CorralConfiguration(3, false, ImmutableList.of("/k:2"));
+
+    assertEquals("/recursionBound:3 /k:2", configuration.getName());
+    assertEquals(configuration, CorralConfiguration.parse(configuration.getName()));
+    assertEquals(
+        CorralConfiguration.DEFAULT, CorralConfiguration.parse("/trackAllVars /recursionBound:2"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidFlag() throws Exception {
+
+    CorralConfiguration.parse("/recursionBound:2 trackAllVars");
+  }
+
+  @Test
+  public void testPreferredConfigurationIsTheMostWinning() throws Exception {
+
+    final CorralProfile profile = new CorralProfile();
+
+    assertFalse(profile.getPreferredConfiguration("TransitionQuery", portfolio).isPresent());
+
+    profile.recordWin("TransitionQuery", small);
+    profile.recordWin("TransitionQuery", big);
+    profile.recordWin("TransitionQuery", big);
+    profile.recordWin("NecessaryActionQuery", small);
+
+    assertEquals(
+        Optional.of(big), profile.getPreferredConfiguration("TransitionQuery", portfolio));
+    assertEquals(
+        Optional.of(small), profile.getPreferredConfiguration("NecessaryActionQuery", portfolio));
+    assertFalse(
+        profile
+            .getPreferredConfiguration("TransitionQuery", ImmutableList.of(small))
+            .equals(Optional.of(big)));
+  }
+
+  @Test
+  public void testSaveAndLoad() throws Exception {
+
+    final Path file = Files.createTempFile("profile", ".tsv");
+
+    try {
+
+      final CorralProfile profile = new CorralProfile();
+      profile.recordWin("TransitionQuery", small);
+      profile.recordWin("TransitionQuery", small);
+      profile.recordWin("TransitionQuery", big);
+      profile.setTunedConfiguration("NecessaryActionQuery", big);
+      profile.save(file);
+
+      final CorralProfile loaded = CorralProfile.load(file);
+
+      assertEquals(profile.getWins("TransitionQuery"), loaded.getWins("TransitionQuery"));
+      assertEquals(
+          Optional.of(small), loaded.getPreferredConfiguration("TransitionQuery", portfolio));
+      assertEquals(Optional.of(big), loaded.getTunedConfiguration("NecessaryActionQuery"));
+      assertFalse(loaded.getTunedConfiguration("TransitionQuery").isPresent());
+
+    } finally {
+      Files.delete(file);
+    }
+  }
+}
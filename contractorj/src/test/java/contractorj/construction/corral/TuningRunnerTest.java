@@ -0,0 +1,67 @@
+package contractorj.construction.corral;
+
+import static org.junit.Assert.assertEquals;
+
+import contractorj.construction.corral.TuningRunner.Measurement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.Test;
+
+public class TuningRunnerTest {
+
+  private final CorralConfiguration small = new CorralConfiguration(1, true);
+
+  private final CorralConfiguration big = new CorralConfiguration(3, false);
+
+  @Test
+  public void testLosingADefinitiveAnswerIsADisagreement() {
+
+    final Measurement measurement = new Measurement();
+    measurement.add(result(QueryResult.MAYBE_BUG, 1), QueryResult.NO_BUG);
+    measurement.add(result(QueryResult.NO_BUG, 1), QueryResult.TRUE_BUG);
+
+    assertEquals(2, measurement.getDisagreements());
+    assertEquals(0, measurement.getRefinements());
+  }
+
+  @Test
+  public void testMakingAnAnswerDefinitiveIsARefinement() {
+
+    final Measurement measurement = new Measurement();
+    measurement.add(result(QueryResult.TRUE_BUG, 1), QueryResult.MAYBE_BUG);
+    measurement.add(result(QueryResult.NO_BUG, 1), QueryResult.MAYBE_BUG);
+    measurement.add(result(QueryResult.MAYBE_BUG, 1), QueryResult.MAYBE_BUG);
+
+    assertEquals(0, measurement.getDisagreements());
+    assertEquals(2, measurement.getRefinements());
+    assertEquals(3, measurement.getSamples());
+    assertEquals(Duration.ofSeconds(3), measurement.getRunningTime());
+  }
+
+  @Test
+  public void testTheFastestConfigurationWithoutDisagreementsIsChosen() {
+
+    final Measurement reference = new Measurement();
+    reference.add(result(QueryResult.MAYBE_BUG, 5), QueryResult.MAYBE_BUG);
+
+    final Measurement refining = new Measurement();
+    refining.add(result(QueryResult.NO_BUG, 4), QueryResult.MAYBE_BUG);
+
+    final Measurement disagreeing = new Measurement();
+    disagreeing.add(result(QueryResult.NO_BUG, 1), QueryResult.TRUE_BUG);
+
+    final Map<CorralConfiguration, Measurement> byConfiguration = new HashMap<>();
+    byConfiguration.put(CorralConfiguration.DEFAULT, reference);
+    byConfiguration.put(big, refining);
+    byConfiguration.put(small, disagreeing);
+
+    assertEquals(Optional.of(big), TuningRunner.getFastestAgreeingConfiguration(byConfiguration));
+  }
+
+  private static RunnerResult result(final QueryResult queryResult, final long seconds) {
+
+    return new RunnerResult(queryResult, Duration.ofSeconds(seconds), "", "corral");
+  }
+}
@@ -0,0 +1,86 @@
+package contractorj.construction.lemmas;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import contractorj.construction.lemmas.ActionDependencyMatrix.Dependency;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import org.junit.Test;
+
+public class ActionDependencyMatrixTest {
+
+  private final List<String> actions = ImmutableList.of("push(int)", "pop()", "isEmpty()");
+
+  @Test
+  public void testUncomputedPairsAreEmpty() throws Exception {
+
+    final ActionDependencyMatrix matrix = new ActionDependencyMatrix(actions);
+
+    final int push = matrix.getActionId("push(int)");
+    final int pop = matrix.getActionId("pop()");
+
+    assertFalse(matrix.get(push, pop).isPresent());
+    assertEquals(0, matrix.getNumberOfComputedPairs());
+  }
+
+  @Test
+  public void testSetAndGet() throws Exception {
+
+    final ActionDependencyMatrix matrix = new ActionDependencyMatrix(actions);
+
+    final int push = matrix.getActionId("push(int)");
+    final int pop = matrix.getActionId("pop()");
+    final int isEmpty = matrix.getActionId("isEmpty()");
+
+    matrix.set(push, pop, Dependency.NECESSARILY_ENABLES);
+    matrix.set(pop, push, Dependency.NONE);
+    matrix.set(push, isEmpty, Dependency.NECESSARILY_DISABLES);
+
+    assertEquals(Optional.of(Dependency.NECESSARILY_ENABLES), matrix.get(push, pop));
+    assertEquals(Optional.of(Dependency.NONE), matrix.get(pop, push));
+    assertEquals(Optional.of(Dependency.NECESSARILY_DISABLES), matrix.get(push, isEmpty));
+    assertFalse(matrix.get(isEmpty, push).isPresent());
+    assertEquals(3, matrix.getNumberOfComputedPairs());
+  }
+
+  @Test
+  public void testSaveAndLoad() throws Exception {
+
+    final Path file = Files.createTempFile("lemmas", ".bin");
+
+    final ActionDependencyMatrix matrix = new ActionDependencyMatrix(actions);
+    final int push = matrix.getActionId("push(int)");
+    final int pop = matrix.getActionId("pop()");
+    matrix.set(push, pop, Dependency.NECESSARILY_ENABLES);
+    matrix.save(file, "digest");
+
+    final Optional<ActionDependencyMatrix> loaded =
+        ActionDependencyMatrix.load(
+            file, "digest", ImmutableList.of("isEmpty()", "pop()", "push(int)"));
+
+    assertTrue(loaded.isPresent());
+    assertEquals(Optional.of(Dependency.NECESSARILY_ENABLES), loaded.get().get(push, pop));
+    assertEquals(1, loaded.get().getNumberOfComputedPairs());
+
+    Files.delete(file);
+  }
+
+  @Test
+  public void testLoadIgnoresOtherPrograms() throws Exception {
+
+    final Path file = Files.createTempFile("lemmas", ".bin");
+
+    new ActionDependencyMatrix(actions).save(file, "digest");
+
+    assertFalse(ActionDependencyMatrix.load(file, "other digest", actions).isPresent());
+    assertFalse(
+        ActionDependencyMatrix.load(file, "digest", ImmutableList.of("push(int)")).isPresent());
+
+    Files.delete(file);
+  }
+}
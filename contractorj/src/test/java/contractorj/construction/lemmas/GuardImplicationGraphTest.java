@@ -0,0 +1,57 @@
+package contractorj.construction.lemmas;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableMap;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import org.junit.Test;
+
+public class GuardImplicationGraphTest {
+
+  @Test
+  public void testFactsDiscardContradictingStates() throws Exception {
+
+    final GuardImplicationGraph graph = new GuardImplicationGraph();
+    graph.addFact(new GuardLiteral("size()", true));
+
+    assertTrue(graph.admits(ImmutableMap.of("size()", true, "pop()", false)));
+    assertFalse(graph.admits(ImmutableMap.of("size()", false, "pop()", false)));
+  }
+
+  @Test
+  public void testImplicationsAndContrapositives() throws Exception {
+
+    final GuardImplicationGraph graph = new GuardImplicationGraph();
+    graph.addImplication(new GuardLiteral("pop()", true), new GuardLiteral("isEmpty()", false));
+
+    assertFalse(graph.admits(ImmutableMap.of("pop()", true, "isEmpty()", true)));
+    assertTrue(graph.admits(ImmutableMap.of("pop()", true, "isEmpty()", false)));
+    assertTrue(graph.admits(ImmutableMap.of("pop()", false, "isEmpty()", true)));
+    assertTrue(graph.admits(ImmutableMap.of("pop()", true)));
+    assertEquals(1, graph.getNumberOfLemmas());
+  }
+
+  @Test
+  public void testSaveAndLoad() throws Exception {
+
+    final Path file = Files.createTempFile("guards", ".txt");
+
+    final GuardImplicationGraph graph = new GuardImplicationGraph();
+    graph.addFact(new GuardLiteral("size()", true));
+    graph.addImplication(new GuardLiteral("pop()", true), new GuardLiteral("isEmpty()", false));
+    graph.save(file, "digest");
+
+    final Optional<GuardImplicationGraph> loaded = GuardImplicationGraph.load(file, "digest");
+
+    assertTrue(loaded.isPresent());
+    assertEquals(2, loaded.get().getNumberOfLemmas());
+    assertFalse(loaded.get().admits(ImmutableMap.of("isEmpty()", true, "pop()", true)));
+    assertFalse(GuardImplicationGraph.load(file, "other digest").isPresent());
+
+    Files.delete(file);
+  }
+}
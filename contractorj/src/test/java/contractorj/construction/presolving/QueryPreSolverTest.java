@@ -0,0 +1,163 @@
+package contractorj.construction.presolving;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.collect.ImmutableSet;
+import contractorj.construction.queries.Answer;
+import contractorj.construction.queries.invariant.TransitionBreaksInvariantQuery;
+import contractorj.construction.queries.necessary_actions.NecessarilyDisabledActionQuery;
+import contractorj.construction.queries.necessary_actions.NecessarilyEnabledActionQuery;
+import contractorj.construction.queries.state.StateFeasibilityQuery;
+import contractorj.model.Action;
+import contractorj.model.State;
+import java.util.Collections;
+import java.util.Optional;
+import jbct.analysis.CallGraph;
+import jbct.analysis.FieldAccessAnalysis;
+import jbct.analysis.FieldAccesses;
+import jbct.analysis.Interval;
+import jbct.analysis.ReturnValueAnalysis;
+import jbct.model.DetachedClass;
+import jbct.model.DetachedMethod;
+import org.junit.Test;
+
+public class QueryPreSolverTest {
+
+  private final DetachedClass finiteStack =
+      new DetachedClass("examples.FiniteStack", "FiniteStack");
+
+  private final DetachedMethod invariant = createMethod("inv");
+
+  private final Action push = new Action(createMethod("push"), createMethod("push_pre"), null);
+
+  private final Action pop = new Action(createMethod("pop"), createMethod("pop_pre"), null);
+
+  private final Action close = new Action(createMethod("close"), createMethod("close_pre"), null);
+
+  private final ReturnValueAnalysis returnValueAnalysis = new ReturnValueAnalysis();
+
+  private final FieldAccessAnalysis fieldAccessAnalysis =
+      new FieldAccessAnalysis(new CallGraph());
+
+  @Test
+  public void testConstantGuardsDecideNecessityQueries() {
+
+    returnValueAnalysis.addLocalFact("FiniteStack#close_pre", Interval.constant(1));
+
+    final QueryPreSolver preSolver = createPreSolver();
+    final State state = new State(ImmutableSet.of(push, close), ImmutableSet.of(pop));
+
+    assertEquals(
+        Optional.of(Answer.YES),
+        preSolver.solve(new NecessarilyEnabledActionQuery(state, push, close, invariant)));
+    assertEquals(
+        Optional.of(Answer.NO),
+        preSolver.solve(new NecessarilyDisabledActionQuery(state, push, close, invariant)));
+
+    assertEquals(
+        1, preSolver.getNumberOfDecisions(NecessarilyEnabledActionQuery.class, Answer.YES));
+    assertEquals(
+        1, preSolver.getNumberOfDecisions(NecessarilyDisabledActionQuery.class, Answer.NO));
+  }
+
+  @Test
+  public void testUnknownGuardsDontDecideQueries() {
+
+    returnValueAnalysis.addLocalFact("FiniteStack#pop_pre", Interval.BOOLEAN);
+    returnValueAnalysis.addLocalFact("FiniteStack#close_pre", Interval.TOP);
+
+    final QueryPreSolver preSolver = createPreSolver();
+    final State state = new State(ImmutableSet.of(push, close), ImmutableSet.of(pop));
+
+    assertEquals(
+        Optional.empty(),
+        preSolver.solve(new NecessarilyEnabledActionQuery(state, push, pop, invariant)));
+    assertEquals(
+        Optional.empty(),
+        preSolver.solve(new NecessarilyEnabledActionQuery(state, push, close, invariant)));
+    assertEquals(
+        Optional.empty(),
+        preSolver.solve(new NecessarilyEnabledActionQuery(state, push, push, invariant)));
+    assertEquals(Collections.emptySet(), preSolver.getQueryClasses());
+  }
+
+  @Test
+  public void testStatesContradictingConstantGuardsAreInfeasible() {
+
+    returnValueAnalysis.addLocalFact("FiniteStack#close_pre", Interval.constant(0));
+
+    final QueryPreSolver preSolver = createPreSolver();
+
+    assertEquals(
+        Optional.of(Answer.NO),
+        preSolver.solve(
+            new StateFeasibilityQuery(
+                new State(ImmutableSet.of(push, close), ImmutableSet.of(pop)), invariant)));
+    assertEquals(
+        Optional.empty(),
+        preSolver.solve(
+            new StateFeasibilityQuery(
+                new State(ImmutableSet.of(push), ImmutableSet.of(pop, close)), invariant)));
+  }
+
+  @Test
+  public void testInvariantsThatAlwaysHoldCantBreak() {
+
+    returnValueAnalysis.addLocalFact("FiniteStack#inv", Interval.constant(1));
+
+    final State state = new State(ImmutableSet.of(push, pop), ImmutableSet.of(close));
+
+    assertEquals(
+        Optional.of(Answer.NO),
+        createPreSolver().solve(new TransitionBreaksInvariantQuery(state, push, invariant)));
+  }
+
+  @Test
+  public void testInvariantsOnlyBreakIfTheirFieldsAreWritten() {
+
+    fieldAccessAnalysis.addLocalAccesses("FiniteStack#inv", accesses("size", null));
+    fieldAccessAnalysis.addLocalAccesses("FiniteStack#push", accesses("size", "size"));
+    fieldAccessAnalysis.addLocalAccesses("FiniteStack#close", accesses("open", "open"));
+
+    for (final String guard : new String[] {"push_pre", "pop_pre", "close_pre"}) {
+      fieldAccessAnalysis.addLocalAccesses("FiniteStack#" + guard, FieldAccesses.NONE);
+    }
+
+    final QueryPreSolver preSolver = createPreSolver();
+    final State state = new State(ImmutableSet.of(push, close), ImmutableSet.of(pop));
+
+    assertEquals(
+        Optional.empty(),
+        preSolver.solve(new TransitionBreaksInvariantQuery(state, push, invariant)));
+    assertEquals(
+        Optional.of(Answer.NO),
+        preSolver.solve(new TransitionBreaksInvariantQuery(state, close, invariant)));
+  }
+
+  private QueryPreSolver createPreSolver() {
+
+    return new QueryPreSolver(returnValueAnalysis, fieldAccessAnalysis, invariant);
+  }
+
+  private static FieldAccesses accesses(final String read, final String written) {
+
+    return new FieldAccesses(
+        Collections.singleton(read),
+        written == null ? Collections.emptySet() : Collections.singleton(written),
+        false,
+        false);
+  }
+
+  private DetachedMethod createMethod(final String name) {
+
+    return new DetachedMethod(
+        finiteStack,
+        "FiniteStack#" + name,
+        name,
+        false,
+        false,
+        Optional.of("bool"),
+        Collections.emptyList(),
+        Collections.emptyList());
+  }
+}
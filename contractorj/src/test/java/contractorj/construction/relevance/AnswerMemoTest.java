@@ -0,0 +1,143 @@
+package contractorj.construction.relevance;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableSet;
+import contractorj.construction.queries.Answer;
+import contractorj.construction.queries.Query;
+import contractorj.construction.queries.necessary_actions.NecessarilyEnabledActionQuery;
+import contractorj.model.Action;
+import contractorj.model.State;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import jbct.analysis.CallGraph;
+import jbct.analysis.FieldAccessAnalysis;
+import jbct.analysis.FieldAccesses;
+import jbct.model.DetachedClass;
+import jbct.model.DetachedMethod;
+import org.junit.Test;
+
+public class AnswerMemoTest {
+
+  private final DetachedClass finiteStack =
+      new DetachedClass("examples.FiniteStack", "FiniteStack");
+
+  private final DetachedMethod invariant = createMethod("inv");
+
+  private final Action push = new Action(createMethod("push"), null, null);
+
+  private final Action pop = new Action(createMethod("pop"), createMethod("pop_pre"), null);
+
+  private final Action close = new Action(createMethod("close"), createMethod("close_pre"), null);
+
+  private final Set<State> witnessedStates = new HashSet<>();
+
+  private final AnswerMemo answerMemo =
+      new AnswerMemo(createFieldAccessAnalysis(), invariant, witnessedStates);
+
+  @Test
+  public void testStatesThatOnlyDifferInIrrelevantGuardsShareAnswers() {
+
+    final State closable = witness(ImmutableSet.of(push, pop, close), ImmutableSet.of());
+    final State closed = witness(ImmutableSet.of(push, pop), ImmutableSet.of(close));
+
+    answerMemo.put(query(closable), Answer.YES);
+
+    assertEquals(Optional.of(Answer.YES), answerMemo.get(query(closed)));
+    assertEquals(1, answerMemo.getNumberOfSharedAnswers());
+  }
+
+  @Test
+  public void testStatesThatDifferInRelevantGuardsDontShareAnswers() {
+
+    final State nonEmpty = witness(ImmutableSet.of(push, pop, close), ImmutableSet.of());
+    final State empty = witness(ImmutableSet.of(push, close), ImmutableSet.of(pop));
+
+    answerMemo.put(query(nonEmpty), Answer.YES);
+
+    assertEquals(Optional.empty(), answerMemo.get(query(empty)));
+    assertEquals(0, answerMemo.getNumberOfSharedAnswers());
+  }
+
+  @Test
+  public void testUncertainAnswersAreNotRecorded() {
+
+    final State closable = witness(ImmutableSet.of(push, pop, close), ImmutableSet.of());
+    final State closed = witness(ImmutableSet.of(push, pop), ImmutableSet.of(close));
+
+    answerMemo.put(query(closable), Answer.MAYBE);
+
+    assertEquals(Optional.empty(), answerMemo.get(query(closed)));
+  }
+
+  @Test
+  public void testOnlyWitnessedStatesShareAnswers() {
+
+    final State closable = witness(ImmutableSet.of(push, pop, close), ImmutableSet.of());
+    final State unwitnessed = new State(ImmutableSet.of(push, pop), ImmutableSet.of(close));
+
+    assertFalse(answerMemo.isShareable(query(unwitnessed)));
+
+    answerMemo.put(query(unwitnessed), Answer.NO);
+    assertEquals(Optional.empty(), answerMemo.get(query(closable)));
+
+    answerMemo.put(query(closable), Answer.YES);
+    assertEquals(Optional.empty(), answerMemo.get(query(unwitnessed)));
+
+    witnessedStates.add(unwitnessed);
+
+    assertTrue(answerMemo.isShareable(query(unwitnessed)));
+    assertEquals(Optional.of(Answer.YES), answerMemo.get(query(unwitnessed)));
+  }
+
+  private State witness(final Set<Action> enabled, final Set<Action> disabled) {
+
+    final State state = new State(enabled, disabled);
+    witnessedStates.add(state);
+
+    return state;
+  }
+
+  private Query query(final State source) {
+
+    return new NecessarilyEnabledActionQuery(source, push, push, invariant);
+  }
+
+  private FieldAccessAnalysis createFieldAccessAnalysis() {
+
+    final FieldAccessAnalysis analysis = new FieldAccessAnalysis(new CallGraph());
+
+    analysis.addLocalAccesses("FiniteStack#inv", FieldAccesses.NONE);
+    analysis.addLocalAccesses("FiniteStack#push", accesses("size", "size"));
+    analysis.addLocalAccesses("FiniteStack#pop_pre", accesses("size", null));
+    analysis.addLocalAccesses("FiniteStack#close_pre", accesses("open", null));
+
+    return analysis;
+  }
+
+  private static FieldAccesses accesses(final String read, final String written) {
+
+    return new FieldAccesses(
+        Collections.singleton(read),
+        written == null ? Collections.emptySet() : Collections.singleton(written),
+        false,
+        false);
+  }
+
+  private DetachedMethod createMethod(final String name) {
+
+    return new DetachedMethod(
+        finiteStack,
+        "FiniteStack#" + name,
+        name,
+        false,
+        false,
+        Optional.of("bool"),
+        Collections.emptyList(),
+        Collections.emptyList());
+  }
+}
@@ -0,0 +1,63 @@
+package contractorj.construction.relevance;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.Set;
+import jbct.analysis.FieldAccesses;
+import org.junit.Test;
+
+public class GuardRelevanceTest {
+
+  @Test
+  public void testGuardsOnDisjointFieldsAreIrrelevant() throws Exception {
+
+    final FieldAccesses query = accesses(ImmutableSet.of("size"), ImmutableSet.of("size"));
+
+    final Set<String> relevant =
+        GuardRelevance.getRelevantGuards(
+            query,
+            ImmutableMap.of(
+                "pop()", accesses(ImmutableSet.of("size"), ImmutableSet.of()),
+                "close()", accesses(ImmutableSet.of("open"), ImmutableSet.of())));
+
+    assertEquals(ImmutableSet.of("pop()"), relevant);
+  }
+
+  @Test
+  public void testRelevanceIsTransitive() throws Exception {
+
+    final FieldAccesses query = accesses(ImmutableSet.of("size"), ImmutableSet.of("size"));
+
+    final Set<String> relevant =
+        GuardRelevance.getRelevantGuards(
+            query,
+            ImmutableMap.of(
+                "close()", accesses(ImmutableSet.of("open"), ImmutableSet.of()),
+                "flush()", accesses(ImmutableSet.of("open", "buffer"), ImmutableSet.of()),
+                "pop()", accesses(ImmutableSet.of("buffer", "size"), ImmutableSet.of())));
+
+    assertEquals(ImmutableSet.of("close()", "flush()", "pop()"), relevant);
+  }
+
+  @Test
+  public void testUnknownAccessesAreRelevant() throws Exception {
+
+    final FieldAccesses query = accesses(ImmutableSet.of("size"), ImmutableSet.of());
+
+    assertEquals(
+        ImmutableSet.of("close()"),
+        GuardRelevance.getRelevantGuards(query, ImmutableMap.of("close()", FieldAccesses.UNKNOWN)));
+
+    assertEquals(
+        ImmutableSet.of("close()"),
+        GuardRelevance.getRelevantGuards(
+            FieldAccesses.UNKNOWN, ImmutableMap.of("close()", FieldAccesses.NONE)));
+  }
+
+  private static FieldAccesses accesses(final Set<String> reads, final Set<String> writes) {
+
+    return new FieldAccesses(reads, writes, false, false);
+  }
+}
@@ -0,0 +1,39 @@
+package contractorj.construction.splitting;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import com.google.common.collect.ImmutableList;
+import contractorj.construction.corral.QueryResult;
+import java.util.Optional;
+import org.junit.Test;
+
+public class QuerySplitterTest {
+
+  @Test
+  public void testAnyBugIsABug() throws Exception {
+
+    assertEquals(
+        Optional.of(QueryResult.TRUE_BUG),
+        QuerySplitter.combine(ImmutableList.of(QueryResult.NO_BUG, QueryResult.TRUE_BUG), false));
+    assertEquals(
+        Optional.of(QueryResult.TRUE_BUG),
+        QuerySplitter.combine(
+            ImmutableList.of(QueryResult.MAYBE_BUG, QueryResult.TRUE_BUG), true));
+  }
+
+  @Test
+  public void testNoBugNeedsEveryCase() throws Exception {
+
+    assertFalse(
+        QuerySplitter.combine(ImmutableList.of(QueryResult.NO_BUG, QueryResult.NO_BUG), false)
+            .isPresent());
+    assertEquals(
+        Optional.of(QueryResult.NO_BUG),
+        QuerySplitter.combine(ImmutableList.of(QueryResult.NO_BUG, QueryResult.NO_BUG), true));
+    assertEquals(
+        Optional.of(QueryResult.MAYBE_BUG),
+        QuerySplitter.combine(
+            ImmutableList.of(QueryResult.NO_BUG, QueryResult.MAYBE_BUG), true));
+  }
+}
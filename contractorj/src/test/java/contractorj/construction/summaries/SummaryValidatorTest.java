@@ -0,0 +1,41 @@
+package contractorj.construction.summaries;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import contractorj.construction.corral.QueryResult;
+import contractorj.construction.corral.RunnerResult;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class SummaryValidatorTest {
+
+  @Test
+  public void testEachSummaryIsValidatedOnce() throws Exception {
+
+    final List<String> mainMethods = new ArrayList<>();
+
+    final SummaryValidator validator =
+        new SummaryValidator(
+            (path, mainMethod) -> {
+              mainMethods.add(mainMethod);
+              return new RunnerResult(
+                  mainMethod.startsWith("A#") ? QueryResult.TRUE_BUG : QueryResult.NO_BUG,
+                  Duration.ZERO,
+                  "",
+                  "");
+            });
+
+    final Map<String, QueryResult> results =
+        validator.validate(Paths.get("translation.bpl"), ImmutableList.of("A#m", "B.n"));
+
+    assertEquals(ImmutableList.of("A#m$$validation", "B.n$$validation"), mainMethods);
+    assertEquals(
+        ImmutableMap.of("A#m", QueryResult.TRUE_BUG, "B.n", QueryResult.NO_BUG), results);
+  }
+}
@@ -0,0 +1,100 @@
+package contractorj.construction.symbolic;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.collect.ImmutableList;
+import jbct.analysis.LinearConstraint;
+import jbct.analysis.LinearExpression;
+import org.junit.Test;
+
+public class LinearSolverTest {
+
+  private final LinearSolver solver = new LinearSolver();
+
+  private final LinearExpression x = LinearExpression.symbol("x");
+
+  private final LinearExpression y = LinearExpression.symbol("y");
+
+  private final LinearExpression z = LinearExpression.symbol("z");
+
+  @Test
+  public void testContradictoryBounds() throws Exception {
+
+    assertEquals(
+        Satisfiability.UNSATISFIABLE,
+        solver.check(
+            ImmutableList.of(
+                LinearConstraint.lessOrEqual(x, constant(0)),
+                LinearConstraint.lessOrEqual(constant(1), x))));
+  }
+
+  @Test
+  public void testEqualityChain() throws Exception {
+
+    assertEquals(
+        Satisfiability.SATISFIABLE,
+        solver.check(
+            ImmutableList.of(
+                LinearConstraint.equal(x, y.add(constant(1))),
+                LinearConstraint.equal(y, z.add(constant(1))),
+                LinearConstraint.lessOrEqual(constant(5), z))));
+
+    assertEquals(
+        Satisfiability.UNSATISFIABLE,
+        solver.check(
+            ImmutableList.of(
+                LinearConstraint.equal(x, y.add(constant(1))),
+                LinearConstraint.equal(y, z.add(constant(1))),
+                LinearConstraint.lessThan(x, z))));
+  }
+
+  @Test
+  public void testNoIntegerSolution() throws Exception {
+
+    // 2x == 1 has a rational solution only
+    assertEquals(
+        Satisfiability.UNSATISFIABLE,
+        solver.check(ImmutableList.of(LinearConstraint.equal(x.multiply(2), constant(1)))));
+
+    // 1 <= 2x <= 1
+    assertEquals(
+        Satisfiability.UNSATISFIABLE,
+        solver.check(
+            ImmutableList.of(
+                LinearConstraint.lessOrEqual(constant(1), x.multiply(2)),
+                LinearConstraint.lessOrEqual(x.multiply(2), constant(1)))));
+  }
+
+  @Test
+  public void testDisequalities() throws Exception {
+
+    assertEquals(
+        Satisfiability.UNSATISFIABLE,
+        solver.check(
+            ImmutableList.of(
+                LinearConstraint.equal(x, constant(0)),
+                LinearConstraint.notEqual(x, constant(0)))));
+
+    assertEquals(
+        Satisfiability.SATISFIABLE,
+        solver.check(
+            ImmutableList.of(
+                LinearConstraint.lessOrEqual(constant(0), x),
+                LinearConstraint.lessOrEqual(x, constant(1)),
+                LinearConstraint.notEqual(x, constant(0)))));
+
+    assertEquals(
+        Satisfiability.UNSATISFIABLE,
+        solver.check(
+            ImmutableList.of(
+                LinearConstraint.lessOrEqual(constant(0), x),
+                LinearConstraint.lessOrEqual(x, constant(1)),
+                LinearConstraint.notEqual(x, constant(0)),
+                LinearConstraint.notEqual(x, constant(1)))));
+  }
+
+  private static LinearExpression constant(final long value) {
+
+    return LinearExpression.constant(value);
+  }
+}
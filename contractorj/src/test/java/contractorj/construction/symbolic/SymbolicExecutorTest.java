@@ -0,0 +1,126 @@
+package contractorj.construction.symbolic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import contractorj.construction.corral.QueryResult;
+import java.util.Optional;
+import jbct.analysis.LinearConstraint;
+import jbct.analysis.LinearExpression;
+import jbct.analysis.PathSummary;
+import jbct.analysis.PathSummaryAnalysis;
+import jbct.analysis.SymbolicPath;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SymbolicExecutorTest {
+
+  private final LinearExpression count =
+      LinearExpression.symbol(PathSummary.getFieldSymbol("Counter.count"));
+
+  private SymbolicExecutor executor;
+
+  /** A counter whose pop is enabled while it is positive. */
+  @Before
+  public void setUp() throws Exception {
+
+    final PathSummaryAnalysis pathSummaryAnalysis = new PathSummaryAnalysis();
+    final LinearExpression zero = LinearExpression.constant(0);
+    final LinearExpression one = LinearExpression.constant(1);
+
+    pathSummaryAnalysis.addSummary(
+        "Counter#pop_pre",
+        new PathSummary(
+            1,
+            ImmutableList.of(
+                new SymbolicPath(
+                    ImmutableList.of(LinearConstraint.lessThan(zero, count)),
+                    ImmutableMap.of(),
+                    Optional.of(one),
+                    false),
+                new SymbolicPath(
+                    ImmutableList.of(LinearConstraint.lessOrEqual(count, zero)),
+                    ImmutableMap.of(),
+                    Optional.of(zero),
+                    false))));
+
+    pathSummaryAnalysis.addSummary(
+        "Counter#pop",
+        new PathSummary(
+            1,
+            ImmutableList.of(
+                new SymbolicPath(
+                    ImmutableList.of(),
+                    ImmutableMap.of("Counter.count", count.subtract(one)),
+                    Optional.empty(),
+                    false))));
+
+    pathSummaryAnalysis.addSummary(
+        "Counter#push",
+        new PathSummary(
+            1,
+            ImmutableList.of(
+                new SymbolicPath(
+                    ImmutableList.of(),
+                    ImmutableMap.of("Counter.count", count.add(one)),
+                    Optional.empty(),
+                    false))));
+
+    executor = new SymbolicExecutor(pathSummaryAnalysis);
+  }
+
+  @Test
+  public void testPopCanDisablePop() throws Exception {
+
+    assertEquals(Optional.of(QueryResult.TRUE_BUG), execute("Counter#pop"));
+  }
+
+  @Test
+  public void testPushCantDisablePop() throws Exception {
+
+    assertEquals(Optional.of(QueryResult.NO_BUG), execute("Counter#push"));
+  }
+
+  @Test(expected = UnsupportedQueryException.class)
+  public void testMissingSummary() throws Exception {
+
+    execute("Counter#clear");
+  }
+
+  @Test
+  public void testUnsatisfiablePrecondition() throws Exception {
+
+    final String query =
+        "procedure q($this : Ref) {\n"
+            + "var r0 : bool;\n"
+            + "call r0 := Counter#pop_pre($this);\n"
+            + "assume r0 && !r0;\n"
+            + "query_assertion: assert false;\n"
+            + "}\n";
+
+    final Optional<QueryResult> result = executor.execute(QueryProcedure.parse(query));
+
+    assertFalse(result.get().equals(QueryResult.TRUE_BUG));
+  }
+
+  private Optional<QueryResult> execute(final String action) {
+
+    final String query =
+        "procedure q($this : Ref) {\n"
+            + "var r0 : bool;\n"
+            + "var r1 : bool;\n"
+            + "call r0 := Counter#pop_pre($this);\n"
+            + "assume r0;\n"
+            + "call "
+            + action
+            + "($this);\n"
+            + "assume $Exception == null;\n"
+            + "call r1 := Counter#pop_pre($this);\n"
+            + "query_assertion: assert r1;\n"
+            + "}\n";
+
+    return executor.execute(QueryProcedure.parse(query));
+  }
+}
@@ -0,0 +1,72 @@
+package contractorj.serialization;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import contractorj.model.Epa;
+import contractorj.model.State;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import org.junit.Test;
+
+public class EpaSnapshotWriterTest {
+
+  private final EpaSerializer serializer =
+      epa -> epa.getClassName() + ":" + epa.getUnexploredStates().size();
+
+  private final Epa epa =
+      new Epa("examples.FiniteStack", new State(ImmutableSet.of(), Collections.emptySet()));
+
+  @Test
+  public void testRewriteKeepsTheLastSnapshot() throws Exception {
+
+    final File output = createOutput();
+    final EpaSnapshotWriter writer =
+        new EpaSnapshotWriter(serializer, output, EpaSnapshotWriter.Mode.REWRITE);
+
+    writer.onSnapshot(epa.copy());
+    epa.markUnexplored(State.ERROR);
+    writer.onSnapshot(epa.copy());
+
+    assertEquals(ImmutableList.of("examples.FiniteStack:1"), readLines(output));
+    assertEquals(
+        "No temporal file should be left behind",
+        1,
+        output.getParentFile().listFiles().length);
+  }
+
+  @Test
+  public void testAppendKeepsEverySnapshot() throws Exception {
+
+    final File output = createOutput();
+    final EpaSnapshotWriter writer =
+        new EpaSnapshotWriter(serializer, output, EpaSnapshotWriter.Mode.APPEND);
+
+    writer.onSnapshot(epa.copy());
+    epa.markUnexplored(State.ERROR);
+    writer.onSnapshot(epa.copy());
+
+    assertEquals(
+        ImmutableList.of("examples.FiniteStack:0", "examples.FiniteStack:1"), readLines(output));
+  }
+
+  private static File createOutput() throws Exception {
+
+    final Path directory = Files.createTempDirectory("snapshots");
+    directory.toFile().deleteOnExit();
+
+    final File output = directory.resolve("epa.txt").toFile();
+    output.deleteOnExit();
+
+    return output;
+  }
+
+  private static ImmutableList<String> readLines(final File output) throws Exception {
+
+    return ImmutableList.copyOf(Files.readAllLines(output.toPath(), StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,74 @@
+package contractorj.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+
+public class CancellableWatchdogTest {
+
+  private static final String LONG_COMMAND = "sleep 60";
+
+  private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+
+  @After
+  public void shutDown() {
+
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void testCancellingKillsTheRunningProcess() throws Exception {
+
+    final CancellableWatchdog watchdog = new CancellableWatchdog();
+    final Future<String> run = runInBackground(LONG_COMMAND, watchdog);
+
+    // Let the process start
+    Thread.sleep(500);
+    watchdog.cancel();
+
+    assertKilled(run);
+  }
+
+  @Test
+  public void testCancellingBeforeTheStartKillsTheProcessOnceStarted() throws Exception {
+
+    final CancellableWatchdog watchdog = new CancellableWatchdog();
+    watchdog.cancel();
+
+    assertKilled(runInBackground(LONG_COMMAND, watchdog));
+  }
+
+  @Test
+  public void testCancellingAFinishedProcessHasNoEffect() throws Exception {
+
+    final CancellableWatchdog watchdog = new CancellableWatchdog();
+
+    assertEquals("done\n", CommandsRunner.runtAndReturnOutput("echo done", false, watchdog));
+
+    watchdog.cancel();
+  }
+
+  private Future<String> runInBackground(final String command, final CancellableWatchdog watchdog) {
+
+    return executorService.submit(
+        () -> CommandsRunner.runtAndReturnOutput(command, false, watchdog));
+  }
+
+  private static void assertKilled(final Future<String> run) throws Exception {
+
+    try {
+      run.get(10, TimeUnit.SECONDS);
+      fail("The killed process shouldn't finish normally");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof RuntimeException);
+    }
+  }
+}
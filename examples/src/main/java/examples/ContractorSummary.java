@@ -0,0 +1,18 @@
+package examples;
+
+/**
+ * Replaces the body of the method by a contract when translating it. The clauses are Boogie,
+ * over the translated program: {@code $this}, {@code param00}, {@code param01}... for the
+ * arguments, {@code r} for the result, {@code $Heap} and {@code $Exception}. The modified
+ * instance fields are named like {@code examples.Foo#field}, and everything else in modifies is a
+ * global variable, like a static field. A method that throws or allocates modifies
+ * {@code $Exception} or {@code $Alloc}, and the summary is validated against the body.
+ */
+public @interface ContractorSummary {
+
+    String[] requires() default {};
+
+    String[] ensures() default {};
+
+    String[] modifies() default {};
+}
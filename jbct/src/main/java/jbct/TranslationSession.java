@@ -0,0 +1,158 @@
+package jbct;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import jbct.library.ModelLibrary;
+import jbct.model.AbstractMethod;
+import jbct.model.BasicBlock;
+import jbct.model.Class;
+import jbct.model.ExternalMethod;
+import jbct.model.LocalMethod;
+import jbct.model.RealConstants;
+import jbct.soot.JbctTransformer;
+import jbct.summary.MethodSummary;
+import soot.G;
+import soot.SootClass;
+import soot.toolkits.graph.Block;
+
+/**
+ * The state of a translation: the model of the translated classes, the transformer and Soot's
+ * scene. Closing the session releases all of it, so one JVM can translate many classpaths. The
+ * model and the translators reach the session through the classes they translate, so sessions
+ * don't interfere with each other.
+ *
+ * <p>Soot keeps its scene in global state, so only one session can run Soot and keep a model built
+ * from its scene at a time: a session waits in {@link #activate()} until the one using Soot is
+ * closed. Translations loaded from the cache don't need Soot, and their sessions never wait.
+ */
+public class TranslationSession implements AutoCloseable {
+
+  private static final Semaphore sootPermit = new Semaphore(1);
+
+  private final Map<SootClass, Class> classes = new ConcurrentHashMap<>();
+
+  private final Map<String, LocalMethod> localMethods = new ConcurrentHashMap<>();
+
+  private final Map<String, AbstractMethod> abstractMethods = new ConcurrentHashMap<>();
+
+  private final Map<Block, BasicBlock> basicBlocks = new ConcurrentHashMap<>();
+
+  private final Set<ExternalMethod> nonDeterministicExternalMethods =
+      ConcurrentHashMap.newKeySet();
+
+  private final RealConstants realConstants = new RealConstants();
+
+  private final Map<String, MethodSummary> summaries = new ConcurrentHashMap<>();
+
+  private final JbctTransformer transformer = new JbctTransformer(this);
+
+  private ModelLibrary modelLibrary = ModelLibrary.getBundled();
+
+  private boolean isActive = false;
+
+  private boolean isClosed = false;
+
+  /** Makes this the session that uses Soot, waiting until the one using it is closed. */
+  public synchronized void activate() {
+
+    if (isClosed) {
+      throw new IllegalStateException("The translation session is closed");
+    }
+
+    if (isActive) {
+      return;
+    }
+
+    try {
+      sootPermit.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+
+    isActive = true;
+  }
+
+  /**
+   * Releases the model and, if the session is active, Soot's global state. The analyses of the
+   * transformer are kept.
+   */
+  @Override
+  public synchronized void close() {
+
+    if (isClosed) {
+      return;
+    }
+
+    isClosed = true;
+
+    classes.clear();
+    localMethods.clear();
+    abstractMethods.clear();
+    basicBlocks.clear();
+    nonDeterministicExternalMethods.clear();
+    summaries.clear();
+    transformer.releaseModel();
+
+    if (isActive) {
+      G.reset();
+      isActive = false;
+      sootPermit.release();
+    }
+  }
+
+  public Map<SootClass, Class> getClasses() {
+
+    return classes;
+  }
+
+  public Map<String, LocalMethod> getLocalMethods() {
+
+    return localMethods;
+  }
+
+  public Map<String, AbstractMethod> getAbstractMethods() {
+
+    return abstractMethods;
+  }
+
+  public Map<Block, BasicBlock> getBasicBlocks() {
+
+    return basicBlocks;
+  }
+
+  /** @return The external methods declared as non deterministic procedures. */
+  public Set<ExternalMethod> getNonDeterministicExternalMethods() {
+
+    return nonDeterministicExternalMethods;
+  }
+
+  public RealConstants getRealConstants() {
+
+    return realConstants;
+  }
+
+  /** @return The summaries translated instead of the bodies of methods, by translated name. */
+  public Map<String, MethodSummary> getSummaries() {
+
+    return summaries;
+  }
+
+  public JbctTransformer getTransformer() {
+
+    return transformer;
+  }
+
+  /** @return The models of the JDK classes used instead of their bodies. */
+  public ModelLibrary getModelLibrary() {
+
+    return modelLibrary;
+  }
+
+  public void setModelLibrary(ModelLibrary modelLibrary) {
+
+    this.modelLibrary = modelLibrary;
+  }
+}
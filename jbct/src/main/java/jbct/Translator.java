@@ -1,33 +1,187 @@
 package jbct;
 
+import com.google.common.base.Splitter;
 import com.google.common.collect.Lists;
 
+import com.google.common.io.CharStreams;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import jbct.cache.TranslationCache;
+import jbct.analysis.ExceptionAnalysis;
+import jbct.analysis.FieldAccessAnalysis;
+import jbct.analysis.PathSummaryAnalysis;
+import jbct.analysis.ReturnValueAnalysis;
+import jbct.exceptions.UnsupportedTypeException;
+import jbct.library.ModelLibrary;
 import jbct.model.Class;
+import jbct.model.DetachedClass;
+import jbct.model.DetachedTranslation;
 import jbct.soot.JbctTransformer;
+import jbct.summary.SummaryFile;
 import soot.Pack;
 import soot.PackManager;
 import soot.Transform;
 
-public class Translator {
+public class Translator implements AutoCloseable {
+
+  private final TranslationSession session;
+
+  private File cacheDirectory;
+
+  private String targetClass;
+
+  private File summaryFile;
+
+  /** The translation once it doesn't depend on Soot, loaded from the cache or detached. */
+  private DetachedTranslation detachedTranslation;
+
+  private boolean loadedFromCache = false;
+
+  /** The file the translation was rendered to, deleted when the translator is closed. */
+  private Path renderedTranslation;
+
+  /** Translates in a new session, which is released when the translator is closed. */
+  public Translator() {
+
+    this(new TranslationSession());
+  }
+
+  public Translator(TranslationSession session) {
+
+    this.session = session;
+  }
+
+  /**
+   * Sets the directory where translations are cached. When the classpath, the rt.jar and the
+   * translator haven't changed, the translation is loaded from it and Soot isn't run, so the
+   * analyses of the bodies are empty and answer conservatively.
+   */
+  public void setCacheDirectory(File cacheDirectory) {
+
+    this.cacheDirectory = cacheDirectory;
+  }
+
+  /**
+   * Translates only the class and what it transitively references, instead of every class in the
+   * classpath. The classpath can then have many entries, and jars. Classes of the classpath the
+   * target doesn't reference aren't loaded, and the JDK classes are only resolved up to their
+   * signatures, or as phantom classes when they are missing.
+   *
+   * @param className The qualified name of the class.
+   */
+  public void setTargetClass(String className) {
+
+    this.targetClass = className;
+  }
+
+  /**
+   * Sets a file with summaries of methods, which are translated as their summaries instead of their
+   * bodies. They replace the summaries given with the {@code ContractorSummary} annotation.
+   *
+   * @see SummaryFile
+   */
+  public void setSummaryFile(File summaryFile) {
+
+    this.summaryFile = summaryFile;
+  }
+
+  /** Sets the models of JDK classes the translation uses instead of their bodies. */
+  public void setModelLibrary(ModelLibrary modelLibrary) {
+
+    session.setModelLibrary(modelLibrary);
+  }
+
+  /** @return Whether the translation was loaded from the cache. */
+  public boolean isCachedTranslation() {
+
+    return loadedFromCache;
+  }
+
+  /**
+   * Keeps a copy of the translation and of the signatures of the translated classes, and releases
+   * Soot's scene and the model built from it. The analyses of the bodies are kept. Afterwards the
+   * translator only answers with the copy, so the exploration doesn't hold the scene in memory.
+   *
+   * @return Whether Soot was released. It isn't if a method signature can't be copied.
+   */
+  public boolean releaseSoot() {
+
+    if (detachedTranslation != null) {
+      return true;
+    }
+
+    final JbctTransformer transformer = session.getTransformer();
+
+    try {
+      detachedTranslation =
+          new DetachedTranslation(
+              getTranslationFile(),
+              transformer
+                  .getApplicationClasses()
+                  .stream()
+                  .map(DetachedClass::of)
+                  .collect(Collectors.toList()),
+              transformer.getSummarizedMethods());
+    } catch (UnsupportedTypeException e) {
+      return false;
+    }
+
+    session.close();
+
+    return true;
+  }
 
   /**
-   * Translates all the classes in the class path.
+   * Translates all the classes in the class path, or only the target class and what it references
+   * if one was set.
    *
-   * @param classPath The classpath
+   * @param classPath The classpath: a single directory, or, with a target class, directories and
+   *     jars separated by {@link File#pathSeparator}.
    * @param pathToRrJar The path to the rt.jar lib.
    * @see <a
    *     href="http://docs.oracle.com/javase/7/docs/technotes/tools/solaris/jdkfiles.html#jdk1.7.0_lib">rt.jar</a>
    */
   public void translate(String classPath, final File pathToRrJar, final boolean dumpJimple) {
 
-    if (classPath.contains(":") || classPath.contains(".jar")) {
+    final List<Path> classPathEntries = getClassPathEntries(classPath);
+
+    if (targetClass == null
+        && (classPathEntries.size() != 1 || !Files.isDirectory(classPathEntries.get(0)))) {
       throw new UnsupportedOperationException(
-          "JBCT only supports a single directory as classpath.");
+          "JBCT only supports a single directory as classpath when there's no target class.");
     }
 
+    final Optional<String> cacheKey =
+        cacheDirectory == null || dumpJimple
+            ? Optional.empty()
+            : Optional.of(computeCacheKey(classPathEntries, pathToRrJar));
+
+    if (cacheKey.isPresent()) {
+
+      detachedTranslation = loadCachedTranslation(cacheKey.get()).orElse(null);
+
+      if (detachedTranslation != null) {
+        loadedFromCache = true;
+        return;
+      }
+    }
+
+    if (summaryFile != null) {
+      try {
+        session.getSummaries().putAll(SummaryFile.load(summaryFile.toPath()));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    session.activate();
+
     final PrintStream originalOut = System.out;
     final PrintStream originalErr = System.err;
 
@@ -41,7 +195,7 @@ public class Translator {
 
       Pack pack = PackManager.v().getPack("jtp");
 
-      pack.add(new Transform("jtp.bpl", JbctTransformer.getInstance()));
+      pack.add(new Transform("jtp.bpl", session.getTransformer()));
 
       final String completeClassPath = pathToRrJar.getAbsolutePath() + File.pathSeparator + classPath;
 
@@ -54,11 +208,21 @@ public class Translator {
               "-cp",
               completeClassPath,
               "-f",
-              "jimple",
+              // The translation is made by the jtp.bpl transform, Soot's output isn't used
+              dumpJimple ? "jimple" : "n",
               "-src-prec",
-              "class",
-              "-process-path",
-              classPath);
+              "class");
+
+      if (targetClass == null) {
+        args.add("-process-path");
+        args.add(classPath);
+      } else {
+        // The target is the only argument class, and in application mode the classes it
+        // references become application classes too, except the excluded JDK packages
+        args.add("-app");
+        args.add("-no-bodies-for-excluded");
+        args.add(targetClass);
+      }
 
       if (dumpJimple) {
         args.add("-d");
@@ -78,15 +242,199 @@ public class Translator {
       System.setOut(originalOut);
       System.setErr(originalErr);
     }
+
+    cacheKey.ifPresent(this::saveTranslation);
+  }
+
+  private static List<Path> getClassPathEntries(String classPath) {
+
+    final List<Path> entries =
+        Splitter.on(File.pathSeparator)
+            .omitEmptyStrings()
+            .splitToList(classPath)
+            .stream()
+            .map(Paths::get)
+            .collect(Collectors.toList());
+
+    if (entries.isEmpty()) {
+      throw new IllegalArgumentException("The classpath is empty");
+    }
+
+    for (Path entry : entries) {
+      if (!Files.exists(entry)) {
+        throw new IllegalArgumentException("Can't find " + entry + " of the classpath");
+      }
+    }
+
+    return entries;
+  }
+
+  private String computeCacheKey(List<Path> classPath, File pathToRtJar) {
+
+    try {
+      return TranslationCache.computeKey(
+          classPath,
+          pathToRtJar.toPath(),
+          Optional.ofNullable(targetClass),
+          session.getModelLibrary(),
+          Optional.ofNullable(summaryFile).map(File::toPath));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private Optional<DetachedTranslation> loadCachedTranslation(String key) {
+
+    try {
+      return new TranslationCache(cacheDirectory.toPath()).load(key);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void saveTranslation(String key) {
+
+    final JbctTransformer transformer = session.getTransformer();
+
+    try {
+      new TranslationCache(cacheDirectory.toPath())
+          .save(
+              key,
+              getTranslationFile(),
+              transformer.getApplicationClasses(),
+              transformer.getSummarizedMethods());
+    } catch (UnsupportedTypeException e) {
+      // A method signature can't be translated, so the translation isn't cached
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
   }
 
   public Optional<Class> getTranslatedClass(String className) {
 
-    return JbctTransformer.getInstance().getClass(className);
+    if (detachedTranslation != null) {
+      return detachedTranslation
+          .getClasses()
+          .stream()
+          .filter(aClass -> aClass.getQualifiedJavaName().equals(className))
+          .map(aClass -> (Class) aClass)
+          .findFirst();
+    }
+
+    return session.getTransformer().getClass(className);
+  }
+
+  /**
+   * @return The translated names of the methods translated as their summaries. Each has a
+   *     validation procedure, named by {@link jbct.summary.MethodSummary#getValidationName}, that
+   *     fails when the body doesn't satisfy the summary.
+   */
+  public List<String> getSummarizedMethods() {
+
+    if (detachedTranslation != null) {
+      return detachedTranslation.getSummarizedMethods();
+    }
+
+    return session.getTransformer().getSummarizedMethods();
   }
 
+  /**
+   * @return A file with the translation. It is rendered once, the first time it is asked for, and
+   *     is the same file the cached or detached translation is read from.
+   */
+  public Path getTranslationFile() {
+
+    if (detachedTranslation != null) {
+      return detachedTranslation.getTranslationFile();
+    }
+
+    if (renderedTranslation == null) {
+      try {
+        final Path file = Files.createTempFile("translation-", ".bpl");
+        file.toFile().deleteOnExit();
+
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+          session.getTransformer().writeTranslation(writer);
+        }
+
+        renderedTranslation = file;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    return renderedTranslation;
+  }
+
+  /** @return The translation in memory. Prefer {@link #getTranslationFile()} for big programs. */
   public String getTranslation() {
 
-    return JbctTransformer.getInstance().getTranslation();
+    if (detachedTranslation != null) {
+      return detachedTranslation.getTranslation();
+    }
+
+    return session.getTransformer().getTranslation();
+  }
+
+  /** Sets how many threads render the procedures of the translation. */
+  public void setNumberOfThreads(int numberOfThreads) {
+
+    session.getTransformer().setNumberOfThreads(numberOfThreads);
+  }
+
+  /** Writes the translation to the writer, without keeping it in memory. */
+  public void writeTranslation(Writer writer) {
+
+    if (detachedTranslation != null) {
+      final Path file = detachedTranslation.getTranslationFile();
+
+      try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+        CharStreams.copy(reader, writer);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return;
+    }
+
+    session.getTransformer().writeTranslation(writer);
+  }
+
+  /** @return The read and write sets of the translated methods. */
+  public FieldAccessAnalysis getFieldAccessAnalysis() {
+
+    return session.getTransformer().getFieldAccessAnalysis();
+  }
+
+  /** @return Which translated methods may raise exceptions. */
+  public ExceptionAnalysis getExceptionAnalysis() {
+
+    return session.getTransformer().getExceptionAnalysis();
+  }
+
+  /** @return The values the translated methods may return. */
+  public ReturnValueAnalysis getReturnValueAnalysis() {
+
+    return session.getTransformer().getReturnValueAnalysis();
+  }
+
+  /** Releases the translation, and Soot if this translator used it. */
+  @Override
+  public void close() {
+
+    session.close();
+
+    if (renderedTranslation != null) {
+      try {
+        Files.deleteIfExists(renderedTranslation);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  /** @return The paths of the translated methods simple enough to be executed symbolically. */
+  public PathSummaryAnalysis getPathSummaryAnalysis() {
+
+    return session.getTransformer().getPathSummaryAnalysis();
   }
 }
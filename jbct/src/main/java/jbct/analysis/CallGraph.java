@@ -0,0 +1,58 @@
+package jbct.analysis;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The methods each translated method may call, as they are called in the translation. Methods are
+ * identified by their translated names.
+ */
+public class CallGraph {
+
+  private final Map<String, Set<String>> callees = new ConcurrentHashMap<>();
+
+  public void addMethod(final String method) {
+
+    callees.computeIfAbsent(method, name -> ConcurrentHashMap.newKeySet());
+  }
+
+  public void addCall(final String caller, final String callee) {
+
+    callees.computeIfAbsent(caller, name -> ConcurrentHashMap.newKeySet()).add(callee);
+  }
+
+  public boolean contains(final String method) {
+
+    return callees.containsKey(method);
+  }
+
+  public Set<String> getCallees(final String method) {
+
+    return Collections.unmodifiableSet(callees.getOrDefault(method, Collections.emptySet()));
+  }
+
+  /** @return The given method and every method it may call, directly or transitively. */
+  public Set<String> getReachableMethods(final String method) {
+
+    final Set<String> reachable = new HashSet<>();
+    final Deque<String> pending = new ArrayDeque<>();
+
+    pending.push(method);
+
+    while (!pending.isEmpty()) {
+
+      final String current = pending.pop();
+
+      if (reachable.add(current)) {
+        getCallees(current).forEach(pending::push);
+      }
+    }
+
+    return reachable;
+  }
+}
@@ -0,0 +1,45 @@
+package jbct.analysis;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Conservative exception-escape analysis of the translated methods. A method may raise an exception
+ * if its own body may set {@code $Exception}, or if any method it may call does.
+ */
+public class ExceptionAnalysis {
+
+  private final CallGraph callGraph;
+
+  private final Map<String, Boolean> mayThrowLocally = new ConcurrentHashMap<>();
+
+  private final Map<String, Boolean> mayThrow = new ConcurrentHashMap<>();
+
+  public ExceptionAnalysis(final CallGraph callGraph) {
+
+    this.callGraph = callGraph;
+  }
+
+  /** Records if a method's own body, without its callees, may raise an exception. */
+  public void addLocalFact(final String method, final boolean mayThrowLocally) {
+
+    callGraph.addMethod(method);
+    this.mayThrowLocally.put(method, mayThrowLocally);
+    mayThrow.clear();
+  }
+
+  /**
+   * @return false only if neither the method nor any method it may call can raise an exception.
+   *     Methods that weren't analyzed may raise any exception.
+   */
+  public boolean mayThrow(final String method) {
+
+    return mayThrow.computeIfAbsent(
+        method,
+        name ->
+            callGraph
+                .getReachableMethods(name)
+                .stream()
+                .anyMatch(reachable -> mayThrowLocally.getOrDefault(reachable, true)));
+  }
+}
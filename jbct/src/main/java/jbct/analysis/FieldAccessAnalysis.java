@@ -0,0 +1,66 @@
+package jbct.analysis;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interprocedural read and write sets of the translated methods. The accesses of a method are its
+ * own accesses plus the ones of every method it may call.
+ *
+ * <p>Local accesses are collected while the bodies are loaded, the interprocedural ones are
+ * computed on demand once the whole call graph is known.
+ */
+public class FieldAccessAnalysis {
+
+  public static final String ARRAY_CONTENTS = "$ArrayContents";
+
+  public static final String ALLOC = "$Alloc";
+
+  public static final String COLLECTION_LENGTH = "$CollectionLength";
+
+  private final CallGraph callGraph;
+
+  private final Map<String, FieldAccesses> localAccesses = new ConcurrentHashMap<>();
+
+  private final Map<String, FieldAccesses> accesses = new ConcurrentHashMap<>();
+
+  public FieldAccessAnalysis(final CallGraph callGraph) {
+
+    this.callGraph = callGraph;
+  }
+
+  /** Records the accesses a method makes in its own body, without the ones of its callees. */
+  public void addLocalAccesses(final String method, final FieldAccesses fieldAccesses) {
+
+    callGraph.addMethod(method);
+    localAccesses.put(method, fieldAccesses);
+    accesses.clear();
+  }
+
+  /**
+   * @return The accesses of the method and its callees. If any of them wasn't analyzed, it may
+   *     access anything.
+   */
+  public FieldAccesses getAccesses(final String method) {
+
+    return accesses.computeIfAbsent(method, this::computeAccesses);
+  }
+
+  private FieldAccesses computeAccesses(final String method) {
+
+    FieldAccesses result = FieldAccesses.NONE;
+
+    for (final String reachable : callGraph.getReachableMethods(method)) {
+
+      final FieldAccesses local = localAccesses.get(reachable);
+
+      if (local == null) {
+        return FieldAccesses.UNKNOWN;
+      }
+
+      result = result.union(local);
+    }
+
+    return result;
+  }
+}
@@ -0,0 +1,103 @@
+package jbct.analysis;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import java.util.Set;
+
+/**
+ * The global state a method may read and write. Instance and static fields are identified by their
+ * translated names, the rest of the global state by the name of its Boogie variable (for example
+ * {@code $ArrayContents}).
+ *
+ * <p>A method whose result depends on something else than the global state, as the non
+ * deterministic result of an external method, reads unknown state.
+ */
+public class FieldAccesses {
+
+  public static final FieldAccesses NONE =
+      new FieldAccesses(ImmutableSet.of(), ImmutableSet.of(), false, false);
+
+  public static final FieldAccesses UNKNOWN =
+      new FieldAccesses(ImmutableSet.of(), ImmutableSet.of(), true, true);
+
+  /** Methods without body can't modify the global state, but their results are arbitrary. */
+  public static final FieldAccesses BODYLESS =
+      new FieldAccesses(ImmutableSet.of(), ImmutableSet.of(), true, false);
+
+  private final Set<String> reads;
+
+  private final Set<String> writes;
+
+  private final boolean readsUnknownState;
+
+  private final boolean writesUnknownState;
+
+  public FieldAccesses(
+      final Set<String> reads,
+      final Set<String> writes,
+      final boolean readsUnknownState,
+      final boolean writesUnknownState) {
+
+    this.reads = ImmutableSet.copyOf(reads);
+    this.writes = ImmutableSet.copyOf(writes);
+    this.readsUnknownState = readsUnknownState;
+    this.writesUnknownState = writesUnknownState;
+  }
+
+  public Set<String> getReads() {
+
+    return reads;
+  }
+
+  public Set<String> getWrites() {
+
+    return writes;
+  }
+
+  public boolean readsUnknownState() {
+
+    return readsUnknownState;
+  }
+
+  public boolean writesUnknownState() {
+
+    return writesUnknownState;
+  }
+
+  public FieldAccesses union(final FieldAccesses other) {
+
+    return new FieldAccesses(
+        Sets.union(reads, other.reads),
+        Sets.union(writes, other.writes),
+        readsUnknownState || other.readsUnknownState,
+        writesUnknownState || other.writesUnknownState);
+  }
+
+  /**
+   * @return false if running a method with these accesses can't change the result of a method
+   *     that reads what {@code reader} reads.
+   */
+  public boolean mayAffect(final FieldAccesses reader) {
+
+    if (reader.readsUnknownState) {
+      return true;
+    }
+
+    if (writesUnknownState) {
+      return !reader.reads.isEmpty();
+    }
+
+    return !Sets.intersection(writes, reader.reads).isEmpty();
+  }
+
+  @Override
+  public String toString() {
+
+    return "FieldAccesses{"
+        + "reads="
+        + (readsUnknownState ? "?" : reads)
+        + ", writes="
+        + (writesUnknownState ? "?" : writes)
+        + '}';
+  }
+}
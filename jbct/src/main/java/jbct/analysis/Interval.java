@@ -0,0 +1,228 @@
+package jbct.analysis;
+
+import java.util.Objects;
+
+/**
+ * A range of integer values, the abstract domain of {@link ReturnValueAnalysis}. Booleans are
+ * represented as in Jimple, by 0 and 1.
+ *
+ * <p>The translation maps Java ints and longs to Boogie's unbounded integers, so arithmetic is
+ * exact and never wraps around, and a value nothing is known about is not limited to the range of
+ * any Java type. Either bound may be infinite. Bounds that would not fit in a long are widened to
+ * infinity, so the domain stays sound without arbitrary precision.
+ */
+public class Interval {
+
+  private static final long NEGATIVE_INFINITY = Long.MIN_VALUE;
+
+  private static final long POSITIVE_INFINITY = Long.MAX_VALUE;
+
+  /** Any value, without bounds. */
+  public static final Interval TOP = new Interval(NEGATIVE_INFINITY, POSITIVE_INFINITY);
+
+  public static final Interval BOOLEAN = new Interval(0, 1);
+
+  private final long lowerBound;
+
+  private final long upperBound;
+
+  private Interval(final long lowerBound, final long upperBound) {
+
+    this.lowerBound = lowerBound;
+    this.upperBound = upperBound;
+  }
+
+  /**
+   * @param lowerBound The smallest value, {@link Long#MIN_VALUE} meaning that there is no lower
+   *     bound.
+   * @param upperBound The largest value, {@link Long#MAX_VALUE} meaning that there is no upper
+   *     bound.
+   */
+  public static Interval of(final long lowerBound, final long upperBound) {
+
+    if (lowerBound > upperBound) {
+      throw new IllegalArgumentException("Empty interval [" + lowerBound + ", " + upperBound + "]");
+    }
+
+    // A finite value that coincides with an infinity is widened past it, which stays sound
+    return new Interval(
+        lowerBound == POSITIVE_INFINITY ? POSITIVE_INFINITY - 1 : lowerBound,
+        upperBound == NEGATIVE_INFINITY ? NEGATIVE_INFINITY + 1 : upperBound);
+  }
+
+  public static Interval constant(final long value) {
+
+    return of(value, value);
+  }
+
+  /** @return false if the values are unbounded from below. */
+  public boolean hasLowerBound() {
+
+    return lowerBound != NEGATIVE_INFINITY;
+  }
+
+  /** @return false if the values are unbounded from above. */
+  public boolean hasUpperBound() {
+
+    return upperBound != POSITIVE_INFINITY;
+  }
+
+  /** @return The lower bound, or {@link Long#MIN_VALUE} if there is none. */
+  public long getLowerBound() {
+
+    return lowerBound;
+  }
+
+  /** @return The upper bound, or {@link Long#MAX_VALUE} if there is none. */
+  public long getUpperBound() {
+
+    return upperBound;
+  }
+
+  public boolean isConstant() {
+
+    return lowerBound == upperBound;
+  }
+
+  public boolean isTop() {
+
+    return equals(TOP);
+  }
+
+  public Interval join(final Interval other) {
+
+    return of(Math.min(lowerBound, other.lowerBound), Math.max(upperBound, other.upperBound));
+  }
+
+  public Interval add(final Interval other) {
+
+    return of(add(lowerBound, other.lowerBound), add(upperBound, other.upperBound));
+  }
+
+  public Interval subtract(final Interval other) {
+
+    return add(other.negate());
+  }
+
+  public Interval multiply(final Interval other) {
+
+    final long a = multiply(lowerBound, other.lowerBound);
+    final long b = multiply(lowerBound, other.upperBound);
+    final long c = multiply(upperBound, other.lowerBound);
+    final long d = multiply(upperBound, other.upperBound);
+
+    return of(Math.min(Math.min(a, b), Math.min(c, d)), Math.max(Math.max(a, b), Math.max(c, d)));
+  }
+
+  public Interval negate() {
+
+    return of(negate(upperBound), negate(lowerBound));
+  }
+
+  /** @return The result of comparing the values of both intervals, as -1, 0 or 1. */
+  public Interval compare(final Interval other) {
+
+    if (upperBound < other.lowerBound) {
+      return constant(-1);
+    }
+
+    if (lowerBound > other.upperBound) {
+      return constant(1);
+    }
+
+    if (isConstant() && equals(other)) {
+      return constant(0);
+    }
+
+    return of(lowerBound >= other.upperBound ? 0 : -1, upperBound <= other.lowerBound ? 0 : 1);
+  }
+
+  /** Adds two bounds of the same side, so they can't be infinities of different signs. */
+  private static long add(final long a, final long b) {
+
+    if (isInfinite(a)) {
+      return a;
+    }
+
+    if (isInfinite(b)) {
+      return b;
+    }
+
+    try {
+      return Math.addExact(a, b);
+    } catch (ArithmeticException e) {
+      // Both have the sign of the overflow
+      return a > 0 ? POSITIVE_INFINITY : NEGATIVE_INFINITY;
+    }
+  }
+
+  /** Multiplies two bounds. Zero times an infinity is zero, as the bound of an interval. */
+  private static long multiply(final long a, final long b) {
+
+    if (a == 0 || b == 0) {
+      return 0;
+    }
+
+    final long infinity = (a < 0) == (b < 0) ? POSITIVE_INFINITY : NEGATIVE_INFINITY;
+
+    if (isInfinite(a) || isInfinite(b)) {
+      return infinity;
+    }
+
+    try {
+      return Math.multiplyExact(a, b);
+    } catch (ArithmeticException e) {
+      return infinity;
+    }
+  }
+
+  private static long negate(final long bound) {
+
+    if (bound == NEGATIVE_INFINITY) {
+      return POSITIVE_INFINITY;
+    }
+
+    if (bound == POSITIVE_INFINITY) {
+      return NEGATIVE_INFINITY;
+    }
+
+    return -bound;
+  }
+
+  private static boolean isInfinite(final long bound) {
+
+    return bound == NEGATIVE_INFINITY || bound == POSITIVE_INFINITY;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+
+    if (this == o) {
+      return true;
+    }
+
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+
+    final Interval interval = (Interval) o;
+
+    return lowerBound == interval.lowerBound && upperBound == interval.upperBound;
+  }
+
+  @Override
+  public int hashCode() {
+
+    return Objects.hash(lowerBound, upperBound);
+  }
+
+  @Override
+  public String toString() {
+
+    return "["
+        + (hasLowerBound() ? String.valueOf(lowerBound) : "-inf")
+        + ", "
+        + (hasUpperBound() ? String.valueOf(upperBound) : "+inf")
+        + "]";
+  }
+}
@@ -0,0 +1,129 @@
+package jbct.analysis;
+
+import java.util.Map;
+import java.util.Objects;
+
+/** A comparison of a {@link LinearExpression} against 0. */
+public class LinearConstraint {
+
+  public enum Relation {
+    EQUAL("=="),
+    NOT_EQUAL("!="),
+    LESS_OR_EQUAL("<=");
+
+    private final String symbol;
+
+    Relation(final String symbol) {
+
+      this.symbol = symbol;
+    }
+  }
+
+  private final LinearExpression expression;
+
+  private final Relation relation;
+
+  public LinearConstraint(final LinearExpression expression, final Relation relation) {
+
+    this.expression = expression;
+    this.relation = relation;
+  }
+
+  public static LinearConstraint equal(final LinearExpression left, final LinearExpression right) {
+
+    return new LinearConstraint(left.subtract(right), Relation.EQUAL);
+  }
+
+  public static LinearConstraint notEqual(
+      final LinearExpression left, final LinearExpression right) {
+
+    return new LinearConstraint(left.subtract(right), Relation.NOT_EQUAL);
+  }
+
+  public static LinearConstraint lessOrEqual(
+      final LinearExpression left, final LinearExpression right) {
+
+    return new LinearConstraint(left.subtract(right), Relation.LESS_OR_EQUAL);
+  }
+
+  /** Symbols are integers, so {@code left < right} is {@code left - right + 1 <= 0}. */
+  public static LinearConstraint lessThan(
+      final LinearExpression left, final LinearExpression right) {
+
+    return new LinearConstraint(
+        left.subtract(right).add(LinearExpression.constant(1)), Relation.LESS_OR_EQUAL);
+  }
+
+  public LinearExpression getExpression() {
+
+    return expression;
+  }
+
+  public Relation getRelation() {
+
+    return relation;
+  }
+
+  public LinearConstraint negate() {
+
+    switch (relation) {
+      case EQUAL:
+        return new LinearConstraint(expression, Relation.NOT_EQUAL);
+
+      case NOT_EQUAL:
+        return new LinearConstraint(expression, Relation.EQUAL);
+
+      default:
+        return lessThan(LinearExpression.constant(0), expression);
+    }
+  }
+
+  public LinearConstraint substitute(final Map<String, LinearExpression> substitution) {
+
+    return new LinearConstraint(expression.substitute(substitution), relation);
+  }
+
+  public boolean holds(final Map<String, Long> model) {
+
+    final long value = expression.evaluate(model);
+
+    switch (relation) {
+      case EQUAL:
+        return value == 0;
+
+      case NOT_EQUAL:
+        return value != 0;
+
+      default:
+        return value <= 0;
+    }
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+
+    if (this == o) {
+      return true;
+    }
+
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+
+    final LinearConstraint that = (LinearConstraint) o;
+
+    return expression.equals(that.expression) && relation == that.relation;
+  }
+
+  @Override
+  public int hashCode() {
+
+    return Objects.hash(expression, relation);
+  }
+
+  @Override
+  public String toString() {
+
+    return expression + " " + relation.symbol + " 0";
+  }
+}
@@ -0,0 +1,171 @@
+package jbct.analysis;
+
+import com.google.common.collect.ImmutableSortedMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A linear combination of symbols with integer coefficients plus a constant. Booleans are
+ * represented as in Jimple, by 0 and 1, and references by arbitrary integers, with {@code null}
+ * being 0, so reference equality is integer equality.
+ *
+ * <p>Arithmetic is exact: operations whose coefficients overflow a long throw {@link
+ * ArithmeticException}.
+ */
+public class LinearExpression {
+
+  private final Map<String, Long> coefficients;
+
+  private final long constant;
+
+  private LinearExpression(final Map<String, Long> coefficients, final long constant) {
+
+    this.coefficients = ImmutableSortedMap.copyOf(coefficients);
+    this.constant = constant;
+  }
+
+  public static LinearExpression constant(final long value) {
+
+    return new LinearExpression(new TreeMap<>(), value);
+  }
+
+  public static LinearExpression symbol(final String name) {
+
+    final Map<String, Long> coefficients = new TreeMap<>();
+    coefficients.put(name, 1L);
+
+    return new LinearExpression(coefficients, 0);
+  }
+
+  public Map<String, Long> getCoefficients() {
+
+    return coefficients;
+  }
+
+  public long getCoefficient(final String symbol) {
+
+    return coefficients.getOrDefault(symbol, 0L);
+  }
+
+  public Set<String> getSymbols() {
+
+    return coefficients.keySet();
+  }
+
+  public long getConstant() {
+
+    return constant;
+  }
+
+  public boolean isConstant() {
+
+    return coefficients.isEmpty();
+  }
+
+  public LinearExpression add(final LinearExpression other) {
+
+    final Map<String, Long> sum = new TreeMap<>(coefficients);
+
+    for (final Map.Entry<String, Long> entry : other.coefficients.entrySet()) {
+
+      final long coefficient = Math.addExact(getCoefficient(entry.getKey()), entry.getValue());
+
+      if (coefficient == 0) {
+        sum.remove(entry.getKey());
+      } else {
+        sum.put(entry.getKey(), coefficient);
+      }
+    }
+
+    return new LinearExpression(sum, Math.addExact(constant, other.constant));
+  }
+
+  public LinearExpression subtract(final LinearExpression other) {
+
+    return add(other.negate());
+  }
+
+  public LinearExpression negate() {
+
+    return multiply(-1);
+  }
+
+  public LinearExpression multiply(final long factor) {
+
+    final Map<String, Long> product = new TreeMap<>();
+
+    if (factor != 0) {
+      for (final Map.Entry<String, Long> entry : coefficients.entrySet()) {
+        product.put(entry.getKey(), Math.multiplyExact(entry.getValue(), factor));
+      }
+    }
+
+    return new LinearExpression(product, Math.multiplyExact(constant, factor));
+  }
+
+  /** Replaces the symbols in {@code substitution} by their values, the rest are kept. */
+  public LinearExpression substitute(final Map<String, LinearExpression> substitution) {
+
+    LinearExpression result = constant(constant);
+
+    for (final Map.Entry<String, Long> entry : coefficients.entrySet()) {
+
+      final LinearExpression value =
+          substitution.getOrDefault(entry.getKey(), symbol(entry.getKey()));
+
+      result = result.add(value.multiply(entry.getValue()));
+    }
+
+    return result;
+  }
+
+  /** @return The value of the expression, symbols missing from the model being 0. */
+  public long evaluate(final Map<String, Long> model) {
+
+    long value = constant;
+
+    for (final Map.Entry<String, Long> entry : coefficients.entrySet()) {
+      value =
+          Math.addExact(
+              value, Math.multiplyExact(entry.getValue(), model.getOrDefault(entry.getKey(), 0L)));
+    }
+
+    return value;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+
+    if (this == o) {
+      return true;
+    }
+
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+
+    final LinearExpression that = (LinearExpression) o;
+
+    return constant == that.constant && coefficients.equals(that.coefficients);
+  }
+
+  @Override
+  public int hashCode() {
+
+    return Objects.hash(coefficients, constant);
+  }
+
+  @Override
+  public String toString() {
+
+    final StringBuilder stringBuilder = new StringBuilder();
+
+    for (final Map.Entry<String, Long> entry : coefficients.entrySet()) {
+      stringBuilder.append(entry.getValue()).append("*").append(entry.getKey()).append(" + ");
+    }
+
+    return stringBuilder.append(constant).toString();
+  }
+}
@@ -0,0 +1,67 @@
+package jbct.analysis;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+
+/**
+ * All the paths through the body of a method, in the symbols of its Boogie procedure.
+ *
+ * <p>The parameters are the symbols {@link #getParameterSymbol(int)} in the order of the
+ * procedure's parameters, so the receiver of an instance method is the first one. Fields are those
+ * of the receiver, and the value a field has when the method is called is the symbol {@link
+ * #getFieldSymbol(String)}. Results of external calls are fresh symbols, named with {@link
+ * #getFreshSymbol(int)}, that must be renamed each time the summary is instantiated.
+ */
+public class PathSummary {
+
+  private static final String PARAMETER_PREFIX = "$param";
+
+  private static final String FIELD_PREFIX = "$field:";
+
+  private static final String FRESH_PREFIX = "$fresh";
+
+  private final int numberOfParameters;
+
+  private final List<SymbolicPath> paths;
+
+  public PathSummary(final int numberOfParameters, final List<SymbolicPath> paths) {
+
+    this.numberOfParameters = numberOfParameters;
+    this.paths = ImmutableList.copyOf(paths);
+  }
+
+  public int getNumberOfParameters() {
+
+    return numberOfParameters;
+  }
+
+  public List<SymbolicPath> getPaths() {
+
+    return paths;
+  }
+
+  public static String getParameterSymbol(final int index) {
+
+    return PARAMETER_PREFIX + index;
+  }
+
+  public static String getFieldSymbol(final String translatedFieldName) {
+
+    return FIELD_PREFIX + translatedFieldName;
+  }
+
+  public static boolean isFieldSymbol(final String symbol) {
+
+    return symbol.startsWith(FIELD_PREFIX);
+  }
+
+  public static String getFreshSymbol(final int index) {
+
+    return FRESH_PREFIX + index;
+  }
+
+  public static boolean isFreshSymbol(final String symbol) {
+
+    return symbol.startsWith(FRESH_PREFIX);
+  }
+}
@@ -0,0 +1,26 @@
+package jbct.analysis;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Path summaries of the translated methods whose bodies fall in the fragment of linear integer,
+ * boolean and reference equality constraints over the receiver's fields and the parameters: bodies
+ * without loops, exception handlers, calls to other translated methods or non linear operations.
+ */
+public class PathSummaryAnalysis {
+
+  private final Map<String, PathSummary> summaries = new ConcurrentHashMap<>();
+
+  public void addSummary(final String method, final PathSummary summary) {
+
+    summaries.put(method, summary);
+  }
+
+  /** @return The paths of the method, if its body is in the fragment. */
+  public Optional<PathSummary> getSummary(final String method) {
+
+    return Optional.ofNullable(summaries.get(method));
+  }
+}
@@ -0,0 +1,43 @@
+package jbct.analysis;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The values the translated methods may return, as computed by an interval interpretation of each
+ * body on its own. Calls are not followed, so a method returning the result of a call returns any
+ * value.
+ */
+public class ReturnValueAnalysis {
+
+  private final Map<String, Interval> returnValues = new ConcurrentHashMap<>();
+
+  /** Records the values a method may return when it returns normally. */
+  public void addLocalFact(final String method, final Interval returnValue) {
+
+    returnValues.put(method, returnValue);
+  }
+
+  /** @return The values the method may return. Methods that weren't analyzed may return any. */
+  public Interval getReturnValue(final String method) {
+
+    return returnValues.getOrDefault(method, Interval.TOP);
+  }
+
+  /** @return The value of a boolean method, if it always returns the same one. */
+  public Optional<Boolean> getConstantBoolean(final String method) {
+
+    final Interval returnValue = getReturnValue(method);
+
+    if (returnValue.equals(Interval.constant(0))) {
+      return Optional.of(false);
+    }
+
+    if (returnValue.equals(Interval.constant(1))) {
+      return Optional.of(true);
+    }
+
+    return Optional.empty();
+  }
+}
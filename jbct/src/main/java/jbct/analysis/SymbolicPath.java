@@ -0,0 +1,58 @@
+package jbct.analysis;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * One path through the body of a method: the constraints its branches impose on the parameters and
+ * on the initial values of the receiver's fields, and its effect in terms of them.
+ */
+public class SymbolicPath {
+
+  private final List<LinearConstraint> constraints;
+
+  private final Map<String, LinearExpression> fieldValues;
+
+  private final Optional<LinearExpression> returnValue;
+
+  private final boolean raisesException;
+
+  /**
+   * @param fieldValues The final values of the fields the path writes, by translated field name.
+   * @param returnValue The returned value, empty for void methods and paths raising exceptions.
+   */
+  public SymbolicPath(
+      final List<LinearConstraint> constraints,
+      final Map<String, LinearExpression> fieldValues,
+      final Optional<LinearExpression> returnValue,
+      final boolean raisesException) {
+
+    this.constraints = ImmutableList.copyOf(constraints);
+    this.fieldValues = ImmutableMap.copyOf(fieldValues);
+    this.returnValue = returnValue;
+    this.raisesException = raisesException;
+  }
+
+  public List<LinearConstraint> getConstraints() {
+
+    return constraints;
+  }
+
+  public Map<String, LinearExpression> getFieldValues() {
+
+    return fieldValues;
+  }
+
+  public Optional<LinearExpression> getReturnValue() {
+
+    return returnValue;
+  }
+
+  public boolean raisesException() {
+
+    return raisesException;
+  }
+}
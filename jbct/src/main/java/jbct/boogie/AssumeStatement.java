@@ -0,0 +1,38 @@
+package jbct.boogie;
+
+/** {@code assume condition;} */
+public class AssumeStatement extends Statement {
+
+  private final Expression condition;
+
+  private AssumeStatement(final Expression condition) {
+
+    super(condition);
+    this.condition = condition;
+  }
+
+  public static AssumeStatement of(final Expression condition) {
+
+    return Nodes.intern(new AssumeStatement(condition));
+  }
+
+  public Expression getCondition() {
+
+    return condition;
+  }
+
+  @Override
+  public void print(final BoogiePrinter printer) {
+
+    printer.write("assume ").print(condition).write(";");
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+
+    return this == o
+        || (o instanceof AssumeStatement
+            && hashCode() == o.hashCode()
+            && condition.equals(((AssumeStatement) o).condition));
+  }
+}
@@ -0,0 +1,131 @@
+package jbct.boogie;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Prints nodes to a writer in a single pass. The indentation is added while copying, after each
+ * line break, so text isn't split and joined again at every nesting level.
+ */
+public class BoogiePrinter {
+
+  private static final String INDENTATION = "    ";
+
+  private final Writer writer;
+
+  private int depth = 0;
+
+  /** Whether the next character starts a line, which gets indented unless it's empty. */
+  private boolean atLineStart = false;
+
+  public BoogiePrinter(final Writer writer) {
+
+    this.writer = writer;
+  }
+
+  /** @return The text of the node, as printed from the beginning of a line. */
+  public static String toString(final Node node) {
+
+    final StringWriter stringWriter = new StringWriter();
+    new BoogiePrinter(stringWriter).print(node);
+
+    return stringWriter.toString();
+  }
+
+  public BoogiePrinter print(final Node node) {
+
+    node.print(this);
+    return this;
+  }
+
+  public BoogiePrinter printList(final List<? extends Node> nodes, final String separator) {
+
+    for (int i = 0; i < nodes.size(); i++) {
+
+      if (i > 0) {
+        write(separator);
+      }
+
+      print(nodes.get(i));
+    }
+
+    return this;
+  }
+
+  /** Writes the text, indenting each of its lines at the current depth. */
+  public BoogiePrinter write(final String text) {
+
+    try {
+
+      int start = 0;
+
+      while (start < text.length()) {
+
+        final int lineBreak = text.indexOf('\n', start);
+        final int end = lineBreak < 0 ? text.length() : lineBreak;
+
+        if (end > start) {
+          writeIndentationIfAtLineStart();
+          writer.write(text, start, end - start);
+        }
+
+        if (lineBreak < 0) {
+          break;
+        }
+
+        writer.write('\n');
+        atLineStart = true;
+        start = lineBreak + 1;
+      }
+
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    return this;
+  }
+
+  public BoogiePrinter newLine() {
+
+    return write("\n");
+  }
+
+  public BoogiePrinter indent() {
+
+    depth++;
+    return this;
+  }
+
+  public BoogiePrinter dedent() {
+
+    depth--;
+    return this;
+  }
+
+  public BoogiePrinter flush() {
+
+    try {
+      writer.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    return this;
+  }
+
+  private void writeIndentationIfAtLineStart() throws IOException {
+
+    if (!atLineStart) {
+      return;
+    }
+
+    for (int i = 0; i < depth; i++) {
+      writer.write(INDENTATION);
+    }
+
+    atLineStart = false;
+  }
+}
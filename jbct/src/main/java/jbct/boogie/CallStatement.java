@@ -0,0 +1,65 @@
+package jbct.boogie;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import java.util.Optional;
+
+/** {@code call result := procedure(arguments);}, or without the result. */
+public class CallStatement extends Statement {
+
+  private final Optional<String> result;
+
+  private final String procedure;
+
+  private final List<Expression> arguments;
+
+  private CallStatement(
+      final Optional<String> result, final String procedure, final List<Expression> arguments) {
+
+    super(result.orElse(null), procedure, arguments);
+    this.result = result;
+    this.procedure = procedure;
+    this.arguments = arguments;
+  }
+
+  public static CallStatement of(
+      final Optional<String> result, final String procedure, final List<Expression> arguments) {
+
+    return Nodes.intern(new CallStatement(result, procedure, ImmutableList.copyOf(arguments)));
+  }
+
+  public String getProcedure() {
+
+    return procedure;
+  }
+
+  public List<Expression> getArguments() {
+
+    return arguments;
+  }
+
+  @Override
+  public void print(final BoogiePrinter printer) {
+
+    printer.write("call ");
+    result.ifPresent(variable -> printer.write(variable).write(" := "));
+    printer.write(procedure).write("(").printList(arguments, ", ").write(");");
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+
+    if (this == o) {
+      return true;
+    }
+
+    if (!(o instanceof CallStatement) || hashCode() != o.hashCode()) {
+      return false;
+    }
+
+    final CallStatement that = (CallStatement) o;
+    return result.equals(that.result)
+        && procedure.equals(that.procedure)
+        && arguments.equals(that.arguments);
+  }
+}
@@ -0,0 +1,213 @@
+package jbct.boogie;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import jbct.exceptions.UndeclaredReferenceException;
+
+/**
+ * Checks that a Boogie program declares every procedure it calls and every field it writes. Boogie
+ * rejects the whole program otherwise, which is only noticed once the first query runs.
+ *
+ * <p>The program is checked line by line as it is written, skipping comments. Declarations can
+ * come after their uses.
+ */
+public class DeclarationCheck {
+
+  private static final Pattern PROCEDURE =
+      Pattern.compile("^\\s*procedure\\s+(?:\\{:[^}]*\\}\\s*)*([^\\s(]+)\\s*\\(");
+
+  private static final Pattern FIELD =
+      Pattern.compile("^\\s*const\\s+unique\\s+([^\\s:]+)\\s*:\\s*Field\\s*;");
+
+  private static final Pattern VARIABLE =
+      Pattern.compile("^\\s*var\\s+(?:\\{:[^}]*\\}\\s*)*([^\\s:]+)\\s*:");
+
+  private static final Pattern CALL =
+      Pattern.compile("\\bcall\\s+(?:[^;(]*?:=\\s*)?([^\\s(]+)\\s*\\(");
+
+  private static final Pattern INSTANCE_FIELD_WRITE =
+      Pattern.compile("\\bWrite\\(\\s*\\$Heap\\s*,[^,]+,\\s*([^\\s,]+)\\s*,");
+
+  /** Locals have no dots in their names, static fields do. */
+  private static final Pattern STATIC_FIELD_WRITE =
+      Pattern.compile("^\\s*([^\\s:=]+\\.[^\\s:=]+)\\s*:=");
+
+  private final Set<String> declaredProcedures = new HashSet<>();
+
+  private final Set<String> declaredFields = new HashSet<>();
+
+  private final Set<String> declaredVariables = new HashSet<>();
+
+  private final Set<String> calledProcedures = new TreeSet<>();
+
+  private final Set<String> writtenInstanceFields = new TreeSet<>();
+
+  private final Set<String> writtenStaticFields = new TreeSet<>();
+
+  private final StringBuilder pendingLine = new StringBuilder();
+
+  private boolean inBlockComment = false;
+
+  /** @return A writer that writes to the given one, checking what goes through it. */
+  public Writer watch(Writer writer) {
+
+    return new FilterWriter(writer) {
+
+      @Override
+      public void write(int c) throws IOException {
+
+        super.write(c);
+        addText(String.valueOf((char) c));
+      }
+
+      @Override
+      public void write(char[] buffer, int offset, int length) throws IOException {
+
+        super.write(buffer, offset, length);
+        addText(new String(buffer, offset, length));
+      }
+
+      @Override
+      public void write(String text, int offset, int length) throws IOException {
+
+        super.write(text, offset, length);
+        addText(text.substring(offset, offset + length));
+      }
+    };
+  }
+
+  /** Checks the text, which may end in the middle of a line. */
+  public void addText(String text) {
+
+    int start = 0;
+    int lineBreak;
+
+    while ((lineBreak = text.indexOf('\n', start)) >= 0) {
+      pendingLine.append(text, start, lineBreak);
+      addLine(pendingLine.toString());
+      pendingLine.setLength(0);
+      start = lineBreak + 1;
+    }
+
+    pendingLine.append(text, start, text.length());
+  }
+
+  /** @return The called procedures and the written fields that aren't declared, sorted by kind. */
+  public List<String> getUndeclared() {
+
+    if (pendingLine.length() > 0) {
+      addLine(pendingLine.toString());
+      pendingLine.setLength(0);
+    }
+
+    final List<String> undeclared = new ArrayList<>();
+
+    for (String procedure : calledProcedures) {
+      if (!declaredProcedures.contains(procedure)) {
+        undeclared.add("procedure " + procedure);
+      }
+    }
+
+    for (String field : writtenInstanceFields) {
+      if (!declaredFields.contains(field)) {
+        undeclared.add("field " + field);
+      }
+    }
+
+    for (String field : writtenStaticFields) {
+      if (!declaredVariables.contains(field)) {
+        undeclared.add("static field " + field);
+      }
+    }
+
+    return undeclared;
+  }
+
+  /** @throws UndeclaredReferenceException If anything called or written isn't declared. */
+  public void verify() {
+
+    final List<String> undeclared = getUndeclared();
+
+    if (!undeclared.isEmpty()) {
+      throw new UndeclaredReferenceException(undeclared);
+    }
+  }
+
+  private void addLine(String line) {
+
+    final String code = stripComments(line);
+
+    if (code.trim().isEmpty()) {
+      return;
+    }
+
+    addFirstMatch(PROCEDURE, code, declaredProcedures);
+    addFirstMatch(FIELD, code, declaredFields);
+    addFirstMatch(VARIABLE, code, declaredVariables);
+    addFirstMatch(STATIC_FIELD_WRITE, code, writtenStaticFields);
+    addAllMatches(CALL, code, calledProcedures);
+    addAllMatches(INSTANCE_FIELD_WRITE, code, writtenInstanceFields);
+  }
+
+  private String stripComments(String line) {
+
+    final StringBuilder code = new StringBuilder();
+    int position = 0;
+
+    while (position < line.length()) {
+
+      if (inBlockComment) {
+        final int end = line.indexOf("*/", position);
+
+        if (end < 0) {
+          break;
+        }
+
+        inBlockComment = false;
+        position = end + 2;
+        continue;
+      }
+
+      final int lineComment = line.indexOf("//", position);
+      final int blockComment = line.indexOf("/*", position);
+
+      if (blockComment >= 0 && (lineComment < 0 || blockComment < lineComment)) {
+        code.append(line, position, blockComment);
+        inBlockComment = true;
+        position = blockComment + 2;
+        continue;
+      }
+
+      code.append(line, position, lineComment < 0 ? line.length() : lineComment);
+      break;
+    }
+
+    return code.toString();
+  }
+
+  private static void addFirstMatch(Pattern pattern, String code, Set<String> names) {
+
+    final Matcher matcher = pattern.matcher(code);
+
+    if (matcher.find()) {
+      names.add(matcher.group(1));
+    }
+  }
+
+  private static void addAllMatches(Pattern pattern, String code, Set<String> names) {
+
+    final Matcher matcher = pattern.matcher(code);
+
+    while (matcher.find()) {
+      names.add(matcher.group(1));
+    }
+  }
+}
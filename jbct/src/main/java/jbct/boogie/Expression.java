@@ -0,0 +1,41 @@
+package jbct.boogie;
+
+/**
+ * A Boogie expression. Expressions the translators already render as text, like the translation of
+ * a Jimple value, are kept as text.
+ */
+public class Expression extends Node {
+
+  private final String text;
+
+  private Expression(final String text) {
+
+    super(text);
+    this.text = text;
+  }
+
+  public static Expression of(final String text) {
+
+    return Nodes.intern(new Expression(text));
+  }
+
+  public String getText() {
+
+    return text;
+  }
+
+  @Override
+  public void print(final BoogiePrinter printer) {
+
+    printer.write(text);
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+
+    return this == o
+        || (o instanceof Expression
+            && hashCode() == o.hashCode()
+            && text.equals(((Expression) o).text));
+  }
+}
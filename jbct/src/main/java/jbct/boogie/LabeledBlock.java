@@ -0,0 +1,61 @@
+package jbct.boogie;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+
+/** A labeled block: the label, and its statements one level deeper. */
+public class LabeledBlock extends Statement {
+
+  private final String label;
+
+  private final List<Statement> statements;
+
+  private LabeledBlock(final String label, final List<Statement> statements) {
+
+    super(label, statements);
+    this.label = label;
+    this.statements = statements;
+  }
+
+  public static LabeledBlock of(final String label, final List<? extends Statement> statements) {
+
+    return new LabeledBlock(label, ImmutableList.copyOf(statements));
+  }
+
+  public String getLabel() {
+
+    return label;
+  }
+
+  public List<Statement> getStatements() {
+
+    return statements;
+  }
+
+  @Override
+  public void print(final BoogiePrinter printer) {
+
+    printer.write(label).write(":").indent();
+
+    for (final Statement statement : statements) {
+      printer.newLine().print(statement);
+    }
+
+    printer.dedent();
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+
+    if (this == o) {
+      return true;
+    }
+
+    if (!(o instanceof LabeledBlock) || hashCode() != o.hashCode()) {
+      return false;
+    }
+
+    final LabeledBlock that = (LabeledBlock) o;
+    return label.equals(that.label) && statements.equals(that.statements);
+  }
+}
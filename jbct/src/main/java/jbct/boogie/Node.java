@@ -0,0 +1,30 @@
+package jbct.boogie;
+
+/**
+ * An immutable node of a Boogie program. Nodes compare structurally, with their hash computed once
+ * at creation, so equal subtrees can be shared through {@link Nodes#intern(Node)}.
+ */
+public abstract class Node {
+
+  private final int hash;
+
+  protected Node(final Object... structure) {
+
+    this.hash = getClass().hashCode() * 31 + java.util.Arrays.deepHashCode(structure);
+  }
+
+  /** Writes the node, without a trailing line break. */
+  public abstract void print(BoogiePrinter printer);
+
+  @Override
+  public final int hashCode() {
+
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+
+    return BoogiePrinter.toString(this);
+  }
+}
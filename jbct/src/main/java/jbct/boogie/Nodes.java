@@ -0,0 +1,18 @@
+package jbct.boogie;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/** Hash-consing of nodes: equal nodes are replaced by a single shared instance. */
+public class Nodes {
+
+  private static final Interner<Node> interner = Interners.newWeakInterner();
+
+  private Nodes() {}
+
+  @SuppressWarnings("unchecked")
+  public static <T extends Node> T intern(final T node) {
+
+    return (T) interner.intern(node);
+  }
+}
@@ -0,0 +1,115 @@
+package jbct.boogie;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import java.util.Optional;
+
+/** A procedure with its implementation: signature, local variables and statements. */
+public class Procedure extends Node {
+
+  private final String name;
+
+  private final List<VariableDeclaration> parameters;
+
+  private final Optional<VariableDeclaration> result;
+
+  private final List<VariableDeclaration> locals;
+
+  private final List<Statement> body;
+
+  private Procedure(
+      final String name,
+      final List<VariableDeclaration> parameters,
+      final Optional<VariableDeclaration> result,
+      final List<VariableDeclaration> locals,
+      final List<Statement> body) {
+
+    super(name, parameters, result.orElse(null), locals, body);
+    this.name = name;
+    this.parameters = parameters;
+    this.result = result;
+    this.locals = locals;
+    this.body = body;
+  }
+
+  public static Procedure of(
+      final String name,
+      final List<VariableDeclaration> parameters,
+      final Optional<VariableDeclaration> result,
+      final List<VariableDeclaration> locals,
+      final List<? extends Statement> body) {
+
+    return new Procedure(
+        name,
+        ImmutableList.copyOf(parameters),
+        result,
+        ImmutableList.copyOf(locals),
+        ImmutableList.copyOf(body));
+  }
+
+  public String getName() {
+
+    return name;
+  }
+
+  public List<VariableDeclaration> getParameters() {
+
+    return parameters;
+  }
+
+  public Optional<VariableDeclaration> getResult() {
+
+    return result;
+  }
+
+  public List<VariableDeclaration> getLocals() {
+
+    return locals;
+  }
+
+  public List<Statement> getBody() {
+
+    return body;
+  }
+
+  @Override
+  public void print(final BoogiePrinter printer) {
+
+    printer.write("procedure ").write(name).write("(").printList(parameters, ", ").write(")");
+    result.ifPresent(variable -> printer.write(" returns (").print(variable).write(")"));
+    printer.newLine().write("{").indent();
+
+    for (final VariableDeclaration local : locals) {
+      printer.newLine().write("var ").print(local).write(";");
+    }
+
+    if (!locals.isEmpty()) {
+      printer.newLine();
+    }
+
+    for (final Statement statement : body) {
+      printer.newLine().print(statement);
+    }
+
+    printer.dedent().newLine().write("}");
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+
+    if (this == o) {
+      return true;
+    }
+
+    if (!(o instanceof Procedure) || hashCode() != o.hashCode()) {
+      return false;
+    }
+
+    final Procedure that = (Procedure) o;
+    return name.equals(that.name)
+        && parameters.equals(that.parameters)
+        && result.equals(that.result)
+        && locals.equals(that.locals)
+        && body.equals(that.body);
+  }
+}
@@ -0,0 +1,86 @@
+package jbct.boogie;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A procedure without implementation: its signature and its specification, the requires, modifies
+ * and ensures clauses callers rely on.
+ */
+public class ProcedureDeclaration extends Node {
+
+  private final String name;
+
+  private final List<VariableDeclaration> parameters;
+
+  private final Optional<VariableDeclaration> result;
+
+  private final List<String> specification;
+
+  private ProcedureDeclaration(
+      final String name,
+      final List<VariableDeclaration> parameters,
+      final Optional<VariableDeclaration> result,
+      final List<String> specification) {
+
+    super(name, parameters, result.orElse(null), specification);
+    this.name = name;
+    this.parameters = parameters;
+    this.result = result;
+    this.specification = specification;
+  }
+
+  /** @param specification The clauses, each ending with a semicolon. */
+  public static ProcedureDeclaration of(
+      final String name,
+      final List<VariableDeclaration> parameters,
+      final Optional<VariableDeclaration> result,
+      final List<String> specification) {
+
+    return new ProcedureDeclaration(
+        name, ImmutableList.copyOf(parameters), result, ImmutableList.copyOf(specification));
+  }
+
+  public String getName() {
+
+    return name;
+  }
+
+  public List<String> getSpecification() {
+
+    return specification;
+  }
+
+  @Override
+  public void print(final BoogiePrinter printer) {
+
+    printer.write("procedure ").write(name).write("(").printList(parameters, ", ").write(")");
+    result.ifPresent(variable -> printer.write(" returns (").print(variable).write(")"));
+    printer.write(";").indent();
+
+    for (final String clause : specification) {
+      printer.newLine().write(clause);
+    }
+
+    printer.dedent();
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+
+    if (this == o) {
+      return true;
+    }
+
+    if (!(o instanceof ProcedureDeclaration) || hashCode() != o.hashCode()) {
+      return false;
+    }
+
+    final ProcedureDeclaration that = (ProcedureDeclaration) o;
+    return name.equals(that.name)
+        && parameters.equals(that.parameters)
+        && result.equals(that.result)
+        && specification.equals(that.specification);
+  }
+}
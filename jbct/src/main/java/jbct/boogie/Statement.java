@@ -0,0 +1,10 @@
+package jbct.boogie;
+
+/** A Boogie statement, printed at the indentation of the enclosing block. */
+public abstract class Statement extends Node {
+
+  protected Statement(final Object... structure) {
+
+    super(structure);
+  }
+}
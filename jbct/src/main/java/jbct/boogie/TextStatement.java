@@ -0,0 +1,41 @@
+package jbct.boogie;
+
+/**
+ * Statements already rendered as text, possibly in several lines, like the translation of a Jimple
+ * unit. Every line is printed at the indentation of the enclosing block.
+ */
+public class TextStatement extends Statement {
+
+  private final String text;
+
+  private TextStatement(final String text) {
+
+    super(text);
+    this.text = text;
+  }
+
+  public static TextStatement of(final String text) {
+
+    return Nodes.intern(new TextStatement(text));
+  }
+
+  public String getText() {
+
+    return text;
+  }
+
+  @Override
+  public void print(final BoogiePrinter printer) {
+
+    printer.write(text);
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+
+    return this == o
+        || (o instanceof TextStatement
+            && hashCode() == o.hashCode()
+            && text.equals(((TextStatement) o).text));
+  }
+}
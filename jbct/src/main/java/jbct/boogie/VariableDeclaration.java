@@ -0,0 +1,53 @@
+package jbct.boogie;
+
+/** A typed name: a parameter, a returned variable or a local variable. */
+public class VariableDeclaration extends Node {
+
+  private final String name;
+
+  private final String type;
+
+  private VariableDeclaration(final String name, final String type) {
+
+    super(name, type);
+    this.name = name;
+    this.type = type;
+  }
+
+  public static VariableDeclaration of(final String name, final String type) {
+
+    return Nodes.intern(new VariableDeclaration(name, type));
+  }
+
+  public String getName() {
+
+    return name;
+  }
+
+  public String getType() {
+
+    return type;
+  }
+
+  /** Writes {@code name : type}. */
+  @Override
+  public void print(final BoogiePrinter printer) {
+
+    printer.write(name).write(" : ").write(type);
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+
+    if (this == o) {
+      return true;
+    }
+
+    if (!(o instanceof VariableDeclaration) || hashCode() != o.hashCode()) {
+      return false;
+    }
+
+    final VariableDeclaration that = (VariableDeclaration) o;
+    return name.equals(that.name) && type.equals(that.type);
+  }
+}
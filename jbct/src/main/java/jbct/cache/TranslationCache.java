@@ -0,0 +1,303 @@
+package jbct.cache;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.io.BaseEncoding;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Resources;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import jbct.library.ModelLibrary;
+import jbct.model.DetachedClass;
+import jbct.model.DetachedMethod;
+import jbct.model.DetachedTranslation;
+import jbct.model.Class;
+import jbct.model.Method;
+
+/**
+ * Translations saved in a directory, keyed by a digest of everything the translation depends on:
+ * the classpath, the target class, the rt.jar, the prelude, the model library, the summaries file
+ * and the version and code of the translator.
+ *
+ * <p>Each entry has the Boogie translation, the classes of the classpath with the signatures of
+ * their methods, which is what is needed to choose the actions of an EPA, and the summarized
+ * methods, whose summaries are validated before exploring. The analyses of the bodies aren't
+ * saved.
+ */
+public class TranslationCache {
+
+  /**
+   * Changes whenever the translation of the same classes may change. The code of the translator is
+   * part of the key as well, so this only matters for builds whose code can't be located.
+   */
+  public static final String TRANSLATOR_VERSION = "2";
+
+  private static final String FORMAT_VERSION = "2";
+
+  private static final String CLASS = "class";
+
+  private static final String METHOD = "method";
+
+  private static final String SUMMARY = "summary";
+
+  private final Path directory;
+
+  public TranslationCache(Path directory) {
+
+    this.directory = directory;
+  }
+
+  /**
+   * @param classPath Directories, whose class files are digested, and jars.
+   * @param targetClass The class the translation is restricted to, if any.
+   * @param modelLibrary The library whose models the translation includes.
+   * @param summaryFile The file with method summaries, if any.
+   * @return The digest of the classpath, the rt.jar, the prelude, the models, the summaries, the
+   *     target class and the translator.
+   */
+  public static String computeKey(
+      List<Path> classPath,
+      Path rtJar,
+      Optional<String> targetClass,
+      ModelLibrary modelLibrary,
+      Optional<Path> summaryFile)
+      throws IOException {
+
+    final MessageDigest messageDigest = newDigest();
+
+    try (OutputStream digestStream =
+        new DigestOutputStream(ByteStreams.nullOutputStream(), messageDigest)) {
+
+      digestStream.write(("jbct " + TRANSLATOR_VERSION + "\n").getBytes(StandardCharsets.UTF_8));
+
+      final String implementationVersion =
+          TranslationCache.class.getPackage().getImplementationVersion();
+      if (implementationVersion != null) {
+        digestStream.write(implementationVersion.getBytes(StandardCharsets.UTF_8));
+      }
+
+      digestTranslatorCode(digestStream);
+
+      digestStream.write(
+          Resources.toByteArray(Resources.getResource(TranslationCache.class, "/prelude.bpl")));
+
+      digestStream.write(("\n" + modelLibrary.getDigest()).getBytes(StandardCharsets.UTF_8));
+
+      Files.copy(rtJar, digestStream);
+
+      if (targetClass.isPresent()) {
+        digestStream.write(("\ntarget " + targetClass.get()).getBytes(StandardCharsets.UTF_8));
+      }
+
+      if (summaryFile.isPresent()) {
+        digestStream.write("\nsummaries\n".getBytes(StandardCharsets.UTF_8));
+        Files.copy(summaryFile.get(), digestStream);
+      }
+
+      for (Path entry : classPath) {
+        digestStream.write("\nentry\n".getBytes(StandardCharsets.UTF_8));
+
+        if (Files.isDirectory(entry)) {
+          digestDirectory(entry, digestStream);
+        } else {
+          Files.copy(entry, digestStream);
+        }
+      }
+    }
+
+    return BaseEncoding.base16().lowerCase().encode(messageDigest.digest());
+  }
+
+  /** Digests the jar or the directory of classes the translator was loaded from, if known. */
+  private static void digestTranslatorCode(OutputStream digestStream) throws IOException {
+
+    final CodeSource codeSource = TranslationCache.class.getProtectionDomain().getCodeSource();
+
+    if (codeSource == null || codeSource.getLocation() == null) {
+      return;
+    }
+
+    final Path location;
+    try {
+      location = Paths.get(codeSource.getLocation().toURI());
+    } catch (URISyntaxException | IllegalArgumentException | FileSystemNotFoundException e) {
+      return;
+    }
+
+    digestStream.write("\ntranslator\n".getBytes(StandardCharsets.UTF_8));
+
+    if (Files.isDirectory(location)) {
+      digestDirectory(location, digestStream);
+    } else if (Files.isRegularFile(location)) {
+      Files.copy(location, digestStream);
+    }
+  }
+
+  private static void digestDirectory(Path directory, OutputStream digestStream)
+      throws IOException {
+
+    final List<Path> classFiles;
+    try (Stream<Path> files = Files.walk(directory)) {
+      classFiles = files.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+    }
+
+    for (Path classFile : classFiles) {
+      final String relativePath = directory.relativize(classFile).toString();
+      digestStream.write(("\n" + relativePath + "\n").getBytes(StandardCharsets.UTF_8));
+      Files.copy(classFile, digestStream);
+    }
+  }
+
+  /** @return The cached translation, or empty if there's none or it has another format. */
+  public Optional<DetachedTranslation> load(String key) throws IOException {
+
+    final Path translationFile = getTranslationFile(key);
+    final Path classesFile = getClassesFile(key);
+
+    if (!Files.exists(translationFile) || !Files.exists(classesFile)) {
+      return Optional.empty();
+    }
+
+    final Map<String, DetachedClass> classes = new LinkedHashMap<>();
+    final List<String> summarizedMethods = new ArrayList<>();
+
+    try (BufferedReader reader = Files.newBufferedReader(classesFile, StandardCharsets.UTF_8)) {
+
+      final String header = reader.readLine();
+
+      if (header == null || !header.equals(FORMAT_VERSION)) {
+        return Optional.empty();
+      }
+
+      String line;
+      while ((line = reader.readLine()) != null) {
+
+        final String[] parts = line.split("\t", -1);
+
+        if (parts[0].equals(CLASS)) {
+          classes.put(parts[1], new DetachedClass(parts[1], parts[2]));
+        } else if (parts[0].equals(METHOD)) {
+          final DetachedClass theClass = classes.get(parts[1]);
+          theClass.addMethod(
+              new DetachedMethod(
+                  theClass,
+                  parts[2],
+                  parts[3],
+                  Boolean.valueOf(parts[4]),
+                  Boolean.valueOf(parts[5]),
+                  parts[6].isEmpty() ? Optional.empty() : Optional.of(parts[6]),
+                  splitList(parts[7]),
+                  splitList(parts[8])));
+        } else if (parts[0].equals(SUMMARY)) {
+          summarizedMethods.add(parts[1]);
+        }
+      }
+    }
+
+    return Optional.of(
+        new DetachedTranslation(
+            translationFile, new ArrayList<>(classes.values()), summarizedMethods));
+  }
+
+  /**
+   * Saves a copy of the translation file, the signatures of the methods of the classes and the
+   * summarized methods. The classes are written last, and entries are only loaded when they have
+   * both files.
+   */
+  public void save(
+      String key, Path translation, Collection<Class> classes, List<String> summarizedMethods)
+      throws IOException {
+
+    Files.createDirectories(directory);
+
+    final Path translationFile = getTranslationFile(key);
+    final Path temporalTranslation =
+        translationFile.resolveSibling(translationFile.getFileName() + ".tmp");
+    Files.copy(translation, temporalTranslation, StandardCopyOption.REPLACE_EXISTING);
+    Files.move(temporalTranslation, translationFile, StandardCopyOption.REPLACE_EXISTING);
+
+    final Path classesFile = getClassesFile(key);
+    final Path temporalClasses = classesFile.resolveSibling(classesFile.getFileName() + ".tmp");
+
+    try (BufferedWriter writer = Files.newBufferedWriter(temporalClasses, StandardCharsets.UTF_8)) {
+
+      writer.write(FORMAT_VERSION + "\n");
+
+      for (Class theClass : classes) {
+
+        writer.write(
+            Joiner.on("\t")
+                    .join(CLASS, theClass.getQualifiedJavaName(), theClass.getBaseJavaName())
+                + "\n");
+
+        for (Method method : theClass.getMethods()) {
+          writer.write(
+              Joiner.on("\t")
+                      .join(
+                          METHOD,
+                          theClass.getQualifiedJavaName(),
+                          method.getTranslatedName(),
+                          method.getBaseJavaName(),
+                          method.isStatic(),
+                          method.isConstructor(),
+                          method.hasReturnType() ? method.getTranslatedReturnType() : "",
+                          Joiner.on(",").join(method.getParameterTypeNames()),
+                          Joiner.on(",").join(method.getTranslatedArgumentTypes()))
+                  + "\n");
+        }
+      }
+
+      for (String summarizedMethod : summarizedMethods) {
+        writer.write(SUMMARY + "\t" + summarizedMethod + "\n");
+      }
+    }
+
+    Files.move(temporalClasses, classesFile, StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  private Path getTranslationFile(String key) {
+
+    return directory.resolve(key + ".bpl");
+  }
+
+  private Path getClassesFile(String key) {
+
+    return directory.resolve(key + ".classes");
+  }
+
+  private static List<String> splitList(String list) {
+
+    return list.isEmpty() ? Collections.emptyList() : Splitter.on(",").splitToList(list);
+  }
+
+  private static MessageDigest newDigest() {
+
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,12 @@
+package jbct.exceptions;
+
+import com.google.common.base.Joiner;
+import java.util.List;
+
+/** A translation calls procedures or writes fields it doesn't declare, so Boogie rejects it. */
+public class UndeclaredReferenceException extends RuntimeException {
+
+  public UndeclaredReferenceException(List<String> undeclared) {
+    super("The translation references undeclared " + Joiner.on(", ").join(undeclared));
+  }
+}
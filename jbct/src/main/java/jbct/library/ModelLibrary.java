@@ -0,0 +1,252 @@
+package jbct.library;
+
+import com.google.common.io.BaseEncoding;
+import com.google.common.io.Resources;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Boogie models of JDK classes, and mocks of methods of the examples, one file per class. A call to
+ * a modeled method is a call to its model instead of an extern procedure or a translated body, and
+ * the model of a class is only written to the translation when one of its procedures is referenced.
+ *
+ * <p>The bundled library is listed in {@code models/index}, whose first line is its version. A
+ * model file can start with {@code // requires <class>} lines, naming models it uses.
+ */
+public class ModelLibrary {
+
+  private static final String INDEX = "/models/index";
+
+  private static final String VERSION_PREFIX = "version ";
+
+  private static final String REQUIRES_PREFIX = "// requires ";
+
+  private static final Pattern PROCEDURE =
+      Pattern.compile("^procedure\\s+(?:\\{:[^}]*\\}\\s*)*([^\\s(]+)\\s*\\(");
+
+  private static final Pattern RETURN_TYPE =
+      Pattern.compile("\\)\\s*returns\\s*\\(\\s*[^:]+:\\s*([^)]+?)\\s*\\)");
+
+  private static ModelLibrary bundled;
+
+  private final String version;
+
+  private final Map<String, Model> modelsByClass;
+
+  private final Map<String, Model> modelsByProcedure = new HashMap<>();
+
+  private ModelLibrary(String version, Map<String, Model> modelsByClass) {
+
+    this.version = version;
+    this.modelsByClass = modelsByClass;
+
+    for (Model model : modelsByClass.values()) {
+
+      for (String required : model.requires) {
+        if (!modelsByClass.containsKey(required)) {
+          throw new IllegalArgumentException(
+              "The model of " + model.className + " requires a missing model of " + required);
+        }
+      }
+
+      for (String procedure : model.returnTypes.keySet()) {
+        modelsByProcedure.put(procedure, model);
+      }
+    }
+  }
+
+  /** @return The library bundled with jbct. */
+  public static synchronized ModelLibrary getBundled() {
+
+    if (bundled == null) {
+      try {
+        bundled = loadBundled();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    return bundled;
+  }
+
+  private static ModelLibrary loadBundled() throws IOException {
+
+    final URL indexResource = Resources.getResource(ModelLibrary.class, INDEX);
+    final List<String> index = Resources.readLines(indexResource, StandardCharsets.UTF_8);
+
+    if (index.isEmpty() || !index.get(0).startsWith(VERSION_PREFIX)) {
+      throw new IllegalStateException("The index of the model library has no version");
+    }
+
+    final Map<String, Model> models = new TreeMap<>();
+
+    for (String className : index.subList(1, index.size())) {
+
+      if (className.trim().isEmpty()) {
+        continue;
+      }
+
+      final URL resource =
+          Resources.getResource(ModelLibrary.class, "/models/" + className.trim() + ".bpl");
+
+      models.put(
+          className.trim(),
+          new Model(className.trim(), Resources.toString(resource, StandardCharsets.UTF_8)));
+    }
+
+    return new ModelLibrary(index.get(0).substring(VERSION_PREFIX.length()).trim(), models);
+  }
+
+  /**
+   * @param directory A directory with a {@code <class>.bpl} model file for each class.
+   * @return This library with the models of the directory, which replace the models of the same
+   *     classes.
+   */
+  public ModelLibrary extend(Path directory) throws IOException {
+
+    final Map<String, Model> models = new TreeMap<>(modelsByClass);
+
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.bpl")) {
+      for (Path file : files) {
+
+        final String fileName = file.getFileName().toString();
+        final String className = fileName.substring(0, fileName.length() - ".bpl".length());
+
+        models.put(
+            className,
+            new Model(className, new String(Files.readAllBytes(file), StandardCharsets.UTF_8)));
+      }
+    }
+
+    return new ModelLibrary(version + "+" + directory.getFileName(), models);
+  }
+
+  public String getVersion() {
+
+    return version;
+  }
+
+  /** @return Whether a procedure with the translated name is modeled. */
+  public boolean isModeled(String translatedName) {
+
+    return modelsByProcedure.containsKey(translatedName);
+  }
+
+  /** @return The type the model of the procedure returns, if it is modeled and returns one. */
+  public Optional<String> getReturnType(String translatedName) {
+
+    final Model model = modelsByProcedure.get(translatedName);
+
+    return model == null ? Optional.empty() : model.returnTypes.get(translatedName);
+  }
+
+  /**
+   * @param translatedNames The procedures referenced by the translation.
+   * @return The models of the classes of the modeled procedures, and the models they require, in
+   *     the order of their class names.
+   */
+  public List<String> getModels(Collection<String> translatedNames) {
+
+    final TreeSet<String> included = new TreeSet<>();
+    final Deque<String> pending = new ArrayDeque<>();
+
+    for (String translatedName : translatedNames) {
+
+      final Model model = modelsByProcedure.get(translatedName);
+
+      if (model != null) {
+        pending.push(model.className);
+      }
+    }
+
+    while (!pending.isEmpty()) {
+
+      final String className = pending.pop();
+
+      if (included.add(className)) {
+        pending.addAll(modelsByClass.get(className).requires);
+      }
+    }
+
+    final List<String> models = new ArrayList<>();
+
+    for (String className : included) {
+      models.add(modelsByClass.get(className).text);
+    }
+
+    return models;
+  }
+
+  /** @return A digest of the version and the models, which changes with any of them. */
+  public String getDigest() {
+
+    try {
+      final MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+      messageDigest.update(("models " + version + "\n").getBytes(StandardCharsets.UTF_8));
+
+      for (Model model : modelsByClass.values()) {
+        messageDigest.update(("\n" + model.className + "\n").getBytes(StandardCharsets.UTF_8));
+        messageDigest.update(model.text.getBytes(StandardCharsets.UTF_8));
+      }
+
+      return BaseEncoding.base16().lowerCase().encode(messageDigest.digest());
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** The model file of a class. */
+  private static class Model {
+
+    private final String className;
+
+    private final String text;
+
+    private final List<String> requires = new ArrayList<>();
+
+    /** The return types of the modeled procedures, by translated name. */
+    private final Map<String, Optional<String>> returnTypes = new HashMap<>();
+
+    private Model(String className, String text) {
+
+      this.className = className;
+      this.text = text;
+
+      for (String line : text.split("\n")) {
+
+        if (line.startsWith(REQUIRES_PREFIX)) {
+          requires.add(line.substring(REQUIRES_PREFIX.length()).trim());
+          continue;
+        }
+
+        final Matcher procedure = PROCEDURE.matcher(line);
+
+        if (procedure.find()) {
+          final Matcher returnType = RETURN_TYPE.matcher(line);
+          returnTypes.put(
+              procedure.group(1),
+              returnType.find() ? Optional.of(returnType.group(1)) : Optional.empty());
+        }
+      }
+    }
+  }
+}
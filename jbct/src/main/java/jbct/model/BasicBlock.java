@@ -1,13 +1,13 @@
 package jbct.model;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
+import jbct.boogie.LabeledBlock;
+import jbct.boogie.Statement;
+import jbct.boogie.TextStatement;
 import jbct.soot.UnitTranslator;
-import jbct.utils.StringUtils;
 import soot.Unit;
 import soot.toolkits.graph.Block;
 
@@ -17,18 +17,12 @@ public class BasicBlock {
 
   private final Block block;
 
-  private static Map<Block, BasicBlock> blockToBasicBlock = new HashMap<>();
-
   public static BasicBlock create(LocalMethod method, Block block) {
 
-    if (blockToBasicBlock.containsKey(block)) {
-      return blockToBasicBlock.get(block);
-    }
-
-    final BasicBlock basicBlock = new BasicBlock(method, block);
-    blockToBasicBlock.put(block, basicBlock);
-
-    return basicBlock;
+    return method
+        .getSession()
+        .getBasicBlocks()
+        .computeIfAbsent(block, key -> new BasicBlock(method, block));
   }
 
   private BasicBlock(LocalMethod method, Block block) {
@@ -55,11 +49,9 @@ public class BasicBlock {
     throw new IllegalArgumentException("headOfSuccessor not found in any successor block");
   }
 
-  public List<String> getTranslatedInstructions() {
-
-    final ArrayList<String> translations = new ArrayList<>();
+  public LabeledBlock getTranslatedInstructions() {
 
-    translations.add(getLabel() + ":");
+    final ArrayList<Statement> translations = new ArrayList<>();
 
     final Iterator<Unit> unitIterator = block.iterator();
     while (unitIterator.hasNext()) {
@@ -70,9 +62,11 @@ public class BasicBlock {
       unit.apply(unitTranslator);
       final List<String> translation = unitTranslator.getTranslation();
 
-      translations.add(StringUtils.indentList(translation));
+      for (final String line : translation) {
+        translations.add(TextStatement.of(line));
+      }
     }
 
-    return translations;
+    return LabeledBlock.of(getLabel(), translations);
   }
 }
@@ -1,38 +1,40 @@
 package jbct.model;
 
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import jbct.TranslationSession;
 import jbct.utils.StringUtils;
 import soot.SootClass;
 import soot.SootField;
 
 public class Class {
 
-  private static Map<SootClass, Class> classes = new HashMap<>();
+  private final TranslationSession session;
 
   private final SootClass sootClass;
 
-  private final HashSet<Method> methods = new HashSet<>();
+  private final Set<Method> methods = ConcurrentHashMap.newKeySet();
 
-  public static Class create(SootClass sootClass) {
+  public static Class create(TranslationSession session, SootClass sootClass) {
 
-    if (!classes.containsKey(sootClass)) {
-      classes.put(sootClass, new Class(sootClass));
-    }
-
-    return classes.get(sootClass);
+    return session.getClasses().computeIfAbsent(sootClass, key -> new Class(session, key));
   }
 
-  private Class(SootClass sootClass) {
+  protected Class(TranslationSession session, SootClass sootClass) {
 
+    this.session = session;
     this.sootClass = sootClass;
   }
 
+  /** @return The session the class was translated in. */
+  public TranslationSession getSession() {
+
+    return session;
+  }
+
   public String getBaseJavaName() {
     return sootClass.getJavaStyleName();
   }
@@ -0,0 +1,71 @@
+package jbct.model;
+
+import java.util.Collection;
+import jbct.TranslationSession;
+
+/**
+ * A class detached from Soot: loaded from the translation cache, or copied from a translated class
+ * so Soot can be released. It has the names and methods of the class, but not its fields.
+ */
+public class DetachedClass extends Class {
+
+  private final String qualifiedJavaName;
+
+  private final String baseJavaName;
+
+  public DetachedClass(String qualifiedJavaName, String baseJavaName) {
+
+    super(null, null);
+    this.qualifiedJavaName = qualifiedJavaName;
+    this.baseJavaName = baseJavaName;
+  }
+
+  /** @return A copy of the class and its methods that doesn't reference Soot. */
+  public static DetachedClass of(Class theClass) {
+
+    final DetachedClass detachedClass =
+        new DetachedClass(theClass.getQualifiedJavaName(), theClass.getBaseJavaName());
+
+    for (Method method : theClass.getMethods()) {
+      detachedClass.addMethod(DetachedMethod.of(detachedClass, method));
+    }
+
+    return detachedClass;
+  }
+
+  @Override
+  public String getBaseJavaName() {
+
+    return baseJavaName;
+  }
+
+  @Override
+  public String getQualifiedJavaName() {
+
+    return qualifiedJavaName;
+  }
+
+  @Override
+  public boolean isApplicationClass() {
+
+    return true;
+  }
+
+  @Override
+  public TranslationSession getSession() {
+
+    throw new UnsupportedOperationException("A detached class doesn't belong to a session");
+  }
+
+  @Override
+  public Collection<StaticField> getStaticFields() {
+
+    throw new UnsupportedOperationException("The fields of a detached class aren't available");
+  }
+
+  @Override
+  public Collection<InstanceField> getInstanceFields() {
+
+    throw new UnsupportedOperationException("The fields of a detached class aren't available");
+  }
+}
@@ -0,0 +1,131 @@
+package jbct.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import soot.Type;
+
+/**
+ * A method detached from Soot, see {@link DetachedClass}. Its procedure is already in the
+ * translation, and there are no Soot types behind its parameters, only their names.
+ */
+public class DetachedMethod extends Method {
+
+  private final String translatedName;
+
+  private final String baseJavaName;
+
+  private final boolean isStatic;
+
+  private final boolean isConstructor;
+
+  private final Optional<String> translatedReturnType;
+
+  private final List<String> parameterTypeNames;
+
+  private final List<String> translatedArgumentTypes;
+
+  public DetachedMethod(
+      Class theClass,
+      String translatedName,
+      String baseJavaName,
+      boolean isStatic,
+      boolean isConstructor,
+      Optional<String> translatedReturnType,
+      List<String> parameterTypeNames,
+      List<String> translatedArgumentTypes) {
+
+    super(theClass, null);
+    this.translatedName = translatedName;
+    this.baseJavaName = baseJavaName;
+    this.isStatic = isStatic;
+    this.isConstructor = isConstructor;
+    this.translatedReturnType = translatedReturnType;
+    this.parameterTypeNames = parameterTypeNames;
+    this.translatedArgumentTypes = translatedArgumentTypes;
+  }
+
+  /** @return A copy of the signature of the method, declared by the detached class. */
+  public static DetachedMethod of(DetachedClass theClass, Method method) {
+
+    return new DetachedMethod(
+        theClass,
+        method.getTranslatedName(),
+        method.getBaseJavaName(),
+        method.isStatic(),
+        method.isConstructor(),
+        method.hasReturnType()
+            ? Optional.of(method.getTranslatedReturnType())
+            : Optional.empty(),
+        new ArrayList<>(method.getParameterTypeNames()),
+        new ArrayList<>(method.getTranslatedArgumentTypes()));
+  }
+
+  @Override
+  public String getTranslatedProcedure() {
+
+    throw new UnsupportedOperationException(
+        "The procedure of " + translatedName + " is already in the translation");
+  }
+
+  @Override
+  public boolean isClassInitializer() {
+
+    return false;
+  }
+
+  @Override
+  public String getTranslatedName() {
+
+    return translatedName;
+  }
+
+  @Override
+  public String getBaseJavaName() {
+
+    return baseJavaName;
+  }
+
+  @Override
+  public List<Type> getParameterTypes() {
+
+    throw new UnsupportedOperationException("Detached methods only have the names of their types");
+  }
+
+  @Override
+  public List<String> getParameterTypeNames() {
+
+    return parameterTypeNames;
+  }
+
+  @Override
+  public boolean isStatic() {
+
+    return isStatic;
+  }
+
+  @Override
+  public boolean isConstructor() {
+
+    return isConstructor;
+  }
+
+  @Override
+  public boolean hasReturnType() {
+
+    return translatedReturnType.isPresent();
+  }
+
+  @Override
+  public String getTranslatedReturnType() {
+
+    return translatedReturnType.orElseThrow(
+        () -> new IllegalStateException(translatedName + " doesn't return a value"));
+  }
+
+  @Override
+  public List<String> getTranslatedArgumentTypes() {
+
+    return translatedArgumentTypes;
+  }
+}
@@ -0,0 +1,55 @@
+package jbct.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A translation and the classes it was made from, without anything that references Soot. The
+ * translation stays in its file, and is only read when asked for.
+ */
+public class DetachedTranslation {
+
+  private final Path translationFile;
+
+  private final List<DetachedClass> classes;
+
+  private final List<String> summarizedMethods;
+
+  public DetachedTranslation(
+      Path translationFile, List<DetachedClass> classes, List<String> summarizedMethods) {
+
+    this.translationFile = translationFile;
+    this.classes = classes;
+    this.summarizedMethods = summarizedMethods;
+  }
+
+  public Path getTranslationFile() {
+
+    return translationFile;
+  }
+
+  /** @return The contents of the translation file. */
+  public String getTranslation() {
+
+    try {
+      return new String(Files.readAllBytes(translationFile), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public List<DetachedClass> getClasses() {
+
+    return classes;
+  }
+
+  /** @return The translated names of the methods translated as their summaries. */
+  public List<String> getSummarizedMethods() {
+
+    return summarizedMethods;
+  }
+}
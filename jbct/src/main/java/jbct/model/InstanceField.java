@@ -1,5 +1,6 @@
 package jbct.model;
 
+import jbct.TranslationSession;
 import jbct.utils.StringUtils;
 import soot.SootField;
 
@@ -16,9 +17,9 @@ public class InstanceField {
     this.theClass = theClass;
   }
 
-  public InstanceField(SootField sootField) {
+  public InstanceField(TranslationSession session, SootField sootField) {
 
-    this(Class.create(sootField.getDeclaringClass()), sootField);
+    this(Class.create(session, sootField.getDeclaringClass()), sootField);
   }
 
   public String getTranslatedName() {
@@ -1,11 +1,22 @@
 package jbct.model;
 
-import com.google.common.base.Joiner;
+import java.io.StringWriter;
 import java.util.*;
 import java.util.stream.Collectors;
+import jbct.analysis.FieldAccesses;
+import jbct.boogie.AssumeStatement;
+import jbct.boogie.BoogiePrinter;
+import jbct.boogie.CallStatement;
+import jbct.boogie.Expression;
+import jbct.boogie.Procedure;
+import jbct.boogie.ProcedureDeclaration;
+import jbct.boogie.Statement;
+import jbct.boogie.TextStatement;
+import jbct.boogie.VariableDeclaration;
+import jbct.soot.JbctTransformer;
 import jbct.soot.TypeTranslator;
 import jbct.soot.ValueTranslator;
-import jbct.utils.StringUtils;
+import jbct.summary.MethodSummary;
 import soot.Local;
 import soot.SootMethod;
 import soot.Unit;
@@ -53,12 +64,12 @@ public class LocalMethod extends Method {
 
   // for every parameter in the method a local boogie variable is created
   // mapping between local boggie variable and argument is stored
-  private List<String> getTranslatedParametersList() {
+  private List<VariableDeclaration> getTranslatedParametersList() {
 
-    final LinkedList<String> parameters = new LinkedList<>();
+    final LinkedList<VariableDeclaration> parameters = new LinkedList<>();
 
     if (!isStatic()) {
-      parameters.add("$this : Ref");
+      parameters.add(VariableDeclaration.of("$this", "Ref"));
     }
 
     int i = 0;
@@ -91,7 +102,7 @@ public class LocalMethod extends Method {
 
       final String translatedType = TypeTranslator.translate(paramRef.getType());
 
-      parameters.add(parameterName + " : " + translatedType);
+      parameters.add(VariableDeclaration.of(parameterName, translatedType));
 
       i++;
     }
@@ -112,64 +123,154 @@ public class LocalMethod extends Method {
 
 
   @Override
-  // returns the boogie code of the procedure
-  // 1) procedure's parameters are calculated and used in the procedure declaration
-  // 2) local variables are written
-  // 3) local variables for procedure invocations
-  // 4) write assignments of parameters to local variables
-  // 5) translate each instruction from the jimple body
   public String getTranslatedProcedure() {
 
-    if (isHardCoded()) {
-      return "// Skipping hardcoded method " + getTranslatedName();
+    final StringWriter writer = new StringWriter();
+    printTranslatedProcedure(new BoogiePrinter(writer));
+
+    return writer.toString();
+  }
+
+  @Override
+  public void printTranslatedProcedure(BoogiePrinter printer) {
+
+    if (isHardCoded(getSession().getModelLibrary())) {
+      printer.write("// Skipping hardcoded method " + getTranslatedName());
+      return;
     }
 
     // workaround for socket example - ignore
-    if (getTranslatedName().contentEquals("java.net.Inet6Address.?clinit?"))
-      return "\n";
-
-    final List<String> translatedParametersList = getTranslatedParametersList();
-
-    final StringBuilder stringBuilder =
-        new StringBuilder()
-            .append("procedure ")
-            .append(getTranslatedName())
-            .append("(")
-            .append(Joiner.on(", ").join(translatedParametersList))
-            .append(")");
-
-    if (sootMethod.getReturnType() != VoidType.v()) {
-      stringBuilder
-          .append(" returns (r : ")
-          .append(TypeTranslator.translate(sootMethod.getReturnType()))
-          .append(")");
+    if (getTranslatedName().contentEquals("java.net.Inet6Address.?clinit?")) {
+      printer.write("\n");
+      return;
+    }
+
+    final MethodSummary summary = getSession().getSummaries().get(getTranslatedName());
+
+    if (summary != null) {
+      printSummarizedProcedure(printer, summary);
+      return;
+    }
+
+    printer.print(getProcedure());
+  }
+
+  /**
+   * Prints the summary in place of the procedure, so callers only see the contract, followed by
+   * the translated body as the implementation procedure and the procedure that validates it. Its
+   * assertions are labeled like the ones of the queries, so a broken summary is a bug of the query.
+   */
+  private void printSummarizedProcedure(BoogiePrinter printer, MethodSummary summary) {
+
+    final Procedure procedure = getProcedure();
+    final String implementationName = MethodSummary.getImplementationName(getTranslatedName());
+
+    printer.print(
+        ProcedureDeclaration.of(
+            getTranslatedName(),
+            procedure.getParameters(),
+            procedure.getResult(),
+            summary.getSpecification()));
+
+    printer.newLine().newLine();
+    printer.print(
+        Procedure.of(
+            implementationName,
+            procedure.getParameters(),
+            procedure.getResult(),
+            procedure.getLocals(),
+            procedure.getBody()));
+
+    final List<Statement> validation = new ArrayList<>();
+
+    // Methods are only called without a pending exception
+    validation.add(AssumeStatement.of(Expression.of("$Exception == null")));
+
+    for (String precondition : summary.getPreconditions()) {
+      validation.add(AssumeStatement.of(Expression.of(precondition)));
+    }
+
+    validation.add(
+        CallStatement.of(
+            procedure.getResult().map(VariableDeclaration::getName),
+            implementationName,
+            procedure
+                .getParameters()
+                .stream()
+                .map(parameter -> Expression.of(parameter.getName()))
+                .collect(Collectors.toList())));
+
+    final List<String> assertions = new ArrayList<>(summary.getPostconditions());
+    assertions.addAll(summary.getFrameConditions(getWrittenStaticFields()));
+
+    for (int i = 0; i < assertions.size(); i++) {
+      validation.add(
+          TextStatement.of("query_assertion_" + (i + 1) + ": assert " + assertions.get(i) + ";"));
     }
 
-    stringBuilder
-        .append("\n")
-        .append("{\n")
-        // las declaraciones de las variables locales con las traducciones de sus tipos
-        .append(StringUtils.indentList(getTranslatedLocalDeclarationsList()))
-        .append("\n")
-        .append(StringUtils.indentList(getGeneratedLocalDeclarationsList()))
-        .append("\n\n")
-        .append(StringUtils.indentList(translateParametersAssignments()))
-        .append("\n\n")
-        .append(StringUtils.indentList(getTranslatedInstructions()))
-        .append("\n")
-        .append("}");
-
-    return stringBuilder.toString();
+    printer.newLine().newLine();
+    printer.print(
+        Procedure.of(
+            MethodSummary.getValidationName(getTranslatedName()),
+            procedure.getParameters(),
+            procedure.getResult(),
+            new ArrayList<>(),
+            validation));
+  }
+
+  /** @return The declared static fields the body may write, all of them if it's unknown. */
+  private Set<String> getWrittenStaticFields() {
+
+    final JbctTransformer transformer = getSession().getTransformer();
+    final Set<String> staticFields = transformer.getDeclaredStaticFields();
+    final FieldAccesses accesses =
+        transformer.getFieldAccessAnalysis().getAccesses(getTranslatedName());
+
+    if (!accesses.writesUnknownState()) {
+      staticFields.retainAll(accesses.getWrites());
+    }
+
+    return staticFields;
+  }
+
+  // returns the boogie procedure
+  // 1) procedure's parameters are calculated and used in the procedure declaration
+  // 2) local variables are declared
+  // 3) local variables for procedure invocations
+  // 4) assignments of parameters to local variables
+  // 5) translate each instruction from the jimple body
+  private Procedure getProcedure() {
+
+    final List<VariableDeclaration> parameters = getTranslatedParametersList();
+
+    final Optional<VariableDeclaration> result =
+        sootMethod.getReturnType() == VoidType.v()
+            ? Optional.empty()
+            : Optional.of(
+                VariableDeclaration.of(
+                    "r", TypeTranslator.translate(sootMethod.getReturnType())));
+
+    final List<VariableDeclaration> locals = new ArrayList<>();
+    // las declaraciones de las variables locales con las traducciones de sus tipos
+    locals.addAll(getTranslatedLocalDeclarationsList());
+    locals.addAll(getGeneratedLocalDeclarationsList());
+
+    final List<Statement> statements = new ArrayList<>();
+    statements.addAll(translateParametersAssignments());
+    statements.add(TextStatement.of(""));
+    statements.addAll(getTranslatedInstructions());
+
+    return Procedure.of(getTranslatedName(), parameters, result, locals, statements);
   }
 
   // assigns parameters to local variables
-  private List<String> translateParametersAssignments() {
+  private List<Statement> translateParametersAssignments() {
 
-    final ArrayList<String> assignments = new ArrayList<>();
+    final ArrayList<Statement> assignments = new ArrayList<>();
 
     for (String paramName : parameterNamesToLocals.keySet()) {
       final Local local = parameterNamesToLocals.get(paramName);
-      assignments.add(local.getName() + " := " + paramName + ";");
+      assignments.add(TextStatement.of(local.getName() + " := " + paramName + ";"));
     }
 
     return assignments;
@@ -186,22 +287,22 @@ public class LocalMethod extends Method {
     return sootMethod.isEntryMethod() && !sootMethod.isMain();
   }
 
-  private List<String> getTranslatedInstructions() {
+  private List<Statement> getTranslatedInstructions() {
 
     final ExceptionalBlockGraph blocksGraph = new ExceptionalBlockGraph(body);
 
-    final List<String> translatedInstructions = new ArrayList<>();
+    final List<Statement> translatedInstructions = new ArrayList<>();
 
     for (final Block block : blocksGraph) {
       final BasicBlock basicBlock = BasicBlock.create(this, block);
-      translatedInstructions.addAll(basicBlock.getTranslatedInstructions());
-      translatedInstructions.add("");
+      translatedInstructions.add(basicBlock.getTranslatedInstructions());
+      translatedInstructions.add(TextStatement.of(""));
     }
 
     return translatedInstructions;
   }
 
-  private List<String> getTranslatedLocalDeclarationsList() {
+  private List<VariableDeclaration> getTranslatedLocalDeclarationsList() {
 
     return body.getLocals()
         .stream()
@@ -209,9 +310,9 @@ public class LocalMethod extends Method {
         .collect(Collectors.toList());
   }
 
-  private String translateLocalDeclaration(Local local) {
+  private VariableDeclaration translateLocalDeclaration(Local local) {
 
-    return "var " + local.getName() + " : " + TypeTranslator.translate(local.getType()) + ";";
+    return VariableDeclaration.of(local.getName(), TypeTranslator.translate(local.getType()));
   }
 
   public Optional<String> getGeneratedReturnVariableName(InvokeStmt invokeStmt) {
@@ -220,23 +321,22 @@ public class LocalMethod extends Method {
   }
 
   // creates a local variable for the result of each call
-  private List<String> getGeneratedLocalDeclarationsList() {
+  private List<VariableDeclaration> getGeneratedLocalDeclarationsList() {
 
-    final LinkedList<String> declarations = new LinkedList<>();
+    final LinkedList<VariableDeclaration> declarations = new LinkedList<>();
 
     for (InvokeStmt invokeStmt : generatedReturnVariableNames.keySet()) {
 
       final SootMethod invokedSootMethod = invokeStmt.getInvokeExpr().getMethod();
 
-      final Class invokedClass = Class.create(invokedSootMethod.getDeclaringClass());
+      final Class invokedClass =
+          Class.create(getSession(), invokedSootMethod.getDeclaringClass());
       final Method invokedMethod = Method.create(invokedClass, invokedSootMethod);
 
       declarations.add(
-          "var "
-              + generatedReturnVariableNames.get(invokeStmt)
-              + " : "
-              + invokedMethod.getTranslatedReturnType()
-              + ";");
+          VariableDeclaration.of(
+              generatedReturnVariableNames.get(invokeStmt),
+              invokedMethod.getTranslatedReturnType()));
     }
 
     return declarations;
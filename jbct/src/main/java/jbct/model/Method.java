@@ -6,6 +6,9 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 import com.google.common.collect.Sets;
+import jbct.TranslationSession;
+import jbct.boogie.BoogiePrinter;
+import jbct.library.ModelLibrary;
 import jbct.soot.TypeTranslator;
 import jbct.utils.StringUtils;
 import soot.RefType;
@@ -16,11 +19,6 @@ import soot.jimple.JimpleBody;
 
 public abstract class Method {
 
-  private static final HashMap<String, LocalMethod> localMethodsFactoryCache = new HashMap<>();
-
-  private static final HashMap<String, AbstractMethod> AbstractMethodsFactoryCache =
-      new HashMap<>();
-
   private Class theClass;
 
   protected final SootMethod sootMethod;
@@ -38,27 +36,28 @@ public abstract class Method {
 
     final String translatedMethodName = getTranslatedMethodName(theClass, sootMethod);
 
+    // Bodies are transformed in parallel, so each method is created once under the cache's lock
     if (!sootMethod.isConcrete()) {
 
-      if (!AbstractMethodsFactoryCache.containsKey(translatedMethodName)) {
-        final AbstractMethod abstractMethod = new AbstractMethod(theClass, sootMethod);
-        theClass.addMethod(abstractMethod);
-        AbstractMethodsFactoryCache.put(translatedMethodName, abstractMethod);
-      }
-
-      return AbstractMethodsFactoryCache.get(translatedMethodName);
+      return theClass.getSession().getAbstractMethods().computeIfAbsent(
+          translatedMethodName,
+          name -> {
+            final AbstractMethod abstractMethod = new AbstractMethod(theClass, sootMethod);
+            theClass.addMethod(abstractMethod);
+            return abstractMethod;
+          });
     }
 
-    if (!localMethodsFactoryCache.containsKey(translatedMethodName)) {
-      final JimpleBody jimpleBody = (JimpleBody) sootMethod.getActiveBody();
-      final LocalMethod localMethod = new LocalMethod(theClass, jimpleBody);
+    return theClass.getSession().getLocalMethods().computeIfAbsent(
+        translatedMethodName,
+        name -> {
+          final JimpleBody jimpleBody = (JimpleBody) sootMethod.getActiveBody();
+          final LocalMethod localMethod = new LocalMethod(theClass, jimpleBody);
 
-      theClass.addMethod(localMethod);
+          theClass.addMethod(localMethod);
 
-      localMethodsFactoryCache.put(translatedMethodName, localMethod);
-    }
-
-    return localMethodsFactoryCache.get(translatedMethodName);
+          return localMethod;
+        });
   }
 
   /**
@@ -109,74 +108,30 @@ public abstract class Method {
     return sootMethod.getParameterTypes();
   }
 
+  // Only called by the StringTokenizer methods mocked in the model library, so it has no mock
   protected static final Set<String> hardCodedMethodsTranslatedNames =
-          Sets.newHashSet(
-                  "java.util.Collection#size",
-                  "java.util.Collection#clear",
-                  "java.util.List#size",
-                  "java.util.List#clear",
-                  "java.util.LinkedList#?init?",
-                  "java.util.LinkedList#size",
-                  "java.util.LinkedList#clear",
-                  "java.util.ArrayList#?init?",
-                  "java.util.ArrayList#?init?$int",
-                  "java.util.ArrayList#size",
-                  "java.util.ArrayList#clear",
-                  //"java.util.Arrays.copyOf$Ref$int",
-                  "java.util.Arrays.copyOf$java.lang.Object??$int",
-                  "java.lang.String#length",
-                  "examples.StringTokenizer.StringTokenizer#skipDelimiters$int",
-                  "examples.StringTokenizer.StringTokenizer#isDelimiter$int",
-                  "examples.StringTokenizer.StringTokenizer#scanToken$int",
-                  "java.net.SocketImpl#shutdownOutput",
-                  "java.net.SocketImpl#shutdownInput",
-                  "examples.Socket.MockSocket.connect$java.net.SocketImpl$java.lang.String$int",
-                  "examples.Socket.MockSocket.connect$java.net.SocketImpl$java.net.InetAddress$int",
-                  "examples.Socket.MockSocket.connect$java.net.SocketImpl$java.net.SocketAddress$int",
-                  "examples.Socket.MockSocket.bind$java.net.SocketImpl$java.net.InetAddress$int"
-                  /*"java.net.InetSocketAddress#getAddress"*/);
-
-  protected Set<String> methodsWithHardcodedIntReturnType =
-          Sets.newHashSet(""
-                  //"java.lang.String#charAt$int", // for stringtokenizer example
-                  //"java.lang.String#indexOf$int", // for stringtokenizer example
-                  //"java.lang.String#codePointAt$int",// for stringtokenizer example
-                  //"java.lang.Character.charCount$int" // for stringtokenizer example
-          );
-
-  protected Set<String> methodsWithHardcodedBooleanReturnType =
-          Sets.newHashSet(
-                  "java.util.Collection#remove$int",
-                  "java.util.Collection#add$java.lang.Object",
-                  "java.util.Collection#remove$java.lang.Object",
-                  "java.util.List#remove$int",
-                  "java.util.List#add$java.lang.Object",
-                  "java.util.List#remove$java.lang.Object",
-                  "java.util.LinkedList#remove$int",
-                  "java.util.LinkedList#add$java.lang.Object",
-                  "java.util.LinkedList#remove$java.lang.Object",
-                  "java.util.ArrayList#remove$int",
-                  "java.util.ArrayList#add$java.lang.Object");
-
-  protected Set<String> methodsWithHardcodedRefReturnType =
-          Sets.newHashSet(//"java.util.Map#get$java.lang.Object",
-                  // "java.util.Enumeration#nextElement",
-                  //"java.util.Iterator#next"
-                  // "java.util.Map#put$java.lang.Object$java.lang.Object"
-          );
-
-
-  public boolean isHardCoded() {
+          Sets.newHashSet("examples.StringTokenizer.StringTokenizer#isDelimiter$int");
+
+  /**
+   * @param modelLibrary The models of the translation, which replace the translated procedures.
+   * @return Whether the method is modeled or mocked instead of being translated.
+   */
+  public boolean isHardCoded(ModelLibrary modelLibrary) {
+
     final String translatedName = getTranslatedName();
 
-    return hardCodedMethodsTranslatedNames.contains(translatedName)
-            || methodsWithHardcodedBooleanReturnType.contains(translatedName)
-            || methodsWithHardcodedRefReturnType.contains(translatedName)
-            || methodsWithHardcodedIntReturnType.contains(translatedName);
+    return modelLibrary.isModeled(translatedName)
+        || hardCodedMethodsTranslatedNames.contains(translatedName);
   }
 
   public abstract String getTranslatedProcedure();
 
+  /** Prints the translated procedure, without building its whole text when possible. */
+  public void printTranslatedProcedure(BoogiePrinter printer) {
+
+    printer.write(getTranslatedProcedure());
+  }
+
   public abstract boolean isClassInitializer();
 
   protected Method(Class theClass, SootMethod sootMethod) {
@@ -185,6 +140,12 @@ public abstract class Method {
     this.sootMethod = sootMethod;
   }
 
+  /** @return The session of the class of the method. */
+  public TranslationSession getSession() {
+
+    return theClass.getSession();
+  }
+
   public String getTranslatedName() {
 
     return getTranslatedMethodName(theClass, sootMethod);
@@ -192,7 +153,7 @@ public abstract class Method {
 
   public String getJavaName() {
 
-    return theClass.getQualifiedJavaName() + (isStatic() ? "." : "#") + sootMethod.getName();
+    return theClass.getQualifiedJavaName() + (isStatic() ? "." : "#") + getBaseJavaName();
   }
 
   public String getBaseJavaName() {
@@ -202,17 +163,18 @@ public abstract class Method {
 
   public String getJavaNameWithArgumentTypes() {
 
-    @SuppressWarnings("unchecked")
-    final List<Type> parameterTypes = sootMethod.getParameterTypes();
-    final List<String> typeNames =
-        parameterTypes.stream().map(Type::toString).collect(Collectors.toList());
+    final String baseName = isConstructor() ? theClass.getBaseJavaName() : getBaseJavaName();
 
-    final String baseName =
-        sootMethod.isConstructor() ? theClass.getBaseJavaName() : sootMethod.getName();
+    return baseName + "(" + Joiner.on(", ").join(getParameterTypeNames()) + ")";
+  }
+
+  /** @return The Java names of the types of the parameters, without the receiver. */
+  public List<String> getParameterTypeNames() {
 
-    return baseName + "(" + Joiner.on(", ").join(typeNames) + ")";
+    return getParameterTypes().stream().map(Type::toString).collect(Collectors.toList());
   }
 
+
   public boolean isStatic() {
 
     return sootMethod.isStatic();
@@ -241,8 +203,7 @@ public abstract class Method {
       translatedArguments.add("Ref");
     }
 
-    @SuppressWarnings("unchecked")
-    final Iterator<Type> iterator = sootMethod.getParameterTypes().iterator();
+    final Iterator<Type> iterator = getParameterTypes().iterator();
 
     while (iterator.hasNext()) {
       final Type type = iterator.next();
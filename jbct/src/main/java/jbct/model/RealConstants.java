@@ -1,21 +1,17 @@
 package jbct.model;
 
-import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
 import soot.*;
 import soot.jimple.*;
 
 public class RealConstants {
-  private static RealConstants ourInstance = new RealConstants();
+  // sorted, so the definitions come out in the same order whatever order bodies are visited in
+  private Set<Double> realConstants;
 
-  public static RealConstants getInstance() {
-    return ourInstance;
-  }
-
-  private HashSet<Double> realConstants;
-
-  private RealConstants() {
-    realConstants = new HashSet<Double>();
+  public RealConstants() {
+    realConstants = new ConcurrentSkipListSet<Double>();
   }
 
   private void addRealConstant(RealConstant c) {
@@ -76,7 +72,7 @@ public class RealConstants {
 
         if (value instanceof Constant
             && (value.getType() == DoubleType.v() || value.getType() == FloatType.v())) {
-          RealConstants.getInstance().addRealConstant((RealConstant) value);
+          addRealConstant((RealConstant) value);
         }
       }
     }
@@ -1,6 +1,7 @@
 package jbct.model;
 
 import jbct.soot.TypeTranslator;
+import jbct.TranslationSession;
 import jbct.utils.StringUtils;
 import soot.SootField;
 
@@ -17,9 +18,9 @@ public class StaticField {
     this.theClass = theClass;
   }
 
-  public StaticField(SootField sootField) {
+  public StaticField(TranslationSession session, SootField sootField) {
 
-    this(Class.create(sootField.getDeclaringClass()), sootField);
+    this(Class.create(session, sootField.getDeclaringClass()), sootField);
   }
 
   public String getTranslatedName() {
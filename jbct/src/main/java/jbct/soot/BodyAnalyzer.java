@@ -0,0 +1,254 @@
+package jbct.soot;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import jbct.TranslationSession;
+import jbct.analysis.CallGraph;
+import jbct.analysis.ExceptionAnalysis;
+import jbct.analysis.FieldAccessAnalysis;
+import jbct.analysis.FieldAccesses;
+import jbct.analysis.PathSummaryAnalysis;
+import jbct.analysis.ReturnValueAnalysis;
+import jbct.model.AbstractMethod;
+import jbct.model.ExternalMethod;
+import jbct.model.InstanceField;
+import jbct.model.Method;
+import jbct.model.StaticField;
+import soot.IntegerType;
+import soot.LongType;
+import soot.SootMethod;
+import soot.Unit;
+import soot.Value;
+import soot.ValueBox;
+import soot.jimple.ArrayRef;
+import soot.jimple.AssignStmt;
+import soot.jimple.DivExpr;
+import soot.jimple.InstanceFieldRef;
+import soot.jimple.InstanceOfExpr;
+import soot.jimple.InvokeExpr;
+import soot.jimple.JimpleBody;
+import soot.jimple.NewArrayExpr;
+import soot.jimple.NewExpr;
+import soot.jimple.NewMultiArrayExpr;
+import soot.jimple.StaticFieldRef;
+import soot.jimple.Stmt;
+import soot.jimple.ThrowStmt;
+
+/**
+ * Collects, from the Jimple body of a method, the facts needed by the static analyses: the methods
+ * it calls, the global state it accesses, whether it may raise an exception, the values it may
+ * return and its paths. Facts are recorded
+ * as they will be in the translation, so calls are resolved to the methods the translation calls.
+ */
+class BodyAnalyzer {
+
+  private final CallGraph callGraph;
+
+  private final FieldAccessAnalysis fieldAccessAnalysis;
+
+  private final ExceptionAnalysis exceptionAnalysis;
+
+  private final ReturnValueAnalysis returnValueAnalysis;
+
+  private final ReturnValueInterpreter returnValueInterpreter = new ReturnValueInterpreter();
+
+  private final PathSummaryAnalysis pathSummaryAnalysis;
+
+  private final PathSummarizer pathSummarizer;
+
+  private final TranslationSession session;
+
+  private final Function<SootMethod, Optional<Method>> methodResolver;
+
+  BodyAnalyzer(
+      final TranslationSession session,
+      final CallGraph callGraph,
+      final FieldAccessAnalysis fieldAccessAnalysis,
+      final ExceptionAnalysis exceptionAnalysis,
+      final ReturnValueAnalysis returnValueAnalysis,
+      final PathSummaryAnalysis pathSummaryAnalysis,
+      final Function<SootMethod, Optional<Method>> methodResolver) {
+
+    this.callGraph = callGraph;
+    this.fieldAccessAnalysis = fieldAccessAnalysis;
+    this.exceptionAnalysis = exceptionAnalysis;
+    this.returnValueAnalysis = returnValueAnalysis;
+    this.pathSummaryAnalysis = pathSummaryAnalysis;
+    this.session = session;
+    this.methodResolver = methodResolver;
+    this.pathSummarizer = new PathSummarizer(session, methodResolver);
+  }
+
+  void analyze(final Method method, final JimpleBody body) {
+
+    final String methodName = method.getTranslatedName();
+
+    if (method.isHardCoded(session.getModelLibrary())) {
+      recordHardCodedMethod(methodName);
+      return;
+    }
+
+    final Set<String> reads = new HashSet<>();
+    final Set<String> writes = new HashSet<>();
+    boolean readsUnknownState = false;
+    boolean writesUnknownState = false;
+    boolean mayThrowLocally = false;
+
+    for (final Unit unit : body.getUnits()) {
+
+      if (mayRaiseException(unit)) {
+        mayThrowLocally = true;
+      }
+
+      for (final ValueBox defBox : unit.getDefBoxes()) {
+        getAccessedState(defBox.getValue()).ifPresent(writes::add);
+      }
+
+      for (final ValueBox useBox : unit.getUseBoxes()) {
+
+        final Value value = useBox.getValue();
+
+        getAccessedState(value).ifPresent(reads::add);
+
+        if (value instanceof NewExpr
+            || value instanceof NewArrayExpr
+            || value instanceof NewMultiArrayExpr
+            || value instanceof DivExpr) {
+          reads.add(FieldAccessAnalysis.ALLOC);
+          writes.add(FieldAccessAnalysis.ALLOC);
+        }
+
+        if (value instanceof InstanceOfExpr) {
+          // Translated as a non deterministic call
+          readsUnknownState = true;
+        }
+      }
+
+      if (unit instanceof Stmt && ((Stmt) unit).containsArrayRef()) {
+        // Storing into a null array allocates an exception
+        reads.add(FieldAccessAnalysis.ALLOC);
+        writes.add(FieldAccessAnalysis.ALLOC);
+      }
+
+      if (unit instanceof Stmt && ((Stmt) unit).containsInvokeExpr()) {
+
+        final InvokeExpr invokeExpr = ((Stmt) unit).getInvokeExpr();
+        final Optional<Method> callee = methodResolver.apply(invokeExpr.getMethod());
+
+        if (!callee.isPresent()) {
+          readsUnknownState = true;
+          writesUnknownState = true;
+          mayThrowLocally = true;
+          continue;
+        }
+
+        callGraph.addCall(methodName, callee.get().getTranslatedName());
+        recordBodylessCallee(callee.get());
+      }
+    }
+
+    fieldAccessAnalysis.addLocalAccesses(
+        methodName, new FieldAccesses(reads, writes, readsUnknownState, writesUnknownState));
+    exceptionAnalysis.addLocalFact(methodName, mayThrowLocally);
+
+    if (method.hasReturnType()) {
+      returnValueAnalysis.addLocalFact(methodName, returnValueInterpreter.interpret(body));
+    }
+
+    pathSummarizer
+        .summarize(method, body)
+        .ifPresent(summary -> pathSummaryAnalysis.addSummary(methodName, summary));
+  }
+
+  /**
+   * Exceptions are raised in the translation by throw statements, by integer divisions and by
+   * stores into null arrays.
+   */
+  private boolean mayRaiseException(final Unit unit) {
+
+    if (unit instanceof ThrowStmt) {
+      return true;
+    }
+
+    for (final ValueBox useBox : unit.getUseBoxes()) {
+
+      final Value value = useBox.getValue();
+
+      if (value instanceof DivExpr
+          && (value.getType() instanceof IntegerType || value.getType() instanceof LongType)) {
+        return true;
+      }
+    }
+
+    return unit instanceof AssignStmt && ((AssignStmt) unit).getLeftOp() instanceof ArrayRef;
+  }
+
+  /** Callees without Jimple body are never analyzed, so their accesses are recorded here. */
+  private void recordBodylessCallee(final Method callee) {
+
+    final String calleeName = callee.getTranslatedName();
+
+    if (callee.isHardCoded(session.getModelLibrary())) {
+      recordHardCodedMethod(calleeName);
+      return;
+    }
+
+    if (callee instanceof ExternalMethod || callee instanceof AbstractMethod) {
+      fieldAccessAnalysis.addLocalAccesses(calleeName, FieldAccesses.BODYLESS);
+      exceptionAnalysis.addLocalFact(calleeName, false);
+    }
+  }
+
+  private void recordHardCodedMethod(final String translatedName) {
+
+    final FieldAccesses accesses = getHardCodedAccesses(translatedName);
+
+    fieldAccessAnalysis.addLocalAccesses(translatedName, accesses);
+    exceptionAnalysis.addLocalFact(translatedName, accesses.equals(FieldAccesses.UNKNOWN));
+  }
+
+  private Optional<String> getAccessedState(final Value value) {
+
+    if (value instanceof InstanceFieldRef) {
+      return Optional.of(
+          new InstanceField(session, ((InstanceFieldRef) value).getField()).getTranslatedName());
+    }
+
+    if (value instanceof StaticFieldRef) {
+      return Optional.of(
+          new StaticField(session, ((StaticFieldRef) value).getField()).getTranslatedName());
+    }
+
+    if (value instanceof ArrayRef) {
+      return Optional.of(FieldAccessAnalysis.ARRAY_CONTENTS);
+    }
+
+    return Optional.empty();
+  }
+
+  /**
+   * The accesses of the models of hardcoded methods in the model library. The ones with known
+   * accesses don't raise exceptions either.
+   */
+  private static FieldAccesses getHardCodedAccesses(final String translatedName) {
+
+    if (translatedName.startsWith("java.util.Collection#")
+        || translatedName.startsWith("java.util.List#")
+        || translatedName.startsWith("java.util.ArrayList#")
+        || translatedName.startsWith("java.util.LinkedList#")) {
+
+      final Set<String> collectionLength = new HashSet<>();
+      collectionLength.add(FieldAccessAnalysis.COLLECTION_LENGTH);
+
+      return new FieldAccesses(collectionLength, collectionLength, false, false);
+    }
+
+    if (translatedName.equals("java.lang.String#length")) {
+      return FieldAccesses.NONE;
+    }
+
+    return FieldAccesses.UNKNOWN;
+  }
+}
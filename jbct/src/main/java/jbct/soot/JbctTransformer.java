@@ -3,32 +3,80 @@ package jbct.soot;
 import com.google.common.collect.Lists;
 import com.google.common.io.Resources;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
+import jbct.TranslationSession;
+import jbct.analysis.CallGraph;
+import jbct.analysis.ExceptionAnalysis;
+import jbct.analysis.FieldAccessAnalysis;
+import jbct.analysis.PathSummaryAnalysis;
+import jbct.analysis.ReturnValueAnalysis;
+import jbct.boogie.BoogiePrinter;
+import jbct.boogie.CallStatement;
+import jbct.boogie.DeclarationCheck;
+import jbct.boogie.Procedure;
+import jbct.boogie.Statement;
+import jbct.boogie.TextStatement;
+import jbct.exceptions.UndeclaredReferenceException;
 import jbct.exceptions.UnsupportedTypeException;
 import jbct.model.*;
 import jbct.model.Class;
-import jbct.utils.StringUtils;
+import jbct.summary.MethodSummary;
 import soot.*;
 import soot.jimple.*;
+import soot.tagkit.AnnotationArrayElem;
+import soot.tagkit.AnnotationElem;
+import soot.tagkit.AnnotationStringElem;
+import soot.tagkit.AnnotationTag;
 import soot.tagkit.VisibilityAnnotationTag;
 
 public class JbctTransformer extends BodyTransformer {
 
-  private static JbctTransformer instance = new JbctTransformer();
+  /** Procedures rendered together, in parallel, before being written in order. */
+  private static final int PROCEDURES_PER_BATCH = 256;
 
-  public static JbctTransformer getInstance() {
+  private final TranslationSession session;
 
-    return instance;
-  }
+  // Soot transforms the bodies of different classes in parallel
+  private final Set<Class> classes = ConcurrentHashMap.newKeySet();
+
+  private final Map<SootMethod, Method> methodsMap = new ConcurrentHashMap<>();
+
+  private int numberOfThreads = 1;
+
+  private final CallGraph callGraph = new CallGraph();
+
+  private final FieldAccessAnalysis fieldAccessAnalysis = new FieldAccessAnalysis(callGraph);
+
+  private final ExceptionAnalysis exceptionAnalysis = new ExceptionAnalysis(callGraph);
+
+  private final ReturnValueAnalysis returnValueAnalysis = new ReturnValueAnalysis();
 
-  private JbctTransformer() {}
+  private final PathSummaryAnalysis pathSummaryAnalysis = new PathSummaryAnalysis();
 
-  private final Set<Class> classes = new HashSet<>();
+  private final BodyAnalyzer bodyAnalyzer;
 
-  private final Map<SootMethod, Method> methodsMap = new HashMap<>();
+  /** @param session The session whose model the transformer builds. */
+  public JbctTransformer(TranslationSession session) {
+
+    this.session = session;
+    this.bodyAnalyzer =
+        new BodyAnalyzer(
+            session,
+            callGraph,
+            fieldAccessAnalysis,
+            exceptionAnalysis,
+            returnValueAnalysis,
+            pathSummaryAnalysis,
+            sootMethod -> Optional.ofNullable(methodsMap.get(sootMethod)));
+  }
 
   private boolean skippedMethods(SootMethod sootMethod){
 
@@ -67,14 +115,71 @@ public class JbctTransformer extends BodyTransformer {
       return;
 
     final SootClass sootClass = sootMethod.getDeclaringClass();
-    final Class theClass = Class.create(sootClass);
+    final Class theClass = Class.create(session, sootClass);
     final Method method = Method.create(theClass, sootMethod);
 
     classes.add(theClass);
     methodsMap.put(sootMethod, method);
 
+    if (method instanceof LocalMethod) {
+      addAnnotatedSummary(sootMethod, method);
+    }
+
     findCalledMethods(((JimpleBody) abstractBody));
-    RealConstants.getInstance().findRealConstantsInMethods((JimpleBody) abstractBody);
+    session.getRealConstants().findRealConstantsInMethods((JimpleBody) abstractBody);
+    bodyAnalyzer.analyze(method, (JimpleBody) abstractBody);
+  }
+
+  /** A summary given in the summaries file takes precedence over the annotation. */
+  private void addAnnotatedSummary(SootMethod sootMethod, Method method) {
+
+    final VisibilityAnnotationTag tag =
+        (VisibilityAnnotationTag) sootMethod.getTag("VisibilityAnnotationTag");
+
+    if (tag == null) {
+      return;
+    }
+
+    tag.getAnnotations()
+        .stream()
+        .filter(annotation -> annotation.getType().contains("ContractorSummary"))
+        .findFirst()
+        .ifPresent(
+            annotation ->
+                session
+                    .getSummaries()
+                    .putIfAbsent(method.getTranslatedName(), getSummary(annotation)));
+  }
+
+  private static MethodSummary getSummary(AnnotationTag annotation) {
+
+    final Map<String, List<String>> clauses = new HashMap<>();
+
+    for (AnnotationElem element : annotation.getElems()) {
+      clauses.put(element.getName(), getStrings(element));
+    }
+
+    return new MethodSummary(
+        clauses.getOrDefault("requires", Collections.emptyList()),
+        clauses.getOrDefault("ensures", Collections.emptyList()),
+        clauses.getOrDefault("modifies", Collections.emptyList()));
+  }
+
+  private static List<String> getStrings(AnnotationElem element) {
+
+    if (element instanceof AnnotationStringElem) {
+      return Collections.singletonList(((AnnotationStringElem) element).getValue());
+    }
+
+    final List<String> strings = new ArrayList<>();
+
+    if (element instanceof AnnotationArrayElem) {
+      for (AnnotationElem value : ((AnnotationArrayElem) element).getValues()) {
+        strings.addAll(getStrings(value));
+      }
+    }
+
+    return strings;
   }
 
   private void findCalledMethods(JimpleBody jimpleBody) {
@@ -101,7 +206,7 @@ public class JbctTransformer extends BodyTransformer {
       return;
 
     final SootClass sootClass = sootMethod.getDeclaringClass();
-    final Class theClass = Class.create(sootClass);
+    final Class theClass = Class.create(session, sootClass);
     classes.add(theClass);
     methodsMap.put(sootMethod, Method.create(theClass, sootMethod));
   }
@@ -119,6 +224,57 @@ public class JbctTransformer extends BodyTransformer {
     }
   }
 
+  /** @return The models of the JDK classes with methods the translation calls. */
+  private List<String> getReferencedModels() {
+
+    final List<String> translatedNames =
+        getMethodsInOrder().stream().map(Method::getTranslatedName).collect(Collectors.toList());
+
+    return session.getModelLibrary().getModels(translatedNames);
+  }
+
+  /** @return The translated names of the static fields declared by the translation. */
+  public Set<String> getDeclaredStaticFields() {
+
+    final Set<String> staticFields = new TreeSet<>();
+
+    for (Class aClass : classes) {
+      for (StaticField staticField : aClass.getStaticFields()) {
+        try {
+          staticField.getTranslatedDeclaration();
+          staticFields.add(staticField.getTranslatedName());
+        } catch (UnsupportedTypeException e) {
+          // Not declared, see writeTranslation
+        }
+      }
+    }
+
+    return staticFields;
+  }
+
+  /** @return The translated names of the methods translated as their summaries. */
+  public List<String> getSummarizedMethods() {
+
+    final Map<String, MethodSummary> summaries = session.getSummaries();
+
+    return getMethodsInOrder()
+        .stream()
+        .filter(method -> method instanceof LocalMethod)
+        .map(Method::getTranslatedName)
+        .filter(summaries::containsKey)
+        .collect(Collectors.toList());
+  }
+
+  /** @return The translated classes of the classpath. */
+  public List<Class> getApplicationClasses() {
+
+    return classes
+        .stream()
+        .filter(Class::isApplicationClass)
+        .sorted(Comparator.comparing(Class::getTranslatedName))
+        .collect(Collectors.toList());
+  }
+
   public Optional<Class> getClass(String className) {
 
     return classes
@@ -129,12 +285,33 @@ public class JbctTransformer extends BodyTransformer {
 
   public String getTranslation() {
 
+    final StringWriter writer = new StringWriter();
+    writeTranslation(writer);
+
+    return writer.toString();
+  }
+
+  /**
+   * Writes the translation to the writer. Procedures are printed straight to it, without building
+   * their text first.
+   *
+   * @throws UndeclaredReferenceException If the translation calls a procedure or writes a field it
+   *     doesn't declare. Everything is written before it is thrown.
+   */
+  public void writeTranslation(Writer writer) {
+
+    final DeclarationCheck declarationCheck = new DeclarationCheck();
+    final BoogiePrinter printer = new BoogiePrinter(declarationCheck.watch(writer));
     final StringBuilder stringBuilder = new StringBuilder();
 
     stringBuilder.append(getPrelude());
 
-    ExternalMethod.writeExternalMethodDeclarations(stringBuilder);
-    stringBuilder.append(RealConstants.getInstance().realConstantDefinitions());
+    for (String model : getReferencedModels()) {
+      stringBuilder.append("\n").append(model);
+    }
+
+    ExternalMethod.writeExternalMethodDeclarations(session, stringBuilder);
+    stringBuilder.append(session.getRealConstants().realConstantDefinitions());
     final ArrayList<Class> classes = Lists.newArrayList(this.classes);
 
     classes.sort(Comparator.comparing(Class::getTranslatedName));
@@ -159,39 +336,89 @@ public class JbctTransformer extends BodyTransformer {
       stringBuilder.append("\n").append("const unique ").append(var).append(" : Ref;").append("\n");
     }
 
-    stringBuilder.append("\n").append(getGlobalInitializationProcedure()).append("\n");
+    printer.write(stringBuilder.toString());
+    printer.newLine().print(getGlobalInitializationProcedure()).newLine();
 
-    for (Method method : getMethodsInOrder()) {
-      stringBuilder.append("\n").append(method.getTranslatedProcedure()).append("\n");
+    if (numberOfThreads > 1) {
+      writeProceduresInParallel(printer, getMethodsInOrder());
+    } else {
+      for (Method method : getMethodsInOrder()) {
+        printer.newLine();
+        method.printTranslatedProcedure(printer);
+        printer.newLine();
+      }
     }
 
-    return stringBuilder.toString();
+    printer.flush();
+    declarationCheck.verify();
   }
 
-  private String getGlobalInitializationProcedure() {
+  /** Sets how many threads render the procedures. With one, they are printed as they are built. */
+  public void setNumberOfThreads(int numberOfThreads) {
 
-    final StringBuilder stringBuilder = new StringBuilder();
+    this.numberOfThreads = numberOfThreads;
+  }
 
-    stringBuilder
-        .append("procedure initialize_globals() {\n")
-        .append(StringUtils.indent("$Exception := null;"))
-        .append("\n");
+  /**
+   * Renders the procedures in batches, each in parallel, and writes them in the given order, so the
+   * translation is the same whatever the number of threads.
+   */
+  private void writeProceduresInParallel(BoogiePrinter printer, List<Method> methods) {
+
+    final ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+
+    try {
+
+      for (int start = 0; start < methods.size(); start += PROCEDURES_PER_BATCH) {
+
+        final List<Method> batch =
+            methods.subList(start, Math.min(methods.size(), start + PROCEDURES_PER_BATCH));
+
+        final List<String> procedures =
+            pool.submit(
+                    () ->
+                        batch
+                            .parallelStream()
+                            .map(Method::getTranslatedProcedure)
+                            .collect(Collectors.toList()))
+                .get();
+
+        for (String procedure : procedures) {
+          printer.newLine().write(procedure).newLine();
+        }
+      }
+
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException(e.getCause());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private Procedure getGlobalInitializationProcedure() {
+
+    final List<Statement> statements = new ArrayList<>();
+
+    statements.add(TextStatement.of("$Exception := null;"));
 
     for (Method method : getMethodsInOrder()) {
 
       if (method.isClassInitializer()) {
-        stringBuilder
-            .append(StringUtils.indent("call "))
-            .append(method.getTranslatedName())
-            .append("();\n")
-            .append(StringUtils.indent("assert $Exception == null;"))
-            .append("\n");
+        statements.add(
+            CallStatement.of(Optional.empty(), method.getTranslatedName(), new ArrayList<>()));
+        statements.add(TextStatement.of("assert $Exception == null;"));
       }
     }
 
-    stringBuilder.append("}");
-
-    return stringBuilder.toString();
+    return Procedure.of(
+        "initialize_globals",
+        new ArrayList<>(),
+        Optional.empty(),
+        new ArrayList<>(),
+        statements);
   }
 
   private List<Method> getMethodsInOrder() {
@@ -203,6 +430,41 @@ public class JbctTransformer extends BodyTransformer {
     return methods;
   }
 
+  /**
+   * Releases the translated classes and methods, which reference Soot's scene. The analyses only
+   * keep names, so they are still available.
+   */
+  public void releaseModel() {
+
+    classes.clear();
+    methodsMap.clear();
+  }
+
+  public CallGraph getCallGraph() {
+
+    return callGraph;
+  }
+
+  public FieldAccessAnalysis getFieldAccessAnalysis() {
+
+    return fieldAccessAnalysis;
+  }
+
+  public ExceptionAnalysis getExceptionAnalysis() {
+
+    return exceptionAnalysis;
+  }
+
+  public ReturnValueAnalysis getReturnValueAnalysis() {
+
+    return returnValueAnalysis;
+  }
+
+  public PathSummaryAnalysis getPathSummaryAnalysis() {
+
+    return pathSummaryAnalysis;
+  }
+
   public Method getMethod(SootMethod sootMethod) {
 
     return methodsMap.get(sootMethod);
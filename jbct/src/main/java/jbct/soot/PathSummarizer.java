@@ -0,0 +1,521 @@
+package jbct.soot;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import jbct.TranslationSession;
+import jbct.analysis.LinearConstraint;
+import jbct.analysis.LinearExpression;
+import jbct.analysis.PathSummary;
+import jbct.analysis.SymbolicPath;
+import jbct.model.ExternalMethod;
+import jbct.model.InstanceField;
+import jbct.model.Method;
+import soot.BooleanType;
+import soot.DoubleType;
+import soot.FloatType;
+import soot.Local;
+import soot.SootMethod;
+import soot.Type;
+import soot.Unit;
+import soot.Value;
+import soot.jimple.AddExpr;
+import soot.jimple.AssignStmt;
+import soot.jimple.CmpExpr;
+import soot.jimple.ConditionExpr;
+import soot.jimple.EqExpr;
+import soot.jimple.GeExpr;
+import soot.jimple.GotoStmt;
+import soot.jimple.GtExpr;
+import soot.jimple.IdentityStmt;
+import soot.jimple.IfStmt;
+import soot.jimple.InstanceFieldRef;
+import soot.jimple.IntConstant;
+import soot.jimple.InvokeExpr;
+import soot.jimple.InvokeStmt;
+import soot.jimple.JimpleBody;
+import soot.jimple.LeExpr;
+import soot.jimple.LongConstant;
+import soot.jimple.LtExpr;
+import soot.jimple.MulExpr;
+import soot.jimple.NeExpr;
+import soot.jimple.NegExpr;
+import soot.jimple.NewExpr;
+import soot.jimple.NopStmt;
+import soot.jimple.NullConstant;
+import soot.jimple.ParameterRef;
+import soot.jimple.ReturnStmt;
+import soot.jimple.ReturnVoidStmt;
+import soot.jimple.SubExpr;
+import soot.jimple.ThisRef;
+import soot.jimple.ThrowStmt;
+
+/**
+ * Enumerates the paths of a Jimple body by symbolic execution, following the semantics of its
+ * Boogie translation: integers are unbounded and the fields of a new object are arbitrary.
+ *
+ * <p>Bodies outside the fragment of {@link jbct.analysis.PathSummaryAnalysis}, or with more than
+ * {@link #MAX_PATHS} paths, are not summarized. Calls to external methods are allowed, as they are
+ * translated as non deterministic procedures that don't touch the global state, and so are throw
+ * statements of newly created exceptions.
+ */
+class PathSummarizer {
+
+  private static final int MAX_PATHS = 64;
+
+  private final TranslationSession session;
+
+  private final Function<SootMethod, Optional<Method>> methodResolver;
+
+  PathSummarizer(
+      final TranslationSession session,
+      final Function<SootMethod, Optional<Method>> methodResolver) {
+
+    this.session = session;
+    this.methodResolver = methodResolver;
+  }
+
+  Optional<PathSummary> summarize(final Method method, final JimpleBody body) {
+
+    if (!body.getTraps().isEmpty()) {
+      return Optional.empty();
+    }
+
+    final List<Unit> units = new ArrayList<>(body.getUnits());
+    final Map<Unit, Integer> indexes = new HashMap<>();
+
+    for (int i = 0; i < units.size(); i++) {
+      indexes.put(units.get(i), i);
+    }
+
+    final int numberOfParameters =
+        body.getMethod().getParameterCount() + (method.isStatic() ? 0 : 1);
+
+    final List<SymbolicPath> paths = new ArrayList<>();
+    final Deque<PathState> pending = new ArrayDeque<>();
+    pending.push(new PathState());
+
+    try {
+
+      while (!pending.isEmpty()) {
+
+        final PathState state = pending.pop();
+        final Optional<SymbolicPath> path =
+            execute(state, units, indexes, method.isStatic(), pending);
+
+        path.ifPresent(paths::add);
+
+        if (paths.size() + pending.size() > MAX_PATHS) {
+          return Optional.empty();
+        }
+      }
+
+    } catch (OutOfFragmentException | ArithmeticException e) {
+      return Optional.empty();
+    }
+
+    return Optional.of(new PathSummary(numberOfParameters, paths));
+  }
+
+  /**
+   * Runs a path until it returns, pushing the other side of each undecided branch to {@code
+   * pending}.
+   *
+   * @return The path, or empty if its constraints are trivially unsatisfiable.
+   */
+  private Optional<SymbolicPath> execute(
+      final PathState state,
+      final List<Unit> units,
+      final Map<Unit, Integer> indexes,
+      final boolean isStatic,
+      final Deque<PathState> pending) {
+
+    while (true) {
+
+      if (state.index >= units.size()) {
+        throw new OutOfFragmentException();
+      }
+
+      final Unit unit = units.get(state.index);
+
+      if (unit instanceof ReturnStmt) {
+        final LinearExpression returnValue = evaluate(((ReturnStmt) unit).getOp(), state);
+        return Optional.of(state.toPath(Optional.of(returnValue)));
+      }
+
+      if (unit instanceof ReturnVoidStmt) {
+        return Optional.of(state.toPath(Optional.empty()));
+      }
+
+      if (unit instanceof ThrowStmt) {
+
+        final Value exception = ((ThrowStmt) unit).getOp();
+
+        if (!state.newObjects.contains(exception)) {
+          // Throwing a null reference raises no exception in the translation
+          throw new OutOfFragmentException();
+        }
+
+        state.raisesException = true;
+        return Optional.of(state.toPath(Optional.empty()));
+      }
+
+      if (unit instanceof IfStmt) {
+
+        final IfStmt ifStmt = (IfStmt) unit;
+        final LinearConstraint condition =
+            getConstraint((ConditionExpr) ifStmt.getCondition(), state);
+        final int target = getTargetIndex(ifStmt.getTarget(), indexes, state.index);
+
+        final PathState taken = state.copy();
+        taken.index = target;
+
+        if (taken.assume(condition)) {
+          pending.push(taken);
+        }
+
+        state.index++;
+
+        if (!state.assume(condition.negate())) {
+          return Optional.empty();
+        }
+
+        continue;
+      }
+
+      if (unit instanceof GotoStmt) {
+        state.index = getTargetIndex(((GotoStmt) unit).getTarget(), indexes, state.index);
+        continue;
+      }
+
+      if (unit instanceof IdentityStmt) {
+        executeIdentity((IdentityStmt) unit, state, isStatic);
+      } else if (unit instanceof AssignStmt) {
+        if (!executeAssignment((AssignStmt) unit, state, pending)) {
+          return Optional.empty();
+        }
+      } else if (unit instanceof InvokeStmt) {
+        checkExternalCall(((InvokeStmt) unit).getInvokeExpr());
+      } else if (!(unit instanceof NopStmt)) {
+        throw new OutOfFragmentException();
+      }
+
+      state.index++;
+    }
+  }
+
+  private void executeIdentity(
+      final IdentityStmt identity, final PathState state, final boolean isStatic) {
+
+    final Local local = (Local) identity.getLeftOp();
+    final Value rightOp = identity.getRightOp();
+
+    if (rightOp instanceof ThisRef) {
+      state.thisLocal = local;
+      state.locals.put(local, LinearExpression.symbol(PathSummary.getParameterSymbol(0)));
+      return;
+    }
+
+    if (rightOp instanceof ParameterRef) {
+
+      final int index = ((ParameterRef) rightOp).getIndex() + (isStatic ? 0 : 1);
+      final String symbol = PathSummary.getParameterSymbol(index);
+
+      state.locals.put(local, state.getSymbol(symbol, rightOp.getType()));
+      return;
+    }
+
+    throw new OutOfFragmentException();
+  }
+
+  /** @return Whether the path is still feasible. */
+  private boolean executeAssignment(
+      final AssignStmt assignment, final PathState state, final Deque<PathState> pending) {
+
+    final Value leftOp = assignment.getLeftOp();
+    final Value rightOp = assignment.getRightOp();
+
+    if (leftOp instanceof InstanceFieldRef) {
+      final String field = getFieldName((InstanceFieldRef) leftOp, state);
+      state.fieldValues.put(field, evaluate(rightOp, state));
+      return true;
+    }
+
+    if (!(leftOp instanceof Local)) {
+      throw new OutOfFragmentException();
+    }
+
+    final Local local = (Local) leftOp;
+
+    if (rightOp instanceof NewExpr) {
+      state.locals.remove(local);
+      state.newObjects.add(local);
+      return true;
+    }
+
+    final LinearExpression value;
+
+    if (rightOp instanceof InvokeExpr) {
+      checkExternalCall((InvokeExpr) rightOp);
+      value = state.getSymbol(PathSummary.getFreshSymbol(state.index), leftOp.getType());
+    } else if (rightOp instanceof CmpExpr) {
+      state.newObjects.remove(local);
+      return executeComparison(local, (CmpExpr) rightOp, state, pending);
+    } else {
+      value = evaluate(rightOp, state);
+    }
+
+    state.newObjects.remove(local);
+    state.locals.put(local, value);
+    return true;
+  }
+
+  /** Long comparisons are -1, 0 or 1, so the path splits in three. */
+  private boolean executeComparison(
+      final Local local, final CmpExpr cmp, final PathState state, final Deque<PathState> pending) {
+
+    final LinearExpression op1 = evaluate(cmp.getOp1(), state);
+    final LinearExpression op2 = evaluate(cmp.getOp2(), state);
+
+    final PathState less = state.copy();
+    less.locals.put(local, LinearExpression.constant(-1));
+
+    if (less.assume(LinearConstraint.lessThan(op1, op2))) {
+      less.index++;
+      pending.push(less);
+    }
+
+    final PathState greater = state.copy();
+    greater.locals.put(local, LinearExpression.constant(1));
+
+    if (greater.assume(LinearConstraint.lessThan(op2, op1))) {
+      greater.index++;
+      pending.push(greater);
+    }
+
+    state.locals.put(local, LinearExpression.constant(0));
+
+    return state.assume(LinearConstraint.equal(op1, op2));
+  }
+
+  private LinearExpression evaluate(final Value value, final PathState state) {
+
+    final Type type = value.getType();
+
+    if (type instanceof FloatType || type instanceof DoubleType) {
+      throw new OutOfFragmentException();
+    }
+
+    if (value instanceof IntConstant) {
+      return LinearExpression.constant(((IntConstant) value).value);
+    }
+
+    if (value instanceof LongConstant) {
+      return LinearExpression.constant(((LongConstant) value).value);
+    }
+
+    if (value instanceof NullConstant) {
+      return LinearExpression.constant(0);
+    }
+
+    if (value instanceof Local && state.locals.containsKey(value)) {
+      return state.locals.get(value);
+    }
+
+    if (value instanceof InstanceFieldRef) {
+
+      final String field = getFieldName((InstanceFieldRef) value, state);
+
+      if (state.fieldValues.containsKey(field)) {
+        return state.fieldValues.get(field);
+      }
+
+      return state.getSymbol(PathSummary.getFieldSymbol(field), type);
+    }
+
+    if (value instanceof NegExpr) {
+      return evaluate(((NegExpr) value).getOp(), state).negate();
+    }
+
+    if (value instanceof AddExpr) {
+      return evaluate(((AddExpr) value).getOp1(), state)
+          .add(evaluate(((AddExpr) value).getOp2(), state));
+    }
+
+    if (value instanceof SubExpr) {
+      return evaluate(((SubExpr) value).getOp1(), state)
+          .subtract(evaluate(((SubExpr) value).getOp2(), state));
+    }
+
+    if (value instanceof MulExpr) {
+      return evaluateProduct((MulExpr) value, state);
+    }
+
+    throw new OutOfFragmentException();
+  }
+
+  /** Only products by a constant are linear. */
+  private LinearExpression evaluateProduct(final MulExpr product, final PathState state) {
+
+    final LinearExpression op1 = evaluate(product.getOp1(), state);
+    final LinearExpression op2 = evaluate(product.getOp2(), state);
+
+    if (op1.isConstant()) {
+      return op2.multiply(op1.getConstant());
+    }
+
+    if (op2.isConstant()) {
+      return op1.multiply(op2.getConstant());
+    }
+
+    throw new OutOfFragmentException();
+  }
+
+  private LinearConstraint getConstraint(final ConditionExpr condition, final PathState state) {
+
+    final LinearExpression op1 = evaluate(condition.getOp1(), state);
+    final LinearExpression op2 = evaluate(condition.getOp2(), state);
+
+    if (condition instanceof EqExpr) {
+      return LinearConstraint.equal(op1, op2);
+    }
+
+    if (condition instanceof NeExpr) {
+      return LinearConstraint.notEqual(op1, op2);
+    }
+
+    if (condition instanceof LtExpr) {
+      return LinearConstraint.lessThan(op1, op2);
+    }
+
+    if (condition instanceof LeExpr) {
+      return LinearConstraint.lessOrEqual(op1, op2);
+    }
+
+    if (condition instanceof GtExpr) {
+      return LinearConstraint.lessThan(op2, op1);
+    }
+
+    if (condition instanceof GeExpr) {
+      return LinearConstraint.lessOrEqual(op2, op1);
+    }
+
+    throw new OutOfFragmentException();
+  }
+
+  /** Only the fields of the receiver are modeled. */
+  private String getFieldName(final InstanceFieldRef fieldRef, final PathState state) {
+
+    if (state.thisLocal == null || !fieldRef.getBase().equals(state.thisLocal)) {
+      throw new OutOfFragmentException();
+    }
+
+    final Type type = fieldRef.getField().getType();
+
+    if (type instanceof FloatType || type instanceof DoubleType) {
+      throw new OutOfFragmentException();
+    }
+
+    return new InstanceField(session, fieldRef.getField()).getTranslatedName();
+  }
+
+  private void checkExternalCall(final InvokeExpr invokeExpr) {
+
+    final Optional<Method> callee = methodResolver.apply(invokeExpr.getMethod());
+
+    if (!callee.isPresent()
+        || !(callee.get() instanceof ExternalMethod)
+        || callee.get().isHardCoded(session.getModelLibrary())) {
+      throw new OutOfFragmentException();
+    }
+  }
+
+  /** Backward jumps are loops, which are not summarized. */
+  private static int getTargetIndex(
+      final Unit target, final Map<Unit, Integer> indexes, final int index) {
+
+    final int targetIndex = indexes.get(target);
+
+    if (targetIndex <= index) {
+      throw new OutOfFragmentException();
+    }
+
+    return targetIndex;
+  }
+
+  private static class PathState {
+
+    private int index = 0;
+
+    private Local thisLocal;
+
+    private Map<Local, LinearExpression> locals = new HashMap<>();
+
+    private Set<Value> newObjects = new HashSet<>();
+
+    private Map<String, LinearExpression> fieldValues = new HashMap<>();
+
+    private List<LinearConstraint> constraints = new ArrayList<>();
+
+    private Set<String> boundedSymbols = new HashSet<>();
+
+    private boolean raisesException = false;
+
+    private PathState copy() {
+
+      final PathState copy = new PathState();
+
+      copy.index = index;
+      copy.thisLocal = thisLocal;
+      copy.locals = new HashMap<>(locals);
+      copy.newObjects = new HashSet<>(newObjects);
+      copy.fieldValues = new HashMap<>(fieldValues);
+      copy.constraints = new ArrayList<>(constraints);
+      copy.boundedSymbols = new HashSet<>(boundedSymbols);
+      copy.raisesException = raisesException;
+
+      return copy;
+    }
+
+    /** Boolean symbols are constrained to 0 and 1 the first time they are used. */
+    private LinearExpression getSymbol(final String name, final Type type) {
+
+      final LinearExpression symbol = LinearExpression.symbol(name);
+
+      if (type instanceof BooleanType && boundedSymbols.add(name)) {
+        constraints.add(LinearConstraint.lessOrEqual(LinearExpression.constant(0), symbol));
+        constraints.add(LinearConstraint.lessOrEqual(symbol, LinearExpression.constant(1)));
+      }
+
+      return symbol;
+    }
+
+    /** @return False if the constraint is trivially unsatisfiable. */
+    private boolean assume(final LinearConstraint constraint) {
+
+      if (constraint.getExpression().isConstant()) {
+        return constraint.holds(new HashMap<>());
+      }
+
+      constraints.add(constraint);
+      return true;
+    }
+
+    private SymbolicPath toPath(final Optional<LinearExpression> returnValue) {
+
+      return new SymbolicPath(constraints, fieldValues, returnValue, raisesException);
+    }
+  }
+
+  private static final class OutOfFragmentException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+  }
+}
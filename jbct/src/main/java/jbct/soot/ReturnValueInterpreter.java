@@ -0,0 +1,275 @@
+package jbct.soot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import jbct.analysis.Interval;
+import soot.Local;
+import soot.Unit;
+import soot.UnitBox;
+import soot.Value;
+import soot.jimple.AddExpr;
+import soot.jimple.AndExpr;
+import soot.jimple.BinopExpr;
+import soot.jimple.CmpExpr;
+import soot.jimple.CmpgExpr;
+import soot.jimple.CmplExpr;
+import soot.jimple.DefinitionStmt;
+import soot.jimple.EqExpr;
+import soot.jimple.GeExpr;
+import soot.jimple.GtExpr;
+import soot.jimple.IdentityStmt;
+import soot.jimple.IfStmt;
+import soot.jimple.IntConstant;
+import soot.jimple.JimpleBody;
+import soot.jimple.LeExpr;
+import soot.jimple.LongConstant;
+import soot.jimple.LtExpr;
+import soot.jimple.MulExpr;
+import soot.jimple.NeExpr;
+import soot.jimple.NegExpr;
+import soot.jimple.OrExpr;
+import soot.jimple.ReturnStmt;
+import soot.jimple.SubExpr;
+import soot.jimple.XorExpr;
+
+/**
+ * Computes the values a method may return with an interval interpretation of its Jimple body.
+ *
+ * <p>Only acyclic bodies without exception handlers are interpreted, in a single pass over the
+ * units in order. Anything the interpretation doesn't model, as fields, calls or casts, evaluates
+ * to any value. Branches whose condition is decided are followed on one side only.
+ *
+ * <p>Values are interpreted as the translation models them, as unbounded integers, so ints and
+ * longs are handled alike and arithmetic never wraps around.
+ */
+class ReturnValueInterpreter {
+
+  Interval interpret(final JimpleBody body) {
+
+    if (!body.getTraps().isEmpty()) {
+      return Interval.TOP;
+    }
+
+    final List<Unit> units = new ArrayList<>(body.getUnits());
+    final Map<Unit, Integer> indexes = new HashMap<>();
+
+    for (int i = 0; i < units.size(); i++) {
+      indexes.put(units.get(i), i);
+    }
+
+    final Map<Unit, Map<Local, Interval>> states = new HashMap<>();
+    states.put(units.get(0), new HashMap<>());
+
+    Interval returnValue = null;
+
+    for (int i = 0; i < units.size(); i++) {
+
+      final Unit unit = units.get(i);
+      final Map<Local, Interval> state = states.get(unit);
+
+      if (state == null) {
+        // Unreachable
+        continue;
+      }
+
+      if (unit instanceof ReturnStmt) {
+        final Interval value = evaluate(((ReturnStmt) unit).getOp(), state);
+        returnValue = returnValue == null ? value : returnValue.join(value);
+        continue;
+      }
+
+      final Map<Local, Interval> nextState = new HashMap<>(state);
+
+      if (unit instanceof DefinitionStmt && ((DefinitionStmt) unit).getLeftOp() instanceof Local) {
+
+        final DefinitionStmt definition = (DefinitionStmt) unit;
+        final Interval value =
+            unit instanceof IdentityStmt ? Interval.TOP : evaluate(definition.getRightOp(), state);
+
+        nextState.put((Local) definition.getLeftOp(), value);
+      }
+
+      for (final Unit successor : getSuccessors(unit, i, units, state)) {
+
+        if (indexes.get(successor) <= i) {
+          // Loops are not interpreted
+          return Interval.TOP;
+        }
+
+        states.merge(successor, nextState, ReturnValueInterpreter::join);
+      }
+    }
+
+    // A method that never returns normally has no result to be constant
+    return returnValue == null ? Interval.TOP : returnValue;
+  }
+
+  private List<Unit> getSuccessors(
+      final Unit unit, final int index, final List<Unit> units, final Map<Local, Interval> state) {
+
+    final List<Unit> successors = new ArrayList<>();
+    final boolean hasNext = index + 1 < units.size();
+
+    if (unit instanceof IfStmt) {
+
+      final IfStmt ifStmt = (IfStmt) unit;
+      final Interval condition = evaluate(ifStmt.getCondition(), state);
+
+      if (!condition.equals(Interval.constant(0))) {
+        successors.add(ifStmt.getTarget());
+      }
+
+      if (!condition.equals(Interval.constant(1)) && hasNext) {
+        successors.add(units.get(index + 1));
+      }
+
+      return successors;
+    }
+
+    if (unit.branches()) {
+      for (final UnitBox unitBox : unit.getUnitBoxes()) {
+        successors.add(unitBox.getUnit());
+      }
+    }
+
+    if (unit.fallsThrough() && hasNext) {
+      successors.add(units.get(index + 1));
+    }
+
+    return successors;
+  }
+
+  private Interval evaluate(final Value value, final Map<Local, Interval> state) {
+
+    if (value instanceof IntConstant) {
+      return Interval.constant(((IntConstant) value).value);
+    }
+
+    if (value instanceof LongConstant) {
+      return Interval.constant(((LongConstant) value).value);
+    }
+
+    if (value instanceof Local) {
+      return state.getOrDefault(value, Interval.TOP);
+    }
+
+    if (value instanceof NegExpr) {
+      return evaluate(((NegExpr) value).getOp(), state).negate();
+    }
+
+    if (value instanceof AddExpr) {
+      return evaluate(((AddExpr) value).getOp1(), state)
+          .add(evaluate(((AddExpr) value).getOp2(), state));
+    }
+
+    if (value instanceof SubExpr) {
+      return evaluate(((SubExpr) value).getOp1(), state)
+          .subtract(evaluate(((SubExpr) value).getOp2(), state));
+    }
+
+    if (value instanceof MulExpr) {
+      return evaluate(((MulExpr) value).getOp1(), state)
+          .multiply(evaluate(((MulExpr) value).getOp2(), state));
+    }
+
+    if (value instanceof CmpExpr || value instanceof CmpgExpr || value instanceof CmplExpr) {
+      final BinopExpr binop = (BinopExpr) value;
+      return evaluate(binop.getOp1(), state).compare(evaluate(binop.getOp2(), state));
+    }
+
+    if (value instanceof AndExpr || value instanceof OrExpr || value instanceof XorExpr) {
+      return evaluateBitwise((BinopExpr) value, state);
+    }
+
+    if (value instanceof EqExpr
+        || value instanceof NeExpr
+        || value instanceof LtExpr
+        || value instanceof LeExpr
+        || value instanceof GtExpr
+        || value instanceof GeExpr) {
+      return evaluateCondition((BinopExpr) value, state);
+    }
+
+    return Interval.TOP;
+  }
+
+  /** Bitwise operators are only evaluated on constants. */
+  private Interval evaluateBitwise(final BinopExpr binop, final Map<Local, Interval> state) {
+
+    final Interval op1 = evaluate(binop.getOp1(), state);
+    final Interval op2 = evaluate(binop.getOp2(), state);
+
+    if (!op1.isConstant() || !op2.isConstant()) {
+      return Interval.TOP;
+    }
+
+    final long a = op1.getLowerBound();
+    final long b = op2.getLowerBound();
+
+    if (binop instanceof AndExpr) {
+      return Interval.constant(a & b);
+    }
+
+    if (binop instanceof OrExpr) {
+      return Interval.constant(a | b);
+    }
+
+    return Interval.constant(a ^ b);
+  }
+
+  /** @return 1 if the condition always holds, 0 if it never does, or else both. */
+  private Interval evaluateCondition(final BinopExpr condition, final Map<Local, Interval> state) {
+
+    final Interval comparison =
+        evaluate(condition.getOp1(), state).compare(evaluate(condition.getOp2(), state));
+
+    final boolean canBeLess = comparison.getLowerBound() < 0;
+    final boolean canBeEqual = comparison.getLowerBound() <= 0 && comparison.getUpperBound() >= 0;
+    final boolean canBeGreater = comparison.getUpperBound() > 0;
+
+    final boolean canHold;
+    final boolean canFail;
+
+    if (condition instanceof EqExpr) {
+      canHold = canBeEqual;
+      canFail = canBeLess || canBeGreater;
+    } else if (condition instanceof NeExpr) {
+      canHold = canBeLess || canBeGreater;
+      canFail = canBeEqual;
+    } else if (condition instanceof LtExpr) {
+      canHold = canBeLess;
+      canFail = canBeEqual || canBeGreater;
+    } else if (condition instanceof LeExpr) {
+      canHold = canBeLess || canBeEqual;
+      canFail = canBeGreater;
+    } else if (condition instanceof GtExpr) {
+      canHold = canBeGreater;
+      canFail = canBeLess || canBeEqual;
+    } else {
+      canHold = canBeGreater || canBeEqual;
+      canFail = canBeLess;
+    }
+
+    return Interval.of(canFail ? 0 : 1, canHold ? 1 : 0);
+  }
+
+  /** Locals missing from either state may hold any value. */
+  private static Map<Local, Interval> join(
+      final Map<Local, Interval> state, final Map<Local, Interval> other) {
+
+    final Map<Local, Interval> joined = new HashMap<>();
+
+    for (final Map.Entry<Local, Interval> entry : state.entrySet()) {
+
+      final Interval otherValue = other.get(entry.getKey());
+
+      if (otherValue != null) {
+        joined.put(entry.getKey(), entry.getValue().join(otherValue));
+      }
+    }
+
+    return joined;
+  }
+}
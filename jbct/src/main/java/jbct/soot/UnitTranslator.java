@@ -114,7 +114,7 @@ public class UnitTranslator extends AbstractStmtSwitch {
 
   private String translateValue(Value value) {
 
-    final ValueTranslator translator = new ValueTranslator();
+    final ValueTranslator translator = new ValueTranslator(method.getSession());
     value.apply(translator);
     return translator.getTranslation();
   }
@@ -190,7 +190,7 @@ public class UnitTranslator extends AbstractStmtSwitch {
 
     final SootField field = instanceFieldRef.getField();
 
-    final InstanceField instanceField = new InstanceField(field);
+    final InstanceField instanceField = new InstanceField(method.getSession(), field);
 
     final Type type = field.getType();
 
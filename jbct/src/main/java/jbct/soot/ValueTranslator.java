@@ -4,6 +4,7 @@ import com.google.common.base.Joiner;
 import java.util.ArrayList;
 import java.util.List;
 
+import jbct.TranslationSession;
 import jbct.model.*;
 import jbct.model.Class;
 import jbct.utils.StringUtils;
@@ -12,8 +13,15 @@ import soot.jimple.*;
 
 public class ValueTranslator extends AbstractJimpleValueSwitch {
 
+  private final TranslationSession session;
+
   private final StringBuilder stringBuilder = new StringBuilder();
 
+  public ValueTranslator(TranslationSession session) {
+
+    this.session = session;
+  }
+
   @Override
   public void caseLocal(Local v) {
 
@@ -28,7 +36,7 @@ public class ValueTranslator extends AbstractJimpleValueSwitch {
 
   @Override
   public void caseDoubleConstant(DoubleConstant v) {
-    stringBuilder.append(RealConstants.getInstance().getRealConstantName(v.value));
+    stringBuilder.append(session.getRealConstants().getRealConstantName(v.value));
   }
 
   //function BitwiseAnd(int, int) : int; - listo
@@ -296,7 +304,7 @@ public class ValueTranslator extends AbstractJimpleValueSwitch {
   @Override
   public void caseStaticFieldRef(StaticFieldRef v) {
 
-    final StaticField staticField = new StaticField(v.getField());
+    final StaticField staticField = new StaticField(session, v.getField());
     stringBuilder.append(staticField.getTranslatedName());
   }
 
@@ -347,7 +355,7 @@ public class ValueTranslator extends AbstractJimpleValueSwitch {
   public void caseInstanceFieldRef(InstanceFieldRef v) {
 
     final SootField sootField = v.getField();
-    final InstanceField instanceField = new InstanceField(sootField);
+    final InstanceField instanceField = new InstanceField(session, sootField);
     final String translatedType = TypeTranslator.translate(sootField.getType());
     final String refTranslation = translateValue(v.getBase());
 
@@ -476,12 +484,12 @@ public class ValueTranslator extends AbstractJimpleValueSwitch {
   @Override
   public void caseInterfaceInvokeExpr(InterfaceInvokeExpr v) {
 
-    final Class methodClass = Class.create(v.getMethod().getDeclaringClass());
+    final Class methodClass = Class.create(session, v.getMethod().getDeclaringClass());
     final Method theMethod = Method.create(methodClass, v.getMethod());
 
     if (theMethod instanceof ExternalMethod) {
       ExternalMethod externalMethod = (ExternalMethod) theMethod;
-      if (externalMethod.isHardCoded()) {
+      if (externalMethod.isHardCoded(session.getModelLibrary())) {
         translateInvokeExpr(v); // make boogie call
         return;
       } else{
@@ -536,7 +544,7 @@ public class ValueTranslator extends AbstractJimpleValueSwitch {
       paramIdx++;
     }
 
-    final Method calledMethod = JbctTransformer.getInstance().getMethod(sootMethod);
+    final Method calledMethod = session.getTransformer().getMethod(sootMethod);
 
     stringBuilder
         .append(calledMethod.getTranslatedName())
@@ -553,7 +561,7 @@ public class ValueTranslator extends AbstractJimpleValueSwitch {
   @Override
   public void caseFloatConstant(FloatConstant v) {
     Double d = new Double(v.value);
-    stringBuilder.append(RealConstants.getInstance().getRealConstantName(d));
+    stringBuilder.append(session.getRealConstants().getRealConstantName(d));
   }
 
   @Override
@@ -599,7 +607,7 @@ public class ValueTranslator extends AbstractJimpleValueSwitch {
 
   private String translateValue(Value value) {
 
-    final ValueTranslator translator = new ValueTranslator();
+    final ValueTranslator translator = new ValueTranslator(session);
     value.apply(translator);
     return translator.getTranslation();
   }
@@ -0,0 +1,161 @@
+package jbct.summary;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * A contract given by the user for a method, which is translated instead of its body. The clauses
+ * are Boogie expressions over the translated program. Modified names with a {@code #} are instance
+ * fields, whose frame is part of the postconditions; the others are global variables.
+ *
+ * <p>Callers aren't checked against the preconditions, so a query can call the method from any
+ * state. The postconditions only hold when the preconditions held, and otherwise the method may do
+ * anything its modifies clause allows.
+ *
+ * <p>The body is still translated, as the implementation procedure, and the validation procedure
+ * checks that it satisfies the contract: the postconditions, and that it leaves every global
+ * variable out of the modifies clause unchanged. {@code $Exception} and {@code $Alloc} are global
+ * variables too, so a summary that doesn't modify them claims the method doesn't throw nor
+ * allocate.
+ */
+public class MethodSummary {
+
+  /** The globals of the prelude any method may modify. */
+  private static final List<String> PRELUDE_GLOBALS =
+      ImmutableList.of("$Exception", "$Alloc", "$ArrayContents");
+
+  private final List<String> requires;
+
+  private final List<String> ensures;
+
+  private final List<String> modifies;
+
+  public MethodSummary(List<String> requires, List<String> ensures, List<String> modifies) {
+
+    this.requires = ImmutableList.copyOf(requires);
+    this.ensures = ImmutableList.copyOf(ensures);
+    this.modifies = ImmutableList.copyOf(modifies);
+  }
+
+  /** @return The name of the procedure with the translated body of the summarized method. */
+  public static String getImplementationName(String translatedName) {
+
+    return translatedName + "$$implementation";
+  }
+
+  /** @return The name of the procedure that checks the implementation against the summary. */
+  public static String getValidationName(String translatedName) {
+
+    return translatedName + "$$validation";
+  }
+
+  public List<String> getPreconditions() {
+
+    return requires;
+  }
+
+  /** @return The ensures clauses, and that the instance fields not modified keep their values. */
+  public List<String> getPostconditions() {
+
+    final List<String> postconditions = new ArrayList<>(ensures);
+    final List<String> fields = getModifiedFields();
+
+    if (!fields.isEmpty()) {
+
+      final String notModified =
+          fields.stream().map(field -> "$f != " + field).collect(Collectors.joining(" && "));
+
+      postconditions.add(
+          "(forall $o : Ref, $f : Field :: "
+              + notModified
+              + " ==> $Heap[$o][$f] == old($Heap)[$o][$f])");
+    }
+
+    return postconditions;
+  }
+
+  /**
+   * @param writtenGlobals The global variables the implementation may write, besides the ones of
+   *     the prelude.
+   * @return That the global variables out of the modifies clause keep their values.
+   */
+  public List<String> getFrameConditions(Collection<String> writtenGlobals) {
+
+    final Set<String> globals = new LinkedHashSet<>(PRELUDE_GLOBALS);
+    globals.add("$Heap");
+    writtenGlobals.stream().filter(name -> !isInstanceField(name)).forEach(globals::add);
+    globals.removeAll(getModifiedVariables());
+
+    return globals
+        .stream()
+        .map(global -> global + " == old(" + global + ")")
+        .collect(Collectors.toList());
+  }
+
+  /** @return The global variables in the modifies clause of the summary. */
+  public List<String> getModifiedVariables() {
+
+    final List<String> variables =
+        modifies
+            .stream()
+            .filter(name -> !isInstanceField(name))
+            .collect(Collectors.toCollection(ArrayList::new));
+
+    if (!getModifiedFields().isEmpty() && !variables.contains("$Heap")) {
+      variables.add(0, "$Heap");
+    }
+
+    return variables;
+  }
+
+  /**
+   * @return The clauses of the procedure declared in place of the method. The preconditions are
+   *     free, and guard the postconditions instead of being checked where the method is called.
+   */
+  public List<String> getSpecification() {
+
+    final List<String> specification = new ArrayList<>();
+
+    for (String precondition : getPreconditions()) {
+      specification.add("free requires " + precondition + ";");
+    }
+
+    final List<String> variables = getModifiedVariables();
+
+    if (!variables.isEmpty()) {
+      specification.add("modifies " + Joiner.on(", ").join(variables) + ";");
+    }
+
+    final String guard =
+        getPreconditions().isEmpty()
+            ? ""
+            : "old("
+                + getPreconditions()
+                    .stream()
+                    .map(precondition -> "(" + precondition + ")")
+                    .collect(Collectors.joining(" && "))
+                + ") ==> ";
+
+    for (String postcondition : getPostconditions()) {
+      specification.add("ensures " + guard + "(" + postcondition + ");");
+    }
+
+    return specification;
+  }
+
+  private List<String> getModifiedFields() {
+
+    return modifies.stream().filter(MethodSummary::isInstanceField).collect(Collectors.toList());
+  }
+
+  private static boolean isInstanceField(String name) {
+
+    return name.contains("#");
+  }
+}
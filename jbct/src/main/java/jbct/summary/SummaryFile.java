@@ -0,0 +1,94 @@
+package jbct.summary;
+
+import com.google.common.base.Splitter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Summaries given in a file instead of with annotations, for methods that can't be annotated. Each
+ * summary starts with the translated name of its method, followed by its clauses:
+ *
+ * <pre>
+ * summary examples.Foo#bar$int
+ * requires param00 &gt;= 0
+ * modifies examples.Foo#count, $Alloc
+ * ensures $Exception == null
+ * </pre>
+ *
+ * <p>Blank lines and lines starting with {@code //} are ignored.
+ */
+public class SummaryFile {
+
+  private static final String SUMMARY = "summary";
+
+  private static final String REQUIRES = "requires";
+
+  private static final String ENSURES = "ensures";
+
+  private static final String MODIFIES = "modifies";
+
+  private SummaryFile() {}
+
+  /**
+   * @return The summaries of the file, by translated method name.
+   * @throws IllegalArgumentException If a line isn't a clause of a summary.
+   */
+  public static Map<String, MethodSummary> load(Path file) throws IOException {
+
+    final Map<String, MethodSummary> summaries = new LinkedHashMap<>();
+
+    String method = null;
+    List<String> requires = new ArrayList<>();
+    List<String> ensures = new ArrayList<>();
+    List<String> modifies = new ArrayList<>();
+
+    for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+
+      line = line.trim();
+
+      if (line.isEmpty() || line.startsWith("//")) {
+        continue;
+      }
+
+      final int separator = line.indexOf(' ');
+      final String keyword = separator < 0 ? line : line.substring(0, separator);
+      final String rest = separator < 0 ? "" : line.substring(separator + 1).trim();
+
+      if (keyword.equals(SUMMARY)) {
+
+        if (method != null) {
+          summaries.put(method, new MethodSummary(requires, ensures, modifies));
+        }
+
+        method = rest;
+        requires = new ArrayList<>();
+        ensures = new ArrayList<>();
+        modifies = new ArrayList<>();
+
+      } else if (method == null || rest.isEmpty()) {
+        throw new IllegalArgumentException("Invalid line in " + file + ": " + line);
+
+      } else if (keyword.equals(REQUIRES)) {
+        requires.add(rest);
+      } else if (keyword.equals(ENSURES)) {
+        ensures.add(rest);
+      } else if (keyword.equals(MODIFIES)) {
+        modifies.addAll(Splitter.on(',').trimResults().omitEmptyStrings().splitToList(rest));
+      } else {
+        throw new IllegalArgumentException("Invalid line in " + file + ": " + line);
+      }
+    }
+
+    if (method != null) {
+      summaries.put(method, new MethodSummary(requires, ensures, modifies));
+    }
+
+    return summaries;
+  }
+}
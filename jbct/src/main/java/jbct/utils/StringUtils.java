@@ -3,16 +3,9 @@ package jbct.utils;
 import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
 import java.util.ArrayList;
-import java.util.List;
 
 public class StringUtils {
 
-  /** Indents a list of strings (@see #indent) and joins them with '\n' in between. */
-  public static String indentList(List<String> lines) {
-
-    return indent(Joiner.on("\n").join(lines));
-  }
-
   /** Indents a string, adding 4 spaces before every line. */
   public static String indent(String str) {
 
@@ -0,0 +1,45 @@
+package jbct;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import jbct.model.Class;
+import org.junit.Test;
+import soot.SootClass;
+
+public class TranslationSessionTest {
+
+  private final SootClass sootClass = new SootClass("examples.FiniteStack");
+
+  @Test
+  public void testEachSessionHasItsOwnModel() {
+
+    try (TranslationSession first = new TranslationSession();
+        TranslationSession second = new TranslationSession()) {
+
+      final Class firstClass = Class.create(first, sootClass);
+      final Class secondClass = Class.create(second, sootClass);
+
+      assertSame(firstClass, Class.create(first, sootClass));
+      assertNotSame(firstClass, secondClass);
+      assertSame(first, firstClass.getSession());
+      assertSame(second, secondClass.getSession());
+    }
+  }
+
+  @Test
+  public void testSessionsThatDontUseSootDontWait() {
+
+    try (TranslationSession usingSoot = new TranslationSession();
+        TranslationSession cached = new TranslationSession()) {
+
+      usingSoot.activate();
+
+      Class.create(cached, sootClass);
+      cached.close();
+
+      assertTrue(cached.getClasses().isEmpty());
+    }
+  }
+}
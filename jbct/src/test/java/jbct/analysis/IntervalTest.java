@@ -0,0 +1,89 @@
+package jbct.analysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class IntervalTest {
+
+  private static final Interval NON_NEGATIVE = Interval.of(0, Long.MAX_VALUE);
+
+  @Test
+  public void testTopIsUnbounded() {
+
+    assertFalse(Interval.TOP.hasLowerBound());
+    assertFalse(Interval.TOP.hasUpperBound());
+    assertEquals("[-inf, +inf]", Interval.TOP.toString());
+  }
+
+  @Test
+  public void testArithmeticDoesntWrapAround() {
+
+    final Interval maxInt = Interval.constant(Integer.MAX_VALUE);
+
+    assertEquals(Interval.constant(Integer.MAX_VALUE + 1L), maxInt.add(Interval.constant(1)));
+    assertEquals(
+        Interval.constant(Integer.MIN_VALUE - 1L),
+        Interval.constant(Integer.MIN_VALUE).subtract(Interval.constant(1)));
+    assertEquals(
+        Interval.constant((long) Integer.MAX_VALUE * Integer.MAX_VALUE), maxInt.multiply(maxInt));
+  }
+
+  @Test
+  public void testResultsBeyondALongAreUnbounded() {
+
+    final Interval huge = Interval.constant(Long.MAX_VALUE - 1);
+
+    assertEquals(
+        Interval.of(Long.MAX_VALUE - 1, Long.MAX_VALUE), Interval.constant(Long.MAX_VALUE));
+    assertFalse(huge.add(huge).hasUpperBound());
+    assertFalse(huge.multiply(Interval.constant(-2)).hasLowerBound());
+    assertFalse(huge.negate().subtract(huge).hasLowerBound());
+  }
+
+  @Test
+  public void testInfiniteBounds() {
+
+    assertEquals(Interval.of(1, Long.MAX_VALUE), NON_NEGATIVE.add(Interval.constant(1)));
+    assertEquals(Interval.of(Long.MIN_VALUE, 0), NON_NEGATIVE.negate());
+    assertEquals(Interval.TOP, NON_NEGATIVE.subtract(NON_NEGATIVE));
+    assertEquals(Interval.of(Long.MIN_VALUE, 0), NON_NEGATIVE.multiply(Interval.of(-3, 0)));
+    assertEquals(Interval.constant(0), Interval.TOP.multiply(Interval.constant(0)));
+    assertEquals(Interval.TOP, Interval.TOP.join(Interval.constant(5)));
+  }
+
+  @Test
+  public void testComparisonsWithUnknownValuesAreUndecided() {
+
+    // A Boogie int may exceed every Java int
+    assertEquals(Interval.of(-1, 1), Interval.TOP.compare(Interval.constant(Integer.MAX_VALUE)));
+    assertEquals(Interval.of(-1, 1), Interval.constant(Long.MIN_VALUE + 1).compare(Interval.TOP));
+  }
+
+  @Test
+  public void testComparisons() {
+
+    assertEquals(Interval.constant(-1), Interval.of(0, 3).compare(Interval.of(4, 9)));
+    assertEquals(Interval.constant(1), NON_NEGATIVE.compare(Interval.constant(-1)));
+    assertEquals(Interval.constant(0), Interval.constant(7).compare(Interval.constant(7)));
+    assertEquals(Interval.of(0, 1), NON_NEGATIVE.compare(Interval.constant(0)));
+    assertEquals(Interval.of(-1, 0), Interval.of(0, 4).compare(Interval.constant(4)));
+  }
+
+  @Test
+  public void testConstants() {
+
+    assertTrue(Interval.constant(3).isConstant());
+    assertFalse(Interval.BOOLEAN.isConstant());
+    assertFalse(Interval.TOP.isConstant());
+    assertEquals("[3, 3]", Interval.constant(3).toString());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testEmptyIntervalsAreRejected() {
+
+    Interval.of(1, 0);
+  }
+}
@@ -0,0 +1,166 @@
+package jbct.boogie;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import com.google.common.collect.ImmutableList;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.Optional;
+import org.junit.Test;
+
+public class BoogiePrinterTest {
+
+  private final VariableDeclaration thisParameter = VariableDeclaration.of("$this", "Ref");
+
+  private final VariableDeclaration result = VariableDeclaration.of("r", "int");
+
+  @Test
+  public void testProcedure() {
+
+    final Procedure procedure =
+        Procedure.of(
+            "Stack#size",
+            ImmutableList.of(thisParameter),
+            Optional.of(result),
+            ImmutableList.of(VariableDeclaration.of("$i0", "int")),
+            ImmutableList.of(
+                TextStatement.of("$i0 := Stack#count[$this];"),
+                TextStatement.of("r := $i0;"),
+                TextStatement.of("return;")));
+
+    assertEquals(
+        "procedure Stack#size($this : Ref) returns (r : int)\n"
+            + "{\n"
+            + "    var $i0 : int;\n"
+            + "\n"
+            + "    $i0 := Stack#count[$this];\n"
+            + "    r := $i0;\n"
+            + "    return;\n"
+            + "}",
+        BoogiePrinter.toString(procedure));
+  }
+
+  @Test
+  public void testProcedureWithoutLocals() {
+
+    final Procedure procedure =
+        Procedure.of(
+            "main",
+            Collections.emptyList(),
+            Optional.empty(),
+            Collections.emptyList(),
+            ImmutableList.of(
+                CallStatement.of(
+                    Optional.empty(), "Stack#push", ImmutableList.of(Expression.of("s"))),
+                AssumeStatement.of(Expression.of("$Exception == null"))));
+
+    assertEquals(
+        "procedure main()\n"
+            + "{\n"
+            + "    call Stack#push(s);\n"
+            + "    assume $Exception == null;\n"
+            + "}",
+        BoogiePrinter.toString(procedure));
+  }
+
+  @Test
+  public void testBlocksAreIndentedOneLevelDeeper() {
+
+    final Procedure procedure =
+        Procedure.of(
+            "loop",
+            Collections.emptyList(),
+            Optional.empty(),
+            Collections.emptyList(),
+            ImmutableList.of(
+                LabeledBlock.of(
+                    "outer",
+                    ImmutableList.of(
+                        TextStatement.of("if (x > 0) {\n    goto inner;\n}"),
+                        LabeledBlock.of(
+                            "inner",
+                            ImmutableList.of(
+                                CallStatement.of(
+                                    Optional.of("x"),
+                                    "dec",
+                                    ImmutableList.of(Expression.of("x"))))))),
+                TextStatement.of("return;")));
+
+    assertEquals(
+        "procedure loop()\n"
+            + "{\n"
+            + "    outer:\n"
+            + "        if (x > 0) {\n"
+            + "            goto inner;\n"
+            + "        }\n"
+            + "        inner:\n"
+            + "            call x := dec(x);\n"
+            + "    return;\n"
+            + "}",
+        BoogiePrinter.toString(procedure));
+  }
+
+  @Test
+  public void testDeclarationWithSpecification() {
+
+    final ProcedureDeclaration declaration =
+        ProcedureDeclaration.of(
+            "Object#hashCode",
+            ImmutableList.of(thisParameter),
+            Optional.of(result),
+            ImmutableList.of("requires $this != null;", "modifies $Exception;"));
+
+    assertEquals(
+        "procedure Object#hashCode($this : Ref) returns (r : int);\n"
+            + "    requires $this != null;\n"
+            + "    modifies $Exception;",
+        BoogiePrinter.toString(declaration));
+  }
+
+  @Test
+  public void testDeclarationWithoutSpecification() {
+
+    final ProcedureDeclaration declaration =
+        ProcedureDeclaration.of(
+            "havoc",
+            ImmutableList.of(
+                VariableDeclaration.of("a", "int"), VariableDeclaration.of("b", "bool")),
+            Optional.empty(),
+            Collections.emptyList());
+
+    assertEquals("procedure havoc(a : int, b : bool);", BoogiePrinter.toString(declaration));
+  }
+
+  @Test
+  public void testEmptyLinesAreNotIndented() {
+
+    final LabeledBlock block =
+        LabeledBlock.of("block", ImmutableList.of(TextStatement.of("x := 1;\n\ny := 2;")));
+
+    assertEquals("block:\n    x := 1;\n\n    y := 2;", BoogiePrinter.toString(block));
+  }
+
+  @Test
+  public void testPrintingInSequence() {
+
+    final StringWriter writer = new StringWriter();
+    final ProcedureDeclaration declaration =
+        ProcedureDeclaration.of("f", Collections.emptyList(), Optional.empty(), ImmutableList.of());
+
+    new BoogiePrinter(writer)
+        .print(declaration)
+        .newLine()
+        .printList(ImmutableList.of(thisParameter, result), ", ")
+        .flush();
+
+    assertEquals("procedure f();\n$this : Ref, r : int", writer.toString());
+  }
+
+  @Test
+  public void testEqualLeavesAreShared() {
+
+    assertSame(thisParameter, VariableDeclaration.of("$this", "Ref"));
+    assertEquals(TextStatement.of("return;").hashCode(), TextStatement.of("return;").hashCode());
+  }
+}
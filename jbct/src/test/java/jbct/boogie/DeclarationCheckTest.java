@@ -0,0 +1,106 @@
+package jbct.boogie;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Resources;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import jbct.exceptions.UndeclaredReferenceException;
+import org.junit.Test;
+
+public class DeclarationCheckTest {
+
+  @Test
+  public void testDeclarationsCanComeAfterTheirUses() {
+
+    final DeclarationCheck check = new DeclarationCheck();
+    check.addText(
+        "procedure A#run($this : Ref)\n"
+            + "{\n"
+            + "    call B.helper();\n"
+            + "    $Heap := Write($Heap, $this, A#count, Int2Union(1));\n"
+            + "    A.total := 1;\n"
+            + "}\n"
+            + "procedure {:extern} B.helper();\n"
+            + "const unique A#count : Field;\n"
+            + "var A.total : int;\n");
+
+    assertEquals(Collections.emptyList(), check.getUndeclared());
+  }
+
+  @Test
+  public void testUndeclaredCallsAndWritesAreReported() {
+
+    final DeclarationCheck check = new DeclarationCheck();
+    check.addText(
+        "procedure main()\n"
+            + "{\n"
+            + "    var r0 : Ref;\n"
+            + "    call r0 := java.net.SocketImpl#getInputStream(r0);\n"
+            + "    $Heap := Write($Heap, r0, java.net.SocketImpl#port, Int2Union(10));\n"
+            + "    java.net.Socket.count := 1;\n"
+            + "    r0 := null;\n"
+            + "}");
+
+    assertEquals(
+        ImmutableList.of(
+            "procedure java.net.SocketImpl#getInputStream",
+            "field java.net.SocketImpl#port",
+            "static field java.net.Socket.count"),
+        check.getUndeclared());
+  }
+
+  @Test
+  public void testCommentsAreSkipped() {
+
+    final DeclarationCheck check = new DeclarationCheck();
+    check.addText(
+        "// call commented();\n"
+            + "/* procedure first()\n"
+            + "   call second(); */ procedure third();\n"
+            + "procedure fourth() { call third(); } // call fifth();\n"
+            + "procedure sixth() { /* call seventh(); */ call fourth(); }\n");
+
+    assertEquals(Collections.emptyList(), check.getUndeclared());
+  }
+
+  @Test
+  public void testWatchedTextIsWrittenAndChecked() throws Exception {
+
+    final DeclarationCheck check = new DeclarationCheck();
+    final StringWriter stringWriter = new StringWriter();
+    final Writer writer = check.watch(stringWriter);
+
+    writer.write("procedure main() { call mis");
+    writer.write('s');
+    writer.write("ing(); }".toCharArray());
+    writer.flush();
+
+    assertEquals("procedure main() { call missing(); }", stringWriter.toString());
+    assertEquals(ImmutableList.of("procedure missing"), check.getUndeclared());
+  }
+
+  @Test(expected = UndeclaredReferenceException.class)
+  public void testVerifyThrowsOnUndeclaredReferences() {
+
+    final DeclarationCheck check = new DeclarationCheck();
+    check.addText("procedure main() { call missing(); }\n");
+
+    check.verify();
+  }
+
+  @Test
+  public void testThePreludeDeclaresWhatItUses() throws Exception {
+
+    final DeclarationCheck check = new DeclarationCheck();
+    check.addText(
+        Resources.toString(
+            Resources.getResource(DeclarationCheckTest.class, "/prelude.bpl"),
+            StandardCharsets.UTF_8));
+
+    assertEquals(Collections.emptyList(), check.getUndeclared());
+  }
+}
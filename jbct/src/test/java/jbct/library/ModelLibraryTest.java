@@ -0,0 +1,44 @@
+package jbct.library;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import org.junit.Test;
+
+public class ModelLibraryTest {
+
+  private static final String MOCK_SOCKET_BIND =
+      "examples.Socket.MockSocket.bind$java.net.SocketImpl$java.net.InetAddress$int";
+
+  private final ModelLibrary library = ModelLibrary.getBundled();
+
+  @Test
+  public void testUnreferencedModelsAreNotIncluded() {
+
+    assertEquals(
+        ImmutableList.of(), library.getModels(ImmutableList.of("examples.FiniteStack#push$int")));
+  }
+
+  @Test
+  public void testTheMocksOfTheExamplesAreModels() {
+
+    assertTrue(library.isModeled(MOCK_SOCKET_BIND));
+
+    final List<String> models = library.getModels(ImmutableList.of(MOCK_SOCKET_BIND));
+
+    assertEquals(1, models.size());
+    assertTrue(models.get(0).contains("procedure " + MOCK_SOCKET_BIND + "("));
+  }
+
+  @Test
+  public void testRequiredModelsAreIncluded() {
+
+    final List<String> models = library.getModels(ImmutableList.of("java.util.List#size"));
+
+    assertEquals(2, models.size());
+    assertTrue(models.get(0).contains("procedure java.util.Collection#size("));
+    assertTrue(models.get(1).contains("procedure java.util.List#size("));
+  }
+}
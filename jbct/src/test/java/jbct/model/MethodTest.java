@@ -0,0 +1,35 @@
+package jbct.model;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.Optional;
+import jbct.library.ModelLibrary;
+import org.junit.Test;
+
+public class MethodTest {
+
+  private final DetachedClass list = new DetachedClass("java.util.List", "List");
+
+  @Test
+  public void testHardCodedMethodsAreTheModeledOnes() {
+
+    // Detached methods have no session, so the library must be the given one
+    assertTrue(createMethod("java.util.List#size").isHardCoded(ModelLibrary.getBundled()));
+    assertFalse(createMethod("java.util.List#isEmpty").isHardCoded(ModelLibrary.getBundled()));
+  }
+
+  private DetachedMethod createMethod(final String translatedName) {
+
+    return new DetachedMethod(
+        list,
+        translatedName,
+        translatedName.substring(translatedName.indexOf('#') + 1),
+        false,
+        false,
+        Optional.empty(),
+        Collections.emptyList(),
+        Collections.emptyList());
+  }
+}
@@ -0,0 +1,116 @@
+package jbct.soot;
+
+import static org.junit.Assert.assertEquals;
+
+import jbct.analysis.Interval;
+import org.junit.Test;
+import soot.IntType;
+import soot.Local;
+import soot.LongType;
+import soot.Unit;
+import soot.jimple.IntConstant;
+import soot.jimple.Jimple;
+import soot.jimple.JimpleBody;
+import soot.jimple.LongConstant;
+
+public class ReturnValueInterpreterTest {
+
+  private final Jimple jimple = Jimple.v();
+
+  private final JimpleBody body = jimple.newBody();
+
+  private final Local x = newLocal("x", IntType.v());
+
+  private final Local y = newLocal("y", IntType.v());
+
+  @Test
+  public void testConstantReturnValue() {
+
+    add(jimple.newAssignStmt(x, IntConstant.v(3)));
+    add(jimple.newReturnStmt(x));
+
+    assertEquals(Interval.constant(3), interpret());
+  }
+
+  @Test
+  public void testDecidedBranchesAreFollowedOnOneSide() {
+
+    final Unit returnTrue = jimple.newReturnStmt(IntConstant.v(1));
+
+    add(jimple.newAssignStmt(x, IntConstant.v(5)));
+    add(jimple.newIfStmt(jimple.newGtExpr(x, IntConstant.v(3)), returnTrue));
+    add(jimple.newReturnStmt(IntConstant.v(0)));
+    add(returnTrue);
+
+    assertEquals(Interval.constant(1), interpret());
+  }
+
+  @Test
+  public void testParametersAreNotBoundedByTheirJavaType() {
+
+    final Unit returnTrue = jimple.newReturnStmt(IntConstant.v(1));
+
+    add(jimple.newIdentityStmt(x, jimple.newParameterRef(IntType.v(), 0)));
+    add(jimple.newIfStmt(jimple.newLeExpr(x, IntConstant.v(Integer.MAX_VALUE)), returnTrue));
+    add(jimple.newReturnStmt(IntConstant.v(0)));
+    add(returnTrue);
+
+    assertEquals(Interval.BOOLEAN, interpret());
+  }
+
+  @Test
+  public void testArithmeticDoesntWrapAround() {
+
+    final Unit returnFalse = jimple.newReturnStmt(IntConstant.v(0));
+
+    add(jimple.newAssignStmt(x, IntConstant.v(Integer.MAX_VALUE)));
+    add(jimple.newAssignStmt(y, jimple.newAddExpr(x, IntConstant.v(1))));
+    add(jimple.newIfStmt(jimple.newLtExpr(y, IntConstant.v(0)), returnFalse));
+    add(jimple.newReturnStmt(IntConstant.v(1)));
+    add(returnFalse);
+
+    assertEquals(Interval.constant(1), interpret());
+  }
+
+  @Test
+  public void testLongValues() {
+
+    final Local l = newLocal("l", LongType.v());
+
+    add(jimple.newAssignStmt(l, jimple.newAddExpr(LongConstant.v(10), LongConstant.v(1))));
+    add(jimple.newAssignStmt(x, jimple.newCmpExpr(l, LongConstant.v(11))));
+    add(jimple.newReturnStmt(x));
+
+    assertEquals(Interval.constant(0), interpret());
+  }
+
+  @Test
+  public void testLoopsAreNotInterpreted() {
+
+    final Unit loop = jimple.newAssignStmt(x, IntConstant.v(1));
+
+    add(loop);
+    add(jimple.newIfStmt(jimple.newEqExpr(y, IntConstant.v(0)), loop));
+    add(jimple.newReturnStmt(x));
+
+    assertEquals(Interval.TOP, interpret());
+  }
+
+  private Local newLocal(final String name, final soot.Type type) {
+
+    final Local local = jimple.newLocal(name, type);
+    body.getLocals().add(local);
+
+    return local;
+  }
+
+  private void add(final Unit unit) {
+
+    body.getUnits().add(unit);
+  }
+
+  private Interval interpret() {
+
+    return new ReturnValueInterpreter().interpret(body);
+  }
+}